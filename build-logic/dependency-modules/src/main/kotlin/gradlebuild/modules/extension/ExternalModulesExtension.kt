@@ -33,6 +33,7 @@ abstract class ExternalModulesExtension(bundleGroovyMajor: Int) {
     fun futureKotlin(module: String) = "org.jetbrains.kotlin:kotlin-$module:$kotlinVersion"
 
     val agp = "com.android.tools.build:gradle"
+    val aircompressor = "io.airlift:aircompressor"
     val ansiControlSequenceUtil = "net.rubygrapefruit:ansi-control-sequence-util"
     val ant = "org.apache.ant:ant"
     val antLauncher = "org.apache.ant:ant-launcher"
@@ -170,7 +171,6 @@ abstract class ExternalModulesExtension(bundleGroovyMajor: Int) {
     val zinc = "org.scala-sbt:zinc_2.13"
 
     // Test classpath only libraries
-    val aircompressor = "io.airlift:aircompressor"
     val archunit = "com.tngtech.archunit:archunit"
     val archunitJunit5 = "com.tngtech.archunit:archunit-junit5"
     val archunitJunit5Api = "com.tngtech.archunit:archunit-junit5-api"
@@ -224,6 +224,7 @@ abstract class ExternalModulesExtension(bundleGroovyMajor: Int) {
     val xmlunit = "xmlunit:xmlunit"
 
     val licenses = mapOf(
+        aircompressor to License.Apache2,
         ansiControlSequenceUtil to License.Apache2,
         ant to License.Apache2,
         antLauncher to License.Apache2,
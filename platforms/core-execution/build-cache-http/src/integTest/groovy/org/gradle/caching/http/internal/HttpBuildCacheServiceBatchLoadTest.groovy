@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.http.internal
+
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.caching.internal.SimpleBuildCacheKey
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.internal.resource.transport.http.DefaultHttpSettings
+import org.gradle.internal.resource.transport.http.DefaultSslContextFactory
+import org.gradle.internal.resource.transport.http.HttpClientHelper
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.fixtures.server.http.HttpBuildCacheServer
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.servlet.http.HttpServletResponse
+import java.time.Duration
+
+class HttpBuildCacheServiceBatchLoadTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tempDir = new TestNameTestDirectoryProvider(getClass())
+    @Rule
+    HttpBuildCacheServer server = new HttpBuildCacheServer(tempDir)
+
+    def keys = (1..10).collect { new SimpleBuildCacheKey(TestHashCodes.hashCodeFrom(it)) }
+    HttpBuildCacheService cache
+
+    def setup() {
+        server.withLatency(Duration.ofMillis(20)).start()
+        def settings = DefaultHttpSettings.builder()
+            .withAuthenticationSettings([])
+            .withSslContextFactory(new DefaultSslContextFactory())
+            .withRedirectVerifier({})
+            .build()
+        cache = new HttpBuildCacheService(new HttpClientHelper(new DocumentationRegistry(), settings), server.uri, {}, false, true)
+    }
+
+    def cleanup() {
+        cache?.close()
+    }
+
+    def "loads present entries with a single request"() {
+        def present = keys[0, 2, 4, 6, 8]
+        present.each { server.cacheDir.file(it.hashCode).text = "entry ${it.hashCode}" }
+
+        when:
+        def loaded = [:]
+        def result = cache.loadMany(keys) { key, input -> loaded[key] = input.text }
+
+        then:
+        result == present as Set
+        loaded == present.collectEntries { [it, "entry ${it.hashCode}".toString()] }
+        server.batchRequestCount == 1
+    }
+
+    def "splits large batches into several requests"() {
+        def manyKeys = (1..HttpBuildCacheService.MAX_BATCH_SIZE + 1).collect { new SimpleBuildCacheKey(TestHashCodes.hashCodeFrom(it)) }
+        server.cacheDir.file(manyKeys.last().hashCode).text = "last"
+
+        when:
+        def result = cache.loadMany(manyKeys) { key, input -> assert input.text == "last" }
+
+        then:
+        result == [manyKeys.last()] as Set
+        server.batchRequestCount == 2
+    }
+
+    def "falls back to loading entries one by one when server does not support batch loads"() {
+        keys.each { server.cacheDir.file(it.hashCode).text = "entry" }
+        int posts = 0
+        int gets = 0
+        server.addResponder { request, response ->
+            if (request.method == "POST") {
+                posts++
+                response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED)
+                return false
+            }
+            gets++
+            true
+        }
+
+        when:
+        def first = cache.loadMany(keys.take(5)) { key, input -> assert input.text == "entry" }
+        def second = cache.loadMany(keys.drop(5)) { key, input -> assert input.text == "entry" }
+
+        then:
+        first == keys.take(5) as Set
+        second == keys.drop(5) as Set
+        posts == 1
+        gets == 10
+    }
+}
@@ -17,40 +17,70 @@
 package org.gradle.caching.http.internal;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteStreams;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.protocol.HTTP;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.caching.BuildCacheEntryReader;
 import org.gradle.caching.BuildCacheEntryWriter;
 import org.gradle.caching.BuildCacheException;
 import org.gradle.caching.BuildCacheKey;
-import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.BatchLoadingBuildCacheService;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.resource.transport.http.HttpClientHelper;
 import org.gradle.internal.resource.transport.http.HttpClientResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Build cache implementation that delegates to a service accessible via HTTP.
+ *
+ * <p>When batch loads are enabled, {@link #loadMany(Collection, BatchEntryReader)} requests many entries with a single {@code POST} to the cache root.
+ * The request body lists the requested keys, one per line.
+ * The response body contains each found entry as its key (see {@link java.io.DataOutput#writeUTF(String)}), its length as a {@code long} and its content,
+ * followed by an empty key.
+ * Servers that don't respond with the batch content type are assumed not to support batch loads,
+ * and entries are loaded one by one instead.</p>
  */
-public class HttpBuildCacheService implements BuildCacheService {
+public class HttpBuildCacheService implements BatchLoadingBuildCacheService {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpBuildCacheService.class);
     static final String BUILD_CACHE_CONTENT_TYPE = "application/vnd.gradle.build-cache-artifact.v2";
+    static final String BATCH_REQUEST_CONTENT_TYPE = "application/vnd.gradle.build-cache-batch-request.v1";
+    static final String BATCH_RESPONSE_CONTENT_TYPE = "application/vnd.gradle.build-cache-batch.v1";
+    static final int MAX_BATCH_SIZE = 256;
+
+    private static final Set<Integer> BATCH_UNSUPPORTED_HTTP_CODES = ImmutableSet.of(
+        HttpStatus.SC_NOT_FOUND,
+        HttpStatus.SC_METHOD_NOT_ALLOWED,
+        HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE,
+        HttpStatus.SC_NOT_IMPLEMENTED
+    );
 
     private static final Set<Integer> FATAL_HTTP_ERROR_CODES = ImmutableSet.of(
         HttpStatus.SC_USE_PROXY,
@@ -67,10 +97,16 @@ public class HttpBuildCacheService implements BuildCacheService {
     private final HttpClientHelper httpClientHelper;
     private final HttpBuildCacheRequestCustomizer requestCustomizer;
     private final boolean useExpectContinue;
+    private volatile boolean batchLoads;
 
     public HttpBuildCacheService(HttpClientHelper httpClientHelper, URI url, HttpBuildCacheRequestCustomizer requestCustomizer, boolean useExpectContinue) {
+        this(httpClientHelper, url, requestCustomizer, useExpectContinue, false);
+    }
+
+    public HttpBuildCacheService(HttpClientHelper httpClientHelper, URI url, HttpBuildCacheRequestCustomizer requestCustomizer, boolean useExpectContinue, boolean batchLoads) {
         this.requestCustomizer = requestCustomizer;
         this.useExpectContinue = useExpectContinue;
+        this.batchLoads = batchLoads;
         this.root = withTrailingSlash(url);
         this.httpClientHelper = httpClientHelper;
     }
@@ -102,6 +138,85 @@ public boolean load(BuildCacheKey key, BuildCacheEntryReader reader) throws Buil
         }
     }
 
+    @Override
+    public Set<BuildCacheKey> loadMany(Collection<BuildCacheKey> keys, BatchEntryReader reader) throws BuildCacheException {
+        Set<BuildCacheKey> loaded = new LinkedHashSet<>();
+        for (List<BuildCacheKey> batch : Iterables.partition(keys, MAX_BATCH_SIZE)) {
+            if (!batchLoads || !loadBatch(batch, reader, loaded)) {
+                for (BuildCacheKey key : batch) {
+                    if (load(key, input -> reader.readFrom(key, input))) {
+                        loaded.add(key);
+                    }
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Loads the given entries with a single request.
+     *
+     * @return whether the server supports batch loads.
+     */
+    private boolean loadBatch(List<BuildCacheKey> keys, BatchEntryReader reader, Set<BuildCacheKey> loaded) {
+        Map<String, BuildCacheKey> requestedKeys = new HashMap<>();
+        StringBuilder body = new StringBuilder();
+        for (BuildCacheKey key : keys) {
+            requestedKeys.put(key.getHashCode(), key);
+            body.append(key.getHashCode()).append('\n');
+        }
+        HttpPost httpPost = new HttpPost(root);
+        httpPost.addHeader(HttpHeaders.ACCEPT, BATCH_RESPONSE_CONTENT_TYPE);
+        httpPost.setEntity(new StringEntity(body.toString(), ContentType.create(BATCH_REQUEST_CONTENT_TYPE, StandardCharsets.UTF_8)));
+        requestCustomizer.customize(httpPost);
+
+        try (HttpClientResponse response = httpClientHelper.performHttpRequest(httpPost)) {
+            StatusLine statusLine = response.getStatusLine();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Response for POST {} with {} keys: {}", safeUri(root), keys.size(), statusLine);
+            }
+            int statusCode = statusLine.getStatusCode();
+            String contentType = response.getHeader(HttpHeaders.CONTENT_TYPE);
+            if (isHttpSuccess(statusCode) && contentType != null && contentType.startsWith(BATCH_RESPONSE_CONTENT_TYPE)) {
+                readBatch(response.getContent(), requestedKeys, reader, loaded);
+                return true;
+            } else if (isHttpSuccess(statusCode) || BATCH_UNSUPPORTED_HTTP_CODES.contains(statusCode)) {
+                LOGGER.debug("Build cache at '{}' does not support batch loads, loading entries one by one", safeUri(root));
+                batchLoads = false;
+                return false;
+            } else {
+                String defaultMessage = String.format("Loading %d entries from '%s' response status %d: %s", keys.size(), safeUri(root), statusCode, statusLine.getReasonPhrase());
+                return throwHttpStatusCodeException(statusCode, defaultMessage);
+            }
+        } catch (IOException e) {
+            throw wrap(e);
+        }
+    }
+
+    private static void readBatch(InputStream content, Map<String, BuildCacheKey> requestedKeys, BatchEntryReader reader, Set<BuildCacheKey> loaded) throws IOException {
+        DataInputStream input = new DataInputStream(content);
+        while (true) {
+            String hashCode = input.readUTF();
+            if (hashCode.isEmpty()) {
+                return;
+            }
+            BuildCacheKey key = requestedKeys.get(hashCode);
+            if (key == null) {
+                throw new IOException(String.format("Received unexpected entry '%s' in batch response", hashCode));
+            }
+            long length = input.readLong();
+            InputStream entryInput = new FilterInputStream(ByteStreams.limit(input, length)) {
+                @Override
+                public void close() {
+                    // The stream is shared between all entries of the response
+                }
+            };
+            reader.readFrom(key, entryInput);
+            ByteStreams.exhaust(entryInput);
+            loaded.add(key);
+        }
+    }
+
     @Override
     public void store(BuildCacheKey key, BuildCacheEntryWriter writer) throws BuildCacheException {
         final URI uri = root.resolve(key.getHashCode());
@@ -13,6 +13,7 @@ dependencies {
     api(projects.functional)
     api(projects.hashing)
     api(projects.persistentCache)
+    api(projects.time)
 
     api(libs.jspecify)
 
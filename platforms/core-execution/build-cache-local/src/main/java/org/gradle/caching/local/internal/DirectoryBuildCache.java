@@ -46,11 +46,15 @@ public class DirectoryBuildCache implements BuildCacheTempFileStore, Closeable,
 
     private final PersistentCache persistentCache;
     private final BuildCacheTempFileStore tempFileStore;
-    private final FileAccessTracker fileAccessTracker;
+    private final DirectoryBuildCacheLayout layout;
     private final String failedFileSuffix;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     public DirectoryBuildCache(PersistentCache persistentCache, FileAccessTracker fileAccessTracker, String failedFileSuffix) {
+        this(persistentCache, new FlatDirectoryBuildCacheLayout(persistentCache.getBaseDir(), fileAccessTracker), failedFileSuffix);
+    }
+
+    public DirectoryBuildCache(PersistentCache persistentCache, DirectoryBuildCacheLayout layout, String failedFileSuffix) {
         this.persistentCache = persistentCache;
         // Create temporary files in the cache directory to ensure they are on the same file system,
         // and thus can always be moved into the cache proper atomically
@@ -61,7 +65,7 @@ public DirectoryBuildCache(PersistentCache persistentCache, FileAccessTracker fi
                 throw new UncheckedIOException(e);
             }
         });
-        this.fileAccessTracker = fileAccessTracker;
+        this.layout = layout;
         this.failedFileSuffix = failedFileSuffix;
     }
 
@@ -100,12 +104,12 @@ public void loadLocally(HashCode key, Consumer<? super File> reader) {
     }
 
     private void loadInsideLock(HashCode key, Consumer<? super File> reader) {
-        File file = getCacheEntryFile(key);
-        if (!file.exists()) {
+        File file = layout.getEntryFile(key);
+        if (!layout.contains(key, file)) {
             return;
         }
 
-        fileAccessTracker.markAccessed(file);
+        layout.markAccessed(key, file);
 
         try {
             reader.accept(file);
@@ -116,6 +120,7 @@ private void loadInsideLock(HashCode key, Consumer<? super File> reader) {
             FileUtils.deleteQuietly(failedFile);
             //noinspection ResultOfMethodCallIgnored
             file.renameTo(failedFile);
+            layout.markRemoved(key, file);
 
             throw UncheckedException.throwAsUncheckedException(e);
         }
@@ -156,7 +161,8 @@ public void storeLocally(HashCode key, File file) {
     }
 
     private void storeInsideLock(HashCode key, File sourceFile) {
-        File targetFile = getCacheEntryFile(key);
+        File targetFile = layout.getEntryFile(key);
+        layout.beforeStore(key, targetFile);
         try {
             Files.move(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
         } catch (FileAlreadyExistsException ignore) {
@@ -167,7 +173,7 @@ private void storeInsideLock(HashCode key, File sourceFile) {
         } catch (IOException e) {
             throw new UncheckedIOException(String.format("Couldn't move cache entry '%s' into local cache: %s", key, e), e);
         }
-        fileAccessTracker.markAccessed(targetFile);
+        layout.markAccessed(key, targetFile);
     }
 
     @Override
@@ -177,10 +183,10 @@ public void withTempFile(HashCode key, Consumer<? super File> action) {
 
     @Override
     public void close() {
-        persistentCache.close();
-    }
-
-    private File getCacheEntryFile(HashCode key) {
-        return new File(persistentCache.getBaseDir(), key.toString());
+        try {
+            persistentCache.close();
+        } finally {
+            layout.close();
+        }
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.gradle.internal.hash.HashCode;
+import org.jspecify.annotations.NullMarked;
+
+import java.io.File;
+
+/**
+ * Determines where the entries of a {@link DirectoryBuildCache} are stored and keeps track of their usage.
+ *
+ * Methods are called while holding the lock of the cache.
+ */
+@NullMarked
+public interface DirectoryBuildCacheLayout {
+    /**
+     * The file the entry with the given key is stored in.
+     */
+    File getEntryFile(HashCode key);
+
+    /**
+     * Whether the cache contains the entry with the given key, stored in the given file.
+     */
+    boolean contains(HashCode key, File entryFile);
+
+    /**
+     * Prepares storing an entry in the given file.
+     */
+    void beforeStore(HashCode key, File entryFile);
+
+    /**
+     * Called when an entry was stored or loaded.
+     */
+    void markAccessed(HashCode key, File entryFile);
+
+    /**
+     * Called when an entry was removed from the cache because it could not be read.
+     */
+    void markRemoved(HashCode key, File entryFile);
+
+    /**
+     * Releases any resources held by the layout, called after the cache itself was closed.
+     */
+    default void close() {
+    }
+}
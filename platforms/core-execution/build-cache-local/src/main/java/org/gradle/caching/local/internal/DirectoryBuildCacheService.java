@@ -40,6 +40,10 @@ public DirectoryBuildCacheService(PersistentCache persistentCache, FileAccessTra
         this.cache = new DirectoryBuildCache(persistentCache, fileAccessTracker, failedFileSuffix);
     }
 
+    public DirectoryBuildCacheService(PersistentCache persistentCache, DirectoryBuildCacheLayout layout, String failedFileSuffix) {
+        this.cache = new DirectoryBuildCache(persistentCache, layout, failedFileSuffix);
+    }
+
     @Override
     public boolean load(BuildCacheKey key, BuildCacheEntryReader reader) throws BuildCacheException {
         return cache.load(((BuildCacheKeyInternal) key).getHashCodeInternal(), reader::readFrom);
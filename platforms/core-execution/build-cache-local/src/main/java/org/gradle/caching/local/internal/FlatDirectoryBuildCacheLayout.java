@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.gradle.internal.file.FileAccessTracker;
+import org.gradle.internal.hash.HashCode;
+import org.jspecify.annotations.NullMarked;
+
+import java.io.File;
+
+/**
+ * Stores every entry as a file directly in the cache directory, tracking access via a {@link FileAccessTracker}.
+ */
+@NullMarked
+public class FlatDirectoryBuildCacheLayout implements DirectoryBuildCacheLayout {
+    private final File baseDir;
+    private final FileAccessTracker fileAccessTracker;
+
+    public FlatDirectoryBuildCacheLayout(File baseDir, FileAccessTracker fileAccessTracker) {
+        this.baseDir = baseDir;
+        this.fileAccessTracker = fileAccessTracker;
+    }
+
+    @Override
+    public File getEntryFile(HashCode key) {
+        return new File(baseDir, key.toString());
+    }
+
+    @Override
+    public boolean contains(HashCode key, File entryFile) {
+        return entryFile.exists();
+    }
+
+    @Override
+    public void beforeStore(HashCode key, File entryFile) {
+    }
+
+    @Override
+    public void markAccessed(HashCode key, File entryFile) {
+        fileAccessTracker.markAccessed(entryFile);
+    }
+
+    @Override
+    public void markRemoved(HashCode key, File entryFile) {
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.gradle.internal.MappedByteBuffers;
+import org.gradle.internal.hash.HashCode;
+import org.jspecify.annotations.NullMarked;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+
+/**
+ * An index of build cache entries stored in a memory-mapped file, so that lookups don't need to access the file system.
+ *
+ * <p>The index is an open-addressing hash table of fixed size slots, each holding the key, the size and the last access time of an entry.
+ * The slots are also linked into a list ordered by recency of use, so that least recently used entries can be evicted
+ * without looking at the entries that are kept.</p>
+ *
+ * <p>The index may be shared between processes, so callers need to hold the cross-process lock of the cache when using it.
+ * A process growing the index only ever extends the file, and other processes pick up the new size when they next use the index.
+ * Any modification is bracketed by setting and clearing a dirty flag in the header.
+ * When the index is found dirty or otherwise unusable when opened, it is rebuilt from the given {@link EntrySource}.</p>
+ */
+@NullMarked
+public class MappedBuildCacheIndex implements Closeable {
+    /**
+     * The maximum length of keys supported by the index, enough for the hash codes used as build cache keys.
+     */
+    public static final int MAX_KEY_LENGTH = 32;
+
+    private static final int MAGIC = 0x47424349;
+    private static final int VERSION = 1;
+    private static final int INITIAL_CAPACITY = 1 << 14;
+    private static final int MAX_CAPACITY = 1 << 24;
+    private static final int NONE = -1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_CAPACITY = 8;
+    private static final int HEADER_SIZE_OFFSET = 12;
+    private static final int HEADER_USED = 16;
+    private static final int HEADER_HEAD = 20;
+    private static final int HEADER_TAIL = 24;
+    private static final int HEADER_DIRTY = 28;
+    private static final int HEADER_TOTAL_BYTES = 32;
+
+    private static final int SLOT_SIZE = 64;
+    private static final int SLOT_STATE = 0;
+    private static final int SLOT_PREV = 4;
+    private static final int SLOT_NEXT = 8;
+    private static final int SLOT_KEY_LENGTH = 12;
+    private static final int SLOT_KEY = 16;
+    private static final int SLOT_ENTRY_SIZE = 48;
+    private static final int SLOT_LAST_ACCESS = 56;
+
+    private static final int STATE_EMPTY = 0;
+    private static final int STATE_USED = 1;
+    private static final int STATE_REMOVED = 2;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    /**
+     * Provides the entries to rebuild the index from.
+     */
+    public interface EntrySource {
+        /**
+         * Visits all entries, least recently used first.
+         */
+        void visitEntries(EntryVisitor visitor);
+    }
+
+    public interface EntryVisitor {
+        void visitEntry(HashCode key, long size, long lastAccessTime);
+    }
+
+    public MappedBuildCacheIndex(File indexFile, EntrySource entrySource) {
+        try {
+            this.file = new RandomAccessFile(indexFile, "rw");
+            this.channel = file.getChannel();
+            if (!openExisting()) {
+                rebuild(entrySource);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not open build cache index %s", indexFile), e);
+        }
+    }
+
+    private boolean openExisting() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        int existingCapacity = buffer.getInt(HEADER_CAPACITY);
+        if (buffer.getInt(HEADER_MAGIC) != MAGIC
+            || buffer.getInt(HEADER_VERSION) != VERSION
+            || buffer.getInt(HEADER_DIRTY) != 0
+            || Integer.bitCount(existingCapacity) != 1
+            || existingCapacity > MAX_CAPACITY
+            || channel.size() < mappedSize(existingCapacity)) {
+            return false;
+        }
+        map(existingCapacity);
+        return true;
+    }
+
+    private void rebuild(EntrySource entrySource) throws IOException {
+        initialize(INITIAL_CAPACITY);
+        beginUpdate();
+        entrySource.visitEntries(this::insert);
+        endUpdate();
+    }
+
+    public synchronized boolean contains(HashCode key) {
+        refresh();
+        return find(checkKey(key)) != NONE;
+    }
+
+    /**
+     * Returns the number of entries in the index.
+     */
+    public synchronized int size() {
+        refresh();
+        return buffer.getInt(HEADER_SIZE_OFFSET);
+    }
+
+    /**
+     * Returns the sum of the sizes of all entries in the index.
+     */
+    public synchronized long getTotalBytes() {
+        refresh();
+        return buffer.getLong(HEADER_TOTAL_BYTES);
+    }
+
+    /**
+     * Records the entry as used at the given time, adding it to the index with the given size if necessary.
+     */
+    public synchronized void markAccessed(HashCode key, long size, long timestamp) {
+        refresh();
+        byte[] keyBytes = checkKey(key);
+        beginUpdate();
+        int slot = find(keyBytes);
+        if (slot == NONE) {
+            insert(keyBytes, size, timestamp);
+        } else {
+            buffer.putLong(slotOffset(slot) + SLOT_LAST_ACCESS, timestamp);
+            unlink(slot);
+            linkFirst(slot);
+        }
+        endUpdate();
+    }
+
+    public synchronized void remove(HashCode key) {
+        refresh();
+        int slot = find(checkKey(key));
+        if (slot != NONE) {
+            beginUpdate();
+            removeSlot(slot);
+            endUpdate();
+        }
+    }
+
+    /**
+     * Removes all entries last used before the given time, starting from the least recently used one, and passes their keys to the given action.
+     *
+     * Only the evicted entries are visited.
+     *
+     * @return the number of evicted entries.
+     */
+    public synchronized int evictUnusedSince(long timestamp, Consumer<HashCode> evictionAction) {
+        refresh();
+        int evicted = 0;
+        int slot = buffer.getInt(HEADER_TAIL);
+        while (slot != NONE && buffer.getLong(slotOffset(slot) + SLOT_LAST_ACCESS) < timestamp) {
+            HashCode key = HashCode.fromBytes(readKey(slot));
+            int previous = buffer.getInt(slotOffset(slot) + SLOT_PREV);
+            beginUpdate();
+            removeSlot(slot);
+            endUpdate();
+            evictionAction.accept(key);
+            evicted++;
+            slot = previous;
+        }
+        return evicted;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            buffer.force();
+        } finally {
+            MappedByteBuffers.unmap(buffer);
+            file.close();
+        }
+    }
+
+    private void insert(HashCode key, long size, long timestamp) {
+        insert(checkKey(key), size, timestamp);
+    }
+
+    private void insert(byte[] key, long size, long timestamp) {
+        int existing = find(key);
+        if (existing != NONE) {
+            removeSlot(existing);
+        }
+        if ((buffer.getInt(HEADER_USED) + 1) * 4L > capacity * 3L) {
+            rehash();
+        }
+        int mask = capacity - 1;
+        int slot = hash(key) & mask;
+        while (buffer.getInt(slotOffset(slot) + SLOT_STATE) == STATE_USED) {
+            slot = (slot + 1) & mask;
+        }
+        int offset = slotOffset(slot);
+        if (buffer.getInt(offset + SLOT_STATE) == STATE_EMPTY) {
+            buffer.putInt(HEADER_USED, buffer.getInt(HEADER_USED) + 1);
+        }
+        buffer.putInt(offset + SLOT_STATE, STATE_USED);
+        buffer.putInt(offset + SLOT_KEY_LENGTH, key.length);
+        for (int i = 0; i < key.length; i++) {
+            buffer.put(offset + SLOT_KEY + i, key[i]);
+        }
+        buffer.putLong(offset + SLOT_ENTRY_SIZE, size);
+        buffer.putLong(offset + SLOT_LAST_ACCESS, timestamp);
+        linkFirst(slot);
+        buffer.putInt(HEADER_SIZE_OFFSET, buffer.getInt(HEADER_SIZE_OFFSET) + 1);
+        buffer.putLong(HEADER_TOTAL_BYTES, buffer.getLong(HEADER_TOTAL_BYTES) + size);
+    }
+
+    private void removeSlot(int slot) {
+        int offset = slotOffset(slot);
+        unlink(slot);
+        buffer.putInt(offset + SLOT_STATE, STATE_REMOVED);
+        buffer.putInt(HEADER_SIZE_OFFSET, buffer.getInt(HEADER_SIZE_OFFSET) - 1);
+        buffer.putLong(HEADER_TOTAL_BYTES, buffer.getLong(HEADER_TOTAL_BYTES) - buffer.getLong(offset + SLOT_ENTRY_SIZE));
+    }
+
+    /**
+     * Rebuilds the table, dropping removed slots and doubling the capacity when it is more than half full.
+     */
+    private void rehash() {
+        int size = buffer.getInt(HEADER_SIZE_OFFSET);
+        byte[][] keys = new byte[size][];
+        long[] sizes = new long[size];
+        long[] accessTimes = new long[size];
+        int count = 0;
+        for (int slot = buffer.getInt(HEADER_TAIL); slot != NONE; slot = buffer.getInt(slotOffset(slot) + SLOT_PREV)) {
+            keys[count] = readKey(slot);
+            sizes[count] = buffer.getLong(slotOffset(slot) + SLOT_ENTRY_SIZE);
+            accessTimes[count] = buffer.getLong(slotOffset(slot) + SLOT_LAST_ACCESS);
+            count++;
+        }
+
+        int newCapacity = capacity;
+        while ((size + 1) * 2L > newCapacity) {
+            newCapacity *= 2;
+        }
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Build cache index cannot hold more than " + MAX_CAPACITY / 2 + " entries");
+        }
+        try {
+            initialize(newCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Keep the dirty flag set, as we are in the middle of an update
+        buffer.putInt(HEADER_DIRTY, 1);
+        for (int i = 0; i < count; i++) {
+            insert(keys[i], sizes[i], accessTimes[i]);
+        }
+    }
+
+    private int find(byte[] key) {
+        int mask = capacity - 1;
+        int slot = hash(key) & mask;
+        for (int probe = 0; probe < capacity; probe++) {
+            int offset = slotOffset(slot);
+            int state = buffer.getInt(offset + SLOT_STATE);
+            if (state == STATE_EMPTY) {
+                return NONE;
+            }
+            if (state == STATE_USED && keyEquals(offset, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        if (buffer.getInt(offset + SLOT_KEY_LENGTH) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + SLOT_KEY + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] readKey(int slot) {
+        int offset = slotOffset(slot);
+        byte[] key = new byte[buffer.getInt(offset + SLOT_KEY_LENGTH)];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = buffer.get(offset + SLOT_KEY + i);
+        }
+        return key;
+    }
+
+    private void unlink(int slot) {
+        int offset = slotOffset(slot);
+        int previous = buffer.getInt(offset + SLOT_PREV);
+        int next = buffer.getInt(offset + SLOT_NEXT);
+        if (previous == NONE) {
+            buffer.putInt(HEADER_HEAD, next);
+        } else {
+            buffer.putInt(slotOffset(previous) + SLOT_NEXT, next);
+        }
+        if (next == NONE) {
+            buffer.putInt(HEADER_TAIL, previous);
+        } else {
+            buffer.putInt(slotOffset(next) + SLOT_PREV, previous);
+        }
+    }
+
+    private void linkFirst(int slot) {
+        int offset = slotOffset(slot);
+        int head = buffer.getInt(HEADER_HEAD);
+        buffer.putInt(offset + SLOT_PREV, NONE);
+        buffer.putInt(offset + SLOT_NEXT, head);
+        if (head == NONE) {
+            buffer.putInt(HEADER_TAIL, slot);
+        } else {
+            buffer.putInt(slotOffset(head) + SLOT_PREV, slot);
+        }
+        buffer.putInt(HEADER_HEAD, slot);
+    }
+
+    private void beginUpdate() {
+        buffer.putInt(HEADER_DIRTY, 1);
+    }
+
+    private void endUpdate() {
+        buffer.putInt(HEADER_DIRTY, 0);
+    }
+
+    /**
+     * Picks up changes to the size of the index made by other processes.
+     */
+    private void refresh() {
+        int currentCapacity = buffer.getInt(HEADER_CAPACITY);
+        if (currentCapacity != capacity) {
+            try {
+                map(currentCapacity);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void initialize(int newCapacity) throws IOException {
+        map(newCapacity);
+        long size = mappedSize(newCapacity);
+        for (int offset = 0; offset < size; offset += 8) {
+            buffer.putLong(offset, 0);
+        }
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_CAPACITY, newCapacity);
+        buffer.putInt(HEADER_HEAD, NONE);
+        buffer.putInt(HEADER_TAIL, NONE);
+    }
+
+    private void map(int newCapacity) throws IOException {
+        MappedByteBuffer previous = buffer;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize(newCapacity));
+        capacity = newCapacity;
+        if (previous != null) {
+            // Changes to a shared mapping are visible through the new mapping, so the previous one can be released right away
+            MappedByteBuffers.unmap(previous);
+        }
+    }
+
+    private static long mappedSize(int capacity) {
+        return HEADER_SIZE + (long) capacity * SLOT_SIZE;
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static int hash(byte[] key) {
+        int hash = 0;
+        for (byte b : key) {
+            hash = 31 * hash + b;
+        }
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static byte[] checkKey(HashCode key) {
+        byte[] bytes = key.toByteArray();
+        if (bytes.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(String.format("Build cache key %s is longer than %d bytes", key, MAX_KEY_LENGTH));
+        }
+        return bytes;
+    }
+}
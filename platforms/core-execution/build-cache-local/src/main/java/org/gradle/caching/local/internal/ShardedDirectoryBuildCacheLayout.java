@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.gradle.cache.CleanupAction;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.time.Clock;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Stores entries in sub-directories named after the first two characters of their key, and tracks them in a {@link MappedBuildCacheIndex}.
+ *
+ * <p>Looking up a missing entry only consults the index, and cleanup only visits the entries that are actually removed.
+ * Entries found in the index are checked to still exist, as they may have been deleted outside of Gradle, and are dropped from the index when they don't.
+ * The index is opened lazily, so that it is only ever accessed while holding the lock of the cache.</p>
+ */
+@NullMarked
+public class ShardedDirectoryBuildCacheLayout implements DirectoryBuildCacheLayout {
+    public static final String INDEX_FILE_NAME = "index.bin";
+
+    private static final int SHARD_NAME_LENGTH = 2;
+
+    private final File baseDir;
+    private final Clock clock;
+    @Nullable
+    private MappedBuildCacheIndex index;
+
+    public ShardedDirectoryBuildCacheLayout(File baseDir, Clock clock) {
+        this.baseDir = baseDir;
+        this.clock = clock;
+    }
+
+    @Override
+    public File getEntryFile(HashCode key) {
+        String name = key.toString();
+        return new File(new File(baseDir, name.substring(0, SHARD_NAME_LENGTH)), name);
+    }
+
+    @Override
+    public boolean contains(HashCode key, File entryFile) {
+        MappedBuildCacheIndex index = getIndex();
+        if (!index.contains(key)) {
+            return false;
+        }
+        if (entryFile.isFile()) {
+            return true;
+        }
+        // Deleted outside of Gradle, e.g. by hand or by another tool cleaning up the directory
+        index.remove(key);
+        return false;
+    }
+
+    @Override
+    public void beforeStore(HashCode key, File entryFile) {
+        File shardDir = entryFile.getParentFile();
+        if (!shardDir.isDirectory() && !shardDir.mkdirs() && !shardDir.isDirectory()) {
+            throw new UncheckedIOException(new IOException(String.format("Could not create build cache directory %s", shardDir)));
+        }
+    }
+
+    @Override
+    public void markAccessed(HashCode key, File entryFile) {
+        getIndex().markAccessed(key, entryFile.length(), clock.getCurrentTime());
+    }
+
+    @Override
+    public void markRemoved(HashCode key, File entryFile) {
+        getIndex().remove(key);
+    }
+
+    /**
+     * Creates a cleanup action that removes the entries that were not used since the given time.
+     */
+    public CleanupAction createCleanupAction(Supplier<Long> removeUnusedEntriesOlderThan) {
+        return (cleanableStore, progressMonitor) -> getIndex().evictUnusedSince(removeUnusedEntriesOlderThan.get(), key -> {
+            File entryFile = getEntryFile(key);
+            if (entryFile.delete() || !entryFile.exists()) {
+                progressMonitor.incrementDeleted();
+            } else {
+                progressMonitor.incrementSkipped();
+            }
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (index != null) {
+            try {
+                index.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                index = null;
+            }
+        }
+    }
+
+    private synchronized MappedBuildCacheIndex getIndex() {
+        if (index == null) {
+            index = new MappedBuildCacheIndex(new File(baseDir, INDEX_FILE_NAME), this::visitStoredEntries);
+        }
+        return index;
+    }
+
+    private void visitStoredEntries(MappedBuildCacheIndex.EntryVisitor visitor) {
+        List<File> entryFiles = new ArrayList<>();
+        File[] shardDirs = baseDir.listFiles(file -> file.isDirectory() && file.getName().length() == SHARD_NAME_LENGTH);
+        if (shardDirs != null) {
+            for (File shardDir : shardDirs) {
+                File[] files = shardDir.listFiles(File::isFile);
+                if (files != null) {
+                    for (File file : files) {
+                        if (parseKey(file.getName()) != null) {
+                            entryFiles.add(file);
+                        }
+                    }
+                }
+            }
+        }
+        entryFiles.sort(Comparator.comparingLong(File::lastModified));
+        for (File entryFile : entryFiles) {
+            HashCode key = parseKey(entryFile.getName());
+            if (key != null) {
+                visitor.visitEntry(key, entryFile.length(), entryFile.lastModified());
+            }
+        }
+    }
+
+    @Nullable
+    private static HashCode parseKey(String fileName) {
+        try {
+            HashCode key = HashCode.fromString(fileName);
+            return key.length() <= MappedBuildCacheIndex.MAX_KEY_LENGTH ? key : null;
+        } catch (IllegalArgumentException e) {
+            // Not a cache entry, e.g. a temporary or failed file
+            return null;
+        }
+    }
+}
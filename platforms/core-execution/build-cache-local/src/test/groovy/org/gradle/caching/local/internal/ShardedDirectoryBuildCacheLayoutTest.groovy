@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal
+
+import org.gradle.cache.CleanableStore
+import org.gradle.cache.CleanupProgressMonitor
+import org.gradle.cache.PersistentCache
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.internal.time.Clock
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+
+@UsesNativeServices
+@CleanupTestDirectory
+class ShardedDirectoryBuildCacheLayoutTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+    def cacheDir = temporaryFolder.createDir("cache")
+    def persistentCache = Mock(PersistentCache) {
+        getBaseDir() >> cacheDir
+        withFileLock(_) >> { Runnable r -> r.run() }
+    }
+    long now = 1000
+    def layout = new ShardedDirectoryBuildCacheLayout(cacheDir, { now } as Clock)
+    def cache = new DirectoryBuildCache(persistentCache, layout, ".failed")
+
+    def cleanup() {
+        layout.close()
+    }
+
+    def "stores entries in shard directories"() {
+        def key = TestHashCodes.hashCodeFrom(12345678)
+
+        when:
+        store(key, "abcd")
+
+        then:
+        def entryFile = cacheDir.file(key.toString().substring(0, 2), key.toString())
+        entryFile.text == "abcd"
+        load(key) == "abcd"
+    }
+
+    def "does not find entries that are not in the index"() {
+        def key = TestHashCodes.hashCodeFrom(12345678)
+        layout.getEntryFile(key).with {
+            parentFile.mkdirs()
+            text = "abcd"
+        }
+
+        expect:
+        load(key) == null
+    }
+
+    def "treats entries deleted outside of Gradle as missing and drops them from the index"() {
+        def key = TestHashCodes.hashCodeFrom(12345678)
+        store(key, "abcd")
+        layout.getEntryFile(key).delete()
+
+        expect:
+        load(key) == null
+        !layout.contains(key, layout.getEntryFile(key))
+
+        when:
+        layout.close()
+        def index = new MappedBuildCacheIndex(cacheDir.file(ShardedDirectoryBuildCacheLayout.INDEX_FILE_NAME), { throw new AssertionError("Should not rebuild") })
+
+        then:
+        !index.contains(key)
+        index.size() == 0
+
+        cleanup:
+        index?.close()
+    }
+
+    def "removes least recently used entries on cleanup"() {
+        def keys = (1..5).collect { TestHashCodes.hashCodeFrom(it) }
+        keys.eachWithIndex { key, index ->
+            now = index * 10
+            store(key, "entry $index")
+        }
+        now = 100
+        load(keys[0])
+
+        when:
+        def evicted = cleanupUnusedSince(25)
+
+        then:
+        evicted == 2
+        !layout.getEntryFile(keys[1]).exists()
+        !layout.getEntryFile(keys[2]).exists()
+        load(keys[1]) == null
+        load(keys[0]) == "entry 0"
+        load(keys[3]) == "entry 3"
+        load(keys[4]) == "entry 4"
+    }
+
+    def "rebuilds index from stored entries"() {
+        def keys = (1..3).collect { TestHashCodes.hashCodeFrom(it) }
+        keys.each { store(it, "entry") }
+        layout.close()
+        cacheDir.file(ShardedDirectoryBuildCacheLayout.INDEX_FILE_NAME).delete()
+
+        when:
+        def reopened = new ShardedDirectoryBuildCacheLayout(cacheDir, { now } as Clock)
+
+        then:
+        keys.every { reopened.contains(it, reopened.getEntryFile(it)) }
+
+        cleanup:
+        reopened.close()
+    }
+
+    def "index keeps entries across growth and reopening"() {
+        def indexFile = cacheDir.file("index.bin")
+        def index = new MappedBuildCacheIndex(indexFile, {})
+        def count = 40000
+
+        when:
+        (1..count).each { index.markAccessed(TestHashCodes.hashCodeFrom(it), 2, it) }
+        (1..count).step(2) { index.remove(TestHashCodes.hashCodeFrom(it)) }
+        index.close()
+        index = new MappedBuildCacheIndex(indexFile, { throw new AssertionError("Should not rebuild") })
+
+        then:
+        index.size() == count / 2
+        index.totalBytes == count
+        (1..count).every { index.contains(TestHashCodes.hashCodeFrom(it)) == (it % 2 == 0) }
+
+        cleanup:
+        index?.close()
+    }
+
+    def "index is rebuilt when unreadable"() {
+        def indexFile = cacheDir.file("index.bin")
+        def index = new MappedBuildCacheIndex(indexFile, {})
+        index.markAccessed(TestHashCodes.hashCodeFrom(1), 1, 1)
+        index.close()
+        indexFile.withDataOutputStream { it.write(new byte[0]) }
+        def rebuiltKey = TestHashCodes.hashCodeFrom(2)
+
+        when:
+        index = new MappedBuildCacheIndex(indexFile, { MappedBuildCacheIndex.EntryVisitor visitor -> visitor.visitEntry(rebuiltKey, 1, 1) })
+
+        then:
+        index.size() == 1
+        index.contains(rebuiltKey)
+
+        cleanup:
+        index?.close()
+    }
+
+    private void store(HashCode key, String content) {
+        cache.store(key) { output -> output << content }
+    }
+
+    private String load(HashCode key) {
+        String result = null
+        cache.loadLocally(key) { File file -> result = file.text }
+        result
+    }
+
+    private int cleanupUnusedSince(long timestamp) {
+        int deleted = 0
+        def monitor = Stub(CleanupProgressMonitor) {
+            incrementDeleted() >> { deleted++ }
+        }
+        layout.createCleanupAction({ timestamp }).clean(Stub(CleanableStore), monitor)
+        deleted
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression codecs that can be used for build cache entries.
+ *
+ * The {@link #getId() id} of a codec is persisted in the header of each entry, so it must never change.
+ */
+public enum BuildCacheEntryCompression {
+    /**
+     * Gzip compression, the historical format of build cache entries.
+     * The level is the deflate level, from 0 (no compression) to 9 (smallest).
+     */
+    GZIP(1) {
+        @Override
+        public void validateLevel(int level) {
+            if (level != DEFAULT_LEVEL && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+                throw new IllegalArgumentException(String.format("Invalid gzip build cache compression level %d, supported levels are 0 to 9.", level));
+            }
+        }
+
+        @Override
+        public OutputStream compress(OutputStream output, int level) throws IOException {
+            return new LeveledGZIPOutputStream(output, level);
+        }
+
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            return new GZIPInputStream(input);
+        }
+    },
+
+    /**
+     * LZ4 frame compression, trading compression ratio for considerably faster packing and unpacking.
+     * LZ4 frame compression has no levels, so only the default level is accepted.
+     */
+    LZ4(2) {
+        @Override
+        public OutputStream compress(OutputStream output, int level) throws IOException {
+            return new FramedLZ4CompressorOutputStream(output);
+        }
+
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            return new FramedLZ4CompressorInputStream(input);
+        }
+    },
+
+    /**
+     * Zstandard compression, providing a ratio close to gzip at a fraction of the CPU cost.
+     * The pure Java encoder always compresses at the Zstandard default level, so only the default level is accepted.
+     */
+    ZSTD(3) {
+        @Override
+        public OutputStream compress(OutputStream output, int level) throws IOException {
+            return new ZstdOutputStream(output);
+        }
+
+        @Override
+        public InputStream decompress(InputStream input) throws IOException {
+            return new ZstdInputStream(input);
+        }
+    };
+
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+    private final byte id;
+
+    BuildCacheEntryCompression(int id) {
+        this.id = (byte) id;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    /**
+     * Checks that the given level can be used with this codec, so that a misconfigured level fails when the packer is created rather than when the first entry is packed.
+     *
+     * @throws IllegalArgumentException when the level is not supported.
+     */
+    public void validateLevel(int level) {
+        if (level != DEFAULT_LEVEL) {
+            throw new IllegalArgumentException(String.format("Build cache compression %s does not support compression levels, but level %d was requested.", name().toLowerCase(Locale.ROOT), level));
+        }
+    }
+
+    /**
+     * Wraps the given stream so that everything written to the result is compressed into it.
+     * Closing the returned stream closes the given stream.
+     *
+     * @param level the codec-specific compression level, or {@link #DEFAULT_LEVEL}.
+     */
+    public abstract OutputStream compress(OutputStream output, int level) throws IOException;
+
+    /**
+     * Wraps the given stream so that reading from the result decompresses its contents.
+     * Closing the returned stream closes the given stream.
+     */
+    public abstract InputStream decompress(InputStream input) throws IOException;
+
+    public static BuildCacheEntryCompression forId(byte id) {
+        for (BuildCacheEntryCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new IllegalStateException("Cached entry format error, unknown compression codec: " + id);
+    }
+
+    public static BuildCacheEntryCompression forName(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown build cache compression '%s', supported values are gzip, lz4 and zstd.", name), e);
+        }
+    }
+
+    private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+        LeveledGZIPOutputStream(OutputStream output, int level) throws IOException {
+            super(output);
+            if (level != DEFAULT_LEVEL) {
+                def.setLevel(level);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * The header of versioned build cache entries.
+ *
+ * The header consists of the magic bytes {@code GRCE}, the format version and the id of the {@link BuildCacheEntryCompression} used.
+ * Legacy entries are plain gzip streams without a header. Since a gzip stream always starts with {@code 0x1f}, both can be told apart.
+ */
+final class BuildCacheEntryHeader {
+    /**
+     * The entry is a single compressed stream.
+     */
+    static final byte SINGLE_STREAM_FORMAT = 1;
+
+    /**
+     * The entry consists of independently compressed segments, see {@link SegmentedBuildCacheEntryPacker}.
+     */
+    static final byte SEGMENTED_FORMAT = 2;
+
+    private static final byte[] MAGIC = {'G', 'R', 'C', 'E'};
+    private static final int GZIP_MAGIC_FIRST_BYTE = 0x1f;
+
+    private final byte format;
+    private final BuildCacheEntryCompression compression;
+
+    private BuildCacheEntryHeader(byte format, BuildCacheEntryCompression compression) {
+        this.format = format;
+        this.compression = compression;
+    }
+
+    public byte getFormat() {
+        return format;
+    }
+
+    public BuildCacheEntryCompression getCompression() {
+        return compression;
+    }
+
+    static void write(OutputStream output, byte format, BuildCacheEntryCompression compression) throws IOException {
+        output.write(MAGIC);
+        output.write(format);
+        output.write(compression.getId());
+    }
+
+    /**
+     * Reads the header of an entry, leaving the input positioned right after it.
+     *
+     * @return the header, or {@code null} for a legacy gzip entry, in which case nothing is consumed from the input.
+     */
+    @Nullable
+    static BuildCacheEntryHeader read(PushbackInputStream input) throws IOException {
+        int first = input.read();
+        if (first == -1) {
+            throw new IllegalStateException("Cached entry format error, entry is empty.");
+        }
+        if (first == GZIP_MAGIC_FIRST_BYTE) {
+            input.unread(first);
+            return null;
+        }
+        if (first != MAGIC[0]) {
+            throw new IllegalStateException("Cached entry format error, unknown entry header.");
+        }
+        for (int i = 1; i < MAGIC.length; i++) {
+            if (input.read() != MAGIC[i]) {
+                throw new IllegalStateException("Cached entry format error, unknown entry header.");
+            }
+        }
+        int format = input.read();
+        if (format != SINGLE_STREAM_FORMAT && format != SEGMENTED_FORMAT) {
+            throw new IllegalStateException("Cached entry format error, unsupported format version: " + format);
+        }
+        int codec = input.read();
+        if (codec == -1) {
+            throw new IllegalStateException("Cached entry format error, entry header is truncated.");
+        }
+        return new BuildCacheEntryHeader((byte) format, BuildCacheEntryCompression.forId((byte) codec));
+    }
+}
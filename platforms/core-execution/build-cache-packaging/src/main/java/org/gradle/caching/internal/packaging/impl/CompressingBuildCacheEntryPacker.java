@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Map;
+
+/**
+ * Compresses build cache entries produced by a delegate packer with a configurable {@link BuildCacheEntryCompression}.
+ *
+ * Gzip entries are written without any header, exactly like {@link GZipBuildCacheEntryPacker} does.
+ * Entries using other codecs start with a {@link BuildCacheEntryHeader} recording the codec used for the rest of the entry.
+ */
+public class CompressingBuildCacheEntryPacker implements BuildCacheEntryPacker {
+    private final BuildCacheEntryPacker delegate;
+    private final BuildCacheEntryCompression compression;
+    private final int level;
+
+    public CompressingBuildCacheEntryPacker(BuildCacheEntryPacker delegate, BuildCacheEntryCompression compression, int level) {
+        compression.validateLevel(level);
+        this.delegate = delegate;
+        this.compression = compression;
+        this.level = level;
+    }
+
+    @Override
+    public PackResult pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OutputStream output, OriginWriter writeOrigin) throws IOException {
+        if (compression != BuildCacheEntryCompression.GZIP) {
+            BuildCacheEntryHeader.write(output, BuildCacheEntryHeader.SINGLE_STREAM_FORMAT, compression);
+        }
+        try (OutputStream compressedOutput = compression.compress(output, level)) {
+            return delegate.pack(entity, snapshots, compressedOutput, writeOrigin);
+        }
+    }
+
+    @Override
+    public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+        PushbackInputStream headerInput = new PushbackInputStream(input, 1);
+        BuildCacheEntryHeader header = BuildCacheEntryHeader.read(headerInput);
+        if (header == null) {
+            return unpack(entity, headerInput, BuildCacheEntryCompression.GZIP, readOrigin);
+        }
+        if (header.getFormat() != BuildCacheEntryHeader.SINGLE_STREAM_FORMAT) {
+            throw new IllegalStateException("Cached entry format error, unsupported format version: " + header.getFormat());
+        }
+        return unpack(entity, headerInput, header.getCompression(), readOrigin);
+    }
+
+    /**
+     * Unpacks the part of an entry following its header.
+     */
+    UnpackResult unpack(CacheableEntity entity, InputStream input, BuildCacheEntryCompression entryCompression, OriginReader readOrigin) throws IOException {
+        try (InputStream decompressedInput = entryCompression.decompress(input)) {
+            return delegate.unpack(entity, decompressedInput, readOrigin);
+        }
+    }
+}
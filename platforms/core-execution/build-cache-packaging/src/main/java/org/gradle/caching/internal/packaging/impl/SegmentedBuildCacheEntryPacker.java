@@ -0,0 +1,547 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginMetadata;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.file.TreeType;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.SnapshotVisitResult;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Packs each output tree of an entity into its own independently compressed segment, so that trees can be packed and unpacked in parallel.
+ *
+ * <p>The layout of a segmented entry after its {@link BuildCacheEntryHeader} is:</p>
+ * <ul>
+ *     <li>the origin metadata, prefixed by its length,</li>
+ *     <li>the index, listing the name and uncompressed size of each tree in the order the segments follow,</li>
+ *     <li>the segments, each one being a compressed TAR stream of a single tree, written as length-prefixed chunks terminated by an empty chunk.</li>
+ * </ul>
+ *
+ * <p>Small trees are compressed, decompressed and hashed on the given executor, while the calling thread streams the entry.
+ * Trees too large to be buffered in memory are streamed directly by the calling thread.
+ * The calling thread also runs any task the executor has not started yet when its result is needed, so progress never depends on the executor.</p>
+ *
+ * <p>Entries in other formats are handled by the given fallback packer, which is also used to write entities that have a single tree
+ * or overlapping tree roots.</p>
+ */
+public class SegmentedBuildCacheEntryPacker implements BuildCacheEntryPacker {
+    private static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+    private final TarBuildCacheEntryPacker treePacker;
+    private final CompressingBuildCacheEntryPacker fallback;
+    private final BuildCacheEntryCompression compression;
+    private final int level;
+    private final boolean writeSegmented;
+    private final Executor executor;
+    private final long maxBufferedSegmentSize;
+    private final long maxBufferedBytes;
+
+    public SegmentedBuildCacheEntryPacker(
+        TarBuildCacheEntryPacker treePacker,
+        BuildCacheEntryCompression compression,
+        int level,
+        boolean writeSegmented,
+        Executor executor,
+        long maxBufferedSegmentSize,
+        long maxBufferedBytes
+    ) {
+        this.treePacker = treePacker;
+        this.fallback = new CompressingBuildCacheEntryPacker(treePacker, compression, level);
+        this.compression = compression;
+        this.level = level;
+        this.writeSegmented = writeSegmented;
+        this.executor = executor;
+        this.maxBufferedSegmentSize = maxBufferedSegmentSize;
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    @Override
+    public PackResult pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OutputStream output, OriginWriter writeOrigin) throws IOException {
+        List<Tree> trees = collectTrees(entity);
+        if (!writeSegmented || trees.size() < 2 || hasOverlappingRoots(trees)) {
+            return fallback.pack(entity, snapshots, output, writeOrigin);
+        }
+
+        List<PackedTree> packedTrees = new ArrayList<>(trees.size());
+        long bufferedBytes = 0;
+        for (Tree tree : trees) {
+            FileSystemSnapshot snapshot = snapshots.get(tree.name);
+            long size = uncompressedSize(snapshot);
+            PackedTree packedTree = new PackedTree(tree, snapshot, size);
+            if (size <= maxBufferedSegmentSize && bufferedBytes + size <= maxBufferedBytes) {
+                bufferedBytes += size;
+                packedTree.packInBackground();
+            }
+            packedTrees.add(packedTree);
+        }
+
+        DataOutputStream dataOutput = new DataOutputStream(output);
+        try {
+            BuildCacheEntryHeader.write(dataOutput, BuildCacheEntryHeader.SEGMENTED_FORMAT, compression);
+            ByteArrayOutputStream origin = new ByteArrayOutputStream();
+            writeOrigin.execute(origin);
+            dataOutput.writeInt(origin.size());
+            origin.writeTo(dataOutput);
+            dataOutput.writeInt(packedTrees.size());
+            for (PackedTree packedTree : packedTrees) {
+                dataOutput.writeUTF(packedTree.tree.name);
+                dataOutput.writeLong(packedTree.size);
+            }
+
+            long entries = 1;
+            for (PackedTree packedTree : packedTrees) {
+                entries += packedTree.writeTo(dataOutput);
+            }
+            dataOutput.flush();
+            return new PackResult(entries);
+        } finally {
+            // Make sure no background task is still reading output files when we are done
+            awaitQuietly(packedTrees);
+            dataOutput.close();
+        }
+    }
+
+    @Override
+    public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+        PushbackInputStream headerInput = new PushbackInputStream(input, 1);
+        BuildCacheEntryHeader header = BuildCacheEntryHeader.read(headerInput);
+        if (header == null) {
+            return fallback.unpack(entity, headerInput, BuildCacheEntryCompression.GZIP, readOrigin);
+        }
+        if (header.getFormat() != BuildCacheEntryHeader.SEGMENTED_FORMAT) {
+            return fallback.unpack(entity, headerInput, header.getCompression(), readOrigin);
+        }
+
+        try (DataInputStream dataInput = new DataInputStream(headerInput)) {
+            return unpackSegments(entity, dataInput, header.getCompression(), readOrigin);
+        }
+    }
+
+    private UnpackResult unpackSegments(CacheableEntity entity, DataInputStream input, BuildCacheEntryCompression entryCompression, OriginReader readOrigin) throws IOException {
+        byte[] origin = new byte[input.readInt()];
+        input.readFully(origin);
+        OriginMetadata originMetadata = readOrigin.execute(new ByteArrayInputStream(origin));
+
+        Map<String, Tree> treesByName = new HashMap<>();
+        for (Tree tree : collectTrees(entity)) {
+            treesByName.put(tree.name, tree);
+        }
+        int segmentCount = input.readInt();
+        List<UnpackedTree> unpackedTrees = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            String treeName = input.readUTF();
+            long size = input.readLong();
+            Tree tree = treesByName.get(treeName);
+            if (tree == null) {
+                throw new IllegalStateException(String.format("No tree '%s' registered", treeName));
+            }
+            unpackedTrees.add(new UnpackedTree(tree, size, entryCompression));
+        }
+
+        // A single segment gains nothing from being unpacked in the background
+        boolean unpackInBackground = unpackedTrees.size() >= 2;
+        long bufferedBytes = 0;
+        try {
+            for (UnpackedTree unpackedTree : unpackedTrees) {
+                if (unpackInBackground && unpackedTree.size <= maxBufferedSegmentSize && bufferedBytes + unpackedTree.size <= maxBufferedBytes) {
+                    bufferedBytes += unpackedTree.size;
+                    unpackedTree.unpackInBackground(readChunks(input));
+                } else {
+                    unpackedTree.unpack(new ChunkedInputStream(input));
+                }
+            }
+        } catch (Throwable t) {
+            // Make sure no background task is still writing output files when we fail
+            awaitQuietly(unpackedTrees);
+            throw t;
+        }
+        for (UnpackedTree unpackedTree : unpackedTrees) {
+            unpackedTree.await();
+        }
+
+        long entries = 1;
+        Map<String, FileSystemLocationSnapshot> snapshots = new HashMap<>();
+        for (UnpackedTree unpackedTree : unpackedTrees) {
+            entries += unpackedTree.getResult();
+            snapshots.putAll(unpackedTree.snapshots);
+        }
+        return new UnpackResult(originMetadata, entries, snapshots);
+    }
+
+    private static List<Tree> collectTrees(CacheableEntity entity) {
+        Map<String, Tree> trees = new LinkedHashMap<>();
+        entity.visitOutputTrees((name, type, root) -> trees.put(name, new Tree(name, type, root)));
+        return new ArrayList<>(trees.values());
+    }
+
+    private static boolean hasOverlappingRoots(List<Tree> trees) {
+        for (Tree tree : trees) {
+            for (Tree other : trees) {
+                if (tree != other && isAncestorOrSelf(tree.root.getAbsolutePath(), other.root.getAbsolutePath())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAncestorOrSelf(String path, String candidateDescendant) {
+        return candidateDescendant.equals(path)
+            || (candidateDescendant.startsWith(path) && candidateDescendant.charAt(path.length()) == File.separatorChar);
+    }
+
+    private static long uncompressedSize(@Nullable FileSystemSnapshot snapshot) {
+        if (snapshot == null) {
+            return 0;
+        }
+        long[] size = new long[1];
+        snapshot.accept(entry -> {
+            if (entry.getType() == FileType.RegularFile) {
+                size[0] += ((RegularFileSnapshot) entry).getMetadata().getLength();
+            }
+            return SnapshotVisitResult.CONTINUE;
+        });
+        return size[0];
+    }
+
+    private static byte[] readChunks(DataInputStream input) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int length;
+        while ((length = input.readInt()) > 0) {
+            byte[] chunk = new byte[length];
+            input.readFully(chunk);
+            buffer.write(chunk);
+        }
+        if (length < 0) {
+            throw new IllegalStateException("Cached entry format error, invalid segment chunk length: " + length);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void awaitQuietly(List<? extends BackgroundTask<?>> tasks) {
+        for (BackgroundTask<?> task : tasks) {
+            try {
+                task.await();
+            } catch (Exception ignored) {
+                // The original failure is reported instead
+            }
+        }
+    }
+
+    private static class Tree {
+        final String name;
+        final TreeType type;
+        final File root;
+
+        Tree(String name, TreeType type, File root) {
+            this.name = name;
+            this.type = type;
+            this.root = root;
+        }
+    }
+
+    private abstract class BackgroundTask<T> {
+        private FutureTask<T> task;
+
+        void start(Callable<T> action) {
+            FutureTask<T> futureTask = new FutureTask<>(action);
+            task = futureTask;
+            // Submit the task itself, so the executor can see that it has already been run by the calling thread and skip it
+            executor.execute(futureTask);
+        }
+
+        boolean isStarted() {
+            return task != null;
+        }
+
+        /**
+         * Waits for the task if it was started.
+         */
+        void await() throws IOException {
+            if (isStarted()) {
+                getBackgroundResult();
+            }
+        }
+
+        /**
+         * Waits for the task to complete, running it on the current thread if the executor has not picked it up yet.
+         */
+        T getBackgroundResult() throws IOException {
+            if (task == null) {
+                throw new IllegalStateException("Task was not started");
+            }
+            task.run();
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new UncheckedIOException(new IOException(cause));
+            }
+        }
+    }
+
+    private class PackedTree extends BackgroundTask<PackedSegment> {
+        final Tree tree;
+        final FileSystemSnapshot snapshot;
+        final long size;
+
+        PackedTree(Tree tree, @Nullable FileSystemSnapshot snapshot, long size) {
+            this.tree = tree;
+            this.snapshot = snapshot == null ? FileSystemSnapshot.EMPTY : snapshot;
+            this.size = size;
+        }
+
+        void packInBackground() {
+            start(() -> {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                long entries = treePacker.packSingleTree(tree.name, tree.type, snapshot, compression.compress(buffer, level));
+                return new PackedSegment(buffer.toByteArray(), entries);
+            });
+        }
+
+        long writeTo(DataOutputStream output) throws IOException {
+            if (isStarted()) {
+                PackedSegment segment = getBackgroundResult();
+                for (int offset = 0; offset < segment.bytes.length; offset += MAX_CHUNK_SIZE) {
+                    int length = Math.min(MAX_CHUNK_SIZE, segment.bytes.length - offset);
+                    output.writeInt(length);
+                    output.write(segment.bytes, offset, length);
+                }
+                output.writeInt(0);
+                return segment.entries;
+            }
+            return treePacker.packSingleTree(tree.name, tree.type, snapshot, compression.compress(new ChunkedOutputStream(output), level));
+        }
+    }
+
+    private static class PackedSegment {
+        final byte[] bytes;
+        final long entries;
+
+        PackedSegment(byte[] bytes, long entries) {
+            this.bytes = bytes;
+            this.entries = entries;
+        }
+    }
+
+    private class UnpackedTree extends BackgroundTask<Long> {
+        final Tree tree;
+        final long size;
+        final BuildCacheEntryCompression entryCompression;
+        final Map<String, FileSystemLocationSnapshot> snapshots = new HashMap<>();
+        private long entries = -1;
+
+        UnpackedTree(Tree tree, long size, BuildCacheEntryCompression entryCompression) {
+            this.tree = tree;
+            this.size = size;
+            this.entryCompression = entryCompression;
+        }
+
+        void unpackInBackground(byte[] segment) {
+            start(() -> unpackTree(new ByteArrayInputStream(segment)));
+        }
+
+        void unpack(InputStream segment) throws IOException {
+            entries = unpackTree(segment);
+        }
+
+        private long unpackTree(InputStream segment) throws IOException {
+            return treePacker.unpackSingleTree(tree.name, tree.type, tree.root, entryCompression.decompress(segment), snapshots);
+        }
+
+        @Override
+        void await() throws IOException {
+            if (isStarted()) {
+                entries = getBackgroundResult();
+            }
+        }
+
+        long getResult() {
+            if (entries < 0) {
+                throw new IllegalStateException(String.format("Tree '%s' was not unpacked", tree.name));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Writes data as length-prefixed chunks, terminating them with an empty chunk on close without closing the underlying stream.
+     */
+    private static class ChunkedOutputStream extends FilterOutputStream {
+        private final DataOutputStream output;
+        private final byte[] buffer = new byte[MAX_CHUNK_SIZE];
+        private int count;
+        private boolean closed;
+
+        ChunkedOutputStream(DataOutputStream output) {
+            super(output);
+            this.output = output;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) {
+                    writeChunk();
+                }
+                int copied = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeChunk();
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                writeChunk();
+                output.writeInt(0);
+            }
+        }
+
+        private void writeChunk() throws IOException {
+            if (count > 0) {
+                output.writeInt(count);
+                output.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * Reads data written by {@link ChunkedOutputStream}, consuming the remaining chunks on close without closing the underlying stream.
+     */
+    private static class ChunkedInputStream extends InputStream {
+        private final DataInputStream input;
+        private int remaining;
+        private boolean finished;
+
+        ChunkedInputStream(DataInputStream input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!nextChunk()) {
+                return -1;
+            }
+            int read = input.read();
+            if (read < 0) {
+                throw new EOFException("Cached entry format error, segment is truncated.");
+            }
+            remaining--;
+            return read;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int read = input.read(bytes, offset, Math.min(length, remaining));
+            if (read < 0) {
+                throw new EOFException("Cached entry format error, segment is truncated.");
+            }
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            while (nextChunk()) {
+                int skipped = input.skipBytes(remaining);
+                if (skipped <= 0) {
+                    throw new EOFException("Cached entry format error, segment is truncated.");
+                }
+                remaining -= skipped;
+            }
+        }
+
+        private boolean nextChunk() throws IOException {
+            while (!finished && remaining == 0) {
+                int length = input.readInt();
+                if (length < 0) {
+                    throw new IllegalStateException("Cached entry format error, invalid segment chunk length: " + length);
+                }
+                remaining = length;
+                finished = length == 0;
+            }
+            return !finished;
+        }
+    }
+}
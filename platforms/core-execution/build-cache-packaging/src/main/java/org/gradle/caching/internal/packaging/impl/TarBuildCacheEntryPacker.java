@@ -121,16 +121,34 @@ public PackResult pack(CacheableEntity entity, Map<String, ? extends FileSystemS
         } else {
             bufferedOutput = new BufferedOutputStream(output);
         }
-        try (TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(bufferedOutput, ENCODING.name())) {
-            tarOutput.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
-            tarOutput.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
-            tarOutput.setAddPaxHeadersForNonAsciiNames(true);
+        try (TarArchiveOutputStream tarOutput = createTarOutput(bufferedOutput)) {
             packMetadata(writeOrigin, tarOutput);
             long entryCount = pack(entity, snapshots, tarOutput);
             return new PackResult(entryCount + 1);
         }
     }
 
+    /**
+     * Packs a single output tree into its own TAR stream, closing the output when done.
+     *
+     * @return the number of entries packed.
+     */
+    long packSingleTree(String treeName, TreeType type, FileSystemSnapshot snapshot, OutputStream output) throws IOException {
+        try (TarArchiveOutputStream tarOutput = createTarOutput(new BufferedOutputStream(output))) {
+            return packTree(treeName, type, snapshot, tarOutput);
+        } catch (RuntimeException ex) {
+            throw new RuntimeException(String.format("Could not pack tree '%s': %s", treeName, ex.getMessage()), ex);
+        }
+    }
+
+    private static TarArchiveOutputStream createTarOutput(OutputStream output) {
+        TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(output, ENCODING.name());
+        tarOutput.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tarOutput.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        tarOutput.setAddPaxHeadersForNonAsciiNames(true);
+        return tarOutput;
+    }
+
     private static void packMetadata(OriginWriter writeMetadata, TarArchiveOutputStream tarOutput) throws IOException {
         ByteArrayOutputStream output = new ByteArrayOutputStream();
         writeMetadata.execute(output);
@@ -173,6 +191,31 @@ public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginRead
         }
     }
 
+    /**
+     * Unpacks a single output tree packed via {@link #packSingleTree(String, TreeType, FileSystemSnapshot, OutputStream)}, closing the input when done.
+     *
+     * @return the number of entries unpacked.
+     */
+    long unpackSingleTree(String treeName, TreeType type, File root, InputStream input, Map<String, FileSystemLocationSnapshot> snapshots) throws IOException {
+        try (TarArchiveInputStream tarInput = new TarArchiveInputStream(input, ENCODING.name())) {
+            TarArchiveEntry tarEntry = tarInput.getNextEntry();
+            if (tarEntry == null) {
+                throw new IllegalStateException(String.format("Cached entry format error, no contents found for tree '%s'.", treeName));
+            }
+            Matcher matcher = TREE_PATH.matcher(safeEntryName(tarEntry));
+            if (!matcher.matches() || !treeName.equals(unescape(matcher.group(2)))) {
+                throw new IllegalStateException("Cached entry format error, invalid contents: " + tarEntry.getName());
+            }
+            AtomicLong entries = new AtomicLong(1);
+            boolean missing = matcher.group(1) != null;
+            TarArchiveEntry nextEntry = unpackTree(treeName, type, root, tarInput, tarEntry, matcher.group(3), missing, snapshots, entries);
+            if (nextEntry != null) {
+                throw new IllegalStateException("Cached entry format error, invalid contents: " + nextEntry.getName());
+            }
+            return entries.get();
+        }
+    }
+
     private UnpackResult unpack(CacheableEntity entity, TarArchiveInputStream tarInput, OriginReader readOriginAction) throws IOException {
         ImmutableMap.Builder<String, CacheableTree> treesBuilder = ImmutableMap.builder();
         entity.visitOutputTrees((name, type, root) -> treesBuilder.put(name, new CacheableTree(type, root)));
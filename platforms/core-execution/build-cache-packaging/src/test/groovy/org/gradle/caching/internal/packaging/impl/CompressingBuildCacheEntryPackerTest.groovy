@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import org.gradle.caching.internal.CacheableEntity
+import org.gradle.caching.internal.origin.OriginReader
+import org.gradle.caching.internal.origin.OriginWriter
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker
+import spock.lang.Specification
+
+import java.util.zip.GZIPInputStream
+
+class CompressingBuildCacheEntryPackerTest extends Specification {
+    def entity = Stub(CacheableEntity)
+    def writeOrigin = Stub(OriginWriter)
+    def readOrigin = Stub(OriginReader)
+    def payload = ("build cache entry contents " * 100).bytes
+    def delegate = new PayloadPacker(payload)
+
+    def "can round-trip entry compressed with #compression"() {
+        def packer = new CompressingBuildCacheEntryPacker(delegate, compression, BuildCacheEntryCompression.DEFAULT_LEVEL)
+        def output = new ByteArrayOutputStream()
+
+        when:
+        packer.pack(entity, [:], output, writeOrigin)
+        packer.unpack(entity, new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        output.size() < payload.length
+        delegate.unpacked == payload
+
+        where:
+        compression << BuildCacheEntryCompression.values()
+    }
+
+    def "can read #compression entry regardless of configured compression"() {
+        def output = new ByteArrayOutputStream()
+        new CompressingBuildCacheEntryPacker(delegate, compression, BuildCacheEntryCompression.DEFAULT_LEVEL).pack(entity, [:], output, writeOrigin)
+        def packer = new CompressingBuildCacheEntryPacker(delegate, BuildCacheEntryCompression.GZIP, BuildCacheEntryCompression.DEFAULT_LEVEL)
+
+        when:
+        packer.unpack(entity, new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        delegate.unpacked == payload
+
+        where:
+        compression << BuildCacheEntryCompression.values()
+    }
+
+    def "gzip entries are plain gzip streams"() {
+        def output = new ByteArrayOutputStream()
+        new CompressingBuildCacheEntryPacker(delegate, BuildCacheEntryCompression.GZIP, 1).pack(entity, [:], output, writeOrigin)
+
+        expect:
+        new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())).bytes == payload
+    }
+
+    def "can read entries written by the gzip packer"() {
+        def output = new ByteArrayOutputStream()
+        new GZipBuildCacheEntryPacker(delegate).pack(entity, [:], output, writeOrigin)
+        def packer = new CompressingBuildCacheEntryPacker(delegate, BuildCacheEntryCompression.ZSTD, BuildCacheEntryCompression.DEFAULT_LEVEL)
+
+        when:
+        packer.unpack(entity, new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        delegate.unpacked == payload
+    }
+
+    def "rejects unsupported #compression level #level when created"() {
+        when:
+        new CompressingBuildCacheEntryPacker(delegate, compression, level)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        compression                        | level
+        BuildCacheEntryCompression.GZIP    | 10
+        BuildCacheEntryCompression.GZIP    | -2
+        BuildCacheEntryCompression.LZ4     | 1
+        BuildCacheEntryCompression.ZSTD    | 3
+    }
+
+    def "fails on unknown entry header"() {
+        def packer = new CompressingBuildCacheEntryPacker(delegate, BuildCacheEntryCompression.LZ4, BuildCacheEntryCompression.DEFAULT_LEVEL)
+
+        when:
+        packer.unpack(entity, new ByteArrayInputStream("not an entry".bytes), readOrigin)
+
+        then:
+        def ex = thrown(IllegalStateException)
+        ex.message == "Cached entry format error, unknown entry header."
+    }
+
+    private static class PayloadPacker implements BuildCacheEntryPacker {
+        private final byte[] payload
+        byte[] unpacked
+
+        PayloadPacker(byte[] payload) {
+            this.payload = payload
+        }
+
+        @Override
+        PackResult pack(CacheableEntity entity, Map snapshots, OutputStream output, OriginWriter writeOrigin) throws IOException {
+            output.write(payload)
+            return new PackResult(1)
+        }
+
+        @Override
+        UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+            unpacked = input.bytes
+            return new UnpackResult(null, 1, [:])
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.caching.internal.origin.OriginMetadata
+import org.gradle.caching.internal.origin.OriginReader
+import org.gradle.caching.internal.origin.OriginWriter
+import org.gradle.internal.file.Deleter
+import org.gradle.internal.nativeintegration.filesystem.FileSystem
+import org.gradle.internal.snapshot.FileSystemSnapshot
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+import static org.gradle.internal.file.TreeType.DIRECTORY
+import static org.gradle.internal.file.TreeType.FILE
+
+class SegmentedBuildCacheEntryPackerTest extends AbstractTarBuildCacheEntryPackerSpec {
+    ExecutorService executor = Executors.newFixedThreadPool(4)
+    def origin = Stub(OriginMetadata)
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    @Override
+    protected FilePermissionAccess createFilePermissionAccess() {
+        new FilePermissionAccess() {
+            @Delegate
+            FileSystem fs = TestFiles.fileSystem()
+        }
+    }
+
+    @Override
+    protected Deleter createDeleter() {
+        TestFiles.deleter()
+    }
+
+    def "can pack and unpack multiple trees as segments (buffered: #buffered)"() {
+        def segmentedPacker = segmentedPacker(BuildCacheEntryCompression.LZ4, true, buffered ? 1024 * 1024 : 0)
+        def sourceDir = temporaryFolder.file("source-dir").createDir()
+        sourceDir.file("sub/data.txt") << "directory output"
+        sourceDir.file("other.txt") << "other output"
+        def sourceFile = temporaryFolder.file("source.txt")
+        sourceFile << "file output"
+        def targetDir = temporaryFolder.file("target-dir")
+        def targetFile = temporaryFolder.file("target.txt")
+        def missing = temporaryFolder.file("missing")
+        def targetMissing = temporaryFolder.file("target-missing").createFile()
+        def output = new ByteArrayOutputStream()
+
+        when:
+        def packResult = segmentedPacker.pack(entity(prop("dir", DIRECTORY, sourceDir), prop("file", FILE, sourceFile), prop("missing", FILE, missing)), snapshots(dir: sourceDir, file: sourceFile, missing: missing), output, writeOrigin)
+
+        then:
+        packResult.entries == 7
+
+        when:
+        def result = segmentedPacker.unpack(entity(prop("dir", DIRECTORY, targetDir), prop("file", FILE, targetFile), prop("missing", FILE, targetMissing)), new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        result.entries == 7
+        result.originMetadata == origin
+        result.snapshots.keySet() == ["dir", "file"] as Set
+        targetDir.file("sub/data.txt").text == "directory output"
+        targetDir.file("other.txt").text == "other output"
+        targetFile.text == "file output"
+        !targetMissing.exists()
+
+        where:
+        buffered << [true, false]
+    }
+
+    def "writes single stream entry when segments are disabled"() {
+        def sourceDir = temporaryFolder.file("source-dir").createDir()
+        sourceDir.file("data.txt") << "output"
+        def sourceFile = temporaryFolder.file("source.txt")
+        sourceFile << "file output"
+        def output = new ByteArrayOutputStream()
+
+        when:
+        segmentedPacker(BuildCacheEntryCompression.GZIP, false).pack(entity(prop("dir", DIRECTORY, sourceDir), prop("file", FILE, sourceFile)), snapshots(dir: sourceDir, file: sourceFile), output, writeOrigin)
+
+        then:
+        (output.toByteArray()[0] & 0xff) == 0x1f
+    }
+
+    def "can read single stream entries"() {
+        def sourceDir = temporaryFolder.file("source-dir").createDir()
+        sourceDir.file("data.txt") << "output"
+        def targetDir = temporaryFolder.file("target-dir")
+        def output = new ByteArrayOutputStream()
+        new CompressingBuildCacheEntryPacker(packer, BuildCacheEntryCompression.ZSTD, BuildCacheEntryCompression.DEFAULT_LEVEL).pack(entity(prop("dir", DIRECTORY, sourceDir)), snapshots(dir: sourceDir), output, writeOrigin)
+
+        when:
+        segmentedPacker(BuildCacheEntryCompression.GZIP, true).unpack(entity(prop("dir", DIRECTORY, targetDir)), new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        targetDir.file("data.txt").text == "output"
+    }
+
+    def "falls back to single stream for overlapping trees"() {
+        def sourceDir = temporaryFolder.file("source-dir").createDir()
+        def nestedFile = sourceDir.file("nested.txt")
+        nestedFile << "output"
+        def output = new ByteArrayOutputStream()
+
+        when:
+        segmentedPacker(BuildCacheEntryCompression.ZSTD, true).pack(entity(prop("dir", DIRECTORY, sourceDir), prop("file", FILE, nestedFile)), snapshots(dir: sourceDir, file: nestedFile), output, writeOrigin)
+        def input = new PushbackInputStream(new ByteArrayInputStream(output.toByteArray()), 1)
+
+        then:
+        BuildCacheEntryHeader.read(input).format == BuildCacheEntryHeader.SINGLE_STREAM_FORMAT
+    }
+
+    private SegmentedBuildCacheEntryPacker segmentedPacker(BuildCacheEntryCompression compression, boolean segmented, long maxBufferedSegmentSize = 1024 * 1024) {
+        new SegmentedBuildCacheEntryPacker(packer, compression, BuildCacheEntryCompression.DEFAULT_LEVEL, segmented, executor, maxBufferedSegmentSize, 4 * 1024 * 1024)
+    }
+
+    private Map<String, FileSystemSnapshot> snapshots(Map<String, File> roots) {
+        roots.collectEntries { name, root -> [(name): fileSystemAccess.read(root.absolutePath)] }
+    }
+
+    def setup() {
+        writeOrigin = { OutputStream output -> output.write("origin".bytes) } as OriginWriter
+        readOrigin = { InputStream input ->
+            assert input.text == "origin"
+            origin
+        } as OriginReader
+    }
+}
@@ -19,6 +19,7 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.io.FileUtils;
+import org.gradle.caching.internal.packaging.impl.BuildCacheEntryCompression;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Level;
@@ -35,6 +36,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.zip.Deflater;
 
 @Fork(1)
 @Warmup(iterations = 3)
@@ -55,6 +57,9 @@ public abstract class AbstractTaskOutputPackagingBenchmark {
         .put("tar.small", new CommonsTarPacker(2))
         .put("tar.large", new CommonsTarPacker(64))
         .put("tar.gz", new GzipPacker(new CommonsTarPacker(4)))
+        .put("tar.gz.fast", new CompressionPacker(BuildCacheEntryCompression.GZIP, Deflater.BEST_SPEED, new CommonsTarPacker(4)))
+        .put("tar.lz4", new CompressionPacker(BuildCacheEntryCompression.LZ4, BuildCacheEntryCompression.DEFAULT_LEVEL, new CommonsTarPacker(4)))
+        .put("tar.zstd", new CompressionPacker(BuildCacheEntryCompression.ZSTD, BuildCacheEntryCompression.DEFAULT_LEVEL, new CommonsTarPacker(4)))
         .put("zip", new ZipPacker(4))
         .build();
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interners;
+import org.apache.commons.io.FileUtils;
+import org.gradle.internal.hash.DefaultFileHasher;
+import org.gradle.internal.hash.DefaultStreamHasher;
+import org.gradle.internal.snapshot.impl.DirectorySnapshotter;
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how snapshotting a large directory tree scales with the number of threads snapshotting it.
+ * Uses the same temporary directory setup as {@link FileWalkingBenchmark}.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class DirectorySnapshotterBenchmark {
+    Path tempDirPath;
+    File tempDirFile;
+    ForkJoinPool pool;
+    DirectorySnapshotter snapshotter;
+
+    /**
+     * <ul>
+     *     <li>{@code node_modules}: many shallow packages with a handful of files each</li>
+     *     <li>{@code generated_sources}: a deep package hierarchy with many files per directory</li>
+     * </ul>
+     */
+    @Param({"node_modules", "generated_sources"})
+    String tree;
+
+    /**
+     * The parallelism of the pool to snapshot on, where 0 means snapshotting on the calling thread.
+     */
+    @Param({"0", "1", "2", "4", "8"})
+    int threads;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.tempDirPath = Files.createTempDirectory("directory-snapshotting");
+        this.tempDirFile = tempDirPath.toFile();
+        if (tree.equals("node_modules")) {
+            for (int packageIndex = 0; packageIndex < 2000; packageIndex++) {
+                Path packageDir = tempDirPath.resolve("package-" + packageIndex);
+                createFiles(packageDir, 4);
+                createFiles(packageDir.resolve("lib"), 6);
+            }
+        } else {
+            for (int first = 0; first < 10; first++) {
+                for (int second = 0; second < 10; second++) {
+                    for (int third = 0; third < 5; third++) {
+                        createFiles(tempDirPath.resolve("org/example/p" + first + "/p" + second + "/p" + third), 40);
+                    }
+                }
+            }
+        }
+        this.pool = threads == 0 ? null : new ForkJoinPool(threads);
+        this.snapshotter = new DirectorySnapshotter(
+            new DefaultFileHasher(new DefaultStreamHasher()),
+            Interners.newWeakInterner(),
+            ImmutableList.of(),
+            new DirectorySnapshotterStatistics.Collector(),
+            pool
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        FileUtils.forceDelete(tempDirFile);
+    }
+
+    private static void createFiles(Path directory, int count) throws IOException {
+        Files.createDirectories(directory);
+        for (int i = 0; i < count; i++) {
+            Path file = directory.resolve("file-" + i + ".js");
+            Files.write(file, (directory + "/" + i).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public void snapshot(Blackhole blackhole) {
+        blackhole.consume(snapshotter.snapshot(tempDirPath.toString(), null, Collections.emptyMap(), blackhole::consume));
+    }
+}
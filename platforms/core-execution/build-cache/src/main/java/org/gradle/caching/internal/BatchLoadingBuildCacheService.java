@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal;
+
+import org.gradle.caching.BuildCacheException;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.BuildCacheService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A {@link BuildCacheService} that can load many entries at once, typically saving a round-trip to a remote cache per entry.
+ */
+public interface BatchLoadingBuildCacheService extends BuildCacheService {
+    /**
+     * Loads the entries with the given keys that are present in the cache.
+     * Entries that are not found are skipped.
+     *
+     * @param keys the keys of the entries to load.
+     * @param reader the reader called for each found entry, one entry at a time.
+     * @return the keys of the entries that were loaded.
+     */
+    Set<BuildCacheKey> loadMany(Collection<BuildCacheKey> keys, BatchEntryReader reader) throws BuildCacheException;
+
+    /**
+     * A reader for the entries loaded by {@link #loadMany(Collection, BatchEntryReader)}.
+     */
+    interface BatchEntryReader {
+        /**
+         * Read the build cache entry with the given key from the given input stream.
+         * The input stream is only valid during this call, and must not be closed by the reader.
+         */
+        void readFrom(BuildCacheKey key, InputStream input) throws IOException;
+    }
+}
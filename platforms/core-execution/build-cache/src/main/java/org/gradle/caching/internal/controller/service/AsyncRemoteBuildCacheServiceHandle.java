@@ -0,0 +1,315 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.service;
+
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.local.internal.TemporaryFileFactory;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Stores entries in the remote cache in the background, so that work does not wait for uploads to a slow remote cache to finish.
+ *
+ * <p>Entries to store are copied to temporary files and queued. The queue is bounded by the total size of the queued entries,
+ * and when it is full, the {@link BackpressurePolicy} decides whether new entries are dropped or wait for room in the queue.
+ * Closing the handle waits for the queued entries to be stored, up to a timeout.</p>
+ *
+ * <p>Loads are passed to the delegate directly.</p>
+ */
+@NullMarked
+public class AsyncRemoteBuildCacheServiceHandle implements RemoteBuildCacheServiceHandle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncRemoteBuildCacheServiceHandle.class);
+
+    /**
+     * What to do with an entry to store when the upload queue is full.
+     */
+    public enum BackpressurePolicy {
+        /**
+         * Wait for room in the queue.
+         */
+        BLOCK,
+        /**
+         * Do not store the entry.
+         */
+        DROP
+    }
+
+    private static class PendingStore {
+        final BuildCacheKey key;
+        final File file;
+        final long size;
+
+        PendingStore(BuildCacheKey key, File file, long size) {
+            this.key = key;
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /**
+     * How long to wait for the stores interrupted on close to finish, before closing the delegate.
+     */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final RemoteBuildCacheServiceHandle delegate;
+    private final TemporaryFileFactory temporaryFileFactory;
+    private final ExecutorService executor;
+    private final int maxConcurrentStores;
+    private final long maxQueuedBytes;
+    private final BackpressurePolicy backpressurePolicy;
+    private final Duration completionTimeout;
+
+    // All guarded by this
+    private final Deque<PendingStore> queue = new ArrayDeque<>();
+    private long queuedBytes;
+    private int activeWorkers;
+    private int droppedCount;
+    private boolean closed;
+
+    public AsyncRemoteBuildCacheServiceHandle(RemoteBuildCacheServiceHandle delegate, TemporaryFileFactory temporaryFileFactory, Settings settings) {
+        this.delegate = delegate;
+        this.temporaryFileFactory = temporaryFileFactory;
+        this.executor = settings.executor;
+        this.maxConcurrentStores = settings.maxConcurrentStores;
+        this.maxQueuedBytes = settings.maxQueuedBytes;
+        this.backpressurePolicy = settings.backpressurePolicy;
+        this.completionTimeout = settings.completionTimeout;
+    }
+
+    @Nullable
+    @Override
+    public BuildCacheService getService() {
+        return delegate.getService();
+    }
+
+    @Override
+    public boolean canLoad() {
+        return delegate.canLoad();
+    }
+
+    @Override
+    public Optional<BuildCacheLoadResult> maybeLoad(BuildCacheKey key, File toFile, Function<File, BuildCacheLoadResult> unpackFunction) {
+        return delegate.maybeLoad(key, toFile, unpackFunction);
+    }
+
+    @Override
+    public boolean canStore() {
+        return delegate.canStore();
+    }
+
+    /**
+     * Queues the file to be stored in the remote cache.
+     *
+     * Returns true if the file was queued.
+     */
+    @Override
+    public boolean maybeStore(BuildCacheKey key, File file) {
+        if (!canStore()) {
+            return false;
+        }
+        long size = file.length();
+        if (!reserve(size)) {
+            LOGGER.info("Not storing entry {} in remote build cache because too many entries are waiting to be stored", key.getHashCode());
+            return false;
+        }
+        File queuedFile;
+        try {
+            queuedFile = temporaryFileFactory.createTemporaryFile("build-cache-store-", ".bin");
+            Files.copy(file.toPath(), queuedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            release(size);
+            LOGGER.warn("Could not queue entry {} to be stored in remote build cache: {}", key.getHashCode(), e.getMessage());
+            return false;
+        }
+        synchronized (this) {
+            queue.add(new PendingStore(key, queuedFile, size));
+            if (activeWorkers < maxConcurrentStores) {
+                activeWorkers++;
+                try {
+                    executor.execute(this::processQueue);
+                } catch (RuntimeException e) {
+                    workerFinished();
+                    throw e;
+                }
+            }
+        }
+        return true;
+    }
+
+    private synchronized boolean reserve(long size) {
+        // Always accept an entry when the queue is empty, so that entries larger than the limit are still stored
+        while (!closed && queuedBytes > 0 && queuedBytes + size > maxQueuedBytes) {
+            if (backpressurePolicy == BackpressurePolicy.DROP) {
+                droppedCount++;
+                return false;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCount++;
+                return false;
+            }
+        }
+        if (closed) {
+            return false;
+        }
+        queuedBytes += size;
+        return true;
+    }
+
+    private synchronized void release(long size) {
+        queuedBytes -= size;
+        notifyAll();
+    }
+
+    private void processQueue() {
+        try {
+            while (true) {
+                PendingStore store;
+                synchronized (this) {
+                    store = queue.poll();
+                    if (store == null) {
+                        return;
+                    }
+                }
+                try {
+                    delegate.maybeStore(store.key, store.file);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not store entry {} in remote build cache: {}", store.key.getHashCode(), e.getMessage());
+                } finally {
+                    deleteQuietly(store.file);
+                    release(store.size);
+                }
+            }
+        } finally {
+            workerFinished();
+        }
+    }
+
+    private synchronized void workerFinished() {
+        activeWorkers--;
+        notifyAll();
+    }
+
+    /**
+     * Waits for the queued entries to be stored, up to the completion timeout, and then closes the delegate.
+     *
+     * Stores still running after the timeout are interrupted, and the delegate is only closed once they have finished, so they never use a closed delegate.
+     */
+    @Override
+    public void close() {
+        List<PendingStore> abandoned;
+        int stillRunning;
+        int dropped;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            long deadline = System.nanoTime() + completionTimeout.toNanos();
+            boolean interrupted = false;
+            while (activeWorkers > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    break;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            abandoned = new ArrayList<>(queue);
+            queue.clear();
+            stillRunning = activeWorkers;
+            dropped = droppedCount;
+        }
+        if (dropped > 0) {
+            LOGGER.warn("{} entries were not stored in the remote build cache because too many entries were waiting to be stored.", dropped);
+        }
+        if (!abandoned.isEmpty() || stillRunning > 0) {
+            LOGGER.warn("Gave up waiting for {} entries to be stored in the remote build cache after {} seconds.", abandoned.size() + stillRunning, completionTimeout.getSeconds());
+        }
+        for (PendingStore store : abandoned) {
+            deleteQuietly(store.file);
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Closing the remote build cache while entries are still being stored.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+    }
+
+    private static void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            LOGGER.debug("Could not delete {}", file, e);
+        }
+    }
+
+    /**
+     * Settings for storing entries in the remote cache in the background.
+     */
+    public static class Settings {
+        private final ExecutorService executor;
+        private final int maxConcurrentStores;
+        private final long maxQueuedBytes;
+        private final BackpressurePolicy backpressurePolicy;
+        private final Duration completionTimeout;
+
+        /**
+         * @param executor the executor to store entries with, shut down when the handle is closed.
+         * @param maxConcurrentStores the maximum number of concurrent requests to the remote cache.
+         * @param maxQueuedBytes the maximum size of the entries waiting to be stored.
+         * @param backpressurePolicy what to do with new entries when the queue is full.
+         * @param completionTimeout how long to wait for queued entries to be stored when closing the handle.
+         */
+        public Settings(ExecutorService executor, int maxConcurrentStores, long maxQueuedBytes, BackpressurePolicy backpressurePolicy, Duration completionTimeout) {
+            this.executor = executor;
+            this.maxConcurrentStores = maxConcurrentStores;
+            this.maxQueuedBytes = maxQueuedBytes;
+            this.backpressurePolicy = backpressurePolicy;
+            this.completionTimeout = completionTimeout;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.service
+
+import org.gradle.caching.internal.SimpleBuildCacheKey
+import org.gradle.caching.local.internal.TemporaryFileFactory
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.nio.file.Files
+import java.time.Duration
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static org.gradle.caching.internal.controller.service.AsyncRemoteBuildCacheServiceHandle.BackpressurePolicy.BLOCK
+import static org.gradle.caching.internal.controller.service.AsyncRemoteBuildCacheServiceHandle.BackpressurePolicy.DROP
+
+class AsyncRemoteBuildCacheServiceHandleTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def key1 = new SimpleBuildCacheKey(TestHashCodes.hashCodeFrom(1))
+    def key2 = new SimpleBuildCacheKey(TestHashCodes.hashCodeFrom(2))
+    def storeStarted = new CountDownLatch(1)
+    def releaseStores = new CountDownLatch(1)
+    def stored = new ConcurrentLinkedQueue<String>()
+    def queuedFiles = new ConcurrentLinkedQueue<File>()
+    def events = new ConcurrentLinkedQueue<String>()
+    def delegate = Mock(RemoteBuildCacheServiceHandle) {
+        canStore() >> true
+        maybeStore(_, _) >> { key, File file ->
+            storeStarted.countDown()
+            try {
+                releaseStores.await()
+            } catch (InterruptedException e) {
+                events << "interrupted " + file.text
+                throw e
+            }
+            stored << file.text
+            true
+        }
+    }
+    def temporaryFileFactory = { prefix, suffix ->
+        def file = Files.createTempFile(tmpDir.testDirectory.toPath(), prefix, suffix).toFile()
+        queuedFiles << file
+        file
+    } as TemporaryFileFactory
+
+    AsyncRemoteBuildCacheServiceHandle createHandle(AsyncRemoteBuildCacheServiceHandle.BackpressurePolicy policy = BLOCK, long maxQueuedBytes = 1024, Duration timeout = Duration.ofSeconds(10)) {
+        new AsyncRemoteBuildCacheServiceHandle(delegate, temporaryFileFactory, new AsyncRemoteBuildCacheServiceHandle.Settings(Executors.newFixedThreadPool(2), 2, maxQueuedBytes, policy, timeout))
+    }
+
+    def "stores entries in the background and waits for them when closed"() {
+        def handle = createHandle()
+
+        when:
+        def queued = handle.maybeStore(key1, entry("first"))
+        handle.maybeStore(key2, entry("second"))
+
+        then:
+        queued
+        stored.empty
+
+        when:
+        releaseStores.countDown()
+        handle.close()
+
+        then:
+        stored as Set == ["first", "second"] as Set
+        queuedFiles.every { !it.exists() }
+        1 * delegate.close()
+    }
+
+    def "does not store entries when the queue is full with drop policy"() {
+        def handle = createHandle(DROP, 5)
+
+        when:
+        def first = handle.maybeStore(key1, entry("first"))
+        storeStarted.await()
+        def second = handle.maybeStore(key2, entry("second"))
+        releaseStores.countDown()
+        handle.close()
+
+        then:
+        first
+        !second
+        stored as List == ["first"]
+    }
+
+    def "waits for room in the queue with block policy"() {
+        def handle = createHandle(BLOCK, 5)
+        handle.maybeStore(key1, entry("first"))
+        storeStarted.await()
+
+        when:
+        def secondStore = Thread.start { handle.maybeStore(key2, entry("second")) }
+        secondStore.join(100)
+
+        then:
+        secondStore.alive
+        stored.empty
+
+        when:
+        releaseStores.countDown()
+        secondStore.join()
+        handle.close()
+
+        then:
+        stored as List == ["first", "second"]
+    }
+
+    def "gives up waiting for entries to be stored after the timeout"() {
+        def handle = createHandle(BLOCK, 1024, Duration.ofMillis(100))
+
+        when:
+        handle.maybeStore(key1, entry("first"))
+        handle.maybeStore(key2, entry("second"))
+        storeStarted.await(10, TimeUnit.SECONDS)
+        handle.close()
+
+        then:
+        stored.empty
+        1 * delegate.close()
+    }
+
+    def "closes the delegate only after the interrupted stores have finished"() {
+        def handle = createHandle(BLOCK, 1024, Duration.ofMillis(100))
+
+        when:
+        handle.maybeStore(key1, entry("first"))
+        storeStarted.await(10, TimeUnit.SECONDS)
+        handle.close()
+
+        then:
+        1 * delegate.close() >> { events << "closed" }
+
+        and:
+        events as List == ["interrupted first", "closed"]
+        queuedFiles.every { !it.exists() }
+    }
+
+    @Timeout(30)
+    def "keeps storing queued entries after a store fails"() {
+        def failingDelegate = Mock(RemoteBuildCacheServiceHandle) {
+            canStore() >> true
+            maybeStore(key1, _) >> { throw new IllegalStateException("broken") }
+            maybeStore(key2, _) >> { key, File file ->
+                stored << file.text
+                true
+            }
+        }
+        def handle = new AsyncRemoteBuildCacheServiceHandle(failingDelegate, temporaryFileFactory, new AsyncRemoteBuildCacheServiceHandle.Settings(Executors.newSingleThreadExecutor(), 1, 1024, BLOCK, Duration.ofMinutes(10)))
+
+        when:
+        handle.maybeStore(key1, entry("first"))
+        handle.maybeStore(key2, entry("second"))
+        handle.close()
+
+        then:
+        stored as List == ["second"]
+        queuedFiles.every { !it.exists() }
+        1 * failingDelegate.close()
+    }
+
+    private File entry(String content) {
+        def file = tmpDir.file(content)
+        file.text = content
+        file
+    }
+}
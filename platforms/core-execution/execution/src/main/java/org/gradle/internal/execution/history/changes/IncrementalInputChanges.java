@@ -22,11 +22,19 @@
 import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.internal.Cast;
 import org.gradle.work.FileChange;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
 
 public class IncrementalInputChanges implements InputChangesInternal {
 
     private final InputFileChanges changes;
     private final IncrementalInputProperties incrementalInputProperties;
+    @Nullable
+    private Set<String> reportedChangedOutputs;
 
     public IncrementalInputChanges(InputFileChanges changes, IncrementalInputProperties incrementalInputProperties) {
         this.changes = changes;
@@ -61,4 +69,19 @@ public Iterable<InputFileDetails> getAllFileChanges() {
         changes.accept(visitor);
         return Cast.uncheckedNonnullCast(visitor.getChanges());
     }
+
+    @Override
+    public synchronized void reportChangedOutputs(Iterable<File> changedOutputs) {
+        if (reportedChangedOutputs == null) {
+            reportedChangedOutputs = new LinkedHashSet<>();
+        }
+        for (File changedOutput : changedOutputs) {
+            reportedChangedOutputs.add(changedOutput.getAbsolutePath());
+        }
+    }
+
+    @Override
+    public synchronized Optional<Set<String>> getReportedChangedOutputs() {
+        return Optional.ofNullable(reportedChangedOutputs);
+    }
 }
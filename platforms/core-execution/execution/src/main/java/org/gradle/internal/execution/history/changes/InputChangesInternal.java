@@ -19,6 +19,31 @@
 import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.work.InputChanges;
 
+import java.io.File;
+import java.util.Optional;
+import java.util.Set;
+
 public interface InputChangesInternal extends InputChanges {
     Iterable<InputFileDetails> getAllFileChanges();
+
+    /**
+     * Reports output files and directories which have been created, modified or removed by the current incremental execution.
+     * <p>
+     * When the work reports its output changes, the outputs after execution are captured by re-snapshotting
+     * only the reported locations, and reusing the snapshots taken before execution for everything else.
+     * Therefore, the work must report every output location it changed.
+     * Reporting a directory covers everything below it.
+     * <p>
+     * Reported changes are ignored for non-incremental executions, since all outputs are snapshotted anyway.
+     */
+    default void reportChangedOutputs(Iterable<File> changedOutputs) {
+    }
+
+    /**
+     * Returns the absolute paths of the output locations reported via {@link #reportChangedOutputs(Iterable)},
+     * or empty when the work did not report its output changes.
+     */
+    default Optional<Set<String>> getReportedChangedOutputs() {
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,705 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.history.impl;
+
+import com.google.common.collect.Interner;
+import org.gradle.cache.PersistentCache;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.execution.history.AfterExecutionState;
+import org.gradle.internal.execution.history.ExecutionHistoryStore;
+import org.gradle.internal.execution.history.PreviousExecutionState;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * An {@link ExecutionHistoryStore} that keeps the execution history in an append-only log, instead of updating a B-tree in place.
+ *
+ * <p>The log is split into segments. Storing or removing an entry appends a record to the active segment, so writes are sequential,
+ * and a crash leaves at most a partially written record at the end of the active segment, which is dropped when the log is next read.
+ * Records are checksummed to detect such torn records. An in-memory index maps each key to the location of its latest record.</p>
+ *
+ * <p>Superseded records are dropped by compaction, which runs in the background once most of the log is garbage.
+ * Compaction seals the active segment, so that new records go to a new segment, and copies the live records of the sealed segments
+ * to a base segment that replaces them.</p>
+ *
+ * <p>The log is shared with other processes by accessing it only while holding the file lock of the cache.
+ * Each access first reads the records that other processes appended since the previous access.</p>
+ */
+@NullMarked
+public class LogStructuredExecutionHistoryStore implements ExecutionHistoryStore, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogStructuredExecutionHistoryStore.class);
+
+    private static final String SEGMENT_PREFIX = "executionHistory-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int SEGMENT_MAGIC = 0x45484c31;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int BASE_SEGMENT_FLAG = 1;
+
+    // Payload length and CRC32 of the payload
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte PUT_RECORD = 1;
+    private static final byte REMOVE_RECORD = 2;
+    private static final byte SEAL_RECORD = 3;
+
+    static final long DEFAULT_MAX_SEGMENT_SIZE = 64L * 1024 * 1024;
+    static final long DEFAULT_MIN_COMPACTION_SIZE = 8L * 1024 * 1024;
+
+    private final PersistentCache cache;
+    private final File dir;
+    private final Serializer<PreviousExecutionState> serializer;
+    private final ManagedExecutor compactionExecutor;
+    private final long maxSegmentSize;
+    private final long minCompactionSize;
+
+    // All guarded by this
+    private final Map<String, RecordLocation> index = new HashMap<>();
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    @Nullable
+    private Segment active;
+    private long liveBytes;
+    private long totalBytes;
+    private int generation;
+    private boolean compacting;
+    private boolean closed;
+
+    public LogStructuredExecutionHistoryStore(
+        Supplier<PersistentCache> cache,
+        Interner<String> stringInterner,
+        ClassLoaderHierarchyHasher classLoaderHasher,
+        ExecutorFactory executorFactory
+    ) {
+        this(cache, stringInterner, classLoaderHasher, executorFactory, DEFAULT_MAX_SEGMENT_SIZE, DEFAULT_MIN_COMPACTION_SIZE);
+    }
+
+    LogStructuredExecutionHistoryStore(
+        Supplier<PersistentCache> cache,
+        Interner<String> stringInterner,
+        ClassLoaderHierarchyHasher classLoaderHasher,
+        ExecutorFactory executorFactory,
+        long maxSegmentSize,
+        long minCompactionSize
+    ) {
+        this.cache = cache.get();
+        this.dir = this.cache.getBaseDir();
+        this.serializer = new DefaultPreviousExecutionStateSerializer(
+            new FileCollectionFingerprintSerializer(stringInterner),
+            new FileSystemSnapshotSerializer(stringInterner),
+            classLoaderHasher,
+            new HashCodeSerializer()
+        );
+        this.compactionExecutor = executorFactory.create("Execution history compaction");
+        this.maxSegmentSize = maxSegmentSize;
+        this.minCompactionSize = minCompactionSize;
+    }
+
+    @Override
+    public Optional<PreviousExecutionState> load(String key) {
+        byte[] payload = withLog(() -> {
+            RecordLocation location = index.get(key);
+            return location == null ? null : readPayload(location);
+        });
+        if (payload == null) {
+            return Optional.empty();
+        }
+        int valueOffset = valueOffset(payload);
+        try (KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(payload, valueOffset, payload.length - valueOffset))) {
+            return Optional.of(serializer.read(decoder));
+        } catch (Exception e) {
+            LOGGER.warn("Could not read execution history of {} from {}, ignoring it.", key, dir, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void store(String key, AfterExecutionState executionState) {
+        PreviousExecutionState previousExecutionState = DefaultExecutionHistoryStore.toPreviousExecutionState(executionState);
+        // Serialize outside the lock, only appending the record needs to be serialized with other accesses
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        writeKey(payload, PUT_RECORD, key);
+        try (KryoBackedEncoder encoder = new KryoBackedEncoder(payload)) {
+            serializer.write(encoder, previousExecutionState);
+        } catch (Exception e) {
+            throw new RuntimeException("Could not serialize execution history of " + key, e);
+        }
+        byte[] record = toRecord(payload.toByteArray());
+        withLog(() -> {
+            append(key, record, true);
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(String key) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        writeKey(payload, REMOVE_RECORD, key);
+        byte[] record = toRecord(payload.toByteArray());
+        withLog(() -> {
+            if (index.containsKey(key)) {
+                append(key, record, false);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Waits for a running compaction to finish and closes the log.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        compactionExecutor.stop();
+        synchronized (this) {
+            closeSegments();
+        }
+    }
+
+    @Nullable
+    private <T> T withLog(IOAction<T> action) {
+        return cache.withFileLock(() -> {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Execution history store has been closed.");
+                }
+                try {
+                    refresh();
+                    return action.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not access execution history in " + dir, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Catches up with the records appended by other processes since the log was last accessed.
+     */
+    private void refresh() throws IOException {
+        Segment segment = active;
+        if (segment == null) {
+            reload();
+            return;
+        }
+        long length = segment.file.length();
+        if (length == segment.end) {
+            return;
+        }
+        if (length < segment.end) {
+            reload();
+            return;
+        }
+        long end = replay(segment, segment.end, length);
+        if (segment.sealed) {
+            // Another process rolled over to a new segment or compacted the log
+            reload();
+            return;
+        }
+        truncateTornRecord(segment, end, length);
+        totalBytes += end - segment.end;
+        segment.end = end;
+    }
+
+    /**
+     * Rebuilds the index from the segments on disk.
+     */
+    private void reload() throws IOException {
+        closeSegments();
+        index.clear();
+        liveBytes = 0;
+        totalBytes = 0;
+        generation++;
+
+        List<Long> ids = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (!name.startsWith(SEGMENT_PREFIX)) {
+                    continue;
+                }
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // Left behind by a compaction that did not finish
+                    deleteQuietly(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // Not a segment
+                    }
+                }
+            }
+        }
+        ids.sort(null);
+
+        // A base segment replaces all older segments, which are only left behind when a compaction did not finish cleaning up
+        int firstSegment = 0;
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            if (readFlags(segmentFile(ids.get(i))) == BASE_SEGMENT_FLAG) {
+                firstSegment = i;
+                break;
+            }
+        }
+        for (int i = 0; i < firstSegment; i++) {
+            deleteQuietly(segmentFile(ids.get(i)));
+        }
+
+        Segment last = null;
+        for (int i = firstSegment; i < ids.size(); i++) {
+            long id = ids.get(i);
+            File file = segmentFile(id);
+            if (readFlags(file) < 0) {
+                // Only the header of a new segment can be incomplete
+                deleteQuietly(file);
+                continue;
+            }
+            Segment segment = new Segment(id, file, new RandomAccessFile(file, "rw"));
+            segments.put(id, segment);
+            long length = segment.file.length();
+            long end = replay(segment, SEGMENT_HEADER_SIZE, length);
+            if (end < length && i < ids.size() - 1) {
+                LOGGER.warn("Execution history segment {} is corrupt, ignoring its remaining records.", file);
+            }
+            segment.end = end;
+            totalBytes += end;
+            last = segment;
+        }
+
+        if (last == null || last.sealed) {
+            active = startSegment(last == null ? 1 : last.id + 1);
+        } else {
+            truncateTornRecord(last, last.end, last.file.length());
+            active = last;
+        }
+    }
+
+    private void truncateTornRecord(Segment segment, long end, long length) throws IOException {
+        if (end < length) {
+            LOGGER.info("Dropping {} bytes of incomplete execution history from {}.", length - end, segment.path);
+            segment.file.setLength(end);
+        }
+    }
+
+    /**
+     * Applies the records of the given segment, starting at the given offset, to the index.
+     *
+     * @return the end of the last complete record.
+     */
+    private long replay(Segment segment, long from, long length) throws IOException {
+        return scan(segment.path, from, length, (offset, payload) -> {
+            int recordLength = RECORD_HEADER_SIZE + payload.length;
+            switch (payload[0]) {
+                case PUT_RECORD:
+                    updateIndex(readKey(payload), new RecordLocation(segment.id, offset, recordLength));
+                    break;
+                case REMOVE_RECORD:
+                    updateIndex(readKey(payload), null);
+                    break;
+                case SEAL_RECORD:
+                    segment.sealed = true;
+                    return false;
+                default:
+                    throw new IOException("Unknown record type " + payload[0] + " in " + segment.path);
+            }
+            return true;
+        });
+    }
+
+    private void append(String key, byte[] record, boolean put) throws IOException {
+        Segment segment = requireActive();
+        long offset = segment.end;
+        segment.file.seek(offset);
+        segment.file.write(record);
+        segment.end += record.length;
+        totalBytes += record.length;
+        updateIndex(key, put ? new RecordLocation(segment.id, offset, record.length) : null);
+        if (segment.end >= maxSegmentSize) {
+            active = roll(segment, segment.id + 1);
+        }
+        maybeScheduleCompaction();
+    }
+
+    private void updateIndex(String key, @Nullable RecordLocation location) {
+        RecordLocation previous = location == null ? index.remove(key) : index.put(key, location);
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+        if (location != null) {
+            liveBytes += location.length;
+        }
+    }
+
+    private byte[] readPayload(RecordLocation location) throws IOException {
+        Segment segment = segments.get(location.segmentId);
+        if (segment == null) {
+            throw new IOException("Missing execution history segment " + location.segmentId);
+        }
+        byte[] payload = new byte[location.length - RECORD_HEADER_SIZE];
+        segment.file.seek(location.offset + RECORD_HEADER_SIZE);
+        segment.file.readFully(payload);
+        return payload;
+    }
+
+    private Segment requireActive() {
+        Segment segment = active;
+        if (segment == null) {
+            throw new IllegalStateException("Execution history log is not open.");
+        }
+        return segment;
+    }
+
+    private void maybeScheduleCompaction() {
+        if (!compacting && !closed && totalBytes >= minCompactionSize && liveBytes * 2 < totalBytes) {
+            compacting = true;
+            compactionExecutor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Copies the live records of the sealed segments to a new base segment, and deletes the sealed segments.
+     *
+     * <p>The file lock is held for the whole compaction, so other processes wait for it to finish,
+     * while other threads of this process keep appending to the new active segment.</p>
+     */
+    private void compact() {
+        try {
+            cache.withFileLock(() -> {
+                try {
+                    doCompact();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.warn("Could not compact execution history in {}.", dir, e);
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private void doCompact() throws IOException {
+        long baseId;
+        int startGeneration;
+        Map<String, RecordLocation> liveRecords = new HashMap<>();
+        List<Segment> sealedSegments;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            refresh();
+            if (liveBytes * 2 >= totalBytes) {
+                // Another process compacted the log in the meantime
+                return;
+            }
+            Segment segment = requireActive();
+            // Leave a gap in the ids for the base segment, so it is replayed before the records appended while compacting
+            baseId = segment.id + 1;
+            active = roll(segment, segment.id + 2);
+            sealedSegments = new ArrayList<>(segments.headMap(baseId, false).values());
+            for (Map.Entry<String, RecordLocation> entry : index.entrySet()) {
+                if (entry.getValue().segmentId < baseId) {
+                    liveRecords.put(entry.getKey(), entry.getValue());
+                }
+            }
+            startGeneration = generation;
+        }
+
+        File baseFile = segmentFile(baseId);
+        File tempFile = new File(dir, baseFile.getName() + TEMP_SUFFIX);
+        Map<String, RecordLocation> copiedRecords = new HashMap<>();
+        try (FileOutputStream fileOutput = new FileOutputStream(tempFile)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+            output.writeInt(SEGMENT_MAGIC);
+            output.writeInt(BASE_SEGMENT_FLAG);
+            long[] offset = {SEGMENT_HEADER_SIZE};
+            for (Segment segment : sealedSegments) {
+                // Sealed segments are never appended to, so they can be read without holding the lock
+                scan(segment.path, SEGMENT_HEADER_SIZE, segment.end, (recordOffset, payload) -> {
+                    if (payload[0] != PUT_RECORD) {
+                        return true;
+                    }
+                    String key = readKey(payload);
+                    RecordLocation location = liveRecords.get(key);
+                    if (location != null && location.segmentId == segment.id && location.offset == recordOffset) {
+                        writeRecord(output, payload);
+                        copiedRecords.put(key, new RecordLocation(baseId, offset[0], location.length));
+                        offset[0] += location.length;
+                    }
+                    return true;
+                });
+            }
+            output.flush();
+            fileOutput.getFD().sync();
+        }
+
+        synchronized (this) {
+            Files.move(tempFile.toPath(), baseFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            if (generation != startGeneration) {
+                reload();
+                return;
+            }
+            Segment base = new Segment(baseId, baseFile, new RandomAccessFile(baseFile, "rw"));
+            base.end = base.file.length();
+            base.sealed = true;
+            segments.put(baseId, base);
+            totalBytes += base.end;
+            for (Map.Entry<String, RecordLocation> entry : copiedRecords.entrySet()) {
+                String key = entry.getKey();
+                // Only move the entries that have not been updated or removed while compacting
+                if (index.get(key) == liveRecords.get(key)) {
+                    updateIndex(key, entry.getValue());
+                }
+            }
+            for (Segment segment : sealedSegments) {
+                segments.remove(segment.id);
+                totalBytes -= segment.end;
+                segment.close();
+                deleteQuietly(segment.path);
+            }
+        }
+    }
+
+    /**
+     * Seals the given segment and starts a new active segment.
+     */
+    private Segment roll(Segment segment, long nextId) throws IOException {
+        byte[] seal = toRecord(new byte[]{SEAL_RECORD});
+        segment.file.seek(segment.end);
+        segment.file.write(seal);
+        segment.end += seal.length;
+        segment.sealed = true;
+        totalBytes += seal.length;
+        return startSegment(nextId);
+    }
+
+    private Segment startSegment(long id) throws IOException {
+        File file = segmentFile(id);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(0);
+        randomAccessFile.writeInt(SEGMENT_MAGIC);
+        randomAccessFile.writeInt(0);
+        Segment segment = new Segment(id, file, randomAccessFile);
+        segment.end = SEGMENT_HEADER_SIZE;
+        segments.put(id, segment);
+        totalBytes += SEGMENT_HEADER_SIZE;
+        return segment;
+    }
+
+    private void closeSegments() {
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+        active = null;
+    }
+
+    private File segmentFile(long id) {
+        return new File(dir, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Reads the flags from the header of the given segment, or returns -1 when the header is not valid.
+     */
+    private static int readFlags(File file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            if (input.readInt() != SEGMENT_MAGIC) {
+                return -1;
+            }
+            return input.readInt();
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Visits the complete and intact records of the given file, starting at the given offset.
+     *
+     * @return the end of the last visited record.
+     */
+    private static long scan(File file, long from, long length, RecordVisitor visitor) throws IOException {
+        //noinspection IOStreamConstructor
+        try (InputStream fileInput = new FileInputStream(file)) {
+            long skipped = 0;
+            while (skipped < from) {
+                long count = fileInput.skip(from - skipped);
+                if (count <= 0) {
+                    return skipped;
+                }
+                skipped += count;
+            }
+            DataInputStream input = new DataInputStream(new BufferedInputStream(fileInput));
+            CRC32 crc = new CRC32();
+            long offset = from;
+            while (offset + RECORD_HEADER_SIZE <= length) {
+                int payloadLength = input.readInt();
+                int checksum = input.readInt();
+                if (payloadLength <= 0 || payloadLength > length - offset - RECORD_HEADER_SIZE) {
+                    break;
+                }
+                byte[] payload = new byte[payloadLength];
+                input.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                boolean proceed = visitor.visitRecord(offset, payload);
+                offset += RECORD_HEADER_SIZE + payloadLength;
+                if (!proceed) {
+                    break;
+                }
+            }
+            return offset;
+        }
+    }
+
+    private static void writeKey(ByteArrayOutputStream payload, byte type, String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        payload.write(type);
+        payload.write(keyBytes.length >>> 24);
+        payload.write(keyBytes.length >>> 16);
+        payload.write(keyBytes.length >>> 8);
+        payload.write(keyBytes.length);
+        payload.write(keyBytes, 0, keyBytes.length);
+    }
+
+    private static String readKey(byte[] payload) {
+        int keyLength = ByteBuffer.wrap(payload, 1, 4).getInt();
+        return new String(payload, 5, keyLength, StandardCharsets.UTF_8);
+    }
+
+    private static int valueOffset(byte[] payload) {
+        return 5 + ByteBuffer.wrap(payload, 1, 4).getInt();
+    }
+
+    private static byte[] toRecord(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length)
+            .putInt(payload.length)
+            .putInt((int) crc.getValue())
+            .put(payload)
+            .array();
+    }
+
+    private static void writeRecord(DataOutputStream output, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        output.writeInt(payload.length);
+        output.writeInt((int) crc.getValue());
+        output.write(payload);
+    }
+
+    private static void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            LOGGER.debug("Could not delete {}", file, e);
+        }
+    }
+
+    private interface IOAction<T> {
+        @Nullable
+        T run() throws IOException;
+    }
+
+    private interface RecordVisitor {
+        /**
+         * Visits the record at the given offset, returns false to stop visiting.
+         */
+        boolean visitRecord(long offset, byte[] payload) throws IOException;
+    }
+
+    private static class RecordLocation {
+        final long segmentId;
+        final long offset;
+        final int length;
+
+        RecordLocation(long segmentId, long offset, int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static class Segment {
+        final long id;
+        final File path;
+        final RandomAccessFile file;
+        long end;
+        boolean sealed;
+
+        Segment(long id, File path, RandomAccessFile file) {
+            this.id = id;
+            this.path = path;
+            this.file = file;
+        }
+
+        void close() {
+            try {
+                file.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close {}", path, e);
+            }
+        }
+    }
+}
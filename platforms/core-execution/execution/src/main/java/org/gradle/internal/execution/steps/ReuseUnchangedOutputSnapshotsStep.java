@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.steps;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import org.gradle.internal.execution.OutputSnapshotter;
+import org.gradle.internal.execution.UnitOfWork;
+import org.gradle.internal.execution.history.BeforeExecutionState;
+import org.gradle.internal.execution.history.changes.InputChangesInternal;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+import org.gradle.internal.snapshot.SnapshotUtil;
+import org.gradle.internal.vfs.FileSystemAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reuses the output snapshots taken before execution for outputs the work reported as unchanged.
+ *
+ * Incremental work can report the output locations it changed via {@link InputChangesInternal#reportChangedOutputs(Iterable)}.
+ * For such work, the output snapshots taken before execution are put back into the virtual file system after execution,
+ * and only the reported locations are invalidated.
+ * Capturing the outputs after execution then only needs to re-snapshot the reported locations
+ * instead of walking the complete output trees.
+ *
+ * When verification is enabled, the outputs captured this way are checked against a full snapshot of the outputs.
+ */
+public class ReuseUnchangedOutputSnapshotsStep<C extends InputChangesContext, R extends Result> implements Step<C, R> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReuseUnchangedOutputSnapshotsStep.class);
+
+    private final FileSystemAccess fileSystemAccess;
+    private final OutputSnapshotter outputSnapshotter;
+    private final boolean verifyReportedChanges;
+    private final Step<? super C, ? extends R> delegate;
+
+    public ReuseUnchangedOutputSnapshotsStep(
+        FileSystemAccess fileSystemAccess,
+        OutputSnapshotter outputSnapshotter,
+        boolean verifyReportedChanges,
+        Step<? super C, ? extends R> delegate
+    ) {
+        this.fileSystemAccess = fileSystemAccess;
+        this.outputSnapshotter = outputSnapshotter;
+        this.verifyReportedChanges = verifyReportedChanges;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public R execute(UnitOfWork work, C context) {
+        R result = delegate.execute(work, context);
+        if (context.isIncrementalExecution() && result.getExecution().isSuccessful()) {
+            context.getInputChanges()
+                .flatMap(InputChangesInternal::getReportedChangedOutputs)
+                .ifPresent(changedOutputs -> context.getBeforeExecutionState()
+                    .ifPresent(beforeExecutionState -> reuseUnchangedOutputSnapshots(work, context, beforeExecutionState, changedOutputs)));
+        }
+        return result;
+    }
+
+    private void reuseUnchangedOutputSnapshots(UnitOfWork work, C context, BeforeExecutionState beforeExecutionState, Set<String> changedOutputs) {
+        ImmutableList.Builder<String> outputRoots = ImmutableList.builder();
+        for (FileSystemSnapshot outputSnapshot : beforeExecutionState.getOutputFileLocationSnapshots().values()) {
+            outputSnapshot.roots()
+                .forEach(root -> {
+                    outputRoots.add(root.getAbsolutePath());
+                    // Missing output directories have been created before execution, so we can't reuse the snapshot
+                    if (root.getType() != FileType.Missing) {
+                        fileSystemAccess.record(root);
+                    }
+                });
+        }
+        LOGGER.debug("Re-snapshotting {} output locations reported as changed by {}", changedOutputs.size(), work.getDisplayName());
+        fileSystemAccess.invalidate(changedOutputs);
+
+        if (verifyReportedChanges) {
+            verifyReportedChanges(work, context, outputRoots.build());
+        }
+    }
+
+    private void verifyReportedChanges(UnitOfWork work, C context, ImmutableList<String> outputRoots) {
+        ImmutableSortedMap<String, FileSystemSnapshot> reusedOutputSnapshots = outputSnapshotter.snapshotOutputs(work, context.getWorkspace());
+        fileSystemAccess.invalidate(outputRoots);
+        ImmutableSortedMap<String, FileSystemSnapshot> actualOutputSnapshots = outputSnapshotter.snapshotOutputs(work, context.getWorkspace());
+        actualOutputSnapshots.forEach((propertyName, actualSnapshot) -> {
+            FileSystemSnapshot reusedSnapshot = reusedOutputSnapshots.get(propertyName);
+            if (reusedSnapshot == null || !Objects.equals(SnapshotUtil.getRootHashes(reusedSnapshot), SnapshotUtil.getRootHashes(actualSnapshot))) {
+                throw new IllegalStateException(String.format(
+                    "Output changes reported by %s are incomplete: the outputs of property '%s' changed in locations which have not been reported.",
+                    work.getDisplayName(),
+                    propertyName
+                ));
+            }
+        });
+    }
+}
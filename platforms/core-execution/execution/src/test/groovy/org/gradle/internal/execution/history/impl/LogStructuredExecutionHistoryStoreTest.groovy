@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.history.impl
+
+import com.google.common.collect.ImmutableList
+import com.google.common.collect.ImmutableSortedMap
+import com.google.common.collect.Interners
+import org.gradle.cache.PersistentCache
+import org.gradle.caching.internal.origin.OriginMetadata
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.execution.history.AfterExecutionState
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher
+import org.gradle.internal.snapshot.impl.ImplementationSnapshot
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.function.Supplier
+
+import static org.gradle.internal.hash.TestHashCodes.hashCodeFrom
+
+@CleanupTestDirectory
+class LogStructuredExecutionHistoryStoreTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
+    def cacheDir = temporaryFolder.createDir("executionHistory")
+    def cache = Stub(PersistentCache) {
+        getBaseDir() >> cacheDir
+        withFileLock(_ as Supplier) >> { Supplier action -> action.get() }
+        withFileLock(_ as Runnable) >> { Runnable action -> action.run() }
+    }
+    def executorFactory = new DefaultExecutorFactory()
+    def store = createStore()
+
+    def cleanup() {
+        store.close()
+        executorFactory.stop()
+    }
+
+    def "stores, loads and removes entries"() {
+        when:
+        store.store("a", executionState(1))
+        store.store("b", executionState(2))
+        store.store("a", executionState(3))
+        store.remove("b")
+
+        then:
+        buildInvocationId("a") == "build-3"
+        !store.load("b").present
+        !store.load("c").present
+    }
+
+    def "restores entries when reopened"() {
+        store.store("a", executionState(1))
+        store.store("b", executionState(2))
+        store.store("a", executionState(3))
+        store.remove("b")
+
+        when:
+        reopen()
+
+        then:
+        buildInvocationId("a") == "build-3"
+        !store.load("b").present
+    }
+
+    def "drops incomplete record at the end of the log"() {
+        store.store("a", executionState(1))
+        store.store("b", executionState(2))
+        store.close()
+        def segment = segmentFiles().last()
+        segment.bytes = segment.bytes[0..-4] as byte[]
+
+        when:
+        reopen()
+
+        then:
+        buildInvocationId("a") == "build-1"
+        !store.load("b").present
+
+        when:
+        store.store("b", executionState(3))
+        reopen()
+
+        then:
+        buildInvocationId("a") == "build-1"
+        buildInvocationId("b") == "build-3"
+    }
+
+    def "compacts log in the background"() {
+        store.close()
+        store = createStore(2048, 4096)
+        def keys = (1..10).collect { "work-$it".toString() }
+
+        when:
+        (1..100).each { iteration ->
+            keys.each { store.store(it, executionState(iteration)) }
+        }
+        store.remove("work-1")
+        store.close()
+
+        then:
+        // Without compaction, the log would hold about 100 KiB of records
+        segmentFiles().sum { it.length() } < 32 * 1024
+
+        when:
+        reopen()
+
+        then:
+        !store.load("work-1").present
+        keys.drop(1).every { buildInvocationId(it) == "build-100" }
+    }
+
+    private String buildInvocationId(String key) {
+        store.load(key).get().originMetadata.buildInvocationId
+    }
+
+    private List<File> segmentFiles() {
+        cacheDir.listFiles().findAll { it.name.endsWith(".log") }.sort { (it.name =~ /\d+/)[0] as long }
+    }
+
+    private void reopen() {
+        store.close()
+        store = createStore()
+    }
+
+    private LogStructuredExecutionHistoryStore createStore(
+        long maxSegmentSize = LogStructuredExecutionHistoryStore.DEFAULT_MAX_SEGMENT_SIZE,
+        long minCompactionSize = LogStructuredExecutionHistoryStore.DEFAULT_MIN_COMPACTION_SIZE
+    ) {
+        new LogStructuredExecutionHistoryStore({ cache }, Interners.newStrongInterner(), Stub(ClassLoaderHierarchyHasher), executorFactory, maxSegmentSize, minCompactionSize)
+    }
+
+    private AfterExecutionState executionState(int buildNumber) {
+        Stub(AfterExecutionState) {
+            getOriginMetadata() >> new OriginMetadata("build-$buildNumber", hashCodeFrom(buildNumber), Duration.ofSeconds(buildNumber))
+            getCacheKey() >> hashCodeFrom(buildNumber)
+            getImplementation() >> ImplementationSnapshot.of("org.gradle.Work", hashCodeFrom(1234))
+            getAdditionalImplementations() >> ImmutableList.of()
+            getInputProperties() >> ImmutableSortedMap.of()
+            getInputFileProperties() >> ImmutableSortedMap.of()
+            getOutputFilesProducedByWork() >> ImmutableSortedMap.of()
+            isSuccessful() >> true
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.execution.steps
+
+import com.google.common.collect.ImmutableSortedMap
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.Try
+import org.gradle.internal.execution.ExecutionEngine
+import org.gradle.internal.execution.OutputSnapshotter
+import org.gradle.internal.execution.history.BeforeExecutionState
+import org.gradle.internal.execution.history.changes.InputChangesInternal
+import org.gradle.internal.file.FileMetadata.AccessType
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.snapshot.FileSystemSnapshot
+import org.gradle.internal.snapshot.MissingFileSnapshot
+import org.gradle.internal.vfs.FileSystemAccess
+import org.gradle.test.fixtures.file.TestFile
+
+class ReuseUnchangedOutputSnapshotsStepTest extends StepSpec<InputChangesContext> {
+    def fileSystemAccess = Mock(FileSystemAccess)
+    def outputSnapshotter = Mock(OutputSnapshotter)
+    def beforeExecutionState = Stub(BeforeExecutionState)
+    def inputChanges = Stub(InputChangesInternal)
+    def delegateResult = Stub(Result) {
+        execution >> Try.successful(Stub(ExecutionEngine.Execution))
+    }
+
+    TestFile outputDir
+    TestFile changedFile
+    TestFile missingOutputFile
+    FileSystemLocationSnapshot outputDirSnapshot
+
+    def setup() {
+        outputDir = file("outputDir").createDir()
+        outputDir.file("unchanged.txt").text = "unchanged"
+        changedFile = outputDir.file("changed.txt")
+        missingOutputFile = file("missing.txt")
+        outputDirSnapshot = snapshot(outputDir)
+        def missingOutputFileSnapshot = new MissingFileSnapshot(missingOutputFile.absolutePath, AccessType.DIRECT)
+        _ * context.beforeExecutionState >> Optional.of(beforeExecutionState)
+        _ * context.inputChanges >> Optional.of(inputChanges)
+        _ * beforeExecutionState.outputFileLocationSnapshots >> ImmutableSortedMap.<String, FileSystemSnapshot>of(
+            "dir", outputDirSnapshot,
+            "file", missingOutputFileSnapshot
+        )
+    }
+
+    def "re-records output snapshots and invalidates reported changes"() {
+        _ * context.incrementalExecution >> true
+        _ * inputChanges.reportedChangedOutputs >> Optional.of([changedFile.absolutePath] as Set)
+
+        when:
+        def result = step(false).execute(work, context)
+        then:
+        result == delegateResult
+        1 * delegate.execute(work, context) >> delegateResult
+
+        then:
+        1 * fileSystemAccess.record(outputDirSnapshot)
+        then:
+        1 * fileSystemAccess.invalidate([changedFile.absolutePath] as Set)
+        0 * _
+    }
+
+    def "does not reuse output snapshots when #description"() {
+        _ * context.incrementalExecution >> incremental
+        _ * inputChanges.reportedChangedOutputs >> reportedChanges
+        def resultWithOutcome = Stub(Result) {
+            getExecution() >> (successful ? Try.successful(Stub(ExecutionEngine.Execution)) : Try.failure(new RuntimeException("failure")))
+        }
+
+        when:
+        def result = step(false).execute(work, context)
+        then:
+        result == resultWithOutcome
+        1 * delegate.execute(work, context) >> resultWithOutcome
+        0 * _
+
+        where:
+        description                    | incremental | reportedChanges                     | successful
+        "changes are not reported"     | true        | Optional.empty()                    | true
+        "execution is not incremental" | false       | Optional.of(["changed.txt"] as Set) | true
+        "execution failed"             | true        | Optional.of(["changed.txt"] as Set) | false
+    }
+
+    def "verification fails when the work did not report all of its changes"() {
+        _ * context.incrementalExecution >> true
+        _ * inputChanges.reportedChangedOutputs >> Optional.of([] as Set)
+
+        when:
+        step(true).execute(work, context)
+        then:
+        1 * delegate.execute(work, context) >> delegateResult
+        1 * outputSnapshotter.snapshotOutputs(work, _) >> ImmutableSortedMap.<String, FileSystemSnapshot>of("dir", outputDirSnapshot)
+        1 * fileSystemAccess.invalidate([outputDir.absolutePath, missingOutputFile.absolutePath])
+        1 * outputSnapshotter.snapshotOutputs(work, _) >> {
+            changedFile.text = "changed"
+            ImmutableSortedMap.<String, FileSystemSnapshot>of("dir", snapshot(outputDir))
+        }
+
+        def ex = thrown(IllegalStateException)
+        ex.message == "Output changes reported by job ':test' are incomplete: the outputs of property 'dir' changed in locations which have not been reported."
+    }
+
+    private static FileSystemLocationSnapshot snapshot(File file) {
+        // Use a new snapshotter every time, so we don't get the cached snapshot
+        TestFiles.fileCollectionSnapshotter().snapshot(TestFiles.fixed(file)).snapshot as FileSystemLocationSnapshot
+    }
+
+    private ReuseUnchangedOutputSnapshotsStep<InputChangesContext, Result> step(boolean verifyReportedChanges) {
+        new ReuseUnchangedOutputSnapshotsStep<>(fileSystemAccess, outputSnapshotter, verifyReportedChanges, delegate)
+    }
+}
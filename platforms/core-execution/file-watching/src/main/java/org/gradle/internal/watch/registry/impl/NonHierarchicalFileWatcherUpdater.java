@@ -21,6 +21,7 @@
 import com.google.common.collect.Multiset;
 import net.rubygrapefruit.platform.NativeException;
 import org.gradle.fileevents.FileWatcher;
+import org.gradle.fileevents.internal.InotifyWatchesLimitTooLowException;
 import org.gradle.internal.file.FileHierarchySet;
 import org.gradle.internal.snapshot.DirectorySnapshot;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
@@ -37,9 +38,11 @@
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -51,6 +54,12 @@ public class NonHierarchicalFileWatcherUpdater extends AbstractFileWatcherUpdate
     private final Multiset<String> watchedDirectories = HashMultiset.create();
     private final Map<String, String> watchedDirectoryForSnapshot = new HashMap<>();
     private final Set<String> watchedWatchableHierarchies = new HashSet<>();
+    /**
+     * Directories which should be watched, but which we couldn't start watching since the inotify watches limit has been reached.
+     *
+     * The hierarchies containing those directories are removed from the VFS at the end of the build.
+     */
+    private final Set<String> directoriesOverWatchesLimit = new HashSet<>();
 
     public NonHierarchicalFileWatcherUpdater(
         FileWatcher fileWatcher,
@@ -108,6 +117,47 @@ protected void updateWatchesOnChangedWatchedFiles(FileHierarchySet newWatchedFil
         }
     }
 
+    @Override
+    public SnapshotHierarchy updateVfsBeforeBuildFinished(SnapshotHierarchy root, int maximumNumberOfWatchedHierarchies, List<File> unsupportedFileSystems) {
+        SnapshotHierarchy newRoot = removeHierarchiesOverWatchesLimit(root);
+        return super.updateVfsBeforeBuildFinished(newRoot, maximumNumberOfWatchedHierarchies, unsupportedFileSystems);
+    }
+
+    /**
+     * Drops the hierarchies we couldn't watch completely, and all the hierarchies which have been used less recently.
+     *
+     * That way we keep the watches for the hierarchies that have been used most recently,
+     * and free up the watches of older hierarchies so the current hierarchies have a chance to be watched in the next build.
+     */
+    private SnapshotHierarchy removeHierarchiesOverWatchesLimit(SnapshotHierarchy root) {
+        if (directoriesOverWatchesLimit.isEmpty()) {
+            return root;
+        }
+        List<File> hierarchiesToRemove = new ArrayList<>();
+        watchableHierarchies.stream()
+            .forEach(hierarchy -> {
+                if (!hierarchiesToRemove.isEmpty() || containsDirectoryOverWatchesLimit(hierarchy)) {
+                    hierarchiesToRemove.add(hierarchy);
+                }
+            });
+        LOGGER.warn("Unable to watch {} directories since the inotify watches limit is too low, dropping the state of {} from the virtual file system",
+            directoriesOverWatchesLimit.size(),
+            hierarchiesToRemove
+        );
+        WatchableHierarchies.Invalidator invalidator = createInvalidator();
+        SnapshotHierarchy newRoot = root;
+        for (File hierarchy : hierarchiesToRemove) {
+            newRoot = invalidator.invalidate(hierarchy.getAbsolutePath(), newRoot);
+        }
+        return newRoot;
+    }
+
+    private boolean containsDirectoryOverWatchesLimit(File hierarchy) {
+        FileHierarchySet hierarchySet = FileHierarchySet.empty().plus(hierarchy);
+        return directoriesOverWatchesLimit.stream()
+            .anyMatch(hierarchySet::contains);
+    }
+
     @Override
     protected WatchableHierarchies.Invalidator createInvalidator() {
         return (location, currentRoot) -> {
@@ -136,7 +186,7 @@ private void updateWatchedDirectories(Map<String, Integer> changedWatchDirectori
             if (count < 0) {
                 int toRemove = -count;
                 int contained = watchedDirectories.remove(absolutePath, toRemove);
-                if (contained <= toRemove) {
+                if (contained <= toRemove && !directoriesOverWatchesLimit.remove(absolutePath)) {
                     directoriesToStopWatching.add(new File(absolutePath));
                 }
             } else if (count > 0) {
@@ -156,7 +206,7 @@ private void updateWatchedDirectories(Map<String, Integer> changedWatchDirectori
                 }
             }
             if (!directoriesToStartWatching.isEmpty()) {
-                fileWatcher.startWatching(directoriesToStartWatching);
+                startWatching(directoriesToStartWatching);
             }
         } catch (NativeException e) {
             if (e.getMessage().contains("Already watching path: ")) {
@@ -166,6 +216,18 @@ private void updateWatchedDirectories(Map<String, Integer> changedWatchDirectori
         }
     }
 
+    private void startWatching(Set<File> directoriesToStartWatching) {
+        try {
+            fileWatcher.startWatching(directoriesToStartWatching);
+        } catch (InotifyWatchesLimitTooLowException e) {
+            // Keep the existing watches instead of stopping to watch altogether.
+            // Some of the new directories may have been watched before hitting the limit, so we don't watch any of them.
+            fileWatcher.stopWatching(directoriesToStartWatching);
+            directoriesToStartWatching.forEach(directory -> directoriesOverWatchesLimit.add(directory.getAbsolutePath()));
+            LOGGER.info("Unable to watch {} directories since the inotify watches limit is too low", directoriesToStartWatching.size());
+        }
+    }
+
     private static void decrement(String path, Map<String, Integer> changedWatchedDirectories) {
         changedWatchedDirectories.compute(path, (key, value) -> zeroToNull(nullToZero(value) - 1));
     }
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl;
+
+import org.gradle.internal.file.FileMetadata.AccessType;
+import org.gradle.internal.file.FileMetadataAccessor;
+import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.MissingFileSnapshot;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.SnapshotHierarchy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Stores the state of the virtual file system in a binary file per watchable hierarchy, named after the hash of the hierarchy's path.
+ *
+ * Each file is replaced atomically, so concurrent daemons sharing the same Gradle user home never see a partially written state.
+ * Failing to read or write the state is not an error, the virtual file system then simply starts empty.
+ */
+public class FileBasedVirtualFileSystemStateStore implements VirtualFileSystemStateStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileBasedVirtualFileSystemStateStore.class);
+
+    private static final int MAGIC = 0x56465353;
+    private static final byte FORMAT_VERSION = 2;
+
+    private static final byte REGULAR_FILE = 0;
+    private static final byte DIRECTORY = 1;
+    private static final byte MISSING = 2;
+
+    private static final AccessType[] ACCESS_TYPES = AccessType.values();
+
+    private final File stateDirectory;
+    private final FileMetadataAccessor fileMetadataAccessor;
+
+    public FileBasedVirtualFileSystemStateStore(File stateDirectory, FileMetadataAccessor fileMetadataAccessor) {
+        this.stateDirectory = stateDirectory;
+        this.fileMetadataAccessor = fileMetadataAccessor;
+    }
+
+    @Override
+    public PersistedVirtualFileSystemState load(File watchableHierarchy) {
+        File stateFile = stateFileFor(watchableHierarchy);
+        if (!stateFile.isFile()) {
+            return PersistedVirtualFileSystemState.EMPTY;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile.toPath())))) {
+            if (input.readInt() != MAGIC || input.readByte() != FORMAT_VERSION) {
+                LOGGER.info("Ignoring virtual file system state in {} written in an unknown format", stateFile);
+                return PersistedVirtualFileSystemState.EMPTY;
+            }
+            if (!input.readUTF().equals(watchableHierarchy.getAbsolutePath())) {
+                LOGGER.info("Ignoring virtual file system state in {} written for another hierarchy", stateFile);
+                return PersistedVirtualFileSystemState.EMPTY;
+            }
+            long persistedAt = input.readLong();
+            int numberOfSnapshots = input.readInt();
+            List<FileSystemLocationSnapshot> snapshots = new ArrayList<>(numberOfSnapshots);
+            for (int i = 0; i < numberOfSnapshots; i++) {
+                String absolutePath = input.readUTF();
+                String name = input.readUTF();
+                snapshots.add(readSnapshot(input, absolutePath, name));
+            }
+            LOGGER.debug("Loaded {} virtual file system snapshots from {}", numberOfSnapshots, stateFile);
+            return new PersistedVirtualFileSystemState(snapshots, persistedAt, fileMetadataAccessor);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Unable to load virtual file system state from {}", stateFile, e);
+            return PersistedVirtualFileSystemState.EMPTY;
+        }
+    }
+
+    @Override
+    public void store(File watchableHierarchy, SnapshotHierarchy root) {
+        List<FileSystemLocationSnapshot> snapshots = root.rootSnapshotsUnder(watchableHierarchy.getAbsolutePath()).collect(Collectors.toList());
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        File stateFile = stateFileFor(watchableHierarchy);
+        Path tempFile = null;
+        try {
+            Path targetFile = stateFile.toPath();
+            Files.createDirectories(targetFile.getParent());
+            tempFile = Files.createTempFile(targetFile.getParent(), stateFile.getName(), ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                output.writeByte(FORMAT_VERSION);
+                output.writeUTF(watchableHierarchy.getAbsolutePath());
+                output.writeLong(System.currentTimeMillis());
+                output.writeInt(snapshots.size());
+                for (FileSystemLocationSnapshot snapshot : snapshots) {
+                    output.writeUTF(snapshot.getAbsolutePath());
+                    output.writeUTF(snapshot.getName());
+                    writeSnapshot(output, snapshot);
+                }
+            }
+            Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tempFile = null;
+            LOGGER.debug("Stored {} virtual file system snapshots in {}", snapshots.size(), stateFile);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Unable to store virtual file system state in {}", stateFile, e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    LOGGER.debug("Unable to delete {}", tempFile, e);
+                }
+            }
+        }
+    }
+
+    private static void writeSnapshot(DataOutputStream output, FileSystemLocationSnapshot snapshot) throws IOException {
+        switch (snapshot.getType()) {
+            case RegularFile:
+                RegularFileSnapshot fileSnapshot = (RegularFileSnapshot) snapshot;
+                output.writeByte(REGULAR_FILE);
+                output.writeByte(snapshot.getAccessType().ordinal());
+                writeHash(output, fileSnapshot.getHash());
+                output.writeLong(fileSnapshot.getMetadata().getLastModified());
+                output.writeLong(fileSnapshot.getMetadata().getLength());
+                break;
+            case Directory:
+                DirectorySnapshot directorySnapshot = (DirectorySnapshot) snapshot;
+                output.writeByte(DIRECTORY);
+                output.writeByte(snapshot.getAccessType().ordinal());
+                writeHash(output, directorySnapshot.getHash());
+                output.writeLong(directorySnapshot.getLastModified());
+                List<FileSystemLocationSnapshot> children = directorySnapshot.getChildren();
+                output.writeInt(children.size());
+                for (FileSystemLocationSnapshot child : children) {
+                    output.writeUTF(child.getName());
+                    writeSnapshot(output, child);
+                }
+                break;
+            case Missing:
+                output.writeByte(MISSING);
+                output.writeByte(snapshot.getAccessType().ordinal());
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    private File stateFileFor(File watchableHierarchy) {
+        return new File(stateDirectory, Hashing.hashString(watchableHierarchy.getAbsolutePath()).toCompactString() + ".bin");
+    }
+
+    private static FileSystemLocationSnapshot readSnapshot(DataInputStream input, String absolutePath, String name) throws IOException {
+        byte type = input.readByte();
+        AccessType accessType = ACCESS_TYPES[input.readByte()];
+        switch (type) {
+            case REGULAR_FILE:
+                HashCode contentHash = readHash(input);
+                long lastModified = input.readLong();
+                long length = input.readLong();
+                return new RegularFileSnapshot(absolutePath, name, contentHash, DefaultFileMetadata.file(lastModified, length, accessType));
+            case DIRECTORY:
+                HashCode directoryHash = readHash(input);
+                long directoryLastModified = input.readLong();
+                int numberOfChildren = input.readInt();
+                List<FileSystemLocationSnapshot> children = new ArrayList<>(numberOfChildren);
+                String childPathPrefix = absolutePath.endsWith(File.separator) ? absolutePath : absolutePath + File.separatorChar;
+                for (int i = 0; i < numberOfChildren; i++) {
+                    String childName = input.readUTF();
+                    children.add(readSnapshot(input, childPathPrefix + childName, childName));
+                }
+                return new DirectorySnapshot(absolutePath, name, accessType, directoryHash, children, directoryLastModified);
+            case MISSING:
+                return new MissingFileSnapshot(absolutePath, name, accessType);
+            default:
+                throw new IOException("Unknown snapshot type " + type);
+        }
+    }
+
+    private static void writeHash(DataOutputStream output, HashCode hash) throws IOException {
+        byte[] bytes = hash.toByteArray();
+        output.writeByte(bytes.length);
+        output.write(bytes);
+    }
+
+    private static HashCode readHash(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readUnsignedByte()];
+        input.readFully(bytes);
+        return HashCode.fromBytes(bytes);
+    }
+}
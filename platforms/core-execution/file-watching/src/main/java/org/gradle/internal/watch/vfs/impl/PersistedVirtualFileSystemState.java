@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.file.FileMetadata;
+import org.gradle.internal.file.FileMetadataAccessor;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.file.nio.NioFileMetadataAccessor;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshots persisted by a previous daemon, which still need to be validated before they can be added to the virtual file system.
+ *
+ * A regular file is considered unchanged when it still has the same length and modification time.
+ * A directory is considered unchanged when it still has the modification time it had when it was snapshotted,
+ * so no children have been added or removed, and all its children are unchanged.
+ * Modification times close to the time the state was persisted are too racy to be trusted.
+ *
+ * The children of a directory are checked against the metadata returned by a single {@link FileMetadataAccessor#statChildren(File)} call.
+ */
+public class PersistedVirtualFileSystemState {
+    public static final PersistedVirtualFileSystemState EMPTY = new PersistedVirtualFileSystemState(ImmutableList.of(), 0, new NioFileMetadataAccessor());
+    private static final FileMetadata MISSING = DefaultFileMetadata.missing(FileMetadata.AccessType.DIRECT);
+
+    /**
+     * Changes within this window before persisting may not be reflected in the modification time we recorded.
+     */
+    private static final long RACY_MODIFICATION_TIME_WINDOW_MILLIS = 2000;
+
+    private final List<FileSystemLocationSnapshot> snapshots;
+    private final long persistedAt;
+    private final FileMetadataAccessor fileMetadataAccessor;
+
+    public PersistedVirtualFileSystemState(List<FileSystemLocationSnapshot> snapshots, long persistedAt, FileMetadataAccessor fileMetadataAccessor) {
+        this.snapshots = snapshots;
+        this.persistedAt = persistedAt;
+        this.fileMetadataAccessor = fileMetadataAccessor;
+    }
+
+    public List<FileSystemLocationSnapshot> getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Checks the persisted snapshot against the file system.
+     *
+     * @return a list containing only the snapshot itself when it is unchanged, otherwise the unchanged parts of the snapshot.
+     */
+    public List<FileSystemLocationSnapshot> validate(FileSystemLocationSnapshot snapshot) {
+        List<FileSystemLocationSnapshot> unchangedParts = new ArrayList<>();
+        try {
+            FileMetadata metadata = fileMetadataAccessor.stat(new File(snapshot.getAbsolutePath()));
+            if (collectUnchanged(snapshot, metadata, unchangedParts)) {
+                return Collections.singletonList(snapshot);
+            }
+        } catch (UncheckedIOException e) {
+            // Treat the parts not validated yet as changed
+        }
+        return unchangedParts;
+    }
+
+    /**
+     * Returns whether the whole snapshot is unchanged, otherwise adds its unchanged parts to {@code unchangedParts}.
+     *
+     * @param metadata the current metadata of the snapshot's location
+     */
+    private boolean collectUnchanged(FileSystemLocationSnapshot snapshot, FileMetadata metadata, List<FileSystemLocationSnapshot> unchangedParts) {
+        switch (snapshot.getType()) {
+            case RegularFile:
+                FileMetadata persistedMetadata = ((RegularFileSnapshot) snapshot).getMetadata();
+                return metadata.getType() == FileType.RegularFile
+                    && metadata.getLength() == persistedMetadata.getLength()
+                    && isTrustedModificationTime(metadata.getLastModified(), persistedMetadata.getLastModified());
+            case Missing:
+                return metadata.getType() == FileType.Missing;
+            case Directory:
+                if (metadata.getType() != FileType.Directory) {
+                    return false;
+                }
+                Map<String, FileMetadata> childrenMetadata = fileMetadataAccessor.statChildren(new File(snapshot.getAbsolutePath()));
+                List<FileSystemLocationSnapshot> unchangedChildParts = new ArrayList<>();
+                boolean allChildrenUnchanged = true;
+                for (FileSystemLocationSnapshot child : ((DirectorySnapshot) snapshot).getChildren()) {
+                    FileMetadata childMetadata = childrenMetadata.getOrDefault(child.getName(), MISSING);
+                    if (collectUnchanged(child, childMetadata, unchangedChildParts)) {
+                        unchangedChildParts.add(child);
+                    } else {
+                        allChildrenUnchanged = false;
+                    }
+                }
+                if (allChildrenUnchanged && isUnchangedDirectory((DirectorySnapshot) snapshot)) {
+                    return true;
+                }
+                unchangedParts.addAll(unchangedChildParts);
+                return false;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * The file metadata doesn't include the modification time of directories, so it is read separately.
+     */
+    private boolean isUnchangedDirectory(DirectorySnapshot snapshot) {
+        long modificationTime = snapshot.getLastModified();
+        if (modificationTime == DirectorySnapshot.UNKNOWN_LAST_MODIFIED) {
+            return false;
+        }
+        BasicFileAttributes directoryAttributes = readAttributes(snapshot.getAbsolutePath());
+        return directoryAttributes != null
+            && directoryAttributes.isDirectory()
+            && isTrustedModificationTime(directoryAttributes.lastModifiedTime().toMillis(), modificationTime);
+    }
+
+    private boolean isTrustedModificationTime(long modificationTime, long persistedModificationTime) {
+        return modificationTime == persistedModificationTime
+            && persistedModificationTime < persistedAt - RACY_MODIFICATION_TIME_WINDOW_MILLIS;
+    }
+
+    @Nullable
+    private static BasicFileAttributes readAttributes(String absolutePath) {
+        try {
+            return Files.readAttributes(Paths.get(absolutePath), BasicFileAttributes.class);
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+}
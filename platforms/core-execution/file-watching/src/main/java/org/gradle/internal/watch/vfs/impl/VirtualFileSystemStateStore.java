@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl;
+
+import org.gradle.internal.snapshot.SnapshotHierarchy;
+
+import java.io.File;
+
+/**
+ * Keeps the retained state of the virtual file system across daemon restarts.
+ *
+ * The state is kept separately for each watchable hierarchy, so daemons working on different builds don't replace each other's state.
+ *
+ * The persisted state is only a hint: it needs to be validated against the file system before it can be used,
+ * see {@link PersistedVirtualFileSystemState#validate(org.gradle.internal.snapshot.FileSystemLocationSnapshot)}.
+ */
+public interface VirtualFileSystemStateStore {
+    VirtualFileSystemStateStore NONE = new VirtualFileSystemStateStore() {
+        @Override
+        public PersistedVirtualFileSystemState load(File watchableHierarchy) {
+            return PersistedVirtualFileSystemState.EMPTY;
+        }
+
+        @Override
+        public void store(File watchableHierarchy, SnapshotHierarchy root) {
+        }
+    };
+
+    /**
+     * Loads the state of the given hierarchy persisted by a previous daemon, or an empty state if there is none.
+     */
+    PersistedVirtualFileSystemState load(File watchableHierarchy);
+
+    /**
+     * Persists the snapshots of the given root within the given hierarchy, replacing any previously persisted state of that hierarchy.
+     */
+    void store(File watchableHierarchy, SnapshotHierarchy root);
+}
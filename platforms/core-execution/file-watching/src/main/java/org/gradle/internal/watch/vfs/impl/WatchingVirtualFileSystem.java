@@ -20,10 +20,12 @@
 import net.rubygrapefruit.platform.NativeException;
 import org.gradle.fileevents.internal.InotifyInstanceLimitTooLowException;
 import org.gradle.fileevents.internal.InotifyWatchesLimitTooLowException;
+import org.gradle.internal.MutableReference;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationRunner;
 import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemNode;
 import org.gradle.internal.snapshot.SnapshotHierarchy;
 import org.gradle.internal.vfs.impl.AbstractVirtualFileSystem;
@@ -64,6 +66,7 @@ public class WatchingVirtualFileSystem extends AbstractVirtualFileSystem impleme
     private final FileWatchingFilter locationsWrittenByCurrentBuild;
     private final WatchableFileSystemDetector watchableFileSystemDetector;
     private final FileChangeListeners fileChangeListeners;
+    private final VirtualFileSystemStateStore stateStore;
     private final List<File> unsupportedFileSystems = new ArrayList<>();
     private Logger warningLogger = LOGGER;
 
@@ -76,6 +79,15 @@ public class WatchingVirtualFileSystem extends AbstractVirtualFileSystem impleme
     private Exception reasonForNotWatchingFiles;
     private boolean stateInvalidatedAtStartOfBuild;
 
+    /**
+     * The watchable hierarchies registered while watching since this daemon started, whose state is persisted when the daemon stops.
+     */
+    private final Set<File> watchedHierarchiesToPersist = new LinkedHashSet<>();
+    /**
+     * Watchable hierarchies registered for the first time, whose persisted state still needs to be restored outside the lock.
+     */
+    private final List<File> hierarchiesToRestore = new ArrayList<>();
+
     public WatchingVirtualFileSystem(
         FileWatcherRegistryFactory watcherRegistryFactory,
         SnapshotHierarchy root,
@@ -83,6 +95,18 @@ public WatchingVirtualFileSystem(
         FileWatchingFilter locationsWrittenByCurrentBuild,
         WatchableFileSystemDetector watchableFileSystemDetector,
         FileChangeListeners fileChangeListeners
+    ) {
+        this(watcherRegistryFactory, root, fileSystemWatchingDocumentationIndex, locationsWrittenByCurrentBuild, watchableFileSystemDetector, fileChangeListeners, VirtualFileSystemStateStore.NONE);
+    }
+
+    public WatchingVirtualFileSystem(
+        FileWatcherRegistryFactory watcherRegistryFactory,
+        SnapshotHierarchy root,
+        FileSystemWatchingDocumentationIndex fileSystemWatchingDocumentationIndex,
+        FileWatchingFilter locationsWrittenByCurrentBuild,
+        WatchableFileSystemDetector watchableFileSystemDetector,
+        FileChangeListeners fileChangeListeners,
+        VirtualFileSystemStateStore stateStore
     ) {
         super(root);
         this.watcherRegistryFactory = watcherRegistryFactory;
@@ -90,6 +114,7 @@ public WatchingVirtualFileSystem(
         this.locationsWrittenByCurrentBuild = locationsWrittenByCurrentBuild;
         this.watchableFileSystemDetector = watchableFileSystemDetector;
         this.fileChangeListeners = fileChangeListeners;
+        this.stateStore = stateStore;
     }
 
     @Override
@@ -192,6 +217,7 @@ public BuildOperationDescriptor.Builder description() {
                     .details(BuildStartedFileSystemWatchingBuildOperationType.Details.INSTANCE);
             }
         }));
+        restorePersistedSnapshots();
         return watchRegistry != null;
     }
 
@@ -204,9 +230,13 @@ public void registerWatchableHierarchy(File watchableHierarchy) {
             }
             return withWatcherChangeErrorHandling(
                 currentRoot,
-                () -> watchRegistry.registerWatchableHierarchy(watchableHierarchy, currentRoot)
+                () -> {
+                    watchRegistry.registerWatchableHierarchy(watchableHierarchy, currentRoot);
+                    watchedHierarchyRegistered(watchableHierarchy);
+                }
             );
         });
+        restorePersistedSnapshots();
     }
 
     @Override
@@ -310,6 +340,66 @@ public void afterBuildFinished() {
             }));
     }
 
+    /**
+     * Remembers a hierarchy registered while watching, so its state is restored the first time it is registered and persisted when the daemon stops.
+     */
+    private void watchedHierarchyRegistered(File watchableHierarchy) {
+        if (stateStore != VirtualFileSystemStateStore.NONE && watchedHierarchiesToPersist.add(watchableHierarchy)) {
+            hierarchiesToRestore.add(watchableHierarchy);
+        }
+    }
+
+    /**
+     * Validates the state persisted by a previous daemon for the hierarchies registered for the first time
+     * and adds the unchanged parts to the virtual file system.
+     *
+     * Loading and validating the state reads the metadata of every restored location, so it happens outside the lock.
+     * Like any other snapshot, a validated snapshot is only stored when its location hasn't been invalidated in the meantime.
+     */
+    private void restorePersistedSnapshots() {
+        List<File> hierarchies = new ArrayList<>();
+        underLock(() -> {
+            if (watchRegistry != null) {
+                hierarchies.addAll(hierarchiesToRestore);
+            }
+            hierarchiesToRestore.clear();
+        });
+        for (File hierarchy : hierarchies) {
+            PersistedVirtualFileSystemState state = stateStore.load(hierarchy);
+            int restoredLocations = 0;
+            int changedLocations = 0;
+            for (FileSystemLocationSnapshot snapshot : state.getSnapshots()) {
+                String absolutePath = snapshot.getAbsolutePath();
+                // Don't overwrite anything the current build already knows about
+                if (findMetadata(absolutePath).isPresent() || findRootSnapshotsUnder(absolutePath).findAny().isPresent()) {
+                    continue;
+                }
+                boolean unchanged = storeWithAction(absolutePath, storer -> {
+                    List<FileSystemLocationSnapshot> validSnapshots = state.validate(snapshot);
+                    validSnapshots.forEach(storer::store);
+                    return validSnapshots.size() == 1 && validSnapshots.get(0) == snapshot;
+                });
+                restoredLocations++;
+                if (!unchanged) {
+                    changedLocations++;
+                }
+            }
+            LOGGER.info("Restored {} locations in {} from the persisted virtual file system state, {} of them changed since", restoredLocations, hierarchy, changedLocations);
+        }
+    }
+
+    /**
+     * Persists what the virtual file system retains for the watched hierarchies, so a future daemon can pick it up.
+     *
+     * Only called when the daemon stops, so persisting never adds to the duration of a build.
+     * A daemon that doesn't stop cleanly leaves the previously persisted state in place, which is validated when it is restored.
+     */
+    private void persistRetainedState(SnapshotHierarchy retainedRoot, List<File> hierarchies) {
+        for (File hierarchy : hierarchies) {
+            stateStore.store(hierarchy, retainedRoot);
+        }
+    }
+
     /**
      * Start watching the known areas of the file system for changes.
      */
@@ -322,7 +412,10 @@ private SnapshotHierarchy startWatching(SnapshotHierarchy currentRoot, WatchMode
                     new BroadcastingChangeHandler()
                 )));
             SnapshotHierarchy newRoot = watchRegistry.updateVfsOnBuildStarted(currentRoot.empty(), watchMode, unsupportedFileSystems);
-            watchableHierarchiesRegisteredEarly.forEach(watchableHierarchy -> watchRegistry.registerWatchableHierarchy(watchableHierarchy, newRoot));
+            for (File watchableHierarchy : watchableHierarchiesRegisteredEarly) {
+                watchRegistry.registerWatchableHierarchy(watchableHierarchy, newRoot);
+                watchedHierarchyRegistered(watchableHierarchy);
+            }
             watchableHierarchiesRegisteredEarly.clear();
             return newRoot;
         } catch (Exception ex) {
@@ -513,10 +606,19 @@ private boolean hasDroppedStateBecauseOfErrorsReceivedWhileWatching(FileWatcherR
     @Override
     public void close() {
         LOGGER.debug("Closing VFS, dropping state");
+        List<File> hierarchiesToPersist = new ArrayList<>();
+        MutableReference<SnapshotHierarchy> retainedRoot = MutableReference.empty();
         updateRootUnderLock(currentRoot -> {
+            if (watchRegistry != null) {
+                hierarchiesToPersist.addAll(watchedHierarchiesToPersist);
+                retainedRoot.set(currentRoot);
+            }
             closeUnderLock();
             return currentRoot.empty();
         });
+        if (!hierarchiesToPersist.isEmpty()) {
+            persistRetainedState(retainedRoot.get(), hierarchiesToPersist);
+        }
     }
 
     private void closeUnderLock() {
@@ -17,6 +17,7 @@
 package org.gradle.internal.watch.registry.impl
 
 import org.gradle.fileevents.FileWatcher
+import org.gradle.fileevents.internal.InotifyWatchesLimitTooLowException
 import org.gradle.internal.watch.registry.FileWatcherUpdater
 
 class NonHierarchicalFileWatcherUpdaterTest extends AbstractFileWatcherUpdaterTest {
@@ -120,4 +121,41 @@ class NonHierarchicalFileWatcherUpdaterTest extends AbstractFileWatcherUpdaterTe
         1 * watcher.stopWatching({ equalIgnoringOrder(it, [unwatchableContent.parentFile]) })
         0 * _
     }
+
+    def "keeps watching when the watches limit is reached and drops hierarchies used less recently than the unwatched one"() {
+        def first = file("first").createDir()
+        def second = file("second").createDir()
+        def third = file("third").createDir()
+        def fileInFirst = first.file("some/dir/file.txt").createFile()
+        def fileInSecond = second.file("some/dir/file.txt").createFile()
+        def fileInThird = third.file("some/dir/file.txt").createFile()
+
+        when:
+        // Most recently used hierarchy is registered last
+        registerWatchableHierarchies([third, second, first])
+        addSnapshot(snapshotRegularFile(fileInFirst))
+        addSnapshot(snapshotRegularFile(fileInThird))
+        then:
+        1 * watcher.startWatching({ equalIgnoringOrder(it, [fileInFirst.parentFile]) })
+        1 * watcher.startWatching({ equalIgnoringOrder(it, [fileInThird.parentFile]) })
+
+        when:
+        addSnapshot(snapshotRegularFile(fileInSecond))
+        then:
+        1 * watcher.startWatching({ equalIgnoringOrder(it, [fileInSecond.parentFile]) }) >> { throw new InotifyWatchesLimitTooLowException("Inotify watches limit too low") }
+        1 * watcher.stopWatching({ equalIgnoringOrder(it, [fileInSecond.parentFile]) })
+        0 * watcher.stopWatching(_)
+        vfsHasSnapshotsAt(fileInSecond)
+
+        when:
+        buildFinished()
+        then:
+        vfsHasSnapshotsAt(fileInFirst)
+        !vfsHasSnapshotsAt(fileInSecond)
+        !vfsHasSnapshotsAt(fileInThird)
+        0 * watcher.stopWatching({ it.contains(fileInSecond.parentFile) })
+        1 * watcher.stopWatching({ equalIgnoringOrder(it, [fileInThird.parentFile]) })
+        0 * watcher.stopWatching({ it.contains(fileInFirst.parentFile) || it.contains(first) })
+        0 * watcher.startWatching(_)
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.file.nio.NioFileMetadataAccessor
+import org.gradle.internal.snapshot.CaseSensitivity
+import org.gradle.internal.snapshot.DirectorySnapshot
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.snapshot.SnapshotHierarchy
+import org.gradle.internal.snapshot.impl.DirectorySnapshotter
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics
+import org.gradle.internal.vfs.impl.DefaultSnapshotHierarchy
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class FileBasedVirtualFileSystemStateStoreTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
+    def directorySnapshotter = new DirectorySnapshotter(TestFiles.fileHasher(), new StringInterner(), [], Stub(DirectorySnapshotterStatistics.Collector))
+    def stateDirectory = temporaryFolder.file("state")
+    def store = new FileBasedVirtualFileSystemStateStore(stateDirectory, new NioFileMetadataAccessor())
+    def oldModificationTime = System.currentTimeMillis() - 60_000
+
+    def "loads an empty state when nothing has been persisted"() {
+        expect:
+        store.load(temporaryFolder.file("project")) == PersistedVirtualFileSystemState.EMPTY
+    }
+
+    def "loads an empty state when the state file is corrupt"() {
+        def projectDir = createProject()
+        store.store(projectDir, storeInHierarchy(snapshot(projectDir)))
+        stateDirectory.listFiles().each { it.text = "corrupt" }
+
+        expect:
+        store.load(projectDir) == PersistedVirtualFileSystemState.EMPTY
+    }
+
+    def "persisted snapshots survive a round trip"() {
+        def projectDir = createProject()
+        def snapshot = snapshot(projectDir)
+
+        when:
+        store.store(projectDir, storeInHierarchy(snapshot))
+        def snapshots = store.load(projectDir).snapshots
+
+        then:
+        snapshots.size() == 1
+        snapshots[0].absolutePath == snapshot.absolutePath
+        snapshots[0].hash == snapshot.hash
+        snapshots[0].isContentAndMetadataUpToDate(snapshot)
+        ((DirectorySnapshot) snapshots[0]).children*.name == snapshot.children*.name
+        ((DirectorySnapshot) snapshots[0]).lastModified == oldModificationTime
+    }
+
+    def "keeps the state of each hierarchy in a separate file"() {
+        def projectDir = createProject()
+        def otherDir = temporaryFolder.createDir("project-other")
+        otherDir.file("file.txt").text = "other"
+        def root = storeInHierarchy(snapshot(projectDir), snapshot(otherDir))
+
+        when:
+        store.store(projectDir, root)
+        store.store(otherDir, root)
+
+        then:
+        stateDirectory.listFiles().length == 2
+        store.load(projectDir).snapshots*.absolutePath == [projectDir.absolutePath]
+        store.load(otherDir).snapshots*.absolutePath == [otherDir.absolutePath]
+        store.load(temporaryFolder.file("unknown")).snapshots.empty
+    }
+
+    def "unchanged snapshots are valid"() {
+        def projectDir = createProject()
+        store.store(projectDir, storeInHierarchy(snapshot(projectDir)))
+        def state = store.load(projectDir)
+        def persistedSnapshot = state.snapshots[0]
+
+        expect:
+        state.validate(persistedSnapshot) == [persistedSnapshot]
+    }
+
+    def "keeps the unchanged parts of a changed directory"() {
+        def projectDir = createProject()
+        store.store(projectDir, storeInHierarchy(snapshot(projectDir)))
+        def state = store.load(projectDir)
+        def persistedSnapshot = state.snapshots[0]
+
+        when:
+        projectDir.file("src/Changed.java").text = "class Changed { int field; }"
+
+        then:
+        state.validate(persistedSnapshot)*.absolutePath as Set == [
+            projectDir.file("build.gradle"),
+            projectDir.file("src/Unchanged.java")
+        ]*.absolutePath as Set
+    }
+
+    def "uses the directory modification time from when the directory was snapshotted"() {
+        def projectDir = createProject()
+        def snapshot = snapshot(projectDir)
+        projectDir.file("src/Added.java").text = "class Added {}"
+        projectDir.file("src").setLastModified(oldModificationTime + 1000)
+        store.store(projectDir, storeInHierarchy(snapshot))
+        def state = store.load(projectDir)
+        def persistedSnapshot = state.snapshots[0]
+
+        expect:
+        !state.validate(persistedSnapshot).contains(persistedSnapshot)
+        !(projectDir.file("src").absolutePath in state.validate(persistedSnapshot)*.absolutePath)
+    }
+
+    def "does not trust modification times close to when the state was persisted"() {
+        def projectDir = createProject()
+        def recentlyChanged = projectDir.file("src/Changed.java")
+        recentlyChanged.text = "class Changed { int field; }"
+        store.store(projectDir, storeInHierarchy(snapshot(projectDir)))
+        def state = store.load(projectDir)
+        def persistedSnapshot = state.snapshots[0]
+
+        expect:
+        !state.validate(persistedSnapshot).contains(persistedSnapshot)
+        !(recentlyChanged.absolutePath in state.validate(persistedSnapshot)*.absolutePath)
+    }
+
+    def "missing files are invalid once they have been created"() {
+        def missingFile = temporaryFolder.file("missing.txt")
+        def missingSnapshot = directorySnapshotter.snapshot(missingFile.absolutePath, null, [:]) {}
+        store.store(missingFile, storeInHierarchy(missingSnapshot))
+        def state = store.load(missingFile)
+        def persistedSnapshot = state.snapshots[0]
+
+        expect:
+        state.validate(persistedSnapshot) == [persistedSnapshot]
+
+        when:
+        missingFile.text = "created"
+
+        then:
+        state.validate(persistedSnapshot).empty
+    }
+
+    private TestFile createProject() {
+        def projectDir = temporaryFolder.createDir("project")
+        projectDir.file("build.gradle").text = "plugins { id('java') }"
+        projectDir.file("src/Changed.java").text = "class Changed {}"
+        projectDir.file("src/Unchanged.java").text = "class Unchanged {}"
+        [projectDir.file("build.gradle"), projectDir.file("src/Changed.java"), projectDir.file("src/Unchanged.java"), projectDir.file("src"), projectDir].each {
+            it.setLastModified(oldModificationTime)
+        }
+        return projectDir
+    }
+
+    private DirectorySnapshot snapshot(File directory) {
+        directorySnapshotter.snapshot(directory.absolutePath, null, [:]) {} as DirectorySnapshot
+    }
+
+    private static SnapshotHierarchy storeInHierarchy(FileSystemLocationSnapshot... snapshots) {
+        SnapshotHierarchy root = DefaultSnapshotHierarchy.empty(CaseSensitivity.CASE_SENSITIVE)
+        snapshots.each {
+            root = root.store(it.absolutePath, it, SnapshotHierarchy.NodeDiffListener.NOOP)
+        }
+        return root
+    }
+}
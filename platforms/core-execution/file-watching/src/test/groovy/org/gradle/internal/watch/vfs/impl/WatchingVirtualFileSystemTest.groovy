@@ -17,9 +17,14 @@
 package org.gradle.internal.watch.vfs.impl
 
 import net.rubygrapefruit.platform.NativeException
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.file.nio.NioFileMetadataAccessor
 import org.gradle.internal.operations.TestBuildOperationRunner
 import org.gradle.internal.snapshot.CaseSensitivity
 import org.gradle.internal.snapshot.SnapshotHierarchy
+import org.gradle.internal.snapshot.impl.DirectorySnapshotter
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics
 import org.gradle.internal.vfs.impl.DefaultSnapshotHierarchy
 import org.gradle.internal.watch.registry.FileWatcherRegistry
 import org.gradle.internal.watch.registry.FileWatcherRegistryFactory
@@ -28,9 +33,14 @@ import org.gradle.internal.watch.registry.impl.FileSystemWatchingDocumentationIn
 import org.gradle.internal.watch.vfs.FileChangeListeners
 import org.gradle.internal.watch.vfs.VfsLogging
 import org.gradle.internal.watch.vfs.WatchableFileSystemDetector
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class WatchingVirtualFileSystemTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
     def watcherRegistryFactory = Mock(FileWatcherRegistryFactory)
     def watcherRegistry = Mock(FileWatcherRegistry)
     def emptySnapshotHierarchy = DefaultSnapshotHierarchy.empty(CaseSensitivity.CASE_SENSITIVE)
@@ -252,4 +262,89 @@ class WatchingVirtualFileSystemTest extends Specification {
         1 * watcherRegistry.close()
         0 * _
     }
+
+    def "restores the unchanged persisted snapshots in a watchable hierarchy"() {
+        def directorySnapshotter = new DirectorySnapshotter(TestFiles.fileHasher(), new StringInterner(), [], Stub(DirectorySnapshotterStatistics.Collector))
+        def oldModificationTime = System.currentTimeMillis() - 60_000
+        def projectDir = temporaryFolder.createDir("project")
+        def unchangedDir = projectDir.createDir("unchanged")
+        def changedDir = projectDir.createDir("changed")
+        unchangedDir.file("Unchanged.java").text = "class Unchanged {}"
+        changedDir.file("Changed.java").text = "class Changed {}"
+        [unchangedDir.file("Unchanged.java"), changedDir.file("Changed.java"), unchangedDir, changedDir].each {
+            it.setLastModified(oldModificationTime)
+        }
+        def persistedSnapshots = [unchangedDir, changedDir].collect { directorySnapshotter.snapshot(it.absolutePath, null, [:]) {} }
+        def persistedState = new PersistedVirtualFileSystemState(persistedSnapshots, System.currentTimeMillis(), new NioFileMetadataAccessor())
+        def stateStore = Stub(VirtualFileSystemStateStore) {
+            load(projectDir) >> persistedState
+        }
+        def watchingVirtualFileSystem = new WatchingVirtualFileSystem(
+            watcherRegistryFactory,
+            emptySnapshotHierarchy,
+            documentationIndex,
+            locationsUpdatedByCurrentBuild,
+            watchableFileSystemDetector,
+            fileChangeListeners,
+            stateStore
+        )
+
+        when:
+        watchingVirtualFileSystem.afterBuildStarted(WatchMode.ENABLED, VfsLogging.NORMAL, buildOperationRunner)
+        then:
+        1 * watcherRegistryFactory.createFileWatcherRegistry(_) >> watcherRegistry
+        1 * watcherRegistry.updateVfsOnBuildStarted(_, _, _) >> emptySnapshotHierarchy
+
+        when:
+        changedDir.file("Changed.java").text = "class Changed { int field; }"
+        watchingVirtualFileSystem.registerWatchableHierarchy(projectDir)
+        then:
+        1 * watcherRegistry.registerWatchableHierarchy(projectDir, _)
+
+        and:
+        watchingVirtualFileSystem.findSnapshot(unchangedDir.absolutePath).present
+        !watchingVirtualFileSystem.findSnapshot(changedDir.absolutePath).present
+        !watchingVirtualFileSystem.findSnapshot(changedDir.file("Changed.java").absolutePath).present
+    }
+
+    def "persists the state of the watched hierarchies when closed"() {
+        def projectDir = temporaryFolder.createDir("project")
+        def stateStore = Mock(VirtualFileSystemStateStore)
+        def watchingVirtualFileSystem = new WatchingVirtualFileSystem(
+            watcherRegistryFactory,
+            emptySnapshotHierarchy,
+            documentationIndex,
+            locationsUpdatedByCurrentBuild,
+            watchableFileSystemDetector,
+            fileChangeListeners,
+            stateStore
+        )
+
+        when:
+        watchingVirtualFileSystem.afterBuildStarted(WatchMode.ENABLED, VfsLogging.NORMAL, buildOperationRunner)
+        watchingVirtualFileSystem.registerWatchableHierarchy(projectDir)
+        then:
+        1 * watcherRegistryFactory.createFileWatcherRegistry(_) >> watcherRegistry
+        1 * watcherRegistry.updateVfsOnBuildStarted(_, _, _) >> emptySnapshotHierarchy
+        1 * watcherRegistry.registerWatchableHierarchy(projectDir, _)
+        1 * stateStore.load(projectDir) >> PersistedVirtualFileSystemState.EMPTY
+
+        when:
+        watchingVirtualFileSystem.afterBuildFinished()
+        then:
+        1 * watcherRegistry.updateVfsAfterBuildFinished(_) >> emptySnapshotHierarchy
+        0 * stateStore._
+
+        when:
+        watchingVirtualFileSystem.registerWatchableHierarchy(projectDir)
+        then:
+        1 * watcherRegistry.registerWatchableHierarchy(projectDir, _)
+        0 * stateStore._
+
+        when:
+        watchingVirtualFileSystem.close()
+        then:
+        1 * stateStore.store(projectDir, emptySnapshotHierarchy)
+        1 * watcherRegistry.close()
+    }
 }
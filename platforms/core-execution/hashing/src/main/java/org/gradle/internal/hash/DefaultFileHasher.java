@@ -21,27 +21,43 @@
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 public class DefaultFileHasher implements FileHasher {
+    /**
+     * Files of at least this size are hashed without copying their content to the Java heap.
+     * For smaller files, setting up the memory mapping costs more than copying the content.
+     */
+    public static final long DEFAULT_DIRECT_HASHING_THRESHOLD = 1024 * 1024;
+
     private final StreamHasher streamHasher;
+    private final long directHashingThreshold;
 
     public DefaultFileHasher(StreamHasher streamHasher) {
+        this(streamHasher, DEFAULT_DIRECT_HASHING_THRESHOLD);
+    }
+
+    public DefaultFileHasher(StreamHasher streamHasher, long directHashingThreshold) {
         this.streamHasher = streamHasher;
+        this.directHashingThreshold = directHashingThreshold;
     }
 
     @Override
     public HashCode hash(File file) {
-        InputStream inputStream;
+        FileInputStream inputStream;
         try {
             inputStream = new FileInputStream(file);
         } catch (FileNotFoundException e) {
-            throw new UncheckedIOException(String.format("Failed to create MD5 hash for file '%s' as it does not exist.", file), e);
+            throw new UncheckedIOException(String.format("Failed to create %s hash for file '%s' as it does not exist.", streamHasher.getHashFunction().getAlgorithm(), file), e);
         }
         try {
+            FileChannel channel = inputStream.getChannel();
+            if (channel.size() >= directHashingThreshold) {
+                return streamHasher.hash(channel);
+            }
             return streamHasher.hash(inputStream);
         } catch (IOException e) {
-            throw new UncheckedIOException(String.format("Failed to create MD5 hash for file '%s'", file), e);
+            throw new UncheckedIOException(String.format("Failed to create %s hash for file '%s'", streamHasher.getHashFunction().getAlgorithm(), file), e);
         } finally {
             try {
                 inputStream.close();
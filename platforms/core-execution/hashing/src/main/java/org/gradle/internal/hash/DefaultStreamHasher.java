@@ -16,17 +16,52 @@
 package org.gradle.internal.hash;
 
 import com.google.common.io.ByteStreams;
+import org.gradle.internal.MappedByteBuffers;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 
 public class DefaultStreamHasher implements StreamHasher {
     private static final HashCode SIGNATURE = Hashing.signature(DefaultStreamHasher.class);
+    private static final int DIRECT_BUFFER_SIZE = 64 * 1024;
+    // Map large files a region at a time, so hashing a file never pins more address space than this
+    private static final long MAX_MAPPED_REGION_SIZE = 64L * 1024 * 1024;
+    // A mapped file cannot be deleted on Windows until the mapping is released, which Java 8 can't do on demand, so read into direct buffers there instead
+    private static final boolean MAP_FILES = !System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("windows");
 
     private final Queue<byte[]> buffers = new ArrayBlockingQueue<byte[]>(16);
+    private final Queue<ByteBuffer> directBuffers = new ArrayBlockingQueue<ByteBuffer>(16);
+    private final HashFunction hashFunction;
+    private final HashCode signature;
+    private final boolean mapFiles;
+
+    public DefaultStreamHasher() {
+        this(Hashing.defaultFunction());
+    }
+
+    public DefaultStreamHasher(HashFunction hashFunction) {
+        this.hashFunction = hashFunction;
+        // Keep the signature of the default function, so that existing hashes stay the same
+        this.signature = hashFunction == Hashing.defaultFunction()
+            ? SIGNATURE
+            : Hashing.signature(DefaultStreamHasher.class.getName() + ":" + hashFunction.getAlgorithm());
+        // Only XXH3 reads the mapped memory directly.
+        // Message digests copy a direct buffer to a small heap array before digesting it, so mapping saves nothing over reading into a direct buffer.
+        this.mapFiles = MAP_FILES && hashFunction == Hashing.xxh3_128();
+    }
+
+    @Override
+    public HashFunction getHashFunction() {
+        return hashFunction;
+    }
 
     @Override
     public HashCode hash(InputStream inputStream) throws IOException {
@@ -38,11 +73,64 @@ public HashCode hashCopy(InputStream inputStream, OutputStream outputStream) thr
         return doHash(inputStream, outputStream);
     }
 
+    @Override
+    public HashCode hash(FileChannel channel) throws IOException {
+        PrimitiveHasher hasher = hashFunction.newPrimitiveHasher();
+        hasher.putHash(signature);
+        if (mapFiles) {
+            hashMapped(channel, hasher);
+        } else {
+            hashDirect(channel, hasher);
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Reading a part of a mapping that is no longer backed by the file fails the JVM, so the file size is checked before mapping and after hashing each region.
+     */
+    private static void hashMapped(FileChannel channel, PrimitiveHasher hasher) throws IOException {
+        long position = channel.position();
+        long size = channel.size();
+        while (position < size) {
+            long regionSize = Math.min(MAX_MAPPED_REGION_SIZE, size - position);
+            checkNotTruncated(channel, position + regionSize);
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+            try {
+                hasher.putBytes(region);
+            } finally {
+                MappedByteBuffers.unmap(region);
+            }
+            position += regionSize;
+            checkNotTruncated(channel, position);
+        }
+        channel.position(size);
+    }
+
+    private static void checkNotTruncated(FileChannel channel, long expectedSize) throws IOException {
+        if (channel.size() < expectedSize) {
+            throw new IOException("File was truncated while it was being hashed");
+        }
+    }
+
+    private void hashDirect(FileChannel channel, PrimitiveHasher hasher) throws IOException {
+        ByteBuffer buffer = takeDirectBuffer();
+        try {
+            while (channel.read(buffer) >= 0) {
+                castBuffer(buffer).flip();
+                hasher.putBytes(buffer);
+                castBuffer(buffer).clear();
+            }
+        } finally {
+            castBuffer(buffer).clear();
+            directBuffers.offer(buffer);
+        }
+    }
+
     private HashCode doHash(InputStream inputStream, OutputStream outputStream) throws IOException {
         byte[] buffer = takeBuffer();
         try {
-            PrimitiveHasher hasher = Hashing.newPrimitiveHasher();
-            hasher.putHash(SIGNATURE);
+            PrimitiveHasher hasher = hashFunction.newPrimitiveHasher();
+            hasher.putHash(signature);
             while (true) {
                 int nread = inputStream.read(buffer);
                 if (nread < 0) {
@@ -69,4 +157,21 @@ private byte[] takeBuffer() {
         }
         return buffer;
     }
+
+    private ByteBuffer takeDirectBuffer() {
+        ByteBuffer buffer = directBuffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+        }
+        return buffer;
+    }
+
+    /**
+     * Without this cast, when the code compiled by Java 9+ is executed on Java 8, it will throw
+     * java.lang.NoSuchMethodError: Method flip()Ljava/nio/ByteBuffer; does not exist in class java.nio.ByteBuffer
+     */
+    @SuppressWarnings("RedundantCast")
+    private static Buffer castBuffer(ByteBuffer byteBuffer) {
+        return (Buffer) byteBuffer;
+    }
 }
@@ -21,6 +21,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 @ServiceScope(Scope.Global.class)
 public interface StreamHasher {
@@ -34,4 +35,17 @@ public interface StreamHasher {
      * The method will not close either stream.
      */
     HashCode hashCopy(InputStream inputStream, OutputStream outputStream) throws IOException;
+
+    /**
+     * Returns the hash of the content of the given file channel, from its current position to its end.
+     * The content is passed to the hash function without being copied to the Java heap where possible.
+     * The result is the same as hashing the content as an input stream.
+     * The channel will not be closed by the method.
+     */
+    HashCode hash(FileChannel channel) throws IOException;
+
+    /**
+     * Returns the hash function used to hash the streams.
+     */
+    HashFunction getHashFunction();
 }
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.gradle.internal.hash.HashCode.Usage.SAFE_TO_REUSE_BYTES;
+
+/**
+ * Streaming implementation of the 128-bit variant of XXH3, using the default secret and seed 0.
+ * Produces the same hashes as the reference implementation at https://github.com/Cyan4973/xxHash.
+ *
+ * <p>Input is buffered until it is known to be longer than 240 bytes, since shorter inputs are hashed by dedicated algorithms.
+ * Longer inputs are consumed a stripe at a time, always keeping the last stripe back, as it is processed differently.</p>
+ *
+ * <p>Primitive values are fed to the hash as little-endian bytes, like {@link Hashing#md5()} does.</p>
+ */
+final class Xxh3PrimitiveHasher implements PrimitiveHasher {
+
+    private static final long PRIME32_1 = 0x9E3779B1L;
+    private static final long PRIME32_2 = 0x85EBCA77L;
+    private static final long PRIME32_3 = 0xC2B2AE3DL;
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+    private static final long PRIME_MX1 = 0x165667919E3779F9L;
+    private static final long PRIME_MX2 = 0x9FB21C651E98DF25L;
+
+    private static final int STRIPE_LENGTH = 64;
+    private static final int SECRET_CONSUME_RATE = 8;
+    private static final int ACCUMULATORS = 8;
+    private static final int SECRET_SIZE = 192;
+    private static final int STRIPES_PER_BLOCK = (SECRET_SIZE - STRIPE_LENGTH) / SECRET_CONSUME_RATE;
+    private static final int SECRET_LAST_ACCUMULATE_START = 7;
+    private static final int SECRET_MERGE_ACCUMULATORS_START = 11;
+    private static final int MIDSIZE_MAX = 240;
+    private static final int MIDSIZE_START_OFFSET = 3;
+    private static final int MIDSIZE_LAST_OFFSET = 17;
+    private static final int SECRET_SIZE_MIN = 136;
+    private static final int BUFFER_SIZE = 256;
+    private static final int STRIPES_PER_BUFFER = BUFFER_SIZE / STRIPE_LENGTH;
+
+    private static final ByteBuffer SECRET = littleEndian(new byte[]{
+        (byte) 0xb8, (byte) 0xfe, (byte) 0x6c, (byte) 0x39, (byte) 0x23, (byte) 0xa4, (byte) 0x4b, (byte) 0xbe, (byte) 0x7c, (byte) 0x01, (byte) 0x81, (byte) 0x2c, (byte) 0xf7, (byte) 0x21, (byte) 0xad, (byte) 0x1c,
+        (byte) 0xde, (byte) 0xd4, (byte) 0x6d, (byte) 0xe9, (byte) 0x83, (byte) 0x90, (byte) 0x97, (byte) 0xdb, (byte) 0x72, (byte) 0x40, (byte) 0xa4, (byte) 0xa4, (byte) 0xb7, (byte) 0xb3, (byte) 0x67, (byte) 0x1f,
+        (byte) 0xcb, (byte) 0x79, (byte) 0xe6, (byte) 0x4e, (byte) 0xcc, (byte) 0xc0, (byte) 0xe5, (byte) 0x78, (byte) 0x82, (byte) 0x5a, (byte) 0xd0, (byte) 0x7d, (byte) 0xcc, (byte) 0xff, (byte) 0x72, (byte) 0x21,
+        (byte) 0xb8, (byte) 0x08, (byte) 0x46, (byte) 0x74, (byte) 0xf7, (byte) 0x43, (byte) 0x24, (byte) 0x8e, (byte) 0xe0, (byte) 0x35, (byte) 0x90, (byte) 0xe6, (byte) 0x81, (byte) 0x3a, (byte) 0x26, (byte) 0x4c,
+        (byte) 0x3c, (byte) 0x28, (byte) 0x52, (byte) 0xbb, (byte) 0x91, (byte) 0xc3, (byte) 0x00, (byte) 0xcb, (byte) 0x88, (byte) 0xd0, (byte) 0x65, (byte) 0x8b, (byte) 0x1b, (byte) 0x53, (byte) 0x2e, (byte) 0xa3,
+        (byte) 0x71, (byte) 0x64, (byte) 0x48, (byte) 0x97, (byte) 0xa2, (byte) 0x0d, (byte) 0xf9, (byte) 0x4e, (byte) 0x38, (byte) 0x19, (byte) 0xef, (byte) 0x46, (byte) 0xa9, (byte) 0xde, (byte) 0xac, (byte) 0xd8,
+        (byte) 0xa8, (byte) 0xfa, (byte) 0x76, (byte) 0x3f, (byte) 0xe3, (byte) 0x9c, (byte) 0x34, (byte) 0x3f, (byte) 0xf9, (byte) 0xdc, (byte) 0xbb, (byte) 0xc7, (byte) 0xc7, (byte) 0x0b, (byte) 0x4f, (byte) 0x1d,
+        (byte) 0x8a, (byte) 0x51, (byte) 0xe0, (byte) 0x4b, (byte) 0xcd, (byte) 0xb4, (byte) 0x59, (byte) 0x31, (byte) 0xc8, (byte) 0x9f, (byte) 0x7e, (byte) 0xc9, (byte) 0xd9, (byte) 0x78, (byte) 0x73, (byte) 0x64,
+        (byte) 0xea, (byte) 0xc5, (byte) 0xac, (byte) 0x83, (byte) 0x34, (byte) 0xd3, (byte) 0xeb, (byte) 0xc3, (byte) 0xc5, (byte) 0x81, (byte) 0xa0, (byte) 0xff, (byte) 0xfa, (byte) 0x13, (byte) 0x63, (byte) 0xeb,
+        (byte) 0x17, (byte) 0x0d, (byte) 0xdd, (byte) 0x51, (byte) 0xb7, (byte) 0xf0, (byte) 0xda, (byte) 0x49, (byte) 0xd3, (byte) 0x16, (byte) 0x55, (byte) 0x26, (byte) 0x29, (byte) 0xd4, (byte) 0x68, (byte) 0x9e,
+        (byte) 0x2b, (byte) 0x16, (byte) 0xbe, (byte) 0x58, (byte) 0x7d, (byte) 0x47, (byte) 0xa1, (byte) 0xfc, (byte) 0x8f, (byte) 0xf8, (byte) 0xb8, (byte) 0xd1, (byte) 0x7a, (byte) 0xd0, (byte) 0x31, (byte) 0xce,
+        (byte) 0x45, (byte) 0xcb, (byte) 0x3a, (byte) 0x8f, (byte) 0x95, (byte) 0x16, (byte) 0x04, (byte) 0x28, (byte) 0xaf, (byte) 0xd7, (byte) 0xfb, (byte) 0xca, (byte) 0xbb, (byte) 0x4b, (byte) 0x40, (byte) 0x7e,
+    });
+
+    private final long[] accumulators = {PRIME32_3, PRIME64_1, PRIME64_2, PRIME64_3, PRIME64_4, PRIME32_2, PRIME64_5, PRIME32_1};
+    private final byte[] bufferBytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = littleEndian(bufferBytes);
+    private final ByteBuffer scratch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    private int bufferedSize;
+    private int stripesInBlock;
+    private long totalLength;
+    private boolean done;
+
+    @Override
+    public void putByte(byte value) {
+        scratch.put(0, value);
+        putBytes(scratch.array(), 0, 1);
+    }
+
+    @Override
+    public void putBytes(byte[] bytes) {
+        putBytes(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void putBytes(byte[] bytes, int off, int len) {
+        checkNotDone();
+        if (len <= BUFFER_SIZE - bufferedSize) {
+            System.arraycopy(bytes, off, bufferBytes, bufferedSize, len);
+            bufferedSize += len;
+            totalLength += len;
+            return;
+        }
+        update(littleEndian(bytes), off, len);
+    }
+
+    @Override
+    public void putBytes(ByteBuffer bytes) {
+        checkNotDone();
+        update(bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN), bytes.position(), bytes.remaining());
+        castBuffer(bytes).position(bytes.limit());
+    }
+
+    private void update(ByteBuffer input, int off, int len) {
+        totalLength += len;
+        if (len <= BUFFER_SIZE - bufferedSize) {
+            copyToBuffer(input, off, bufferedSize, len);
+            bufferedSize += len;
+            return;
+        }
+        // There is more input than fits in the buffer, so none of the buffered stripes can be the last one
+        int end = off + len;
+        if (bufferedSize > 0) {
+            int fill = BUFFER_SIZE - bufferedSize;
+            copyToBuffer(input, off, bufferedSize, fill);
+            off += fill;
+            consumeStripes(buffer, 0, STRIPES_PER_BUFFER);
+            bufferedSize = 0;
+        }
+        if (end - off > BUFFER_SIZE) {
+            do {
+                consumeStripes(input, off, STRIPES_PER_BUFFER);
+                off += BUFFER_SIZE;
+            } while (end - off > BUFFER_SIZE);
+            // Keep the last consumed stripe, in case it is needed to complete the last stripe
+            copyToBuffer(input, off - STRIPE_LENGTH, BUFFER_SIZE - STRIPE_LENGTH, STRIPE_LENGTH);
+        }
+        copyToBuffer(input, off, 0, end - off);
+        bufferedSize = end - off;
+    }
+
+    private void copyToBuffer(ByteBuffer input, int offset, int bufferOffset, int length) {
+        if (input.hasArray()) {
+            System.arraycopy(input.array(), input.arrayOffset() + offset, bufferBytes, bufferOffset, length);
+        } else {
+            ByteBuffer source = input.duplicate();
+            castBuffer(source).position(offset);
+            source.get(bufferBytes, bufferOffset, length);
+        }
+    }
+
+    @Override
+    public void putInt(int value) {
+        scratch.putInt(0, value);
+        putBytes(scratch.array(), 0, 4);
+    }
+
+    @Override
+    public void putLong(long value) {
+        scratch.putLong(0, value);
+        putBytes(scratch.array(), 0, 8);
+    }
+
+    @Override
+    public void putDouble(double value) {
+        putLong(Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void putBoolean(boolean value) {
+        putByte((byte) (value ? 1 : 0));
+    }
+
+    @Override
+    public void putString(CharSequence value) {
+        putBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void putHash(HashCode hashCode) {
+        hashCode.appendToHasher(this);
+    }
+
+    @Override
+    public HashCode hash() {
+        checkNotDone();
+        done = true;
+        long low;
+        long high;
+        int length = (int) Math.min(totalLength, Integer.MAX_VALUE);
+        if (totalLength <= 16) {
+            if (length > 8) {
+                long bitflipLow = SECRET.getLong(32) ^ SECRET.getLong(40);
+                long bitflipHigh = SECRET.getLong(48) ^ SECRET.getLong(56);
+                long inputLow = buffer.getLong(0);
+                long inputHigh = buffer.getLong(length - 8);
+                long mLow = (inputLow ^ inputHigh ^ bitflipLow) * PRIME64_1;
+                long mHigh = unsignedMultiplyHigh(inputLow ^ inputHigh ^ bitflipLow, PRIME64_1);
+                mLow += (long) (length - 1) << 54;
+                inputHigh ^= bitflipHigh;
+                mHigh += inputHigh + (inputHigh & 0xFFFFFFFFL) * (PRIME32_2 - 1);
+                mLow ^= Long.reverseBytes(mHigh);
+                low = avalanche(mLow * PRIME64_2);
+                high = avalanche(unsignedMultiplyHigh(mLow, PRIME64_2) + mHigh * PRIME64_2);
+            } else if (length >= 4) {
+                long inputLow = buffer.getInt(0) & 0xFFFFFFFFL;
+                long inputHigh = buffer.getInt(length - 4) & 0xFFFFFFFFL;
+                long bitflip = SECRET.getLong(16) ^ SECRET.getLong(24);
+                long keyed = (inputLow + (inputHigh << 32)) ^ bitflip;
+                long factor = PRIME64_1 + ((long) length << 2);
+                long mLow = keyed * factor;
+                long mHigh = unsignedMultiplyHigh(keyed, factor);
+                mHigh += mLow << 1;
+                mLow ^= mHigh >>> 3;
+                mLow ^= mLow >>> 35;
+                mLow *= PRIME_MX2;
+                mLow ^= mLow >>> 28;
+                low = mLow;
+                high = avalanche(mHigh);
+            } else if (length > 0) {
+                int c1 = bufferBytes[0] & 0xFF;
+                int c2 = bufferBytes[length >> 1] & 0xFF;
+                int c3 = bufferBytes[length - 1] & 0xFF;
+                int combinedLow = (c1 << 16) | (c2 << 24) | c3 | (length << 8);
+                int combinedHigh = Integer.rotateLeft(Integer.reverseBytes(combinedLow), 13);
+                long bitflipLow = (SECRET.getInt(0) ^ SECRET.getInt(4)) & 0xFFFFFFFFL;
+                long bitflipHigh = (SECRET.getInt(8) ^ SECRET.getInt(12)) & 0xFFFFFFFFL;
+                low = xxh64Avalanche((combinedLow & 0xFFFFFFFFL) ^ bitflipLow);
+                high = xxh64Avalanche((combinedHigh & 0xFFFFFFFFL) ^ bitflipHigh);
+            } else {
+                low = xxh64Avalanche(SECRET.getLong(64) ^ SECRET.getLong(72));
+                high = xxh64Avalanche(SECRET.getLong(80) ^ SECRET.getLong(88));
+            }
+        } else if (totalLength <= 128) {
+            long accLow = length * PRIME64_1;
+            long accHigh = 0;
+            for (int i = (length - 1) / 32; i >= 0; i--) {
+                int first = 16 * i;
+                int second = length - 16 * (i + 1);
+                accLow += mix16(buffer, first, 32 * i);
+                accLow ^= buffer.getLong(second) + buffer.getLong(second + 8);
+                accHigh += mix16(buffer, second, 32 * i + 16);
+                accHigh ^= buffer.getLong(first) + buffer.getLong(first + 8);
+            }
+            low = avalanche(accLow + accHigh);
+            high = -avalanche(accLow * PRIME64_1 + accHigh * PRIME64_4 + length * PRIME64_2);
+        } else if (totalLength <= MIDSIZE_MAX) {
+            long accLow = length * PRIME64_1;
+            long accHigh = 0;
+            int rounds = length / 32;
+            for (int i = 0; i < rounds; i++) {
+                if (i == 4) {
+                    accLow = avalanche(accLow);
+                    accHigh = avalanche(accHigh);
+                }
+                int secretOffset = i < 4 ? 32 * i : MIDSIZE_START_OFFSET + 32 * (i - 4);
+                int first = 32 * i;
+                int second = first + 16;
+                accLow += mix16(buffer, first, secretOffset);
+                accLow ^= buffer.getLong(second) + buffer.getLong(second + 8);
+                accHigh += mix16(buffer, second, secretOffset + 16);
+                accHigh ^= buffer.getLong(first) + buffer.getLong(first + 8);
+            }
+            if (rounds == 4) {
+                accLow = avalanche(accLow);
+                accHigh = avalanche(accHigh);
+            }
+            int first = length - 16;
+            int second = length - 32;
+            int secretOffset = SECRET_SIZE_MIN - MIDSIZE_LAST_OFFSET - 16;
+            accLow += mix16(buffer, first, secretOffset);
+            accLow ^= buffer.getLong(second) + buffer.getLong(second + 8);
+            accHigh += mix16(buffer, second, secretOffset + 16);
+            accHigh ^= buffer.getLong(first) + buffer.getLong(first + 8);
+            low = avalanche(accLow + accHigh);
+            high = -avalanche(accLow * PRIME64_1 + accHigh * PRIME64_4 + length * PRIME64_2);
+        } else {
+            ByteBuffer lastStripe;
+            int lastStripeOffset;
+            if (bufferedSize >= STRIPE_LENGTH) {
+                consumeStripes(buffer, 0, (bufferedSize - 1) / STRIPE_LENGTH);
+                lastStripe = buffer;
+                lastStripeOffset = bufferedSize - STRIPE_LENGTH;
+            } else {
+                // Complete the last stripe with the end of the previously consumed stripe
+                byte[] stripe = new byte[STRIPE_LENGTH];
+                int catchUp = STRIPE_LENGTH - bufferedSize;
+                System.arraycopy(bufferBytes, BUFFER_SIZE - catchUp, stripe, 0, catchUp);
+                System.arraycopy(bufferBytes, 0, stripe, catchUp, bufferedSize);
+                lastStripe = littleEndian(stripe);
+                lastStripeOffset = 0;
+            }
+            accumulate(lastStripe, lastStripeOffset, SECRET_SIZE - STRIPE_LENGTH - SECRET_LAST_ACCUMULATE_START);
+            low = mergeAccumulators(SECRET_MERGE_ACCUMULATORS_START, totalLength * PRIME64_1);
+            high = mergeAccumulators(SECRET_SIZE - STRIPE_LENGTH - SECRET_MERGE_ACCUMULATORS_START, ~(totalLength * PRIME64_2));
+        }
+        ByteBuffer hash = ByteBuffer.allocate(16);
+        hash.putLong(high);
+        hash.putLong(low);
+        return HashCode.fromBytes(hash.array(), SAFE_TO_REUSE_BYTES);
+    }
+
+    private void checkNotDone() {
+        if (done) {
+            throw new IllegalStateException("Cannot reuse hasher!");
+        }
+    }
+
+    private void consumeStripes(ByteBuffer input, int offset, int stripes) {
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            accumulate(input, offset + stripe * STRIPE_LENGTH, stripesInBlock * SECRET_CONSUME_RATE);
+            if (++stripesInBlock == STRIPES_PER_BLOCK) {
+                scramble();
+                stripesInBlock = 0;
+            }
+        }
+    }
+
+    private void accumulate(ByteBuffer input, int offset, int secretOffset) {
+        long[] acc = accumulators;
+        for (int i = 0; i < ACCUMULATORS; i++) {
+            long value = input.getLong(offset + 8 * i);
+            long key = value ^ SECRET.getLong(secretOffset + 8 * i);
+            acc[i ^ 1] += value;
+            acc[i] += (key & 0xFFFFFFFFL) * (key >>> 32);
+        }
+    }
+
+    private void scramble() {
+        long[] acc = accumulators;
+        for (int i = 0; i < ACCUMULATORS; i++) {
+            long value = acc[i];
+            value ^= value >>> 47;
+            value ^= SECRET.getLong(SECRET_SIZE - STRIPE_LENGTH + 8 * i);
+            acc[i] = value * PRIME32_1;
+        }
+    }
+
+    private long mergeAccumulators(int secretOffset, long start) {
+        long result = start;
+        for (int i = 0; i < 4; i++) {
+            result += multiplyFold(
+                accumulators[2 * i] ^ SECRET.getLong(secretOffset + 16 * i),
+                accumulators[2 * i + 1] ^ SECRET.getLong(secretOffset + 16 * i + 8)
+            );
+        }
+        return avalanche(result);
+    }
+
+    private static long mix16(ByteBuffer input, int offset, int secretOffset) {
+        return multiplyFold(
+            input.getLong(offset) ^ SECRET.getLong(secretOffset),
+            input.getLong(offset + 8) ^ SECRET.getLong(secretOffset + 8)
+        );
+    }
+
+    private static long multiplyFold(long a, long b) {
+        return a * b ^ unsignedMultiplyHigh(a, b);
+    }
+
+    /**
+     * The upper 64 bits of the unsigned 128-bit product, as {@code Math.unsignedMultiplyHigh()} is not available on Java 8.
+     */
+    private static long unsignedMultiplyHigh(long a, long b) {
+        long a1 = a >> 32;
+        long a2 = a & 0xFFFFFFFFL;
+        long b1 = b >> 32;
+        long b2 = b & 0xFFFFFFFFL;
+        long z2 = a2 * b2;
+        long t = a1 * b2 + (z2 >>> 32);
+        long z1 = (t & 0xFFFFFFFFL) + a2 * b1;
+        long signedHigh = a1 * b1 + (t >> 32) + (z1 >> 32);
+        return signedHigh + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    private static long avalanche(long hash) {
+        hash ^= hash >>> 37;
+        hash *= PRIME_MX1;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static long xxh64Avalanche(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        return hash ^ (hash >>> 32);
+    }
+
+    /**
+     * Without this cast, when the code compiled by Java 9+ is executed on Java 8, it will throw
+     * java.lang.NoSuchMethodError: Method position(I)Ljava/nio/ByteBuffer; does not exist in class java.nio.ByteBuffer
+     */
+    @SuppressWarnings("RedundantCast")
+    private static Buffer castBuffer(ByteBuffer byteBuffer) {
+        return (Buffer) byteBuffer;
+    }
+
+    private static ByteBuffer littleEndian(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
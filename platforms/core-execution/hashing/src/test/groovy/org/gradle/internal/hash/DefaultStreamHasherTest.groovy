@@ -17,8 +17,12 @@
 package org.gradle.internal.hash
 
 import spock.lang.Specification
+import spock.lang.TempDir
 
 class DefaultStreamHasherTest extends Specification {
+    @TempDir
+    File tempDir
+
     def "can hash input"() {
         def input = new ByteArrayInputStream("hello".bytes)
         when:
@@ -36,4 +40,37 @@ class DefaultStreamHasherTest extends Specification {
         hash.toString() == "af67a92e9f73b51572e9b94e343d2840"
         output.toByteArray() == "hello".bytes
     }
+
+    def "can hash input with another hash function"() {
+        def input = new ByteArrayInputStream("hello".bytes)
+        when:
+        def hash = new DefaultStreamHasher(Hashing.xxh3_128()).hash(input)
+        then:
+        hash.toString() == "05a717a0618e77b980ea2b0c74369f00"
+    }
+
+    def "hashing a file channel gives the same result as hashing a stream (#size bytes, #hashFunction.algorithm)"() {
+        def file = new File(tempDir, "file.bin")
+        file.bytes = (0..<size).collect { (byte) (it % 251) } as byte[]
+        def hasher = new DefaultStreamHasher(hashFunction)
+
+        when:
+        def channelHash = new FileInputStream(file).withCloseable { hasher.hash(it.channel) }
+        def streamHash = new FileInputStream(file).withCloseable { hasher.hash(it) }
+
+        then:
+        channelHash == streamHash
+
+        where:
+        [size, hashFunction] << [[0, 1, 240, 241, 8192, 100_000], [Hashing.md5(), Hashing.xxh3_128()]].combinations()
+    }
+
+    def "file hasher gives the same result below and above the direct hashing threshold"() {
+        def file = new File(tempDir, "file.bin")
+        file.bytes = (0..<10_000).collect { (byte) (it % 251) } as byte[]
+        def streamHasher = new DefaultStreamHasher()
+
+        expect:
+        new DefaultFileHasher(streamHasher, 0).hash(file) == new DefaultFileHasher(streamHasher, Long.MAX_VALUE).hash(file)
+    }
 }
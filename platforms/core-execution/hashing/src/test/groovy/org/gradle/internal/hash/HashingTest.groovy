@@ -18,6 +18,8 @@ package org.gradle.internal.hash
 
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
+
 import static java.lang.Thread.currentThread
 import static java.util.concurrent.CompletableFuture.supplyAsync
 import static java.util.concurrent.Executors.newFixedThreadPool
@@ -109,6 +111,75 @@ class HashingTest extends Specification {
         hashStrings(["abc", "de"]) != hashStrings(["ab", "cde"])
     }
 
+    def 'xxh3-128 hashes #length bytes to reference value'() {
+        expect:
+        Hashing.xxh3_128().hashBytes(testBytes(length)).toString() == expected
+
+        where:
+        length | expected
+        0      | "99aa06d3014798d86001c324468d497f"
+        1      | "a6cd5e9392000f6ac44bdff4074eecdb"
+        3      | "e3b55f57945a17cf5f4299fc161c9cbb"
+        4      | "eb70bf5fc779e9e6a6111d53e80a3db5"
+        8      | "e1e4432a62217fe4cfd50c61c8bb98c1"
+        9      | "16c769d83e4aebce907931979dca3746"
+        16     | "72950631827607e2842812cc870dcae2"
+        17     | "685bc458b37d057fc06e233df7729217"
+        128    | "14792fc3af88dc6c05321a0b64d67b41"
+        129    | "dd5e74ac6b45f54ebc30b63382b09a3b"
+        240    | "65b5be86da5540e7c92b68e16f83bbb6"
+        241    | "1da1cb61bcb8a2a102e8cd95421c6d02"
+        1024   | "d0ac1f7b93bf57b9e5d78bafa45b2aa5"
+        5000   | "b92ec02c39d33ce7b418500fc42320ee"
+    }
+
+    def 'xxh3-128 hash does not depend on how input is split (chunk size #chunkSize)'() {
+        given:
+        def bytes = testBytes(5000)
+        def hasher = Hashing.xxh3_128().newPrimitiveHasher()
+
+        when:
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            hasher.putBytes(bytes, offset, Math.min(chunkSize, bytes.length - offset))
+        }
+
+        then:
+        hasher.hash() == Hashing.xxh3_128().hashBytes(bytes)
+
+        where:
+        chunkSize << [1, 7, 64, 191, 256, 1000]
+    }
+
+    def '#hashFunction.algorithm hash of a #type buffer matches hash of its bytes'() {
+        given:
+        def bytes = testBytes(5000)
+        def buffer = direct ? ByteBuffer.allocateDirect(bytes.length + 10) : ByteBuffer.allocate(bytes.length + 10)
+        buffer.position(3)
+        buffer.put(bytes)
+        buffer.flip()
+        buffer.position(3)
+        def hasher = hashFunction.newPrimitiveHasher()
+
+        when:
+        hasher.putBytes(testBytes(17))
+        hasher.putBytes(buffer)
+
+        then:
+        !buffer.hasRemaining()
+        def expected = hashFunction.newPrimitiveHasher()
+        expected.putBytes(testBytes(17))
+        expected.putBytes(bytes)
+        hasher.hash() == expected.hash()
+
+        where:
+        [hashFunction, direct] << [[Hashing.md5(), Hashing.xxh3_128()], [false, true]].combinations()
+        type = direct ? "direct" : "heap"
+    }
+
+    private static byte[] testBytes(int length) {
+        (0..<length).collect { (byte) (it % 251) } as byte[]
+    }
+
     def hashStrings(List<String> strings) {
         def hasher = Hashing.newHasher()
         strings.each { hasher.putString(it) }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.btree;
+
+import org.gradle.cache.AsyncCacheAccess;
+import org.gradle.cache.CacheDecorator;
+import org.gradle.cache.CrossProcessCacheAccess;
+import org.gradle.cache.FileLock;
+import org.gradle.cache.FileLockReleasedSignal;
+import org.gradle.cache.IndexedCacheParameters;
+import org.gradle.cache.MultiProcessSafeIndexedCache;
+import org.gradle.cache.internal.AsyncCacheAccessDecoratedCache;
+import org.gradle.cache.internal.CacheInitializationAction;
+import org.gradle.cache.internal.CrossProcessSynchronizingIndexedCache;
+import org.gradle.cache.internal.DefaultCacheCoordinator;
+import org.gradle.cache.internal.DefaultFileLockManager;
+import org.gradle.cache.internal.ProcessMetaDataProvider;
+import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.gradle.cache.FileLockManager.LockMode.OnDemand;
+import static org.gradle.cache.internal.filelock.DefaultLockOptions.mode;
+
+/**
+ * Measures concurrent reads from a {@link BTreePersistentIndexedCache} through a {@link DefaultCacheCoordinator}.
+ *
+ * <ul>
+ *     <li>{@code decorated} reads through a decorated cache, as persistent caches are used in production. Reads share the cache with its worker thread while it uses the cache.</li>
+ *     <li>{@code useCache} reads each entry while owning the cache via {@link DefaultCacheCoordinator#useCache(java.util.function.Supplier)}, so reads are exclusive.</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@State(Scope.Benchmark)
+public class BTreePersistentIndexedCacheBenchmark {
+
+    @Param({"decorated", "useCache"})
+    String readMode;
+
+    @Param({"100000"})
+    int entryCount;
+
+    private File cacheDir;
+    private DefaultExecutorFactory executorFactory;
+    private DefaultFileLockManager lockManager;
+    private DefaultCacheCoordinator coordinator;
+    private MultiProcessSafeIndexedCache<String, String> cache;
+    private String[] keys;
+
+    @Setup
+    public void setup() throws IOException {
+        cacheDir = Files.createTempDirectory("btree-benchmark").toFile();
+        executorFactory = new DefaultExecutorFactory();
+        lockManager = new DefaultFileLockManager(new BenchmarkProcessMetaDataProvider(), new NoContentionHandler());
+        keys = new String[entryCount];
+
+        DefaultCacheCoordinator populatingCoordinator = newCoordinator();
+        MultiProcessSafeIndexedCache<String, String> populatingCache = populatingCoordinator.newCache(parameters());
+        populatingCoordinator.useCache(() -> {
+            for (int i = 0; i < entryCount; i++) {
+                keys[i] = "key-" + i;
+                populatingCache.put(keys[i], "value of entry " + i);
+            }
+        });
+        populatingCoordinator.close();
+
+        coordinator = newCoordinator();
+        cache = coordinator.newCache(readMode.equals("decorated") ? parameters().withCacheDecorator(new AsyncReadsDecorator()) : parameters());
+    }
+
+    private DefaultCacheCoordinator newCoordinator() {
+        DefaultCacheCoordinator coordinator = new DefaultCacheCoordinator("benchmark cache", new File(cacheDir, "cache.lock"), mode(OnDemand), cacheDir, lockManager, new NoInitialization(), null, executorFactory);
+        coordinator.open();
+        return coordinator;
+    }
+
+    private static IndexedCacheParameters<String, String> parameters() {
+        return IndexedCacheParameters.of("entries", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER);
+    }
+
+    @TearDown
+    public void tearDown() {
+        coordinator.close();
+        executorFactory.stop();
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        cacheDir.delete();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String get_01_thread() {
+        return get();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String get_04_threads() {
+        return get();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String get_16_threads() {
+        return get();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String get_64_threads() {
+        return get();
+    }
+
+    private String get() {
+        String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        if (readMode.equals("useCache")) {
+            return coordinator.useCache(() -> cache.getIfPresent(key));
+        }
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Decorates the cache as persistent caches are decorated in production, without an in-memory cache in front of the file.
+     */
+    private static class AsyncReadsDecorator implements CacheDecorator {
+        @Override
+        public <K, V> MultiProcessSafeIndexedCache<K, V> decorate(String cacheId, String cacheName, MultiProcessSafeIndexedCache<K, V> indexedCache, CrossProcessCacheAccess crossProcessCacheAccess, AsyncCacheAccess asyncCacheAccess) {
+            return new CrossProcessSynchronizingIndexedCache<>(new AsyncCacheAccessDecoratedCache<>(asyncCacheAccess, indexedCache), crossProcessCacheAccess);
+        }
+    }
+
+    private static class NoInitialization implements CacheInitializationAction {
+        @Override
+        public boolean requiresInitialization(FileLock fileLock) {
+            return false;
+        }
+
+        @Override
+        public void initialize(FileLock fileLock) {
+        }
+    }
+
+    private static class BenchmarkProcessMetaDataProvider implements ProcessMetaDataProvider {
+        @Override
+        public String getProcessIdentifier() {
+            return "benchmark";
+        }
+
+        @Override
+        public String getProcessDisplayName() {
+            return "benchmark";
+        }
+    }
+
+    private static class NoContentionHandler implements FileLockContentionHandler {
+        @Override
+        public void start(long lockId, Consumer<FileLockReleasedSignal> whenContended) {
+        }
+
+        @Override
+        public void stop(long lockId) {
+        }
+
+        @Override
+        public int reservePort() {
+            return -1;
+        }
+
+        @Override
+        public boolean maybePingOwner(int port, long lockId, String displayName, long timeElapsed, @Nullable FileLockReleasedSignal signal) {
+            return false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+    }
+}
@@ -45,19 +45,23 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static org.gradle.cache.FileLockManager.LockMode.Exclusive;
 
 @ThreadSafe
-public class DefaultCacheCoordinator implements CacheCreationCoordinator, ExclusiveCacheAccessCoordinator {
+public class DefaultCacheCoordinator implements CacheCreationCoordinator, ExclusiveCacheAccessCoordinator, ReadSharingCacheAccessCoordinator {
     private final static Logger LOG = LoggerFactory.getLogger(DefaultCacheCoordinator.class);
 
     private final String cacheDisplayName;
@@ -76,6 +80,8 @@ public class DefaultCacheCoordinator implements CacheCreationCoordinator, Exclus
 
     private boolean open;
     private Thread owner;
+    private boolean sharingReads;
+    private final Set<Thread> sharedReaders = new HashSet<>();
     private FileLock fileLock;
     private FileLock.State stateAtOpen;
     private Runnable fileLockHeldByOwner;
@@ -116,7 +122,7 @@ public DefaultCacheCoordinator(String cacheDisplayName, File lockTarget, LockOpt
 
     private synchronized AsyncCacheAccess getCacheAccessWorker() {
         if (cacheAccessWorker == null) {
-            cacheAccessWorker = new ExclusiveCacheAccessingWorker(cacheDisplayName, this);
+            cacheAccessWorker = new ExclusiveCacheAccessingWorker(cacheDisplayName, this, this);
             cacheUpdateExecutor = executorFactory.create("Cache worker for " + cacheDisplayName);
             cacheUpdateExecutor.execute(cacheAccessWorker);
         }
@@ -263,6 +269,58 @@ public <T> T useCache(Supplier<? extends T> factory) {
         }
     }
 
+    @Override
+    public void useCacheSharingReads(Runnable action) {
+        useCache(() -> {
+            setSharingReads(true);
+            try {
+                action.run();
+            } finally {
+                setSharingReads(false);
+            }
+        });
+    }
+
+    private void setSharingReads(boolean sharingReads) {
+        stateLock.lock();
+        try {
+            this.sharingReads = sharingReads;
+            // Shared readers use the file lock held by the owner, so must finish before the owner can release it
+            while (!sharingReads && !sharedReaders.isEmpty()) {
+                condition.awaitUninterruptibly();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryStartSharedRead() {
+        stateLock.lock();
+        try {
+            if (!sharingReads || owner == Thread.currentThread()) {
+                return false;
+            }
+            sharedReaders.add(Thread.currentThread());
+            return true;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    @Override
+    public void finishSharedRead() {
+        stateLock.lock();
+        try {
+            sharedReaders.remove(Thread.currentThread());
+            if (!sharingReads && sharedReaders.isEmpty()) {
+                condition.signalAll();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
     /**
      * Waits until the current thread can take ownership.
      * Must be called while holding the lock.
@@ -417,7 +475,7 @@ private boolean onEndWork() {
     private FileLock getFileLock() {
         stateLock.lock();
         try {
-            if (Thread.currentThread() != owner) {
+            if (Thread.currentThread() != owner && !sharedReaders.contains(Thread.currentThread())) {
                 throw new IllegalStateException(String.format("The %s has not been locked for this thread. File lock: %s, owner: %s", cacheDisplayName, fileLock != null, owner));
             }
         } finally {
@@ -455,6 +513,9 @@ public void writeFile(Runnable action) throws LockTimeoutException, Insufficient
     }
 
     private class UnitOfWorkFileAccess extends AbstractFileAccess {
+        // Shared readers may read concurrently with each other, but not while the owner is writing, as the file lock is marked dirty during writes
+        private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
         @Override
         public String toString() {
             return cacheDisplayName;
@@ -462,17 +523,35 @@ public String toString() {
 
         @Override
         public <T> T readFile(Supplier<? extends T> action) throws LockTimeoutException {
-            return getFileLock().readFile(action);
+            FileLock fileLock = getFileLock();
+            readWriteLock.readLock().lock();
+            try {
+                return fileLock.readFile(action);
+            } finally {
+                readWriteLock.readLock().unlock();
+            }
         }
 
         @Override
         public void updateFile(Runnable action) throws LockTimeoutException {
-            getFileLock().updateFile(action);
+            FileLock fileLock = getFileLock();
+            readWriteLock.writeLock().lock();
+            try {
+                fileLock.updateFile(action);
+            } finally {
+                readWriteLock.writeLock().unlock();
+            }
         }
 
         @Override
         public void writeFile(Runnable action) throws LockTimeoutException {
-            getFileLock().writeFile(action);
+            FileLock fileLock = getFileLock();
+            readWriteLock.writeLock().lock();
+            try {
+                fileLock.writeFile(action);
+            } finally {
+                readWriteLock.writeLock().unlock();
+            }
         }
     }
 
@@ -27,7 +27,7 @@
 public class DefaultMultiProcessSafeIndexedCache<K, V> implements MultiProcessSafeIndexedCache<K, V> {
     private final FileAccess fileAccess;
     private final Supplier<BTreePersistentIndexedCache<K, V>> factory;
-    private BTreePersistentIndexedCache<K, V> cache;
+    private volatile BTreePersistentIndexedCache<K, V> cache;
 
     public DefaultMultiProcessSafeIndexedCache(Supplier<BTreePersistentIndexedCache<K, V>> factory, FileAccess fileAccess) {
         this.factory = factory;
@@ -81,11 +81,12 @@ public void afterLockAcquire(FileLock.State currentCacheState) {
 
     @Override
     public void finishWork() {
+        BTreePersistentIndexedCache<K, V> cache = this.cache;
         if (cache != null) {
             try {
-                fileAccess.writeFile(() -> cache.close());
+                fileAccess.writeFile(cache::close);
             } finally {
-                cache = null;
+                this.cache = null;
             }
         }
     }
@@ -95,11 +96,20 @@ public void beforeLockRelease(FileLock.State currentCacheState) {
     }
 
     private BTreePersistentIndexedCache<K, V> getCache() {
+        BTreePersistentIndexedCache<K, V> cache = this.cache;
         if (cache == null) {
             // Use writeFile because the cache can internally recover from datafile
             // corruption, so we don't care at this level if it's corrupt
-            fileAccess.writeFile(() -> cache = factory.get());
+            fileAccess.writeFile(this::createCacheIfMissing);
+            cache = this.cache;
         }
         return cache;
     }
+
+    private synchronized void createCacheIfMissing() {
+        // Threads sharing reads with the owner of the cache can get here concurrently
+        if (cache == null) {
+            cache = factory.get();
+        }
+    }
 }
@@ -23,6 +23,7 @@
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.time.CountdownTimer;
 import org.gradle.internal.time.Time;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,14 +33,19 @@
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 public class ExclusiveCacheAccessingWorker implements Runnable, Stoppable, AsyncCacheAccess {
     private final BlockingQueue<Runnable> workQueue;
     private final String displayName;
     private final ExclusiveCacheAccessCoordinator cacheAccess;
+    @Nullable
+    private final ReadSharingCacheAccessCoordinator readSharing;
     private final long batchWindowMillis;
     private final long maximumLockingTimeMillis;
+    // The number of updates that have been queued but have not run yet
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
     private boolean closed;
     private boolean workerCompleted;
     private boolean stopSeen;
@@ -47,8 +53,17 @@ public class ExclusiveCacheAccessingWorker implements Runnable, Stoppable, Async
     private final ExecutorPolicy.CatchAndRecordFailures failureHandler = new ExecutorPolicy.CatchAndRecordFailures();
 
     public ExclusiveCacheAccessingWorker(String displayName, ExclusiveCacheAccessCoordinator cacheAccess) {
+        this(displayName, cacheAccess, null);
+    }
+
+    /**
+     * When a {@link ReadSharingCacheAccessCoordinator} is given, reads are run on the reading thread while this worker uses the cache,
+     * instead of being queued behind other operations. Reads are still queued while updates are pending, so that they see the result of those updates.
+     */
+    ExclusiveCacheAccessingWorker(String displayName, ExclusiveCacheAccessCoordinator cacheAccess, @Nullable ReadSharingCacheAccessCoordinator readSharing) {
         this.displayName = displayName;
         this.cacheAccess = cacheAccess;
+        this.readSharing = readSharing;
         this.batchWindowMillis = 200;
         this.maximumLockingTimeMillis = 5000;
         HeapProportionalCacheSizer heapProportionalCacheSizer = new HeapProportionalCacheSizer();
@@ -58,7 +73,13 @@ public ExclusiveCacheAccessingWorker(String displayName, ExclusiveCacheAccessCoo
 
     @Override
     public void enqueue(Runnable task) {
-        addToQueue(task);
+        pendingUpdates.incrementAndGet();
+        try {
+            addToQueue(new UpdateOperation(task));
+        } catch (RuntimeException e) {
+            pendingUpdates.decrementAndGet();
+            throw e;
+        }
     }
 
     private void addToQueue(Runnable task) {
@@ -74,6 +95,13 @@ private void addToQueue(Runnable task) {
 
     @Override
     public <T> T read(Supplier<T> task) {
+        if (readSharing != null && pendingUpdates.get() == 0 && readSharing.tryStartSharedRead()) {
+            try {
+                return task.get();
+            } finally {
+                readSharing.finishSharedRead();
+            }
+        }
         FutureTask<T> futureTask = new FutureTask<T>(task::get);
         addToQueue(futureTask);
         try {
@@ -99,6 +127,23 @@ private void rethrowFailure() {
         failureHandler.onStop();
     }
 
+    private class UpdateOperation implements Runnable {
+        private final Runnable task;
+
+        UpdateOperation(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                pendingUpdates.decrementAndGet();
+            }
+        }
+    }
+
     private static class FlushOperationsCommand implements Runnable {
         private CountDownLatch latch = new CountDownLatch(1);
 
@@ -166,7 +211,7 @@ private Runnable takeFromQueue() throws InterruptedException {
     private void flushOperations(final Runnable updateOperation) {
         final List<FlushOperationsCommand> flushOperations = new ArrayList<FlushOperationsCommand>();
         try {
-            cacheAccess.useCache(new Runnable() {
+            useCache(new Runnable() {
                 @Override
                 public void run() {
                     CountdownTimer timer = Time.startCountdownTimer(maximumLockingTimeMillis, TimeUnit.MILLISECONDS);
@@ -202,6 +247,14 @@ public void run() {
         }
     }
 
+    private void useCache(Runnable action) {
+        if (readSharing != null) {
+            readSharing.useCacheSharingReads(action);
+        } else {
+            cacheAccess.useCache(action);
+        }
+    }
+
     @Override
     public synchronized void stop() {
         if (!closed && !workerCompleted) {
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+/**
+ * Allows threads to read from a cache while another thread of this process uses it, sharing that thread's ownership of the cache and its file lock.
+ */
+interface ReadSharingCacheAccessCoordinator {
+    /**
+     * Runs the given action while owning the cache, as {@link org.gradle.cache.ExclusiveCacheAccessCoordinator#useCache(Runnable)} does,
+     * allowing other threads to start shared reads while it runs. Waits for those reads to finish before giving up ownership.
+     */
+    void useCacheSharingReads(Runnable action);
+
+    /**
+     * Starts a shared read by the current thread, if the cache is currently used by a thread that shares its reads.
+     *
+     * @return true if the shared read was started, in which case the caller must call {@link #finishSharedRead()} once done.
+     */
+    boolean tryStartSharedRead();
+
+    void finishSharedRead();
+}
@@ -22,6 +22,7 @@
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,18 +35,24 @@
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 // todo - stream serialised value to file
 // todo - handle hash collisions (properly, this time)
 // todo - don't store null links to child blocks in leaf index blocks
 // todo - align block boundaries
-// todo - thread safety control
 // todo - merge small values into a single data block
 // todo - discard when file corrupt
 // todo - include data directly in index entry when serializer can guarantee small fixed sized data
 // todo - free list leaks disk space
 // todo - merge adjacent free blocks
 // todo - use more efficient lookup for free block with nearest size
+/**
+ * A persistent map, stored in a B-tree.
+ *
+ * <p>Any number of threads can {@link #get(Object)} entries concurrently, while all other operations are exclusive.</p>
+ */
 @SuppressWarnings("unchecked")
 public class BTreePersistentIndexedCache<K, V> {
     private static final Logger LOGGER = LoggerFactory.getLogger(BTreePersistentIndexedCache.class);
@@ -55,6 +62,7 @@
     private final short maxChildIndexEntries;
     private final int minIndexChildNodes;
     private final StateCheckBlockStore store;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private HeaderBlock header;
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
@@ -123,22 +131,33 @@ public void run() {
 
     public V get(K key) {
         try {
+            lock.readLock().lock();
             try {
-                DataBlock block = header.getRoot().get(key);
-                if (block != null) {
-                    return block.getValue();
+                IndexEntry entry = store.read(header.index.rootPos, IndexBlock.class).lookup(keyHasher.getHashCode(key));
+                if (entry == null) {
+                    return null;
                 }
-                return null;
+                DataBlock block = store.read(entry.dataBlock, DataBlock.class);
+                return block.getValue();
             } catch (CorruptedCacheException e) {
+                // Rebuild below, as that needs exclusive access
+            } finally {
+                lock.readLock().unlock();
+            }
+            lock.writeLock().lock();
+            try {
                 rebuild();
-                return null;
+            } finally {
+                lock.writeLock().unlock();
             }
+            return null;
         } catch (Exception e) {
             throw new UncheckedIOException(String.format("Could not read entry '%s' from %s.", key, this), e);
         }
     }
 
     public void put(K key, V value) {
+        lock.writeLock().lock();
         try {
             long hashCode = keyHasher.getHashCode(key);
             Lookup lookup = header.getRoot().find(hashCode);
@@ -160,10 +179,13 @@ public void put(K key, V value) {
             store.flush();
         } catch (Exception e) {
             throw new UncheckedIOException(String.format("Could not add entry '%s' to %s.", key, this), e);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     public void remove(K key) {
+        lock.writeLock().lock();
         try {
             Lookup lookup = header.getRoot().find(key);
             if (lookup.entry == null) {
@@ -175,6 +197,8 @@ public void remove(K key) {
             store.flush();
         } catch (Exception e) {
             throw new UncheckedIOException(String.format("Could not remove entry '%s' from %s.", key, this), e);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -187,20 +211,28 @@ private IndexBlock load(BlockPointer pos, IndexRoot root, IndexBlock parent, int
     }
 
     public void reset() {
-        close();
+        lock.writeLock().lock();
         try {
-            open();
-        } catch (Exception e) {
-            throw new UncheckedIOException(e);
+            close();
+            try {
+                open();
+            } catch (Exception e) {
+                throw new UncheckedIOException(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     public void close() {
         LOGGER.debug("Closing {}", this);
+        lock.writeLock().lock();
         try {
             store.close();
         } catch (Exception e) {
             throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -219,11 +251,14 @@ private void rebuild() {
     }
 
     public void verify() {
+        lock.writeLock().lock();
         try {
             doVerify();
         } catch (Exception e) {
             throw new UncheckedIOException(String.format("Some problems were found when checking the integrity of %s.",
                     this), e);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -291,12 +326,17 @@ private void verifyTree(IndexBlock current, String prefix, Collection<BlockPaylo
     }
 
     public void clear() {
-        store.clear();
-        close();
+        lock.writeLock().lock();
         try {
-            doOpen();
-        } catch (Exception e) {
-            throw UncheckedException.throwAsUncheckedException(e);
+            store.clear();
+            close();
+            try {
+                doOpen();
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -462,13 +502,27 @@ private void add(IndexBlock left, IndexEntry entry, IndexBlock right) throws Exc
             maybeSplit();
         }
 
-        public DataBlock get(K key) throws Exception {
-            Lookup lookup = find(key);
-            if (lookup.entry == null) {
-                return null;
+        /**
+         * Finds the entry with the given hash code, without updating the transient fields of the visited blocks,
+         * so that concurrent readers can share the cached blocks.
+         */
+        @Nullable
+        public IndexEntry lookup(long hashCode) {
+            IndexBlock current = this;
+            while (true) {
+                int index = Collections.binarySearch(current.entries, new IndexEntry(hashCode));
+                if (index >= 0) {
+                    return current.entries.get(index);
+                }
+                index = -index - 1;
+                BlockPointer childBlockPos = index == current.entries.size()
+                    ? current.tailPos
+                    : current.entries.get(index).childIndexBlock;
+                if (childBlockPos.isNull()) {
+                    return null;
+                }
+                current = store.read(childBlockPos, IndexBlock.class);
             }
-
-            return store.read(lookup.entry.dataBlock, DataBlock.class);
         }
 
         public Lookup find(K key) throws Exception {
@@ -23,12 +23,22 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+/**
+ * A {@link BlockStore} backed by a single file.
+ *
+ * <p>Reads may happen concurrently with each other, but not with writes.
+ * Each concurrent read uses its own file handle, so that readers don't share a file pointer.</p>
+ */
 public class FileBackedBlockStore implements BlockStore {
+    private static final int MAX_IDLE_READERS = 4;
+
     private final File cacheFile;
+    private final BlockingQueue<Reader> idleReaders = new ArrayBlockingQueue<>(MAX_IDLE_READERS);
     private RandomAccessFile file;
     private ByteOutput output;
-    private ByteInput input;
     private long nextBlock;
     private Factory factory;
     private long currentFileSize;
@@ -49,7 +59,7 @@ public void open(Runnable runnable, Factory factory) {
             cacheFile.getParentFile().mkdirs();
             file = openRandomAccessFile();
             output = new ByteOutput(file);
-            input = new ByteInput(file);
+            idleReaders.offer(new Reader(file));
             currentFileSize = file.length();
             nextBlock = currentFileSize;
             if (currentFileSize == 0) {
@@ -75,12 +85,29 @@ private RandomAccessFile randomAccessFile(String mode) throws FileNotFoundExcept
     @Override
     public void close() {
         try {
+            Reader reader;
+            while ((reader = idleReaders.poll()) != null) {
+                if (reader.file != file) {
+                    reader.file.close();
+                }
+            }
             file.close();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    private Reader acquireReader() throws IOException {
+        Reader reader = idleReaders.poll();
+        return reader != null ? reader : new Reader(randomAccessFile("r"));
+    }
+
+    private void releaseReader(Reader reader) throws IOException {
+        if (!idleReaders.offer(reader) && reader.file != file) {
+            reader.file.close();
+        }
+    }
+
     @Override
     public void clear() {
         try {
@@ -120,7 +147,12 @@ public <T extends BlockPayload> T read(BlockPointer pos, Class<T> payloadType) {
         try {
             T payload = payloadType.cast(factory.create(payloadType));
             BlockImpl block = new BlockImpl(payload, pos);
-            block.read();
+            Reader reader = acquireReader();
+            try {
+                block.read(reader.input);
+            } finally {
+                releaseReader(reader);
+            }
             return payload;
         } catch (CorruptedCacheException e) {
             throw e;
@@ -229,7 +261,7 @@ public void write() throws Exception {
             }
         }
 
-        public void read() throws Exception {
+        public void read(ByteInput input) throws Exception {
             long pos = getPos().getPos();
             assert pos >= 0;
             if (pos + HEADER_SIZE >= currentFileSize) {
@@ -269,4 +301,13 @@ public RuntimeException blockCorruptedException() {
         }
     }
 
+    private static class Reader {
+        private final RandomAccessFile file;
+        private final ByteInput input;
+
+        private Reader(RandomAccessFile file) {
+            this.file = file;
+            this.input = new ByteInput(file);
+        }
+    }
 }
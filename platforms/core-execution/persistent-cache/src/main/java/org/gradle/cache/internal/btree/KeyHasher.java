@@ -25,20 +25,35 @@
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Hashes keys, can be used by multiple threads concurrently.
+ */
 class KeyHasher<K> {
     private final Serializer<K> serializer;
-    private final MessageDigestStream digestStream = new MessageDigestStream();
-    private final KryoBackedEncoder encoder = new KryoBackedEncoder(digestStream);
+    // Reused by one thread at a time, concurrent callers use a new one instead of waiting
+    private final AtomicReference<Hasher> idleHasher = new AtomicReference<>(new Hasher());
 
     public KeyHasher(Serializer<K> serializer) {
         this.serializer = serializer;
     }
 
     long getHashCode(K key) throws Exception {
-        serializer.write(encoder, key);
-        encoder.flush();
-        return digestStream.getChecksum();
+        Hasher hasher = idleHasher.getAndSet(null);
+        if (hasher == null) {
+            hasher = new Hasher();
+        }
+        serializer.write(hasher.encoder, key);
+        hasher.encoder.flush();
+        long checksum = hasher.digestStream.getChecksum();
+        idleHasher.set(hasher);
+        return checksum;
+    }
+
+    private static class Hasher {
+        private final MessageDigestStream digestStream = new MessageDigestStream();
+        private final KryoBackedEncoder encoder = new KryoBackedEncoder(digestStream);
     }
 
     private static class MessageDigestStream extends OutputStream {
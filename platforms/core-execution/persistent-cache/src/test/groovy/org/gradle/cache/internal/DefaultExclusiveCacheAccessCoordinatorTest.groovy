@@ -581,6 +581,97 @@ class DefaultExclusiveCacheAccessCoordinatorTest extends ConcurrentSpec {
         mode << [Exclusive, OnDemand]
     }
 
+    def "file access is available to shared readers while the owner shares reads"() {
+        def action = Mock(Supplier)
+        def access = newAccess(OnDemand)
+
+        given:
+        lockManager.lock(lockFile, mode(Exclusive), "<display-name>", "", _) >> lock
+        access.open()
+
+        when:
+        async {
+            start {
+                access.useCacheSharingReads {
+                    instant.sharing
+                    thread.blockUntil.read
+                }
+            }
+            start {
+                thread.blockUntil.sharing
+                assert access.tryStartSharedRead()
+                try {
+                    access.fileAccess.readFile(action)
+                } finally {
+                    access.finishSharedRead()
+                }
+                instant.read
+            }
+        }
+
+        then:
+        1 * lock.readFile(action)
+    }
+
+    def "cannot start shared read when the owner does not share reads"() {
+        def access = newAccess(OnDemand)
+
+        given:
+        lockManager.lock(lockFile, mode(Exclusive), "<display-name>", "", _) >> lock
+        access.open()
+
+        expect:
+        !access.tryStartSharedRead()
+
+        when:
+        async {
+            start {
+                access.useCache {
+                    instant.using
+                    thread.blockUntil.checked
+                }
+            }
+            start {
+                thread.blockUntil.using
+                assert !access.tryStartSharedRead()
+                instant.checked
+            }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "owner waits for shared reads to finish before releasing the cache"() {
+        def access = newAccess(OnDemand)
+
+        given:
+        lockManager.lock(lockFile, mode(Exclusive), "<display-name>", "", _) >> lock
+        access.open()
+
+        when:
+        async {
+            start {
+                access.useCacheSharingReads {
+                    instant.sharing
+                    thread.blockUntil.readStarted
+                }
+                instant.released
+            }
+            start {
+                thread.blockUntil.sharing
+                assert access.tryStartSharedRead()
+                instant.readStarted
+                thread.block()
+                instant.readFinished
+                access.finishSharedRead()
+            }
+        }
+
+        then:
+        instant.released > instant.readFinished
+    }
+
     def "can close cache when the cache has not been used"() {
         def access = newAccess(OnDemand)
 
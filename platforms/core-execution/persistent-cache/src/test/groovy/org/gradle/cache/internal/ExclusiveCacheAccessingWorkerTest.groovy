@@ -48,6 +48,68 @@ class ExclusiveCacheAccessingWorkerTest extends ConcurrentSpec {
         cacheAccessWorker?.stop()
     }
 
+    def "read runs on the calling thread when it can share the cache with the worker"() {
+        given:
+        def readSharing = Mock(ReadSharingCacheAccessCoordinator)
+        def worker = new ExclusiveCacheAccessingWorker("<cache>", cacheAccess, readSharing)
+
+        when:
+        def result = worker.read { Thread.currentThread() }
+
+        then:
+        result == Thread.currentThread()
+        1 * readSharing.tryStartSharedRead() >> true
+        1 * readSharing.finishSharedRead()
+        0 * readSharing._
+    }
+
+    def "read is queued when it cannot share the cache with the worker"() {
+        given:
+        def readSharing = Mock(ReadSharingCacheAccessCoordinator)
+        def worker = new ExclusiveCacheAccessingWorker("<cache>", cacheAccess, readSharing)
+        start(worker)
+
+        when:
+        def result = worker.read { Thread.currentThread() }
+
+        then:
+        result != Thread.currentThread()
+        1 * readSharing.tryStartSharedRead() >> false
+        1 * readSharing.useCacheSharingReads(_) >> { Runnable action -> action.run() }
+        0 * readSharing.finishSharedRead()
+
+        cleanup:
+        worker?.stop()
+    }
+
+    def "read is queued behind a pending update instead of sharing the cache with the worker"() {
+        given:
+        def readSharing = Mock(ReadSharingCacheAccessCoordinator)
+        def worker = new ExclusiveCacheAccessingWorker("<cache>", cacheAccess, readSharing)
+        def value = "old"
+
+        when:
+        worker.enqueue { value = "new" }
+        start(worker)
+        def result = worker.read { value }
+
+        then:
+        result == "new"
+        0 * readSharing.tryStartSharedRead()
+        (1.._) * readSharing.useCacheSharingReads(_) >> { Runnable action -> action.run() }
+
+        when:
+        result = worker.read { value }
+
+        then:
+        result == "new"
+        1 * readSharing.tryStartSharedRead() >> true
+        1 * readSharing.finishSharedRead()
+
+        cleanup:
+        worker?.stop()
+    }
+
     def "read propagates failure"() {
         given:
         def failure = new RuntimeException()
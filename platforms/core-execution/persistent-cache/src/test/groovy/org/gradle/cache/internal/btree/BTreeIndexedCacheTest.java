@@ -34,6 +34,9 @@
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertNull;
@@ -260,6 +263,42 @@ public void canHandleLargeNumberOfEntries() {
         cache.close();
     }
 
+    @Test
+    public void supportsConcurrentReadsWhileWriting() throws Exception {
+        createCache();
+        int count = 500;
+        for (int i = 0; i < count; i++) {
+            cache.put(String.format("key_%d", i), i);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> readers = new ArrayList<Future<?>>();
+            for (int reader = 0; reader < 8; reader++) {
+                readers.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (int i = 0; i < count; i++) {
+                            Integer value = cache.get(String.format("key_%d", i));
+                            assertThat(value % 1000, equalTo(i));
+                        }
+                    }
+                }));
+            }
+            for (int round = 1; round <= 5; round++) {
+                for (int i = 0; i < count; i += 7) {
+                    cache.put(String.format("key_%d", i), i + round * 1000);
+                }
+            }
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verifyAndCloseCache();
+    }
+
     @Test
     public void persistsRemovalOfEntries() {
         createCache();
@@ -1,6 +1,7 @@
 plugins {
     id("gradlebuild.distribution.implementation-java")
     id("gradlebuild.publish-public-libraries")
+    id("gradlebuild.jmh")
 }
 
 description = "Tools to take immutable, comparable snapshots of files and other things"
@@ -17,6 +18,8 @@ dependencies {
 
     implementation(libs.slf4jApi)
 
+    jmhImplementation(platform(projects.distributionsDependencies))
+
     testImplementation(projects.processServices)
     testImplementation(projects.resources)
     testImplementation(projects.native)
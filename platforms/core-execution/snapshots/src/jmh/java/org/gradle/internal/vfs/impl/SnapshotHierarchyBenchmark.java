@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.vfs.impl;
+
+import org.gradle.internal.file.FileMetadata.AccessType;
+import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.snapshot.CaseSensitivity;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.SnapshotHierarchy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by a {@link DefaultSnapshotHierarchy} holding a monorepo-sized tree, and how fast lookups in it are.
+ *
+ * Run with {@code -prof gc} to also see the allocation rate of the lookups.
+ */
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SnapshotHierarchyBenchmark {
+
+    private static final HashCode HASH = Hashing.md5().hashString("content");
+    private static final int FILES_PER_DIRECTORY = 20;
+    private static final int DIRECTORIES_PER_PACKAGE = 5;
+
+    @Param({"1000000", "3000000"})
+    int numberOfFiles;
+
+    SnapshotHierarchy hierarchy;
+    String[] existingPaths;
+    String[] missingPaths;
+    int lookupIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        hierarchy = createHierarchy(numberOfFiles);
+        Random random = new Random(1234L);
+        existingPaths = new String[4096];
+        missingPaths = new String[4096];
+        for (int i = 0; i < existingPaths.length; i++) {
+            int file = random.nextInt(numberOfFiles);
+            existingPaths[i] = filePath(file);
+            missingPaths[i] = filePath(file) + ".missing";
+        }
+    }
+
+    @Benchmark
+    public Object findExistingFile() {
+        return hierarchy.findMetadata(existingPaths[nextLookupIndex()]);
+    }
+
+    @Benchmark
+    public Object findMissingFile() {
+        return hierarchy.findMetadata(missingPaths[nextLookupIndex()]);
+    }
+
+    @Benchmark
+    public SnapshotHierarchy invalidateFile() {
+        return hierarchy.invalidate(existingPaths[nextLookupIndex()], SnapshotHierarchy.NodeDiffListener.NOOP);
+    }
+
+    private int nextLookupIndex() {
+        lookupIndex = (lookupIndex + 1) & (existingPaths.length - 1);
+        return lookupIndex;
+    }
+
+    /**
+     * Reports the heap retained by the hierarchy in the {@code retainedBytes} counter.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SnapshotHierarchy buildHierarchy(Footprint footprint) {
+        long usedBefore = usedHeapAfterGc();
+        SnapshotHierarchy hierarchy = createHierarchy(numberOfFiles);
+        footprint.retainedBytes = usedHeapAfterGc() - usedBefore;
+        return hierarchy;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Stores one directory snapshot per package, like a build snapshotting its source directories.
+     */
+    private static SnapshotHierarchy createHierarchy(int numberOfFiles) {
+        SnapshotHierarchy root = DefaultSnapshotHierarchy.empty(CaseSensitivity.CASE_SENSITIVE);
+        int filesPerPackage = FILES_PER_DIRECTORY * DIRECTORIES_PER_PACKAGE;
+        for (int firstFile = 0; firstFile < numberOfFiles; firstFile += filesPerPackage) {
+            String packagePath = packagePath(firstFile);
+            List<FileSystemLocationSnapshot> directories = new ArrayList<>(DIRECTORIES_PER_PACKAGE);
+            for (int directory = 0; directory < DIRECTORIES_PER_PACKAGE; directory++) {
+                String directoryName = "dir" + directory;
+                String directoryPath = packagePath + "/" + directoryName;
+                List<FileSystemLocationSnapshot> files = new ArrayList<>(FILES_PER_DIRECTORY);
+                for (int file = 0; file < FILES_PER_DIRECTORY; file++) {
+                    String fileName = fileName(file);
+                    files.add(new RegularFileSnapshot(directoryPath + "/" + fileName, fileName, HASH, DefaultFileMetadata.file(0, 0, AccessType.DIRECT)));
+                }
+                directories.add(new DirectorySnapshot(directoryPath, directoryName, AccessType.DIRECT, HASH, files));
+            }
+            String packageName = packagePath.substring(packagePath.lastIndexOf('/') + 1);
+            DirectorySnapshot packageSnapshot = new DirectorySnapshot(packagePath, packageName, AccessType.DIRECT, HASH, directories);
+            root = root.store(packagePath, packageSnapshot, SnapshotHierarchy.NodeDiffListener.NOOP);
+        }
+        return root;
+    }
+
+    private static String filePath(int file) {
+        int indexInPackage = file % (FILES_PER_DIRECTORY * DIRECTORIES_PER_PACKAGE);
+        return packagePath(file) + "/dir" + (indexInPackage / FILES_PER_DIRECTORY) + "/" + fileName(indexInPackage % FILES_PER_DIRECTORY);
+    }
+
+    private static String packagePath(int file) {
+        int pkg = file / (FILES_PER_DIRECTORY * DIRECTORIES_PER_PACKAGE);
+        return "/repo/module" + (pkg / 100) + "/src/main/java/org/example/pkg" + (pkg % 100);
+    }
+
+    private static String fileName(int file) {
+        // Zero padded, so the files are created in sorted order
+        return String.format("File%02d.java", file);
+    }
+}
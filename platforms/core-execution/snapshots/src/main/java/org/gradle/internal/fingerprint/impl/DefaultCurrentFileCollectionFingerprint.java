@@ -48,13 +48,13 @@ public static CurrentFileCollectionFingerprint from(FileSystemSnapshot roots, Fi
         }
 
         ImmutableMultimap<String, HashCode> rootHashes = SnapshotUtil.getRootHashes(roots);
-        Map<String, FileSystemLocationFingerprint> fingerprints;
-        if (candidate != null
-            && candidate.wasCreatedWithStrategy(strategy)
-            && equalRootHashes(candidate.getRootHashes(), rootHashes)
-        ) {
-            fingerprints = candidate.getFingerprints();
-        } else {
+        Map<String, FileSystemLocationFingerprint> fingerprints = null;
+        if (candidate != null && candidate.wasCreatedWithStrategy(strategy)) {
+            fingerprints = equalRootHashes(candidate.getRootHashes(), rootHashes)
+                ? candidate.getFingerprints()
+                : UnchangedRootsReusingFingerprintCollector.collectFingerprints(roots, rootHashes, strategy, candidate);
+        }
+        if (fingerprints == null) {
             fingerprints = strategy.collectFingerprints(roots);
         }
         if (fingerprints.isEmpty()) {
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.fingerprint.impl;
+
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import org.gradle.internal.fingerprint.FileCollectionFingerprint;
+import org.gradle.internal.fingerprint.FileSystemLocationFingerprint;
+import org.gradle.internal.fingerprint.FingerprintingStrategy;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+import org.jspecify.annotations.Nullable;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Collects fingerprints by taking the entries of roots whose hash didn't change from the previous fingerprint,
+ * and only visiting the changed roots.
+ *
+ * Each root is fingerprinted on its own and the results are merged in root order, where the first root wins for duplicate paths.
+ * This gives the same result as fingerprinting all the roots at once, as long as no root is contained in another one.
+ * For overlapping roots, the same file would get different normalized paths depending on the root, so we fall back to fingerprinting everything.
+ */
+class UnchangedRootsReusingFingerprintCollector {
+
+    /**
+     * Returns the collected fingerprints, or {@code null} if none of the previous fingerprints can be reused.
+     */
+    @Nullable
+    static Map<String, FileSystemLocationFingerprint> collectFingerprints(
+        FileSystemSnapshot roots,
+        ImmutableMultimap<String, HashCode> rootHashes,
+        FingerprintingStrategy strategy,
+        FileCollectionFingerprint previousFingerprint
+    ) {
+        ImmutableMultimap<String, HashCode> previousRootHashes = previousFingerprint.getRootHashes();
+        if (rootHashes.keySet().size() < 2 || hasOverlappingRoots(rootHashes.keySet()) || hasOverlappingRoots(previousRootHashes.keySet())) {
+            return null;
+        }
+        Set<String> unchangedRoots = rootHashes.keySet().stream()
+            .filter(rootPath -> hasSameSingleHash(rootHashes.get(rootPath), previousRootHashes.get(rootPath)))
+            .collect(Collectors.toSet());
+        if (unchangedRoots.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Map<String, FileSystemLocationFingerprint>> previousFingerprintsByRoot = groupByRoot(previousFingerprint.getFingerprints(), unchangedRoots);
+        Map<String, FileSystemLocationFingerprint> fingerprints = new LinkedHashMap<>();
+        List<FileSystemLocationSnapshot> rootSnapshots = roots.roots().collect(Collectors.toList());
+        for (FileSystemLocationSnapshot root : rootSnapshots) {
+            String rootPath = root.getAbsolutePath();
+            Map<String, FileSystemLocationFingerprint> rootFingerprints = unchangedRoots.contains(rootPath)
+                ? previousFingerprintsByRoot.getOrDefault(rootPath, ImmutableMap.of())
+                : strategy.collectFingerprints(root);
+            rootFingerprints.forEach(fingerprints::putIfAbsent);
+        }
+        return ImmutableMap.copyOf(fingerprints);
+    }
+
+    private static boolean hasSameSingleHash(ImmutableCollection<HashCode> hashes, ImmutableCollection<HashCode> previousHashes) {
+        if (hashes.isEmpty() || previousHashes.isEmpty()) {
+            return false;
+        }
+        HashCode hash = hashes.iterator().next();
+        return hashes.stream().allMatch(hash::equals) && previousHashes.stream().allMatch(hash::equals);
+    }
+
+    /**
+     * Assigns each fingerprint to the root containing it, keeping the original order.
+     * Fingerprints which are not in one of the given roots are dropped.
+     */
+    private static Map<String, Map<String, FileSystemLocationFingerprint>> groupByRoot(Map<String, FileSystemLocationFingerprint> fingerprints, Set<String> rootPaths) {
+        Map<String, Map<String, FileSystemLocationFingerprint>> fingerprintsByRoot = new HashMap<>();
+        fingerprints.forEach((absolutePath, fingerprint) -> {
+            String rootPath = findContainingPath(absolutePath, rootPaths);
+            if (rootPath != null) {
+                fingerprintsByRoot.computeIfAbsent(rootPath, key -> new LinkedHashMap<>()).put(absolutePath, fingerprint);
+            }
+        });
+        return fingerprintsByRoot;
+    }
+
+    private static boolean hasOverlappingRoots(Set<String> rootPaths) {
+        for (String rootPath : rootPaths) {
+            String parentPath = parentPath(rootPath);
+            if (parentPath != null && findContainingPath(parentPath, rootPaths) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the path itself or its closest ancestor which is one of the given paths, if any.
+     */
+    @Nullable
+    private static String findContainingPath(String absolutePath, Set<String> paths) {
+        String candidate = absolutePath;
+        while (candidate != null) {
+            if (paths.contains(candidate)) {
+                return candidate;
+            }
+            candidate = parentPath(candidate);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String parentPath(String absolutePath) {
+        int lastSeparator = absolutePath.lastIndexOf(File.separatorChar);
+        return lastSeparator > 0 ? absolutePath.substring(0, lastSeparator) : null;
+    }
+}
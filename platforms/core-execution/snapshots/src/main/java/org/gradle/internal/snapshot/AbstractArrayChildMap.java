@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the paths and the children in two flat arrays sorted by path, instead of a list of {@link Entry} instances.
+ *
+ * This saves an object per child, which adds up for file system hierarchies with millions of nodes.
+ */
+public abstract class AbstractArrayChildMap<T> implements ChildMap<T> {
+    protected final String[] paths;
+    protected final Object[] children;
+
+    protected AbstractArrayChildMap(String[] paths, Object[] children) {
+        this.paths = paths;
+        this.children = children;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return paths.length;
+    }
+
+    @Override
+    public Stream<Entry<T>> stream() {
+        return IntStream.range(0, paths.length)
+            .mapToObj(index -> new Entry<>(paths[index], childAt(index)));
+    }
+
+    @Override
+    public Stream<T> values() {
+        return IntStream.range(0, children.length)
+            .mapToObj(this::childAt);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected T childAt(int index) {
+        return (T) children[index];
+    }
+
+    protected int findChildIndexWithCommonPrefix(VfsRelativePath targetPath, CaseSensitivity caseSensitivity) {
+        return SearchUtil.binarySearch(
+            paths,
+            candidate -> targetPath.compareToFirstSegment(candidate, caseSensitivity)
+        );
+    }
+
+    @Override
+    public <RESULT> ChildMap<RESULT> invalidate(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, InvalidationHandler<T, RESULT> handler) {
+        int childIndex = findChildIndexWithCommonPrefix(targetPath, caseSensitivity);
+        if (childIndex >= 0) {
+            String childPath = paths[childIndex];
+            return Entry.withNode(childPath, childAt(childIndex), targetPath, caseSensitivity, new AbstractInvalidateChildHandler<T, RESULT>(handler) {
+
+                @SuppressWarnings("unchecked")
+                @Override
+                public AbstractArrayChildMap<RESULT> getChildMap() {
+                    return (AbstractArrayChildMap<RESULT>) AbstractArrayChildMap.this;
+                }
+
+                @Override
+                public ChildMap<RESULT> withReplacedChild(RESULT newChild) {
+                    return withReplacedChild(childPath, newChild);
+                }
+
+                @Override
+                public ChildMap<RESULT> withReplacedChild(String newChildPath, RESULT newChild) {
+                    return getChildMap().withReplacedChild(childIndex, newChildPath, newChild);
+                }
+
+                @Override
+                public ChildMap<RESULT> withRemovedChild() {
+                    return getChildMap().withRemovedChild(childIndex);
+                }
+            });
+        } else {
+            handler.handleUnrelatedToAnyChild();
+            @SuppressWarnings("unchecked") AbstractArrayChildMap<RESULT> castedThis = (AbstractArrayChildMap<RESULT>) this;
+            return castedThis;
+        }
+    }
+
+    @Override
+    public ChildMap<T> store(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, StoreHandler<T> storeHandler) {
+        int childIndex = findChildIndexWithCommonPrefix(targetPath, caseSensitivity);
+        if (childIndex >= 0) {
+            return Entry.handlePath(paths[childIndex], childAt(childIndex), targetPath, caseSensitivity, new AbstractStorePathRelationshipHandler<T>(caseSensitivity, storeHandler) {
+                @Override
+                public ChildMap<T> withReplacedChild(T newChild) {
+                    return withReplacedChild(paths[childIndex], newChild);
+                }
+
+                @Override
+                public ChildMap<T> withReplacedChild(String newChildPath, T newChild) {
+                    return AbstractArrayChildMap.this.withReplacedChild(childIndex, newChildPath, newChild);
+                }
+
+                @Override
+                public ChildMap<T> withNewChild(String newChildPath, T newChild) {
+                    return AbstractArrayChildMap.this.withNewChild(childIndex, newChildPath, newChild);
+                }
+            });
+        } else {
+            T newChild = storeHandler.createChild();
+            return withNewChild(-childIndex - 1, targetPath.toString(), newChild);
+        }
+    }
+
+    protected ChildMap<T> withNewChild(int insertBefore, String path, T newChild) {
+        int size = paths.length;
+        String[] newPaths = new String[size + 1];
+        Object[] newChildren = new Object[size + 1];
+        System.arraycopy(paths, 0, newPaths, 0, insertBefore);
+        System.arraycopy(children, 0, newChildren, 0, insertBefore);
+        newPaths[insertBefore] = path;
+        newChildren[insertBefore] = newChild;
+        System.arraycopy(paths, insertBefore, newPaths, insertBefore + 1, size - insertBefore);
+        System.arraycopy(children, insertBefore, newChildren, insertBefore + 1, size - insertBefore);
+        return ChildMapFactory.childMapFromSorted(newPaths, newChildren);
+    }
+
+    protected ChildMap<T> withReplacedChild(int childIndex, String newPath, T newChild) {
+        if (paths[childIndex].equals(newPath) && children[childIndex].equals(newChild)) {
+            return this;
+        }
+        String[] newPaths = paths.clone();
+        Object[] newChildren = children.clone();
+        newPaths[childIndex] = newPath;
+        newChildren[childIndex] = newChild;
+        return ChildMapFactory.childMapFromSorted(newPaths, newChildren);
+    }
+
+    protected ChildMap<T> withRemovedChild(int childIndex) {
+        int size = paths.length;
+        String[] newPaths = new String[size - 1];
+        Object[] newChildren = new Object[size - 1];
+        System.arraycopy(paths, 0, newPaths, 0, childIndex);
+        System.arraycopy(children, 0, newChildren, 0, childIndex);
+        System.arraycopy(paths, childIndex + 1, newPaths, childIndex, size - childIndex - 1);
+        System.arraycopy(children, childIndex + 1, newChildren, childIndex, size - childIndex - 1);
+        return ChildMapFactory.childMapFromSorted(newPaths, newChildren);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        AbstractArrayChildMap<?> that = (AbstractArrayChildMap<?>) o;
+
+        return Arrays.equals(paths, that.paths) && Arrays.equals(children, that.children);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(paths);
+        result = 31 * result + Arrays.hashCode(children);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return stream()
+            .map(Entry::toString)
+            .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -54,10 +54,8 @@ public ChildMap<T> handleExactMatchWithChild(VfsRelativePath targetPath, String
     public ChildMap<T> handleSiblingOfChild(VfsRelativePath targetPath, String childPath, T child, int commonPrefixLength) {
         String commonPrefix = childPath.substring(0, commonPrefixLength);
         String newChildPath = childPath.substring(commonPrefixLength + 1);
-        ChildMap.Entry<T> newChild = new ChildMap.Entry<>(newChildPath, child);
         String siblingPath = targetPath.pathFromChild(commonPrefix).getAsString();
-        ChildMap.Entry<T> sibling = new ChildMap.Entry<>(siblingPath, handler.createChild());
-        ChildMap<T> newChildren = ChildMapFactory.childMap(caseSensitivity, newChild, sibling);
+        ChildMap<T> newChildren = ChildMapFactory.childMap(caseSensitivity, newChildPath, child, siblingPath, handler.createChild());
         return withReplacedChild(commonPrefix, handler.createNodeFromChildren(newChildren));
     }
 
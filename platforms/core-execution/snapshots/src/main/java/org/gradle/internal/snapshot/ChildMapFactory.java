@@ -16,12 +16,11 @@
 
 package org.gradle.internal.snapshot;
 
-import com.google.common.collect.ImmutableList;
-
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 
 public class ChildMapFactory {
     /**
@@ -39,24 +38,50 @@ public static <T> ChildMap<T> childMap(CaseSensitivity caseSensitivity, Collecti
     }
 
     public static <T> ChildMap<T> childMapFromSorted(List<ChildMap.Entry<T>> sortedEntries) {
-        int size = sortedEntries.size();
+        return childMapFromSorted(sortedEntries, ChildMap.Entry::getPath, ChildMap.Entry::getValue);
+    }
+
+    /**
+     * Creates a child map from children sorted by their paths, without creating an {@link ChildMap.Entry} for each child.
+     */
+    public static <T> ChildMap<T> childMapFromSorted(List<? extends T> sortedChildren, Function<? super T, String> pathFunction) {
+        return childMapFromSorted(sortedChildren, pathFunction, Function.identity());
+    }
+
+    private static <E, T> ChildMap<T> childMapFromSorted(List<E> sortedElements, Function<? super E, String> pathFunction, Function<? super E, ? extends T> childFunction) {
+        int size = sortedElements.size();
+        String[] paths = new String[size];
+        Object[] children = new Object[size];
+        for (int index = 0; index < size; index++) {
+            E element = sortedElements.get(index);
+            paths[index] = pathFunction.apply(element);
+            children[index] = childFunction.apply(element);
+        }
+        return childMapFromSorted(paths, children);
+    }
+
+    /**
+     * Takes ownership of the given arrays, which must be sorted by path and must not be modified afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ChildMap<T> childMapFromSorted(String[] sortedPaths, Object[] children) {
+        int size = sortedPaths.length;
         switch (size) {
             case 0:
                 return EmptyChildMap.getInstance();
             case 1:
-                return new SingletonChildMap<>(sortedEntries.get(0));
+                return new SingletonChildMap<>(sortedPaths[0], (T) children[0]);
             default:
                 return (size < MINIMUM_CHILD_COUNT_FOR_BINARY_SEARCH)
-                    ? new MediumChildMap<>(sortedEntries)
-                    : new LargeChildMap<>(sortedEntries);
+                    ? new MediumChildMap<>(sortedPaths, children)
+                    : new LargeChildMap<>(sortedPaths, children);
         }
     }
 
-    static <T> ChildMap<T> childMap(CaseSensitivity caseSensitivity, ChildMap.Entry<T> entry1, ChildMap.Entry<T> entry2) {
-        int compared = PathUtil.getPathComparator(caseSensitivity).compare(entry1.getPath(), entry2.getPath());
-        List<ChildMap.Entry<T>> sortedEntries = compared < 0
-            ? ImmutableList.of(entry1, entry2)
-            : ImmutableList.of(entry2, entry1);
-        return childMapFromSorted(sortedEntries);
+    static <T> ChildMap<T> childMap(CaseSensitivity caseSensitivity, String path1, T child1, String path2, T child2) {
+        int compared = PathUtil.getPathComparator(caseSensitivity).compare(path1, path2);
+        return compared < 0
+            ? childMapFromSorted(new String[]{path1, path2}, new Object[]{child1, child2})
+            : childMapFromSorted(new String[]{path2, path1}, new Object[]{child2, child1});
     }
 }
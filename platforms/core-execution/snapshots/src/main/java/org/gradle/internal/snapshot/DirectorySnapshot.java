@@ -27,7 +27,6 @@
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
 import static org.gradle.internal.snapshot.ChildMapFactory.childMapFromSorted;
 import static org.gradle.internal.snapshot.SnapshotVisitResult.CONTINUE;
@@ -38,19 +37,32 @@
  * Includes snapshots of any child element and the Merkle tree hash.
  */
 public class DirectorySnapshot extends AbstractFileSystemLocationSnapshot {
+    /**
+     * The modification time of a directory snapshot that wasn't taken by listing the directory.
+     */
+    public static final long UNKNOWN_LAST_MODIFIED = -1;
+
     private final ChildMap<FileSystemLocationSnapshot> children;
     private final HashCode contentHash;
+    private final long lastModified;
 
     public DirectorySnapshot(String absolutePath, String name, AccessType accessType, HashCode contentHash, List<FileSystemLocationSnapshot> children) {
-        this(absolutePath, name, accessType, contentHash, childMapFromSorted(children.stream()
-            .map(it -> new ChildMap.Entry<>(it.getName(), it))
-            .collect(Collectors.toList())));
+        this(absolutePath, name, accessType, contentHash, children, UNKNOWN_LAST_MODIFIED);
+    }
+
+    public DirectorySnapshot(String absolutePath, String name, AccessType accessType, HashCode contentHash, List<FileSystemLocationSnapshot> children, long lastModified) {
+        this(absolutePath, name, accessType, contentHash, childMapFromSorted(children, FileSystemLocationSnapshot::getName), lastModified);
     }
 
     public DirectorySnapshot(String absolutePath, String name, AccessType accessType, HashCode contentHash, ChildMap<FileSystemLocationSnapshot> children) {
+        this(absolutePath, name, accessType, contentHash, children, UNKNOWN_LAST_MODIFIED);
+    }
+
+    public DirectorySnapshot(String absolutePath, String name, AccessType accessType, HashCode contentHash, ChildMap<FileSystemLocationSnapshot> children, long lastModified) {
         super(absolutePath, name, accessType);
         this.contentHash = contentHash;
         this.children = children;
+        this.lastModified = lastModified;
     }
 
     @Override
@@ -80,6 +92,13 @@ public HashCode getHash() {
         return contentHash;
     }
 
+    /**
+     * The modification time the directory had before its entries were listed for this snapshot, or {@link #UNKNOWN_LAST_MODIFIED}.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
     @Override
     public FileType getType() {
         return FileType.Directory;
@@ -101,8 +120,7 @@ public SnapshotVisitResult accept(FileSystemSnapshotHierarchyVisitor visitor) {
         switch (result) {
             case CONTINUE:
                 visitor.enterDirectory(this);
-                children.stream()
-                    .map(ChildMap.Entry::getValue)
+                children.values()
                     .forEach(child -> child.accept(visitor));
                 visitor.leaveDirectory(this);
                 return CONTINUE;
@@ -123,8 +141,7 @@ public SnapshotVisitResult accept(RelativePathTracker pathTracker, RelativePathT
             switch (result) {
                 case CONTINUE:
                     visitor.enterDirectory(this, pathTracker);
-                    children.stream()
-                        .map(ChildMap.Entry::getValue)
+                    children.values()
                         .forEach(child -> child.accept(pathTracker, visitor));
                     visitor.leaveDirectory(this, pathTracker);
                     return CONTINUE;
@@ -152,8 +169,7 @@ public <T> T accept(FileSystemLocationSnapshotTransformer<T> transformer) {
 
     @VisibleForTesting
     public ImmutableList<FileSystemLocationSnapshot> getChildren() {
-        return children.stream()
-            .map(ChildMap.Entry::getValue)
+        return children.values()
             .collect(ImmutableList.toImmutableList());
     }
 
@@ -189,8 +205,7 @@ public void nodeAdded(FileSystemNode node) {
                         diffListener.nodeAdded(node);
                     }
                 });
-                children.stream()
-                    .map(ChildMap.Entry::getValue)
+                children.values()
                     .filter(existingChild -> existingChild != child)
                     .forEach(diffListener::nodeAdded);
                 return invalidated;
@@ -204,8 +219,7 @@ public void handleAsAncestorOfChild(String childPath, FileSystemLocationSnapshot
             @Override
             public void handleExactMatchWithChild(FileSystemLocationSnapshot child) {
                 diffListener.nodeRemoved(DirectorySnapshot.this);
-                children.stream()
-                    .map(ChildMap.Entry::getValue)
+                children.values()
                     .filter(existingChild -> existingChild != child)
                     .forEach(diffListener::nodeAdded);
             }
@@ -213,8 +227,7 @@ public void handleExactMatchWithChild(FileSystemLocationSnapshot child) {
             @Override
             public void handleUnrelatedToAnyChild() {
                 diffListener.nodeRemoved(DirectorySnapshot.this);
-                children.stream()
-                    .map(ChildMap.Entry::getValue)
+                children.values()
                     .forEach(diffListener::nodeAdded);
             }
         });
@@ -43,6 +43,14 @@ default void enterDirectory(DirectorySnapshot directorySnapshot, EmptyDirectoryH
      */
     void enterDirectory(FileMetadata.AccessType accessType, String absolutePath, String name, EmptyDirectoryHandlingStrategy emptyDirectoryHandlingStrategy);
 
+    /**
+     * Like {@link #enterDirectory(FileMetadata.AccessType, String, String, EmptyDirectoryHandlingStrategy)},
+     * recording the modification time the directory had before its entries were listed, see {@link DirectorySnapshot#getLastModified()}.
+     */
+    default void enterDirectory(FileMetadata.AccessType accessType, String absolutePath, String name, long lastModified, EmptyDirectoryHandlingStrategy emptyDirectoryHandlingStrategy) {
+        enterDirectory(accessType, absolutePath, name, emptyDirectoryHandlingStrategy);
+    }
+
     void visitLeafElement(FileSystemLeafSnapshot snapshot);
 
     void visitDirectory(DirectorySnapshot directorySnapshot);
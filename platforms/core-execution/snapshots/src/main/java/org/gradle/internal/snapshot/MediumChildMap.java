@@ -16,18 +16,17 @@
 
 package org.gradle.internal.snapshot;
 
-import java.util.List;
 import java.util.Optional;
 
-public class MediumChildMap<T> extends AbstractListChildMap<T> {
-    protected MediumChildMap(List<Entry<T>> children) {
-        super(children);
+public class MediumChildMap<T> extends AbstractArrayChildMap<T> {
+    protected MediumChildMap(String[] paths, Object[] children) {
+        super(paths, children);
     }
 
     @Override
     public <RESULT> RESULT withNode(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, NodeHandler<T, RESULT> handler) {
-        for (Entry<T> entry : entries) {
-            Optional<RESULT> ancestorDescendantOrExactMatchResult = entry.handleAncestorDescendantOrExactMatch(targetPath, caseSensitivity, handler);
+        for (int index = 0; index < paths.length; index++) {
+            Optional<RESULT> ancestorDescendantOrExactMatchResult = Entry.handleAncestorDescendantOrExactMatch(paths[index], childAt(index), targetPath, caseSensitivity, handler);
             if (ancestorDescendantOrExactMatchResult.isPresent()) {
                 return ancestorDescendantOrExactMatchResult.get();
             }
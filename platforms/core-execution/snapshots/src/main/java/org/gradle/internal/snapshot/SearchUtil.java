@@ -69,4 +69,26 @@ public static <T> int binarySearch(List<T> sortedElements, Comparable<T> key) {
                 return -(low + 1);  // key not found
         }
     }
+
+    /**
+     * Same as {@link #binarySearch(List, Comparable)}, for an array sorted compatible with the comparable.
+     */
+    public static <T> int binarySearch(T[] sortedElements, Comparable<T> key) {
+        int low = 0;
+        int high = sortedElements.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = key.compareTo(sortedElements[mid]);
+
+            if (cmp > 0) {
+                low = mid + 1;
+            } else if (cmp < 0) {
+                high = mid - 1;
+            } else {
+                return mid; // key found
+            }
+        }
+        return -(low + 1);  // key not found
+    }
 }
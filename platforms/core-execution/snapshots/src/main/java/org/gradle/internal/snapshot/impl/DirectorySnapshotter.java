@@ -56,6 +56,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -89,12 +91,27 @@ public Iterable<String> getRemappedSegments(Iterable<String> segments) {
     private final Interner<String> stringInterner;
     private final DefaultExcludes defaultExcludes;
     private final DirectorySnapshotterStatistics.Collector collector;
+    @Nullable
+    private final ForkJoinPool parallelSnapshottingPool;
 
     public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner, Collection<String> defaultExcludes, DirectorySnapshotterStatistics.Collector collector) {
+        this(hasher, stringInterner, defaultExcludes, collector, null);
+    }
+
+    /**
+     * Creates a snapshotter that snapshots unfiltered directories in parallel when given a pool.
+     *
+     * Each subdirectory is then walked by its own task on the pool, so files in different directories are hashed concurrently.
+     * Filtered snapshots are always taken on the calling thread, since the predicate and the tracking of filtered directories are not thread-safe.
+     *
+     * @param parallelSnapshottingPool The pool to walk subdirectories on, or {@code null} to snapshot on the calling thread.
+     */
+    public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner, Collection<String> defaultExcludes, DirectorySnapshotterStatistics.Collector collector, @Nullable ForkJoinPool parallelSnapshottingPool) {
         this.hasher = hasher;
         this.stringInterner = stringInterner;
         this.defaultExcludes = new DefaultExcludes(defaultExcludes);
         this.collector = collector;
+        this.parallelSnapshottingPool = parallelSnapshottingPool;
     }
 
     /**
@@ -119,18 +136,65 @@ public FileSystemLocationSnapshot snapshot(
         Map<String, ? extends FileSystemLocationSnapshot> previouslyKnownSnapshots,
         Consumer<FileSystemLocationSnapshot> unfilteredSnapshotRecorder
     ) {
+        AtomicBoolean hasBeenFiltered = new AtomicBoolean();
+        Path rootPath = Paths.get(absolutePath);
+        ForkJoinPool subdirectoryPool = predicate == null ? parallelSnapshottingPool : null;
+        PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, previouslyKnownSnapshots, unfilteredSnapshotRecorder, subdirectoryPool);
+        FileSystemLocationSnapshot result;
+        if (subdirectoryPool != null) {
+            SnapshotTask task = new SnapshotTask(rootPath, visitor);
+            subdirectoryPool.invoke(task);
+            result = task.getSnapshot();
+        } else {
+            result = walk(rootPath, visitor);
+        }
+        if (!hasBeenFiltered.get()) {
+            unfilteredSnapshotRecorder.accept(result);
+        }
+        return result;
+    }
+
+    private static FileSystemLocationSnapshot walk(Path root, PathVisitor visitor) {
         try {
-            AtomicBoolean hasBeenFiltered = new AtomicBoolean();
-            Path rootPath = Paths.get(absolutePath);
-            PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, previouslyKnownSnapshots, unfilteredSnapshotRecorder);
-            Files.walkFileTree(rootPath, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
-            FileSystemLocationSnapshot result = visitor.getResult();
-            if (!hasBeenFiltered.get()) {
-                unfilteredSnapshotRecorder.accept(result);
-            }
-            return result;
+            Files.walkFileTree(root, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
+            return visitor.getResult();
         } catch (IOException e) {
-            throw new UncheckedIOException(String.format("Could not list contents of directory '%s'.", absolutePath), e);
+            throw new UncheckedIOException(String.format("Could not list contents of directory '%s'.", root), e);
+        }
+    }
+
+    /**
+     * Walks a directory on a fork/join pool.
+     *
+     * Failures are kept and rethrown as they are by {@link #getSnapshot()},
+     * since joining a task that failed on another thread may wrap the failure in a new exception.
+     */
+    private static class SnapshotTask extends RecursiveTask<FileSystemLocationSnapshot> {
+        private final Path directory;
+        private final PathVisitor visitor;
+        private RuntimeException failure;
+
+        public SnapshotTask(Path directory, PathVisitor visitor) {
+            this.directory = directory;
+            this.visitor = visitor;
+        }
+
+        @Override
+        protected FileSystemLocationSnapshot compute() {
+            try {
+                return walk(directory, visitor);
+            } catch (RuntimeException e) {
+                failure = e;
+                return null;
+            }
+        }
+
+        public FileSystemLocationSnapshot getSnapshot() {
+            FileSystemLocationSnapshot snapshot = join();
+            if (failure != null) {
+                throw failure;
+            }
+            return snapshot;
         }
     }
 
@@ -254,7 +318,7 @@ public boolean test(String element) {
     }
 
     private static class PathVisitor extends DirectorySnapshotterStatistics.CollectingFileVisitor {
-        private final RelativePathTracker pathTracker = new RelativePathTracker();
+        private final RelativePathTracker pathTracker;
         private final FilteredTrackingMerkleDirectorySnapshotBuilder builder;
         private final SnapshottingFilter.DirectoryWalkerPredicate predicate;
         private final AtomicBoolean hasBeenFiltered;
@@ -262,10 +326,14 @@ private static class PathVisitor extends DirectorySnapshotterStatistics.Collecti
         private final Interner<String> stringInterner;
         private final DefaultExcludes defaultExcludes;
         private final SymbolicLinkMapping symbolicLinkMapping;
-        private final Deque<String> parentDirectories = new ArrayDeque<>();
+        private final Deque<String> parentDirectories;
         private final Set<FileSystemLocationSnapshot> filteredDirectorySnapshots = new HashSet<>();
         private final ImmutableMap<String, ? extends FileSystemLocationSnapshot> previouslyKnownSnapshots;
         private final Consumer<FileSystemLocationSnapshot> unfilteredSnapshotRecorder;
+        @Nullable
+        private final ForkJoinPool subdirectoryPool;
+        private final List<SnapshotTask> forkedSubdirectories = new ArrayList<>();
+        private boolean rootEntered;
 
         public PathVisitor(
             SnapshottingFilter.@Nullable DirectoryWalkerPredicate predicate,
@@ -276,9 +344,31 @@ public PathVisitor(
             DirectorySnapshotterStatistics.Collector statisticsCollector,
             SymbolicLinkMapping symbolicLinkMapping,
             Map<String, ? extends FileSystemLocationSnapshot> previouslyKnownSnapshots,
-            Consumer<FileSystemLocationSnapshot> unfilteredSnapshotRecorder
+            Consumer<FileSystemLocationSnapshot> unfilteredSnapshotRecorder,
+            @Nullable ForkJoinPool subdirectoryPool
+        ) {
+            this(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, statisticsCollector, symbolicLinkMapping, previouslyKnownSnapshots, unfilteredSnapshotRecorder, subdirectoryPool, false, new RelativePathTracker(), new ArrayDeque<>());
+        }
+
+        private PathVisitor(
+            SnapshottingFilter.@Nullable DirectoryWalkerPredicate predicate,
+            AtomicBoolean hasBeenFiltered,
+            FileHasher hasher,
+            Interner<String> stringInterner,
+            DefaultExcludes defaultExcludes,
+            DirectorySnapshotterStatistics.Collector statisticsCollector,
+            SymbolicLinkMapping symbolicLinkMapping,
+            Map<String, ? extends FileSystemLocationSnapshot> previouslyKnownSnapshots,
+            Consumer<FileSystemLocationSnapshot> unfilteredSnapshotRecorder,
+            @Nullable ForkJoinPool subdirectoryPool,
+            boolean continuesHierarchy,
+            RelativePathTracker pathTracker,
+            Deque<String> parentDirectories
         ) {
-            super(statisticsCollector);
+            super(statisticsCollector, continuesHierarchy);
+            this.pathTracker = pathTracker;
+            this.parentDirectories = parentDirectories;
+            this.subdirectoryPool = subdirectoryPool;
             this.builder = FilteredTrackingMerkleDirectorySnapshotBuilder.sortingRequired(this::recordUnfilteredSnapshot);
             this.predicate = predicate;
             this.hasBeenFiltered = hasBeenFiltered;
@@ -315,7 +405,17 @@ protected FileVisitResult doPreVisitDirectory(Path dir, BasicFileAttributes attr
                     }
                 }
 
-                builder.enterDirectory(AccessType.DIRECT, internedRemappedAbsolutePath, fileName, INCLUDE_EMPTY_DIRS);
+                if (subdirectoryPool != null && rootEntered) {
+                    // Submit to the pool instead of forking, as the walk may not run on a thread of the pool
+                    SnapshotTask task = new SnapshotTask(dir, subdirectoryVisitor());
+                    subdirectoryPool.execute(task);
+                    forkedSubdirectories.add(task);
+                    pathTracker.leave();
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                rootEntered = true;
+                builder.enterDirectory(AccessType.DIRECT, internedRemappedAbsolutePath, fileName, attrs.lastModifiedTime().toMillis(), INCLUDE_EMPTY_DIRS);
                 parentDirectories.addFirst(dir.toString());
                 return FileVisitResult.CONTINUE;
             } else {
@@ -333,6 +433,10 @@ protected FileVisitResult doPostVisitDirectory(Path dir, IOException exc) {
             if (isNotFileSystemLoopException(exc)) {
                 throw new UncheckedIOException(String.format("Could not read directory path '%s'.", dir), exc);
             }
+            if (!forkedSubdirectories.isEmpty()) {
+                // Only the root of the walk has forked subdirectories, since all the other directories have been forked themselves
+                visitForkedSubdirectories();
+            }
             boolean currentLevelComplete = builder.isCurrentLevelUnfiltered();
             FileSystemLocationSnapshot currentLevel = builder.leaveDirectory();
             if (!currentLevelComplete) {
@@ -342,6 +446,47 @@ protected FileVisitResult doPostVisitDirectory(Path dir, IOException exc) {
             return FileVisitResult.CONTINUE;
         }
 
+        /**
+         * Creates the visitor for a subdirectory of the directory being visited, to walk it on another thread.
+         * The visitor starts from a copy of the current path and parent directories, as they keep changing while this walk continues.
+         */
+        private PathVisitor subdirectoryVisitor() {
+            RelativePathTracker subdirectoryPathTracker = new RelativePathTracker();
+            subdirectoryPathTracker.enter("");
+            // The subdirectory itself will be entered when the forked walk visits it
+            Iterables.limit(pathTracker.getSegments(), pathTracker.getSegments().size() - 1).forEach(subdirectoryPathTracker::enter);
+            return new PathVisitor(
+                predicate,
+                hasBeenFiltered,
+                hasher,
+                stringInterner,
+                defaultExcludes,
+                collector,
+                symbolicLinkMapping,
+                previouslyKnownSnapshots,
+                unfilteredSnapshotRecorder,
+                subdirectoryPool,
+                true,
+                subdirectoryPathTracker,
+                new ArrayDeque<>(parentDirectories));
+        }
+
+        private void visitForkedSubdirectories() {
+            try {
+                for (SnapshotTask task : forkedSubdirectories) {
+                    builder.visitDirectory((DirectorySnapshot) task.getSnapshot());
+                }
+            } catch (RuntimeException e) {
+                // Don't start walking the remaining subdirectories, as their snapshots won't be used
+                for (SnapshotTask task : forkedSubdirectories) {
+                    task.cancel(false);
+                }
+                throw e;
+            } finally {
+                forkedSubdirectories.clear();
+            }
+        }
+
         @Override
         protected FileVisitResult doVisitFile(Path file, BasicFileAttributes attrs) {
             String internedFileName = getInternedFileName(file);
@@ -395,7 +540,8 @@ private DirectorySnapshot followSymlink(Path file, String internedFileName, Atom
                         collector,
                         symbolicLinkMapping.withNewMapping(file.toString(), targetDirString, pathTracker),
                         previouslyKnownSnapshots,
-                        unfilteredSnapshotRecorder);
+                        unfilteredSnapshotRecorder,
+                        subdirectoryPool);
                     Files.walkFileTree(targetDir, EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE, subtreeVisitor);
                     return (DirectorySnapshot) subtreeVisitor.getResult();
                 } else {
@@ -109,15 +109,31 @@ public String toString() {
 
     abstract class CollectingFileVisitor implements FileVisitor<Path> {
         protected final Collector collector;
+        private boolean rootDirectoryRecorded;
 
         public CollectingFileVisitor(Collector collector) {
+            this(collector, false);
+        }
+
+        /**
+         * @param continuesHierarchy whether the visitor walks a directory that has already been recorded as part of a visited hierarchy,
+         * so neither the hierarchy nor the root directory of the walk should be recorded again.
+         */
+        protected CollectingFileVisitor(Collector collector, boolean continuesHierarchy) {
             this.collector = collector;
-            collector.recordVisitHierarchy();
+            this.rootDirectoryRecorded = continuesHierarchy;
+            if (!continuesHierarchy) {
+                collector.recordVisitHierarchy();
+            }
         }
 
         @Override
         public final FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-            collector.recordVisitDirectory();
+            if (rootDirectoryRecorded) {
+                rootDirectoryRecorded = false;
+            } else {
+                collector.recordVisitDirectory();
+            }
             return doPreVisitDirectory(dir, attrs);
         }
 
@@ -61,6 +61,12 @@ public void enterDirectory(FileMetadata.AccessType accessType, String absolutePa
         delegate.enterDirectory(accessType, absolutePath, name, emptyDirectoryHandlingStrategy);
     }
 
+    @Override
+    public void enterDirectory(FileMetadata.AccessType accessType, String absolutePath, String name, long lastModified, EmptyDirectoryHandlingStrategy emptyDirectoryHandlingStrategy) {
+        isCurrentLevelUnfiltered.addLast(true);
+        delegate.enterDirectory(accessType, absolutePath, name, lastModified, emptyDirectoryHandlingStrategy);
+    }
+
     @Override
     public void visitLeafElement(FileSystemLeafSnapshot snapshot) {
         delegate.visitLeafElement(snapshot);
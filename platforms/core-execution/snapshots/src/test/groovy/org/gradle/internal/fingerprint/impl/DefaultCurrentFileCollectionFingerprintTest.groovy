@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.fingerprint.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint
+import org.gradle.internal.fingerprint.DirectorySensitivity
+import org.gradle.internal.fingerprint.FileCollectionFingerprint
+import org.gradle.internal.fingerprint.FingerprintingStrategy
+import org.gradle.internal.snapshot.CompositeFileSystemSnapshot
+import org.gradle.internal.snapshot.FileSystemSnapshot
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+@CleanupTestDirectory
+class DefaultCurrentFileCollectionFingerprintTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider temporaryFolder = TestNameTestDirectoryProvider.newInstance(getClass())
+
+    def strategy = Spy(RelativePathFingerprintingStrategy, constructorArgs: [new StringInterner(), DirectorySensitivity.DEFAULT])
+
+    def "reuses fingerprints of unchanged roots"() {
+        def first = directoryWithFiles("first")
+        def second = directoryWithFiles("second")
+        def third = directoryWithFiles("third")
+        def previous = fingerprint(snapshot(first, second, third), null)
+
+        when:
+        second.file("a/input-1.txt") << "changed"
+        second.file("new.txt") << "new"
+        def roots = snapshot(first, second, third)
+        def current = fingerprint(roots, previous)
+
+        then:
+        1 * strategy.collectFingerprints({ it.absolutePath == second.absolutePath })
+        0 * strategy.collectFingerprints(_)
+
+        when:
+        def expected = fingerprint(roots, null)
+
+        then:
+        current.fingerprints.entrySet().toList() == expected.fingerprints.entrySet().toList()
+        current.hash == expected.hash
+        current.hash != previous.hash
+    }
+
+    def "keeps root order and first fingerprint for duplicate roots"() {
+        def first = directoryWithFiles("first")
+        def second = directoryWithFiles("second")
+        def previous = fingerprint(snapshot(second, first, second), null)
+
+        when:
+        first.file("input.txt") << "changed"
+        def roots = snapshot(second, first, second)
+        def current = fingerprint(roots, previous)
+        def expected = fingerprint(roots, null)
+
+        then:
+        current.fingerprints.entrySet().toList() == expected.fingerprints.entrySet().toList()
+        current.hash == expected.hash
+    }
+
+    def "fingerprints all roots when roots overlap"() {
+        def parent = directoryWithFiles("parent")
+        def other = directoryWithFiles("other")
+        def child = parent.file("a")
+        def previous = fingerprint(snapshot(parent, child, other), null)
+
+        when:
+        other.file("input.txt") << "changed"
+        def roots = snapshot(parent, child, other)
+        def current = fingerprint(roots, previous)
+
+        then:
+        1 * strategy.collectFingerprints(_ as CompositeFileSystemSnapshot)
+        0 * strategy.collectFingerprints(_)
+
+        when:
+        def expected = fingerprint(roots, null)
+
+        then:
+        current.fingerprints.entrySet().toList() == expected.fingerprints.entrySet().toList()
+    }
+
+    def "fingerprints all roots when previous fingerprint used a different strategy"() {
+        def first = directoryWithFiles("first")
+        def second = directoryWithFiles("second")
+        def previous = DefaultCurrentFileCollectionFingerprint.from(snapshot(first, second), AbsolutePathFingerprintingStrategy.DEFAULT, null)
+
+        when:
+        second.file("input.txt") << "changed"
+        def roots = snapshot(first, second)
+        fingerprint(roots, previous)
+
+        then:
+        1 * strategy.collectFingerprints(_ as CompositeFileSystemSnapshot)
+        0 * strategy.collectFingerprints(_)
+    }
+
+    private CurrentFileCollectionFingerprint fingerprint(FileSystemSnapshot roots, FileCollectionFingerprint candidate) {
+        return DefaultCurrentFileCollectionFingerprint.from(roots, strategy as FingerprintingStrategy, candidate)
+    }
+
+    private TestFile directoryWithFiles(String path) {
+        def directory = temporaryFolder.file(path)
+        directory.file("input.txt") << "input in ${path}"
+        directory.file("a/input-1.txt") << "input #1"
+        directory.file("b/input-2.txt") << "input #2"
+        return directory
+    }
+
+    private static FileSystemSnapshot snapshot(File... roots) {
+        // Use a new file system access each time, so changed files are picked up
+        def fileSystemAccess = TestFiles.fileSystemAccess()
+        return CompositeFileSystemSnapshot.of(roots.collect { fileSystemAccess.read(it.absolutePath) })
+    }
+}
@@ -23,6 +23,7 @@ class SearchUtilTest extends Specification {
     def "search for #searchedChild in #sortedChildren is #expectedResult"() {
         expect:
         SearchUtil.binarySearch(children, searchedChild) == expectedResult
+        SearchUtil.binarySearch(sortedChildren as String[], searchedChild) == expectedResult
 
         where:
         children | searchedChild
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.internal.snapshot.SnapshotVisitorUtil
+
+import java.util.concurrent.ForkJoinPool
+
+class ParallelDirectorySnapshotterTest extends DirectorySnapshotterTest {
+    def pool = new ForkJoinPool(4)
+
+    def setup() {
+        directorySnapshotter = new DirectorySnapshotter(fileHasher, new StringInterner(), [], statisticsCollector, pool)
+    }
+
+    def cleanup() {
+        pool.shutdown()
+    }
+
+    def "produces the same snapshot as snapshotting on a single thread"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        (1..5).each { i ->
+            rootDir.file("file-${i}.txt").text = "root ${i}"
+            (1..5).each { j ->
+                rootDir.file("dir-${i}/nested-${j}/file.txt").text = "nested ${i} ${j}"
+            }
+        }
+        rootDir.file("dir-1/empty").createDir()
+        def sequentialSnapshotter = new DirectorySnapshotter(fileHasher, new StringInterner(), [], statisticsCollector)
+
+        when:
+        def snapshot = directorySnapshotter.snapshot(rootDir.absolutePath, null, [:], unfilteredSubSnapshotsCollector)
+        def sequentialSnapshot = sequentialSnapshotter.snapshot(rootDir.absolutePath, null, [:]) {}
+
+        then:
+        snapshot.hash == sequentialSnapshot.hash
+        SnapshotVisitorUtil.getAbsolutePaths(snapshot, true) == SnapshotVisitorUtil.getAbsolutePaths(sequentialSnapshot, true)
+        unfilteredSubsnapshots == [snapshot]
+    }
+}
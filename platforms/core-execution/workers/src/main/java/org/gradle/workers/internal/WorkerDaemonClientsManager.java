@@ -21,21 +21,29 @@
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.buildoption.IntegerInternalOption;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.events.LogLevelChangeEvent;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.service.scopes.Scope;
 import org.gradle.internal.service.scopes.ServiceScope;
 import org.gradle.internal.session.BuildSessionLifecycleListener;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.health.memory.OsMemoryInfo;
 import org.gradle.util.internal.CollectionUtils;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
@@ -45,11 +53,21 @@
 @ServiceScope(Scope.UserHome.class)
 public class WorkerDaemonClientsManager implements Stoppable {
 
+    /**
+     * The number of most frequently used fork options for which an idle worker daemon is started at the beginning of each build session, when there is none already.
+     * Usage is tracked across the builds run by this Gradle daemon, for worker daemons that are kept alive with the Gradle daemon,
+     * and halved at the start of each build session so that fork options that are no longer used are eventually forgotten.
+     */
+    public static final IntegerInternalOption PREWARM_COUNT_OPTION = new IntegerInternalOption("org.gradle.internal.workers.prewarm-count", 0);
+
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
+    private static final int MAX_TRACKED_FORK_OPTIONS = 32;
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    private final List<ForkOptionsUsage> forkOptionsUsages = new ArrayList<>();
+    private final List<DaemonForkOptions> prewarmsInFlight = new ArrayList<>();
 
     private final WorkerDaemonStarter workerDaemonStarter;
     private final ListenerManager listenerManager;
@@ -59,15 +77,45 @@ public class WorkerDaemonClientsManager implements Stoppable {
     private final OutputEventListener logLevelChangeEventListener;
     private final WorkerDaemonExpiration workerDaemonExpiration;
     private final MemoryManager memoryManager;
+    private final BuildSessionLifecycleListener sessionStatistics;
+    private final int prewarmCount;
+    @Nullable
+    private final ManagedExecutor prewarmExecutor;
     private volatile LogLevel currentLogLevel;
 
+    // Statistics for the current build session, see getStatistics()
+    private int idleClientHits;
+    private int idleClientMisses;
+    private int startedClients;
+    private int prewarmedClients;
+    private long totalStartupMillis;
+
     public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo) {
+        this(workerDaemonStarter, listenerManager, loggingManager, memoryManager, memoryInfo, null, 0);
+    }
+
+    /**
+     * @param prewarmCount See {@link #PREWARM_COUNT_OPTION}. Pre-warming is disabled when this is 0.
+     */
+    public WorkerDaemonClientsManager(
+        WorkerDaemonStarter workerDaemonStarter,
+        ListenerManager listenerManager,
+        LoggingManagerInternal loggingManager,
+        MemoryManager memoryManager,
+        OsMemoryInfo memoryInfo,
+        @Nullable ExecutorFactory executorFactory,
+        int prewarmCount
+    ) {
         this.workerDaemonStarter = workerDaemonStarter;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
         this.memoryInfo = memoryInfo;
+        this.prewarmCount = executorFactory == null ? 0 : prewarmCount;
+        this.prewarmExecutor = this.prewarmCount > 0 ? executorFactory.create("Worker daemon pre-warming") : null;
         this.stopSessionScopeWorkers = new StopSessionScopedWorkers();
         listenerManager.addListener(stopSessionScopeWorkers);
+        this.sessionStatistics = new SessionStatistics();
+        listenerManager.addListener(sessionStatistics);
         this.logLevelChangeEventListener = new LogLevelChangeEventListener();
         loggingManager.addOutputEventListener(logLevelChangeEventListener);
         this.currentLogLevel = loggingManager.getLevel();
@@ -78,7 +126,25 @@ public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, Liste
 
     // TODO - should supply and check for the same parameters as passed to reserveNewClient()
     public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+        synchronized (lock) {
+            recordUsage(forkOptions);
+            WorkerDaemonClient client = reserveIdleClient(forkOptions, idleClients);
+            while (client == null && isPrewarming(forkOptions)) {
+                // Wait for the worker daemon being pre-warmed rather than starting a duplicate
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+                client = reserveIdleClient(forkOptions, idleClients);
+            }
+            if (client != null) {
+                idleClientHits++;
+            } else {
+                idleClientMisses++;
+            }
+            return client;
+        }
     }
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
@@ -119,13 +185,122 @@ private static void emitUnexpectedWorkerFailureWarning(WorkerDaemonClient candid
 
     WorkerDaemonClient reserveNewClient(DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
+        Timer timer = Time.startTimer();
         WorkerDaemonClient client = workerDaemonStarter.startDaemon(forkOptions);
+        long startupMillis = timer.getElapsedMillis();
         synchronized (lock) {
             allClients.add(client);
+            startedClients++;
+            totalStartupMillis += startupMillis;
         }
         return client;
     }
 
+    private void recordUsage(DaemonForkOptions forkOptions) {
+        if (prewarmCount == 0 || forkOptions.getKeepAliveMode() != KeepAliveMode.DAEMON) {
+            return;
+        }
+        for (ForkOptionsUsage usage : forkOptionsUsages) {
+            if (usage.matches(forkOptions)) {
+                usage.reservations++;
+                return;
+            }
+        }
+        if (forkOptionsUsages.size() >= MAX_TRACKED_FORK_OPTIONS) {
+            forkOptionsUsages.remove(Collections.min(forkOptionsUsages, comparingInt(usage -> usage.reservations)));
+        }
+        forkOptionsUsages.add(new ForkOptionsUsage(forkOptions));
+    }
+
+    private void ageUsages() {
+        Iterator<ForkOptionsUsage> it = forkOptionsUsages.iterator();
+        while (it.hasNext()) {
+            ForkOptionsUsage usage = it.next();
+            usage.reservations /= 2;
+            if (usage.reservations == 0) {
+                it.remove();
+            }
+        }
+    }
+
+    private boolean isPrewarming(DaemonForkOptions forkOptions) {
+        for (DaemonForkOptions prewarming : prewarmsInFlight) {
+            if (prewarming.isCompatibleWith(forkOptions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts an idle worker daemon for each of the most frequently used fork options that do not have one, nor one being started.
+     */
+    private void prewarmWorkers() {
+        List<DaemonForkOptions> toStart = new ArrayList<>();
+        synchronized (lock) {
+            List<ForkOptionsUsage> mostUsed = CollectionUtils.sort(forkOptionsUsages, comparingInt((ForkOptionsUsage usage) -> usage.reservations).reversed());
+            for (ForkOptionsUsage usage : mostUsed.subList(0, Math.min(prewarmCount, mostUsed.size()))) {
+                if (!hasIdleClient(usage.forkOptions) && !isPrewarming(usage.forkOptions)) {
+                    toStart.add(usage.forkOptions);
+                    prewarmsInFlight.add(usage.forkOptions);
+                }
+            }
+            ageUsages();
+        }
+        for (DaemonForkOptions forkOptions : toStart) {
+            try {
+                prewarmExecutor.execute(() -> prewarmWorker(forkOptions));
+            } catch (RuntimeException e) {
+                LOGGER.info("Could not pre-warm worker daemon with fork options {}.", forkOptions, e);
+                synchronized (lock) {
+                    prewarmsInFlight.remove(forkOptions);
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private boolean hasIdleClient(DaemonForkOptions forkOptions) {
+        for (WorkerDaemonClient client : idleClients) {
+            if (!client.isFailed() && client.getLogLevel() == currentLogLevel && client.isCompatibleWith(forkOptions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void prewarmWorker(DaemonForkOptions forkOptions) {
+        WorkerDaemonClient client = null;
+        long startupMillis = 0;
+        try {
+            Timer timer = Time.startTimer();
+            client = workerDaemonStarter.startDaemon(forkOptions);
+            startupMillis = timer.getElapsedMillis();
+        } catch (Exception e) {
+            LOGGER.info("Could not pre-warm worker daemon with fork options {}.", forkOptions, e);
+        } finally {
+            synchronized (lock) {
+                if (client != null) {
+                    allClients.add(client);
+                    idleClients.add(client);
+                    prewarmedClients++;
+                    totalStartupMillis += startupMillis;
+                }
+                prewarmsInFlight.remove(forkOptions);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of the current build session, or of the last one once it has completed.
+     */
+    public WorkerDaemonStatistics getStatistics() {
+        synchronized (lock) {
+            return WorkerDaemonStatistics.of(idleClientHits, idleClientMisses, startedClients, prewarmedClients, totalStartupMillis);
+        }
+    }
+
     void release(WorkerDaemonClient client) {
         synchronized (lock) {
             if (!client.isFailed()) {
@@ -136,9 +311,14 @@ void release(WorkerDaemonClient client) {
 
     @Override
     public void stop() {
+        // Do not hold lock while waiting for workers being pre-warmed, as they need to acquire the lock once started
+        if (prewarmExecutor != null) {
+            prewarmExecutor.stop();
+        }
         synchronized (lock) {
             stopAllWorkers();
             listenerManager.removeListener(stopSessionScopeWorkers);
+            listenerManager.removeListener(sessionStatistics);
             memoryManager.removeMemoryHolder(workerDaemonExpiration);
         }
         // Do not hold lock while removing listener, as the listener may still be receiving events on another thread and will need to acquire the lock to handle these events
@@ -236,6 +416,43 @@ public void beforeComplete() {
         }
     }
 
+    private class SessionStatistics implements BuildSessionLifecycleListener {
+        @Override
+        public void afterStart() {
+            synchronized (lock) {
+                idleClientHits = 0;
+                idleClientMisses = 0;
+                startedClients = 0;
+                prewarmedClients = 0;
+                totalStartupMillis = 0;
+            }
+            if (prewarmCount > 0) {
+                prewarmWorkers();
+            }
+        }
+
+        @Override
+        public void beforeComplete() {
+            WorkerDaemonStatistics statistics = getStatistics();
+            if (statistics.getIdleClientHits() + statistics.getIdleClientMisses() + statistics.getStartedClients() + statistics.getPrewarmedClients() > 0) {
+                LOGGER.info("{}", statistics);
+            }
+        }
+    }
+
+    private static class ForkOptionsUsage {
+        final DaemonForkOptions forkOptions;
+        int reservations = 1;
+
+        ForkOptionsUsage(DaemonForkOptions forkOptions) {
+            this.forkOptions = forkOptions;
+        }
+
+        boolean matches(DaemonForkOptions other) {
+            return forkOptions.isCompatibleWith(other) && other.isCompatibleWith(forkOptions);
+        }
+    }
+
     private static final Consumer<WorkerDaemonClient> STOP_CLIENT = WorkerDaemonClient::stop;
     private static final Consumer<WorkerDaemonClient> KILL_CLIENT = WorkerDaemonClient::kill;
 }
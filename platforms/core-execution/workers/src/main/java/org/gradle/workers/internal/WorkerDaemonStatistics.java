@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import java.text.MessageFormat;
+
+/**
+ * Worker daemon pool statistics for a build session.
+ *
+ * @see WorkerDaemonClientsManager#getStatistics()
+ */
+public interface WorkerDaemonStatistics {
+    /**
+     * Number of reservations that reused an idle worker daemon.
+     */
+    int getIdleClientHits();
+
+    /**
+     * Number of reservations that found no compatible idle worker daemon.
+     */
+    int getIdleClientMisses();
+
+    /**
+     * Number of worker daemons started on demand.
+     */
+    int getStartedClients();
+
+    /**
+     * Number of worker daemons started ahead of time by pre-warming.
+     */
+    int getPrewarmedClients();
+
+    /**
+     * Total time spent starting worker daemons, both on demand and by pre-warming.
+     */
+    long getTotalStartupMillis();
+
+    static WorkerDaemonStatistics of(int idleClientHits, int idleClientMisses, int startedClients, int prewarmedClients, long totalStartupMillis) {
+        return new WorkerDaemonStatistics() {
+            @Override
+            public int getIdleClientHits() {
+                return idleClientHits;
+            }
+
+            @Override
+            public int getIdleClientMisses() {
+                return idleClientMisses;
+            }
+
+            @Override
+            public int getStartedClients() {
+                return startedClients;
+            }
+
+            @Override
+            public int getPrewarmedClients() {
+                return prewarmedClients;
+            }
+
+            @Override
+            public long getTotalStartupMillis() {
+                return totalStartupMillis;
+            }
+
+            @Override
+            public String toString() {
+                int startedOrPrewarmed = startedClients + prewarmedClients;
+                return MessageFormat.format("Worker daemons: {0,number,integer} reservation(s) reused an idle worker daemon, {1,number,integer} did not. Started {2,number,integer} and pre-warmed {3,number,integer} worker daemon(s), taking {4,number,integer}ms on average.",
+                    idleClientHits, idleClientMisses, startedClients, prewarmedClients, startedOrPrewarmed == 0 ? 0 : totalStartupMillis / startedOrPrewarmed
+                );
+            }
+        };
+    }
+}
@@ -22,6 +22,7 @@
 import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.initialization.GradleUserHomeDirProvider;
 import org.gradle.initialization.layout.ProjectCacheDir;
+import org.gradle.internal.buildoption.DefaultInternalOptions;
 import org.gradle.internal.classpath.CachedClasspathTransformer;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
@@ -51,6 +52,7 @@
 import org.gradle.process.internal.worker.child.WorkerDirectoryProvider;
 import org.gradle.workers.WorkerExecutor;
 
+
 @SuppressWarnings("UnusedMethod")
 public class WorkersServices extends AbstractGradleModuleServices {
     @Override
@@ -99,8 +101,18 @@ WorkerDaemonClientsManager createWorkerDaemonClientsManager(WorkerProcessFactory
                                                                     MemoryManager memoryManager,
                                                                     OsMemoryInfo memoryInfo,
                                                                     ClassPathRegistry classPathRegistry,
-                                                                    ActionExecutionSpecFactory actionExecutionSpecFactory) {
-            return new WorkerDaemonClientsManager(new WorkerDaemonStarter(workerFactory, loggingManager, classPathRegistry, actionExecutionSpecFactory), listenerManager, loggingManager, memoryManager, memoryInfo);
+                                                                    ActionExecutionSpecFactory actionExecutionSpecFactory,
+                                                                    ExecutorFactory executorFactory) {
+            int prewarmCount = DefaultInternalOptions.fromProcessSystemProperties().getOption(WorkerDaemonClientsManager.PREWARM_COUNT_OPTION).get();
+            return new WorkerDaemonClientsManager(
+                new WorkerDaemonStarter(workerFactory, loggingManager, classPathRegistry, actionExecutionSpecFactory),
+                listenerManager,
+                loggingManager,
+                memoryManager,
+                memoryInfo,
+                executorFactory,
+                prewarmCount
+            );
         }
 
         @Provides
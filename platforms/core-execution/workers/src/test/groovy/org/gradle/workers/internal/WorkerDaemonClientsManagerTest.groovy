@@ -18,6 +18,8 @@ package org.gradle.workers.internal
 
 import org.gradle.api.Transformer
 import org.gradle.api.logging.LogLevel
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.event.DefaultListenerManager
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.LoggingManagerInternal
@@ -32,6 +34,8 @@ import org.gradle.process.internal.health.memory.MemoryManager
 import org.gradle.util.ConcurrentSpecification
 import spock.lang.Subject
 
+import java.util.concurrent.CountDownLatch
+
 class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def options = Stub(DaemonForkOptions)
     def starter = Stub(WorkerDaemonStarter)
@@ -182,6 +186,149 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
     }
 
+    def "pre-warms a worker daemon for the most frequently used fork options when a session starts"() {
+        listenerManager = new DefaultListenerManager(Scope.BuildSession)
+        def executorFactory = Stub(ExecutorFactory) {
+            create(_) >> Stub(ManagedExecutor) {
+                execute(_) >> { Runnable action -> action.run() }
+            }
+        }
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(new DefaultMBeanAttributeProvider()), executorFactory, 1)
+        def frequentOptions = Stub(DaemonForkOptions)
+        def rareOptions = Stub(DaemonForkOptions)
+        [frequentOptions, rareOptions].each { forkOptions ->
+            forkOptions.getKeepAliveMode() >> KeepAliveMode.DAEMON
+            forkOptions.isCompatibleWith(_) >> { DaemonForkOptions other -> other.is(forkOptions) }
+        }
+        def prewarmed = Stub(WorkerDaemonClient) {
+            isCompatibleWith(frequentOptions) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        starter.startDaemon(frequentOptions) >> prewarmed
+
+        when:
+        2.times { manager.reserveIdleClient(frequentOptions) }
+        manager.reserveIdleClient(rareOptions)
+        listenerManager.getBroadcaster(BuildSessionLifecycleListener).afterStart()
+
+        then:
+        manager.reserveIdleClient(rareOptions) == null
+        manager.reserveIdleClient(frequentOptions) == prewarmed
+    }
+
+    def "reservation waits for the worker daemon being pre-warmed instead of starting a duplicate"() {
+        listenerManager = new DefaultListenerManager(Scope.BuildSession)
+        def executorFactory = Stub(ExecutorFactory) {
+            create(_) >> Stub(ManagedExecutor) {
+                execute(_) >> { Runnable action -> new Thread(action).start() }
+            }
+        }
+        starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(new DefaultMBeanAttributeProvider()), executorFactory, 1)
+        def forkOptions = Stub(DaemonForkOptions) {
+            getKeepAliveMode() >> KeepAliveMode.DAEMON
+            isCompatibleWith(_) >> true
+        }
+        def prewarmed = Stub(WorkerDaemonClient) {
+            isCompatibleWith(forkOptions) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        def daemonStarting = new CountDownLatch(1)
+        def finishStarting = new CountDownLatch(1)
+        manager.reserveIdleClient(forkOptions)
+
+        when:
+        listenerManager.getBroadcaster(BuildSessionLifecycleListener).afterStart()
+        daemonStarting.await()
+        listenerManager.getBroadcaster(BuildSessionLifecycleListener).afterStart()
+        def reserved = null
+        def reservation = new Thread({ reserved = manager.reserveIdleClient(forkOptions) })
+        reservation.start()
+        reservation.join(100)
+
+        then:
+        1 * starter.startDaemon(forkOptions) >> {
+            daemonStarting.countDown()
+            finishStarting.await()
+            prewarmed
+        }
+        reservation.alive
+
+        when:
+        finishStarting.countDown()
+        reservation.join()
+
+        then:
+        reserved == prewarmed
+        0 * starter.startDaemon(_)
+    }
+
+    def "forgets the usage of fork options that are no longer reserved"() {
+        listenerManager = new DefaultListenerManager(Scope.BuildSession)
+        def executorFactory = Stub(ExecutorFactory) {
+            create(_) >> Stub(ManagedExecutor) {
+                execute(_) >> { Runnable action -> action.run() }
+            }
+        }
+        starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(new DefaultMBeanAttributeProvider()), executorFactory, 1)
+        def oldOptions = Stub(DaemonForkOptions)
+        def recentOptions = Stub(DaemonForkOptions)
+        [oldOptions, recentOptions].each { forkOptions ->
+            forkOptions.getKeepAliveMode() >> KeepAliveMode.DAEMON
+            forkOptions.isCompatibleWith(_) >> { DaemonForkOptions other -> other.is(forkOptions) }
+        }
+        def sessionLifecycle = listenerManager.getBroadcaster(BuildSessionLifecycleListener)
+
+        when:
+        3.times { manager.reserveIdleClient(oldOptions) }
+        sessionLifecycle.afterStart()
+
+        then:
+        1 * starter.startDaemon(oldOptions) >> { throw new RuntimeException("broken") }
+
+        when:
+        2.times { manager.reserveIdleClient(recentOptions) }
+        sessionLifecycle.afterStart()
+
+        then:
+        1 * starter.startDaemon(recentOptions) >> Stub(WorkerDaemonClient)
+        0 * starter.startDaemon(oldOptions)
+    }
+
+    def "collects statistics for the current build session"() {
+        listenerManager = new DefaultListenerManager(Scope.BuildSession)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(new DefaultMBeanAttributeProvider()))
+        def client = Stub(WorkerDaemonClient) {
+            isCompatibleWith(options) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        starter.startDaemon(options) >> client
+
+        when:
+        manager.reserveIdleClient(options)
+        manager.reserveNewClient(options)
+        manager.release(client)
+        manager.reserveIdleClient(options)
+        listenerManager.getBroadcaster(BuildSessionLifecycleListener).beforeComplete()
+        def statistics = manager.getStatistics()
+
+        then:
+        statistics.idleClientHits == 1
+        statistics.idleClientMisses == 1
+        statistics.startedClients == 1
+        statistics.prewarmedClients == 0
+
+        when:
+        listenerManager.getBroadcaster(BuildSessionLifecycleListener).afterStart()
+        statistics = manager.getStatistics()
+
+        then:
+        statistics.idleClientHits == 0
+        statistics.idleClientMisses == 0
+        statistics.startedClients == 0
+    }
+
     def "clients can be released for further use"() {
         def client = Mock(WorkerDaemonClient) {
             isCompatibleWith(_) >> true
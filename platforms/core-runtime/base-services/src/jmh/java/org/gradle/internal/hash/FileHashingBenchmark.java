@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares hashing file content through a heap buffer with hashing it from a memory mapping,
+ * for different distributions of file sizes.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class FileHashingBenchmark {
+
+    private static final int KB = 1024;
+    private static final int MB = 1024 * KB;
+
+    /**
+     * <ul>
+     *     <li>{@code small}: 500 source-like files between 1 KiB and 64 KiB</li>
+     *     <li>{@code mixed}: 100 files with a log-uniform size between 1 KiB and 32 MiB, like a runtime classpath</li>
+     *     <li>{@code large}: 4 archives between 128 MiB and 256 MiB</li>
+     * </ul>
+     */
+    @Param({"small", "mixed", "large"})
+    String distribution;
+
+    @Param({"heap", "direct"})
+    String mode;
+
+    @Param({"md5", "xxh3-128"})
+    String hashFunction;
+
+    File directory;
+    List<File> files;
+    FileHasher hasher;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("file-hashing").toFile();
+        files = new ArrayList<>();
+        Random random = new Random(1234L);
+        int[] sizes = fileSizes(random);
+        for (int i = 0; i < sizes.length; i++) {
+            File file = new File(directory, "file-" + i + ".bin");
+            writeRandomContent(file, sizes[i], random);
+            files.add(file);
+        }
+        HashFunction function = hashFunction.equals("md5") ? Hashing.md5() : Hashing.xxh3_128();
+        long threshold = mode.equals("direct") ? 0 : Long.MAX_VALUE;
+        hasher = new DefaultFileHasher(new DefaultStreamHasher(function), threshold);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : files) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void hashFiles(Blackhole blackhole) {
+        for (File file : files) {
+            blackhole.consume(hasher.hash(file));
+        }
+    }
+
+    private int[] fileSizes(Random random) {
+        switch (distribution) {
+            case "small":
+                return randomSizes(random, 500, KB, 64 * KB);
+            case "mixed":
+                int[] sizes = new int[100];
+                for (int i = 0; i < sizes.length; i++) {
+                    sizes[i] = (int) Math.exp(Math.log(KB) + random.nextDouble() * (Math.log(32 * MB) - Math.log(KB)));
+                }
+                return sizes;
+            case "large":
+                return randomSizes(random, 4, 128 * MB, 256 * MB);
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        }
+    }
+
+    private static int[] randomSizes(Random random, int count, int minSize, int maxSize) {
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = minSize + random.nextInt(maxSize - minSize);
+        }
+        return sizes;
+    }
+
+    private static void writeRandomContent(File file, int size, Random random) throws IOException {
+        byte[] buffer = new byte[MB];
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            int remaining = size;
+            while (remaining > 0) {
+                int length = Math.min(remaining, buffer.length);
+                random.nextBytes(buffer);
+                outputStream.write(buffer, 0, length);
+                remaining -= length;
+            }
+        }
+    }
+}
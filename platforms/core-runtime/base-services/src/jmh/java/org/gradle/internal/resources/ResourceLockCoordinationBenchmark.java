@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resources;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.lock;
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.unlock;
+
+/**
+ * Measures how long a number of worker threads take to repeatedly acquire a worker lease together with a project lock and release them again,
+ * which is the lock traffic of running many small tasks with a high number of workers.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class ResourceLockCoordinationBenchmark {
+    private static final int CYCLES_PER_THREAD = 1000;
+
+    @Param({"8", "32", "64"})
+    int threads;
+
+    /**
+     * The number of worker leases, as a fraction of the number of threads.
+     */
+    @Param({"1", "0.5"})
+    double leasesPerThread;
+
+    @Param({"4", "64"})
+    int projects;
+
+    /**
+     * How long each thread holds its locks, simulating a small task.
+     */
+    @Param({"0", "20000"})
+    long holdNanos;
+
+    private ExecutorService executor;
+    private DefaultResourceLockCoordinationService coordinationService;
+    private LeaseHolder workerLeases;
+    private List<ResourceLock> projectLocks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = Executors.newFixedThreadPool(threads);
+        coordinationService = new DefaultResourceLockCoordinationService();
+        workerLeases = new LeaseHolder(Math.max(1, (int) (threads * leasesPerThread)));
+        projectLocks = new ArrayList<>();
+        for (int i = 0; i < projects; i++) {
+            projectLocks.add(new ExclusiveAccessResourceLock("project " + i, coordinationService, NoOpContainer.INSTANCE));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void acquireAndReleaseLocks() throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    ResourceLock workerLease = new DefaultLease("worker lease", coordinationService, NoOpContainer.INSTANCE, workerLeases);
+                    for (int cycle = 0; cycle < CYCLES_PER_THREAD; cycle++) {
+                        ResourceLock projectLock = projectLocks.get(ThreadLocalRandom.current().nextInt(projects));
+                        coordinationService.withStateLock(lock(workerLease, projectLock));
+                        if (holdNanos > 0) {
+                            LockSupport.parkNanos(holdNanos);
+                        }
+                        coordinationService.withStateLock(unlock(projectLock, workerLease));
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+    }
+
+    private enum NoOpContainer implements ResourceLockContainer {
+        INSTANCE;
+
+        @Override
+        public void lockAcquired(ResourceLock lock) {
+        }
+
+        @Override
+        public void lockReleased(ResourceLock lock) {
+        }
+    }
+}
@@ -27,6 +27,9 @@ public enum BuildOperationConstraint {
 
     /**
      * Unconstrained execution allowing as many threads as required to a maximum of 10 times the configured workers.
+     *
+     * These operations may run on virtual threads, when enabled. Only those implementing {@link BlockingIoBuildOperation} then run
+     * without holding one of the configured worker leases.
      */
     UNCONSTRAINED
 }
@@ -52,6 +52,7 @@ public boolean tryLock() {
                 coordinationService.getCurrent().registerLocked(this);
                 return true;
             } else {
+                coordinationService.getCurrent().registerContended(getContentionKey());
                 return false;
             }
         } else {
@@ -75,7 +76,11 @@ public void unlock() {
     @Override
     public boolean isLocked() {
         failIfNotInResourceLockStateChange();
-        return doIsLocked();
+        boolean locked = doIsLocked();
+        if (locked && !doIsLockedByCurrentThread()) {
+            coordinationService.getCurrent().registerContended(getContentionKey());
+        }
+        return locked;
     }
 
     @Override
@@ -90,6 +95,13 @@ private void failIfNotInResourceLockStateChange() {
         }
     }
 
+    /**
+     * Returns the resource that threads which cannot acquire this lock wait for. Releasing any lock with the same key wakes those threads.
+     */
+    protected Object getContentionKey() {
+        return this;
+    }
+
     abstract protected boolean acquireLock();
 
     abstract protected void releaseLock();
@@ -35,6 +35,12 @@ protected boolean doIsLockedByCurrentThread() {
         return Thread.currentThread() == ownerThread;
     }
 
+    @Override
+    protected Object getContentionKey() {
+        // Any lease released by the parent makes room for another one
+        return parent;
+    }
+
     @Override
     protected boolean acquireLock() {
         if (parent.grantLease()) {
@@ -25,48 +25,70 @@
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Coordinates changes to resource locks under a single state lock.
+ *
+ * <p>A thread that has to wait for a lock state change is only woken for the changes that can let it make progress.
+ * When its last attempt failed to acquire some resources, it is woken when one of those resources is released or its state change is signalled through {@link #notifyStateChange(Object)},
+ * or when some other state change is signalled through {@link #notifyStateChange()}. Otherwise, it is woken for any change.</p>
+ */
 public class DefaultResourceLockCoordinationService implements ResourceLockCoordinationService, Closeable {
-    private final Object lock = new Object();
+    private final ReentrantLock lock = new ReentrantLock();
     private final Set<Action<ResourceLock>> releaseHandlers = new LinkedHashSet<Action<ResourceLock>>();
+    private final Set<Waiter> waitingForAnyChange = new LinkedHashSet<Waiter>();
+    private final Map<Object, Set<Waiter>> waitingForResource = new HashMap<Object, Set<Waiter>>();
     private Thread currentOwner;
     private DefaultResourceLockState currentState;
 
     @Override
     public void close() throws IOException {
-        synchronized (lock) {
+        lock.lock();
+        try {
             if (!releaseHandlers.isEmpty()) {
                 throw new IllegalStateException("Some lock release listeners have not been removed.");
             }
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void assertHasStateLock() {
-        synchronized (lock) {
-            if (getCurrent() == null) {
-                throw new IllegalStateException();
-            }
+        if (getCurrent() == null) {
+            throw new IllegalStateException();
         }
     }
 
     @Override
     public void addLockReleaseListener(Action<ResourceLock> listener) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             releaseHandlers.add(listener);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void removeLockReleaseListener(Action<ResourceLock> listener) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             releaseHandlers.remove(listener);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -96,9 +118,12 @@ public ResourceLockState.Disposition transform(ResourceLockState resourceLockSta
 
     @Override
     public boolean withStateLock(InternalTransformer<ResourceLockState.Disposition, ResourceLockState> stateLockAction) {
-        synchronized (lock) {
+        lock.lock();
+        try {
             DefaultResourceLockState resourceLockState = new DefaultResourceLockState();
             DefaultResourceLockState previous = startOperation(resourceLockState);
+            // The released resource this thread was woken for, if any
+            Object wokenFor = null;
             try {
                 while (true) {
                     ResourceLockState.Disposition disposition;
@@ -107,23 +132,30 @@ public boolean withStateLock(InternalTransformer<ResourceLockState.Disposition,
                         case RETRY:
                             resourceLockState.releaseLocks();
                             maybeNotifyStateChange(resourceLockState);
+                            maybePassOn(wokenFor, resourceLockState);
+                            Waiter waiter = startWaiting(resourceLockState.getContendedResources());
                             resourceLockState.reset();
                             finishOperation(previous);
                             try {
-                                lock.wait();
+                                waiter.await();
                             } catch (InterruptedException e) {
                                 // Interrupting the state lock thread means something changed,
                                 // so let's retry obtaining the lock.
                                 // Clear the interrupted flag.
                                 boolean ignored = Thread.interrupted();
+                            } finally {
+                                stopWaiting(waiter);
                             }
+                            wokenFor = waiter.wokenFor;
                             startOperation(resourceLockState);
                             break;
                         case FINISHED:
                             maybeNotifyStateChange(resourceLockState);
+                            maybePassOn(wokenFor, resourceLockState);
                             return true;
                         case FAILED:
                             resourceLockState.releaseLocks();
+                            maybePassOn(wokenFor, resourceLockState);
                             return false;
                         default:
                             throw new IllegalArgumentException("Unhandled disposition type: " + disposition.name());
@@ -131,10 +163,75 @@ public boolean withStateLock(InternalTransformer<ResourceLockState.Disposition,
                 }
             } catch (Throwable t) {
                 resourceLockState.releaseLocks();
+                maybePassOn(wokenFor, resourceLockState);
                 throw UncheckedException.throwAsUncheckedException(t);
             } finally {
                 finishOperation(previous);
             }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Waiter startWaiting(Collection<Object> contendedResources) {
+        Waiter waiter = new Waiter(lock.newCondition(), new ArrayList<Object>(contendedResources));
+        if (waiter.resources.isEmpty()) {
+            waitingForAnyChange.add(waiter);
+        } else {
+            for (Object resource : waiter.resources) {
+                Set<Waiter> waiters = waitingForResource.get(resource);
+                if (waiters == null) {
+                    waiters = new LinkedHashSet<Waiter>();
+                    waitingForResource.put(resource, waiters);
+                }
+                waiters.add(waiter);
+            }
+        }
+        return waiter;
+    }
+
+    private void stopWaiting(Waiter waiter) {
+        if (waiter.resources.isEmpty()) {
+            waitingForAnyChange.remove(waiter);
+        } else {
+            for (Object resource : waiter.resources) {
+                Set<Waiter> waiters = waitingForResource.get(resource);
+                if (waiters != null && waiters.remove(waiter) && waiters.isEmpty()) {
+                    waitingForResource.remove(resource);
+                }
+            }
+        }
+    }
+
+    private void signal(Collection<Waiter> waiters) {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        for (Waiter waiter : new ArrayList<Waiter>(waiters)) {
+            stopWaiting(waiter);
+            waiter.signal(null);
+        }
+    }
+
+    /**
+     * Wakes the thread that has waited longest for the given resource.
+     */
+    private void signalNext(Object resource) {
+        Set<Waiter> waiters = waitingForResource.get(resource);
+        if (waiters != null) {
+            Waiter waiter = waiters.iterator().next();
+            stopWaiting(waiter);
+            waiter.signal(resource);
+        }
+    }
+
+    /**
+     * A thread woken for a released resource neither holds nor waits for the resource after its retry, so the resource may still be available
+     * and the next waiting thread needs to be woken in its place.
+     */
+    private void maybePassOn(@Nullable Object wokenFor, DefaultResourceLockState resourceLockState) {
+        if (wokenFor != null && !resourceLockState.isLockedOrContended(wokenFor)) {
+            signalNext(wokenFor);
         }
     }
 
@@ -161,19 +258,22 @@ private void finishOperation(@Nullable DefaultResourceLockState previous) {
 
     @Override
     public ResourceLockState getCurrent() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             if (currentOwner != Thread.currentThread()) {
                 return null;
             } else {
                 return currentState;
             }
+        } finally {
+            lock.unlock();
         }
     }
 
     private void maybeNotifyStateChange(DefaultResourceLockState resourceLockState) {
         Collection<ResourceLock> unlockedResources = resourceLockState.getUnlockedResources();
         if (!unlockedResources.isEmpty()) {
-            notifyStateChange();
+            notifyResourcesReleased(unlockedResources);
             for (ResourceLock resource : unlockedResources) {
                 for (Action<ResourceLock> releaseHandler : releaseHandlers) {
                     releaseHandler.execute(resource);
@@ -182,16 +282,80 @@ private void maybeNotifyStateChange(DefaultResourceLockState resourceLockState)
         }
     }
 
+    /**
+     * Wakes the threads waiting for any change, and for each released resource the thread that has waited longest for it.
+     */
+    private void notifyResourcesReleased(Collection<ResourceLock> unlockedResources) {
+        signal(waitingForAnyChange);
+        if (waitingForResource.isEmpty()) {
+            return;
+        }
+        for (ResourceLock resource : unlockedResources) {
+            if (!(resource instanceof AbstractTrackedResourceLock)) {
+                // Cannot tell which threads are waiting for this resource
+                notifyStateChange();
+                return;
+            }
+            signalNext(((AbstractTrackedResourceLock) resource).getContentionKey());
+        }
+    }
+
     @Override
     public void notifyStateChange() {
-        synchronized (lock) {
-            lock.notifyAll();
+        lock.lock();
+        try {
+            signal(waitingForAnyChange);
+            for (Set<Waiter> waiters : new ArrayList<Set<Waiter>>(waitingForResource.values())) {
+                signal(waiters);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void notifyStateChange(Object resource) {
+        lock.lock();
+        try {
+            signal(waitingForAnyChange);
+            Set<Waiter> waiters = waitingForResource.get(resource);
+            if (waiters != null) {
+                signal(waiters);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Waiter {
+        private final Condition condition;
+        private final List<Object> resources;
+        private boolean signalled;
+        @Nullable
+        private Object wokenFor;
+
+        Waiter(Condition condition, List<Object> resources) {
+            this.condition = condition;
+            this.resources = resources;
+        }
+
+        void await() throws InterruptedException {
+            while (!signalled) {
+                condition.await();
+            }
+        }
+
+        void signal(@Nullable Object resource) {
+            signalled = true;
+            wokenFor = resource;
+            condition.signal();
         }
     }
 
     private static class DefaultResourceLockState implements ResourceLockState {
         private Set<ResourceLock> lockedResources;
         private Set<ResourceLock> unlockedResources;
+        private Set<Object> contendedResources;
         boolean rollback;
 
         @Override
@@ -214,10 +378,36 @@ public void registerUnlocked(ResourceLock resourceLock) {
             }
         }
 
+        @Override
+        public void registerContended(Object resource) {
+            if (contendedResources == null) {
+                contendedResources = new HashSet<Object>();
+            }
+            contendedResources.add(resource);
+        }
+
         Collection<ResourceLock> getUnlockedResources() {
             return unlockedResources == null ? Collections.<ResourceLock>emptyList() : unlockedResources;
         }
 
+        boolean isLockedOrContended(Object resource) {
+            if (contendedResources != null && contendedResources.contains(resource)) {
+                return true;
+            }
+            if (lockedResources != null) {
+                for (ResourceLock lockedResource : lockedResources) {
+                    if (lockedResource instanceof AbstractTrackedResourceLock && ((AbstractTrackedResourceLock) lockedResource).getContentionKey().equals(resource)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        Collection<Object> getContendedResources() {
+            return contendedResources == null ? Collections.emptyList() : contendedResources;
+        }
+
         @Override
         public void releaseLocks() {
             if (lockedResources != null) {
@@ -240,6 +430,9 @@ public void reset() {
             if (unlockedResources != null) {
                 unlockedResources.clear();
             }
+            if (contendedResources != null) {
+                contendedResources.clear();
+            }
             rollback = false;
         }
     }
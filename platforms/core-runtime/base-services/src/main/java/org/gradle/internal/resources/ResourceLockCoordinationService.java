@@ -64,6 +64,12 @@ public interface ResourceLockCoordinationService {
      */
     void notifyStateChange();
 
+    /**
+     * Notify the threads waiting for the given resource, as registered through {@link ResourceLockState#registerContended(Object)}, about a change to its state.
+     * Threads waiting for any change are also notified, but threads that are only waiting for other resources are not.
+     */
+    void notifyStateChange(Object resource);
+
     void assertHasStateLock();
 
     /**
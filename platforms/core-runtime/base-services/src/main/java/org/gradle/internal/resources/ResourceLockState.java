@@ -34,6 +34,13 @@ enum Disposition { FAILED, FINISHED, RETRY }
      */
     void registerUnlocked(ResourceLock resourceLock);
 
+    /**
+     * Registers a resource that is held by another thread and so blocks the transform, so that the coordination service
+     * can wake the thread when the resource is released rather than on every state change.
+     */
+    default void registerContended(Object resource) {
+    }
+
     /**
      * Release any locks that have been acquired during the transform.
      */
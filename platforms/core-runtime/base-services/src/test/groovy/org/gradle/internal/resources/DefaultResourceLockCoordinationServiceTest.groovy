@@ -447,6 +447,135 @@ class DefaultResourceLockCoordinationServiceTest extends ConcurrentSpec {
         0 * listener._
     }
 
+    def "only wakes a thread waiting for a resource when that resource is released"() {
+        def lock1 = resourceLock("lock1", true)
+        def lock2 = resourceLock("lock2", true)
+        def attempts1 = 0
+        def attempts2 = 0
+
+        when:
+        async {
+            start {
+                coordinationService.withStateLock { state ->
+                    attempts1++
+                    instant.waiting1
+                    return lock(lock1).transform(state)
+                }
+                instant.acquired1
+            }
+            start {
+                coordinationService.withStateLock { state ->
+                    attempts2++
+                    instant.waiting2
+                    return lock(lock2).transform(state)
+                }
+                instant.acquired2
+            }
+            thread.blockUntil.waiting1
+            thread.blockUntil.waiting2
+
+            release(lock1)
+            thread.blockUntil.acquired1
+            assert attempts2 == 1
+
+            release(lock2)
+            thread.blockUntil.acquired2
+        }
+
+        then:
+        attempts1 == 2
+        attempts2 == 2
+    }
+
+    def "wakes the next thread waiting for a resource when the woken thread does not take it"() {
+        def lock1 = resourceLock("lock1", true)
+        def attempts = 0
+
+        when:
+        async {
+            start {
+                def acquired = coordinationService.withStateLock { state ->
+                    attempts++
+                    if (attempts > 1) {
+                        // Give up rather than take the released resource
+                        return FAILED
+                    }
+                    instant.waiting1
+                    return lock(lock1).transform(state)
+                }
+                assert !acquired
+            }
+            thread.blockUntil.waiting1
+            start {
+                coordinationService.withStateLock { state ->
+                    instant.waiting2
+                    return lock(lock1).transform(state)
+                }
+                instant.acquired
+            }
+            thread.blockUntil.waiting2
+
+            release(lock1)
+            thread.blockUntil.acquired
+        }
+
+        then:
+        attempts == 2
+        lock1.lockedState
+    }
+
+    def "only wakes the threads waiting for a resource when its state change is signalled"() {
+        def lock1 = resourceLock("lock1", true)
+        def resource = new Object()
+        def attempts1 = 0
+        def attempts2 = 0
+
+        when:
+        async {
+            start {
+                coordinationService.withStateLock { state ->
+                    attempts1++
+                    if (attempts1 > 1) {
+                        return FINISHED
+                    }
+                    instant.waiting1
+                    state.registerContended(resource)
+                    return RETRY
+                }
+                instant.woken1
+            }
+            start {
+                coordinationService.withStateLock { state ->
+                    attempts2++
+                    instant.waiting2
+                    return lock(lock1).transform(state)
+                }
+                instant.acquired2
+            }
+            thread.blockUntil.waiting1
+            thread.blockUntil.waiting2
+
+            coordinationService.notifyStateChange(resource)
+            thread.blockUntil.woken1
+            assert attempts2 == 1
+
+            release(lock1)
+            thread.blockUntil.acquired2
+        }
+
+        then:
+        attempts1 == 2
+        attempts2 == 2
+    }
+
+    private void release(TestTrackedResourceLock lock) {
+        lock.lockedState = false
+        coordinationService.withStateLock { state ->
+            state.registerUnlocked(lock)
+            return FINISHED
+        }
+    }
+
     TestTrackedResourceLock resourceLock(String displayName, boolean locked, boolean hasLock = false) {
         return new TestTrackedResourceLock(displayName, coordinationService, Mock(ResourceLockContainer), locked, hasLock)
     }
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations;
+
+/**
+ * Marks a build operation that spends nearly all of its time blocked on network or file I/O, such as downloading a file,
+ * and does not run user code or other CPU-bound work.
+ *
+ * <p>When virtual threads are enabled, such an operation may run without holding one of the {@code --max-workers} worker leases.</p>
+ */
+public interface BlockingIoBuildOperation extends BuildOperation {
+}
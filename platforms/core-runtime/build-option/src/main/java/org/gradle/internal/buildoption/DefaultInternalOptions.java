@@ -16,15 +16,29 @@
 
 package org.gradle.internal.buildoption;
 
+import java.util.Collections;
 import java.util.Map;
 
 public class DefaultInternalOptions implements InternalOptions {
+    private static final InternalOptions PROCESS_OPTIONS = new DefaultInternalOptions(Collections.emptyMap());
+
     private final Map<String, String> startParameterSystemProperties;
 
     public DefaultInternalOptions(Map<String, String> startParameterSystemProperties) {
         this.startParameterSystemProperties = startParameterSystemProperties;
     }
 
+    /**
+     * Returns the options set using system properties of the current process.
+     * <p>
+     * The {@link InternalOptions} service is build tree scoped, and also takes the system properties passed to the build into account.
+     * Services that outlive build trees, such as global or Gradle user home services, cannot use it and use these options instead,
+     * so their options can only be set using system properties of the Gradle daemon.
+     */
+    public static InternalOptions fromProcessSystemProperties() {
+        return PROCESS_OPTIONS;
+    }
+
     @Override
     public <T> Option.Value<T> getOption(InternalOption<T> option) {
         String value = startParameterSystemProperties.get(option.getSystemPropertyName());
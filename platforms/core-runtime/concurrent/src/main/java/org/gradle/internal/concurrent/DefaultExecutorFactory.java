@@ -25,6 +25,7 @@
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -69,6 +70,27 @@ public ManagedExecutor create(String displayName, int fixedSize) {
         return executor;
     }
 
+    @Override
+    public ManagedExecutor createVirtual(String displayName) {
+        if (!VirtualThreads.isSupported()) {
+            return create(displayName);
+        }
+        TrackedManagedExecutor executor = new TrackedManagedExecutor(createVirtualExecutor(displayName), new ExecutorPolicy.CatchAndRecordFailures());
+        executors.add(executor);
+        return executor;
+    }
+
+    private ExecutorService createVirtualExecutor(String displayName) {
+        // Virtual threads are cheap to create, so do not keep idle threads around
+        return new ThreadPoolExecutor(
+            0,
+            Integer.MAX_VALUE,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new SynchronousQueue<Runnable>(),
+            new ThreadFactoryImpl(displayName, threadFactoryContextClassloader, VirtualThreads.factory()));
+    }
+
     @Override
     public ManagedThreadPoolExecutor createThreadPool(String displayName, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit timeUnit) {
         ThreadPoolExecutor executorService = createThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, timeUnit, newThreadFactory(displayName));
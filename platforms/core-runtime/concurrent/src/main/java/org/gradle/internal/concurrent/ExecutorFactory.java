@@ -44,6 +44,19 @@ public interface ExecutorFactory {
      */
     ManagedExecutor create(String displayName, int fixedSize);
 
+    /**
+     * Creates an executor which runs each action on a new virtual thread, for actions that spend most of their time blocked. It is the caller's responsibility to stop the executor.
+     *
+     * When the current JVM does not support virtual threads, the executor uses platform threads, as for {@link #create(String)}.
+     *
+     * The executor will collect failures thrown by actions and rethrow when the executor is stopped.
+     *
+     * @param displayName The display name for this executor. Used for thread names, logging and error message.
+     * @return The executor.
+     * @see VirtualThreads#isSupported()
+     */
+    ManagedExecutor createVirtual(String displayName);
+
     /**
      * Creates an executor which can run multiple tasks concurrently. It is the caller's responsibility to stop the executor.
      *
@@ -29,15 +29,24 @@ public class ThreadFactoryImpl implements ThreadFactory {
     private final String displayName;
     @Nullable
     private final ClassLoader contextClassloader;
+    private final ThreadFactory threadCreator;
 
     public ThreadFactoryImpl(String displayName, @Nullable ClassLoader contextClassloader) {
+        this(displayName, contextClassloader, Thread::new);
+    }
+
+    /**
+     * @param threadCreator Creates the unstarted threads that are then named and configured by this factory.
+     */
+    ThreadFactoryImpl(String displayName, @Nullable ClassLoader contextClassloader, ThreadFactory threadCreator) {
         this.displayName = displayName;
         this.contextClassloader = contextClassloader;
+        this.threadCreator = threadCreator;
     }
 
     @Override
     public Thread newThread(Runnable r) {
-        Thread thread = new Thread(r);
+        Thread thread = threadCreator.newThread(r);
         thread.setName(nextThreadName());
         thread.setContextClassLoader(contextClassloader);
         return thread;
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.concurrent;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads, which are only available when running on Java 21 or later.
+ *
+ * <p>This code is compiled for older Java versions, so the virtual thread API is looked up reflectively.</p>
+ */
+public class VirtualThreads {
+    @Nullable
+    private static final ThreadFactory FACTORY = lookupFactory();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Returns true when the current JVM can create virtual threads.
+     */
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    /**
+     * Returns a factory for unstarted virtual threads.
+     *
+     * @throws UnsupportedOperationException when the current JVM cannot create virtual threads.
+     */
+    static ThreadFactory factory() {
+        if (FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM.");
+        }
+        return FACTORY;
+    }
+
+    @Nullable
+    private static ThreadFactory lookupFactory() {
+        try {
+            // Thread.ofVirtual().factory()
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(ofVirtual.invoke(null));
+        } catch (Exception e) {
+            // Either not available, or a preview feature that has not been enabled
+            return null;
+        }
+    }
+}
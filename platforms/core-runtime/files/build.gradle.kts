@@ -1,6 +1,7 @@
 plugins {
     id("gradlebuild.distribution.api-java")
     id("gradlebuild.publish-public-libraries")
+    id("gradlebuild.jmh")
 }
 
 description = "Base tools to work with files"
@@ -18,6 +19,8 @@ dependencies {
     implementation(libs.guava)
     implementation(libs.slf4jApi)
 
+    jmhImplementation(platform(projects.distributionsDependencies))
+
     testImplementation(projects.native)
     testImplementation(projects.baseServices) {
         because("TextUtil is needed")
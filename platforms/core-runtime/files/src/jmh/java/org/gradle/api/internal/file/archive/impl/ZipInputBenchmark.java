@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive.impl;
+
+import org.gradle.api.internal.file.archive.ZipEntry;
+import org.gradle.api.internal.file.archive.ZipInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compares reading all entries of a jar via {@link FileZipInput} and via {@link MappedZipInput}.
+ *
+ * Run with {@code -prof gc} to compare the memory allocated per jar.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ZipInputBenchmark {
+
+    private static final int KB = 1024;
+
+    /**
+     * <ul>
+     *     <li>{@code classes}: 5000 deflated class-like entries between 1 KiB and 16 KiB</li>
+     *     <li>{@code resources}: 200 resource entries between 64 KiB and 1 MiB, half of them stored</li>
+     * </ul>
+     */
+    @Param({"classes", "resources"})
+    String content;
+
+    @Param({"file", "mapped"})
+    String input;
+
+    /**
+     * Reads only every tenth entry, like normalization ignoring most resources.
+     */
+    @Param({"all", "sparse"})
+    String entries;
+
+    File directory;
+    File jar;
+    byte[] readBuffer = new byte[8 * KB];
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("zip-input").toFile();
+        jar = new File(directory, "library.jar");
+        Random random = new Random(1234L);
+        try (ZipOutputStream zipStream = new ZipOutputStream(new FileOutputStream(jar))) {
+            if (content.equals("classes")) {
+                for (int i = 0; i < 5000; i++) {
+                    writeEntry(zipStream, "org/example/pkg" + (i % 50) + "/Class" + i + ".class", compressibleContent(random, KB + random.nextInt(15 * KB)), false);
+                }
+            } else {
+                for (int i = 0; i < 200; i++) {
+                    writeEntry(zipStream, "resources/resource" + i + ".bin", compressibleContent(random, 64 * KB + random.nextInt(960 * KB)), i % 2 == 0);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jar.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public void readEntries(Blackhole blackhole) throws IOException {
+        boolean sparse = entries.equals("sparse");
+        try (ZipInput zipInput = input.equals("mapped") ? MappedZipInput.create(jar) : FileZipInput.create(jar)) {
+            int index = 0;
+            for (ZipEntry entry : zipInput) {
+                blackhole.consume(entry.getName());
+                if (entry.isDirectory() || (sparse && index++ % 10 != 0)) {
+                    continue;
+                }
+                blackhole.consume(entry.withInputStream(inputStream -> {
+                    long total = 0;
+                    int count;
+                    while ((count = inputStream.read(readBuffer)) >= 0) {
+                        total += count;
+                    }
+                    return total;
+                }));
+            }
+        }
+    }
+
+    private static byte[] compressibleContent(Random random, int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return content;
+    }
+
+    private static void writeEntry(ZipOutputStream zipStream, String name, byte[] content, boolean stored) throws IOException {
+        java.util.zip.ZipEntry entry = new java.util.zip.ZipEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(java.util.zip.ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        zipStream.putNextEntry(entry);
+        zipStream.write(content);
+        zipStream.closeEntry();
+    }
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive.impl;
+
+import com.google.common.collect.AbstractIterator;
+import org.gradle.api.internal.file.archive.ZipEntry;
+import org.gradle.api.internal.file.archive.ZipInput;
+import org.gradle.internal.MappedByteBuffers;
+import org.gradle.internal.file.FileException;
+import org.jspecify.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the entries of a zip file from a memory mapping of the file.
+ *
+ * <p>
+ * Entries are listed from the central directory, so entries which are never opened are not read at all.
+ * Stored entries are read directly from the mapping, and deflated entries are inflated with a single {@link Inflater}
+ * and input buffer that are reused for all entries of the file.
+ * This keeps the memory allocated for reading a zip file independent of the number and the size of its entries.
+ * </p>
+ *
+ * <p>
+ * Only the common subset of the zip format is supported: Zip64 archives, archives larger than 2 GiB,
+ * and archives with encrypted entries are read via {@link FileZipInput} instead.
+ * </p>
+ *
+ * <p>
+ * Accessing a mapping of a file that was truncated after it was mapped fails with an {@link InternalError}.
+ * Such failures are reported as {@link IOException}s, or as {@link FileException}s while iterating, like any other failure to read the file.
+ * The mapping is released when the input is closed, and the input cannot be read from after that.
+ * </p>
+ */
+public class MappedZipInput implements ZipInput {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int ZIP64_MARKER_16 = 0xFFFF;
+    private static final long ZIP64_MARKER_32 = 0xFFFFFFFFL;
+    private static final int ENCRYPTED_FLAG = 1;
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+    // A mapped file cannot be deleted on Windows until the mapping is garbage collected
+    private static final boolean MAP_FILES = !System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("windows");
+
+    /**
+     * Creates a stream of the entries in the given zip file, falling back to {@link FileZipInput} when the file cannot be mapped
+     * or uses features of the zip format not supported here. Caller is responsible for closing the return value.
+     *
+     * @throws FileException on failure to open the Zip
+     */
+    public static ZipInput create(File file) throws FileException {
+        if (MAP_FILES) {
+            try {
+                MappedZipInput input = tryMap(file);
+                if (input != null) {
+                    return input;
+                }
+            } catch (IOException | InternalError e) {
+                // Let the fallback deal with the file, and report the failure if it is really broken
+            }
+        }
+        return FileZipInput.create(file);
+    }
+
+    @Nullable
+    private static MappedZipInput tryMap(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // The mapping stays valid after the channel has been closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                return new MappedZipInput(buffer);
+            } catch (IOException | RuntimeException | InternalError e) {
+                MappedByteBuffers.unmap(buffer);
+                throw e;
+            }
+        }
+    }
+
+    private static IOException mappedReadFailed(InternalError e) {
+        return new IOException("Could not read zip file, it may have been truncated while being read", e);
+    }
+
+    private final ByteBuffer buffer;
+    private final int centralDirectoryStart;
+    private final int entryCount;
+    private final int localHeaderBase;
+    private final Inflater inflater = new Inflater(true);
+    private final byte[] inputBuffer = new byte[INPUT_BUFFER_SIZE];
+    private final CharsetDecoder nameDecoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private byte[] nameBuffer = new byte[256];
+    private boolean inflaterInUse;
+    private boolean closed;
+
+    private MappedZipInput(ByteBuffer buffer) throws ZipException {
+        this.buffer = buffer;
+        int endOfCentralDirectory = findEndOfCentralDirectory(buffer);
+        int entryCount = unsignedShort(endOfCentralDirectory + 10);
+        long centralDirectorySize = unsignedInt(endOfCentralDirectory + 12);
+        long centralDirectoryOffset = unsignedInt(endOfCentralDirectory + 16);
+        if (entryCount == ZIP64_MARKER_16 || centralDirectorySize == ZIP64_MARKER_32 || centralDirectoryOffset == ZIP64_MARKER_32) {
+            throw new ZipException("Zip64 archives are not supported");
+        }
+        long centralDirectoryStart = endOfCentralDirectory - centralDirectorySize;
+        // Data may have been prepended to the archive, in which case all offsets are relative to the start of the archive data
+        long localHeaderBase = centralDirectoryStart - centralDirectoryOffset;
+        if (centralDirectoryStart < 0 || localHeaderBase < 0) {
+            throw new ZipException("Invalid central directory");
+        }
+        this.centralDirectoryStart = (int) centralDirectoryStart;
+        this.entryCount = entryCount;
+        this.localHeaderBase = (int) localHeaderBase;
+        validateCentralDirectory(endOfCentralDirectory);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer buffer) throws ZipException {
+        int lowestStart = Math.max(0, buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_SIZE);
+        for (int position = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; position >= lowestStart; position--) {
+            if (buffer.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                return position;
+            }
+        }
+        throw new ZipException("End of central directory not found");
+    }
+
+    /**
+     * Checks the central directory up front, so unsupported archives are handed to the fallback before any entry is returned.
+     */
+    private void validateCentralDirectory(int endOfCentralDirectory) throws ZipException {
+        int position = centralDirectoryStart;
+        for (int i = 0; i < entryCount; i++) {
+            if (position + CENTRAL_HEADER_SIZE > endOfCentralDirectory || buffer.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid central directory header");
+            }
+            if ((unsignedShort(position + 8) & ENCRYPTED_FLAG) != 0) {
+                throw new ZipException("Encrypted entries are not supported");
+            }
+            if (unsignedInt(position + 20) == ZIP64_MARKER_32 || unsignedInt(position + 24) == ZIP64_MARKER_32 || unsignedInt(position + 42) == ZIP64_MARKER_32) {
+                throw new ZipException("Zip64 entries are not supported");
+            }
+            position = nextCentralHeader(position);
+        }
+        if (position > endOfCentralDirectory) {
+            throw new ZipException("Invalid central directory header");
+        }
+    }
+
+    private int nextCentralHeader(int position) {
+        return position + CENTRAL_HEADER_SIZE + unsignedShort(position + 28) + unsignedShort(position + 30) + unsignedShort(position + 32);
+    }
+
+    @Override
+    public Iterator<ZipEntry> iterator() {
+        return new AbstractIterator<ZipEntry>() {
+            private int index;
+            private int position = centralDirectoryStart;
+
+            @Override
+            protected ZipEntry computeNext() {
+                if (index == entryCount) {
+                    return endOfData();
+                }
+                ZipEntry entry;
+                try {
+                    checkOpen();
+                    entry = new MappedZipEntry(
+                        readName(position + CENTRAL_HEADER_SIZE, unsignedShort(position + 28)),
+                        unsignedShort(position + 10),
+                        unsignedInt(position + 20),
+                        unsignedInt(position + 24),
+                        localHeaderBase + unsignedInt(position + 42)
+                    );
+                    position = nextCentralHeader(position);
+                } catch (IOException e) {
+                    throw new FileException(e);
+                } catch (InternalError e) {
+                    throw new FileException(mappedReadFailed(e));
+                }
+                index++;
+                return entry;
+            }
+        };
+    }
+
+    private String readName(int position, int length) {
+        if (nameBuffer.length < length) {
+            nameBuffer = new byte[length];
+        }
+        ByteBuffer source = buffer.duplicate();
+        castBuffer(source).position(position);
+        source.get(nameBuffer, 0, length);
+        if (isAscii(nameBuffer, length)) {
+            return new String(nameBuffer, 0, length, StandardCharsets.US_ASCII);
+        }
+        try {
+            CharBuffer name = nameDecoder.decode(ByteBuffer.wrap(nameBuffer, 0, length));
+            return name.toString();
+        } catch (CharacterCodingException e) {
+            throw new FileException(new ZipException("Invalid entry name"));
+        }
+    }
+
+    private static boolean isAscii(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int unsignedShort(int position) {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+
+    private long unsignedInt(int position) {
+        return buffer.getInt(position) & 0xFFFFFFFFL;
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Zip file closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        inflater.end();
+        MappedByteBuffers.unmap(buffer);
+    }
+
+    private class MappedZipEntry implements ZipEntry {
+        private final String name;
+        private final int method;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+
+        public MappedZipEntry(String name, int method, long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public byte[] getContent() throws IOException {
+            return withInputStream(inputStream -> {
+                byte[] content = new byte[size()];
+                int read = 0;
+                while (read < content.length) {
+                    int count = inputStream.read(content, read, content.length - read);
+                    if (count < 0) {
+                        throw new EOFException("Unexpected end of zip entry " + name);
+                    }
+                    read += count;
+                }
+                return content;
+            });
+        }
+
+        @Override
+        public <T> T withInputStream(IoFunction<InputStream, T> action) throws IOException {
+            InputStream inputStream = openStream();
+            try {
+                return action.apply(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        }
+
+        private InputStream openStream() throws IOException {
+            checkOpen();
+            ByteBuffer data;
+            try {
+                data = entryData();
+            } catch (InternalError e) {
+                throw mappedReadFailed(e);
+            }
+            switch (getCompressionMethod()) {
+                case STORED:
+                    return new StoredEntryInputStream(data);
+                case DEFLATED:
+                    return new DeflatedEntryInputStream(data);
+                default:
+                    throw new ZipException("Unsupported compression method " + method + " for entry " + name);
+            }
+        }
+
+        private ByteBuffer entryData() throws ZipException {
+            long localHeader = localHeaderOffset;
+            if (localHeader + LOCAL_HEADER_SIZE > buffer.limit() || buffer.getInt((int) localHeader) != LOCAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid local header for entry " + name);
+            }
+            long dataStart = localHeader + LOCAL_HEADER_SIZE + unsignedShort((int) localHeader + 26) + unsignedShort((int) localHeader + 28);
+            long dataEnd = dataStart + compressedSize;
+            if (dataEnd > buffer.limit()) {
+                throw new ZipException("Invalid compressed size for entry " + name);
+            }
+            ByteBuffer data = buffer.duplicate();
+            castBuffer(data).limit((int) dataEnd);
+            castBuffer(data).position((int) dataStart);
+            return data;
+        }
+
+        @Override
+        public int size() {
+            return (int) size;
+        }
+
+        @Override
+        public boolean canReopen() {
+            return true;
+        }
+
+        @Override
+        public ZipCompressionMethod getCompressionMethod() {
+            switch (method) {
+                case java.util.zip.ZipEntry.STORED:
+                    return ZipCompressionMethod.STORED;
+                case java.util.zip.ZipEntry.DEFLATED:
+                    return ZipCompressionMethod.DEFLATED;
+                default:
+                    return ZipCompressionMethod.OTHER;
+            }
+        }
+    }
+
+    private class StoredEntryInputStream extends InputStream {
+        private final ByteBuffer data;
+
+        public StoredEntryInputStream(ByteBuffer data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkOpen();
+            try {
+                return data.hasRemaining() ? data.get() & 0xFF : -1;
+            } catch (InternalError e) {
+                throw mappedReadFailed(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            checkOpen();
+            if (length == 0) {
+                return 0;
+            }
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, data.remaining());
+            try {
+                data.get(bytes, offset, count);
+            } catch (InternalError e) {
+                throw mappedReadFailed(e);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.min(Math.max(count, 0), data.remaining());
+            castBuffer(data).position(data.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return data.remaining();
+        }
+    }
+
+    private class DeflatedEntryInputStream extends InputStream {
+        private final ByteBuffer data;
+        private final Inflater entryInflater;
+        private final byte[] entryInputBuffer;
+        private boolean dummyByteSupplied;
+        private boolean closed;
+
+        public DeflatedEntryInputStream(ByteBuffer data) {
+            this.data = data;
+            if (inflaterInUse) {
+                // Another entry of this file is being read at the same time, so it cannot share the inflater
+                this.entryInflater = new Inflater(true);
+                this.entryInputBuffer = new byte[INPUT_BUFFER_SIZE];
+            } else {
+                inflaterInUse = true;
+                inflater.reset();
+                this.entryInflater = inflater;
+                this.entryInputBuffer = inputBuffer;
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            checkOpen();
+            if (length == 0) {
+                return 0;
+            }
+            try {
+                while (true) {
+                    int count = entryInflater.inflate(bytes, offset, length);
+                    if (count > 0) {
+                        return count;
+                    }
+                    if (entryInflater.finished() || entryInflater.needsDictionary()) {
+                        return -1;
+                    }
+                    if (entryInflater.needsInput()) {
+                        fill();
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid deflated data");
+            }
+        }
+
+        private void fill() throws IOException {
+            checkOpen();
+            int count = Math.min(entryInputBuffer.length, data.remaining());
+            if (count > 0) {
+                try {
+                    data.get(entryInputBuffer, 0, count);
+                } catch (InternalError e) {
+                    throw mappedReadFailed(e);
+                }
+                entryInflater.setInput(entryInputBuffer, 0, count);
+            } else if (!dummyByteSupplied) {
+                // Inflating without the zlib wrapper may need one extra byte after the compressed data, like in java.util.zip.ZipFile
+                dummyByteSupplied = true;
+                entryInputBuffer[0] = 0;
+                entryInflater.setInput(entryInputBuffer, 0, 1);
+            } else {
+                throw new EOFException("Unexpected end of ZLIB input stream");
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (entryInflater == inflater) {
+                inflaterInUse = false;
+            } else {
+                entryInflater.end();
+            }
+        }
+    }
+
+    /**
+     * Without this cast, when the code compiled by Java 9+ is executed on Java 8, it will throw
+     * java.lang.NoSuchMethodError: Method flip()Ljava/nio/ByteBuffer; does not exist in class java.nio.ByteBuffer
+     */
+    @SuppressWarnings("RedundantCast")
+    private static Buffer castBuffer(ByteBuffer byteBuffer) {
+        return (Buffer) byteBuffer;
+    }
+}
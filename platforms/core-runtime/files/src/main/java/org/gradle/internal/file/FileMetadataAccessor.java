@@ -16,7 +16,12 @@
 
 package org.gradle.internal.file;
 
+import org.gradle.api.UncheckedIOException;
+
 import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 public interface FileMetadataAccessor {
     /**
@@ -37,4 +42,29 @@ public interface FileMetadataAccessor {
      * </ul>
      */
     FileMetadata stat(File f);
+
+    /**
+     * Gets the file metadata of all the direct children of a directory, keyed by their file name.
+     * <p>
+     * The metadata of each child is the same as returned by {@link #stat(File)} for that child.
+     * Implementations can fetch the metadata of all children in a single call, instead of one {@code stat} per child.
+     * <p>
+     * If the directory is missing or is not a directory, an empty map is returned.
+     *
+     * @throws UncheckedIOException if the directory cannot be listed
+     */
+    default Map<String, FileMetadata> statChildren(File directory) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            if (directory.isDirectory()) {
+                throw new UncheckedIOException("Could not list directory " + directory.getAbsolutePath());
+            }
+            return Collections.emptyMap();
+        }
+        Map<String, FileMetadata> result = new HashMap<>(children.length * 4 / 3 + 1);
+        for (File child : children) {
+            result.put(child.getName(), stat(child));
+        }
+        return result;
+    }
 }
@@ -23,10 +23,16 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 @SuppressWarnings("Since15")
 public class NioFileMetadataAccessor implements FileMetadataAccessor {
@@ -39,6 +45,39 @@ public FileMetadata stat(File file) {
         } catch (IOException e) {
             return DefaultFileMetadata.missing(AccessType.DIRECT);
         }
+        return toFileMetadata(file, path, attributes);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * On Windows, the attributes of the children are returned by the directory listing itself,
+     * so reading them doesn't require another system call per child.
+     */
+    @Override
+    public Map<String, FileMetadata> statChildren(File directory) {
+        Map<String, FileMetadata> result = new HashMap<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory.toPath())) {
+            for (Path child : children) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    // The child has been removed since listing the directory
+                    result.put(child.getFileName().toString(), DefaultFileMetadata.missing(AccessType.DIRECT));
+                    continue;
+                }
+                result.put(child.getFileName().toString(), toFileMetadata(child.toFile(), child, attributes));
+            }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            return Collections.emptyMap();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list directory " + directory.getAbsolutePath(), e);
+        }
+        return result;
+    }
+
+    private static FileMetadata toFileMetadata(File file, Path path, BasicFileAttributes attributes) {
         AccessType accessType = AccessType.viaSymlink(attributes.isSymbolicLink());
         if (accessType == AccessType.VIA_SYMLINK) {
             try {
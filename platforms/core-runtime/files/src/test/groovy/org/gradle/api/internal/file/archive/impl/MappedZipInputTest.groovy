@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive.impl
+
+import org.gradle.api.internal.file.archive.ZipEntry
+import org.gradle.internal.file.FileException
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.precondition.Requires
+import org.gradle.test.preconditions.UnitTestPreconditions
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.zip.CRC32
+import java.util.zip.ZipOutputStream
+
+@Requires(UnitTestPreconditions.NotWindows)
+class MappedZipInputTest extends Specification implements ZipFileFixture {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
+    def "reads the same entries as ZipFile"() {
+        def file = temporaryFolder.file("mixed.zip")
+        file.withOutputStream { outputStream ->
+            def zipStream = new ZipOutputStream(outputStream)
+            zipStream.putNextEntry(new java.util.zip.ZipEntry("dir/"))
+            zipStream.closeEntry()
+            writeDeflated(zipStream, "dir/deflated.txt", ("deflated content " * 10000).bytes)
+            writeStored(zipStream, "dir/stored.txt", ("stored content " * 1000).bytes)
+            writeDeflated(zipStream, "empty.txt", new byte[0])
+            writeDeflated(zipStream, "dir/ünïcödé.txt", "unicode".bytes)
+            zipStream.setComment("archive comment")
+            zipStream.close()
+        }
+
+        when:
+        def mappedInput = MappedZipInput.create(file)
+        def mappedEntries = readEntries(mappedInput)
+        def fileInput = FileZipInput.create(file)
+        def fileEntries = readEntries(fileInput)
+
+        then:
+        mappedInput instanceof MappedZipInput
+        mappedEntries == fileEntries
+        mappedEntries*.name == ["dir/", "dir/deflated.txt", "dir/stored.txt", "empty.txt", "dir/ünïcödé.txt"]
+        mappedEntries*.method == [ZipEntry.ZipCompressionMethod.DEFLATED, ZipEntry.ZipCompressionMethod.DEFLATED, ZipEntry.ZipCompressionMethod.STORED, ZipEntry.ZipCompressionMethod.DEFLATED, ZipEntry.ZipCompressionMethod.DEFLATED]
+
+        cleanup:
+        mappedInput?.close()
+        fileInput?.close()
+    }
+
+    def "reads archive with prepended data"() {
+        def zip = makeZip("foo.zip")
+        def file = temporaryFolder.file("prefixed.zip")
+        file.bytes = "#!/bin/sh\nexit 0\n".bytes + zip.bytes
+        def zipInput = MappedZipInput.create(file)
+
+        when:
+        def zipEntry = zipInput.iterator().next()
+
+        then:
+        zipInput instanceof MappedZipInput
+        zipEntry.name == "foo.txt"
+        zipEntry.content == ZIP_ENTRY_CONTENT.bytes
+
+        cleanup:
+        zipInput?.close()
+    }
+
+    def "can read zip entry content a second time"() {
+        def zipInput = MappedZipInput.create(makeZip("foo.zip"))
+
+        when:
+        def zipEntry = zipInput.iterator().next()
+
+        then:
+        zipEntry.canReopen()
+        zipEntry.withInputStream { readAllBytes(it) } == ZIP_ENTRY_CONTENT.bytes
+        zipEntry.content == ZIP_ENTRY_CONTENT.bytes
+        zipEntry.withInputStream { readAllBytes(it) } == ZIP_ENTRY_CONTENT.bytes
+
+        cleanup:
+        zipInput?.close()
+    }
+
+    def "can read entries of the same archive at the same time"() {
+        def file = temporaryFolder.file("two-entries.zip")
+        file.withOutputStream { outputStream ->
+            def zipStream = new ZipOutputStream(outputStream)
+            writeDeflated(zipStream, "first.txt", ("first " * 1000).bytes)
+            writeDeflated(zipStream, "second.txt", ("second " * 1000).bytes)
+            zipStream.close()
+        }
+        def zipInput = MappedZipInput.create(file)
+        def entries = zipInput.toList()
+
+        when:
+        def contents = entries[0].withInputStream { first ->
+            [readAllBytes(first), entries[1].content]
+        }
+
+        then:
+        contents == [("first " * 1000).bytes, ("second " * 1000).bytes]
+
+        cleanup:
+        zipInput?.close()
+    }
+
+    @Requires(UnitTestPreconditions.NotWindows)
+    def "throws IOException when the file is truncated while being read"() {
+        def file = temporaryFolder.file("truncated.zip")
+        file.withOutputStream { outputStream ->
+            def zipStream = new ZipOutputStream(outputStream)
+            writeStored(zipStream, "large.bin", new byte[1024 * 1024])
+            zipStream.close()
+        }
+        def zipInput = MappedZipInput.create(file)
+        def zipEntry = zipInput.iterator().next()
+        new RandomAccessFile(file, "rw").withCloseable { it.length = 100 }
+
+        when:
+        zipEntry.content
+
+        then:
+        zipInput instanceof MappedZipInput
+        thrown(IOException)
+
+        cleanup:
+        zipInput?.close()
+    }
+
+    @Requires(UnitTestPreconditions.NotWindows)
+    def "cannot read entries once closed"() {
+        def zipInput = MappedZipInput.create(makeZip("foo.zip"))
+        def zipEntry = zipInput.iterator().next()
+        zipInput.close()
+
+        when:
+        zipEntry.content
+
+        then:
+        thrown(IOException)
+
+        when:
+        zipInput.iterator().next()
+
+        then:
+        thrown(FileException)
+    }
+
+    @Requires(UnitTestPreconditions.Jdk11OrLater)
+    def "throws FileException when zip is badly formed"() {
+        def file = temporaryFolder.file("badly-formed").createFile()
+
+        when:
+        MappedZipInput.create(file)
+
+        then:
+        thrown(FileException)
+    }
+
+    private static List<Map<String, Object>> readEntries(Iterable<ZipEntry> zipInput) {
+        zipInput.collect { entry ->
+            [
+                name: entry.name,
+                directory: entry.directory,
+                size: entry.size(),
+                method: entry.compressionMethod,
+                content: entry.directory ? null : entry.withInputStream { readAllBytes(it) }
+            ]
+        }
+    }
+
+    private static void writeDeflated(ZipOutputStream zipStream, String name, byte[] content) {
+        zipStream.putNextEntry(new java.util.zip.ZipEntry(name))
+        zipStream.write(content)
+        zipStream.closeEntry()
+    }
+
+    private static void writeStored(ZipOutputStream zipStream, String name, byte[] content) {
+        def entry = new java.util.zip.ZipEntry(name)
+        entry.method = java.util.zip.ZipEntry.STORED
+        entry.size = content.length
+        entry.compressedSize = content.length
+        def crc = new CRC32()
+        crc.update(content)
+        entry.crc = crc.value
+        zipStream.putNextEntry(entry)
+        zipStream.write(content)
+        zipStream.closeEntry()
+    }
+}
@@ -225,4 +225,49 @@ abstract class AbstractFileMetadataAccessorTest extends Specification {
         cleanup:
         unreadableDir.makeReadable()
     }
+
+    def "stats children of directory"() {
+        def dir = tmpDir.createDir("dir")
+        def file = dir.file("file")
+        file.text = "123"
+        def subDir = dir.createDir("subDir")
+
+        expect:
+        def children = accessor.statChildren(dir)
+        children.keySet() == ["file", "subDir"] as Set
+        children["file"] == accessor.stat(file)
+        children["subDir"] == accessor.stat(subDir)
+    }
+
+    @Requires(UnitTestPreconditions.Symlinks)
+    def "stats symlinked children of directory"() {
+        def dir = tmpDir.createDir("dir")
+        def file = tmpDir.file("file")
+        file.text = "123"
+        dir.file("link").createLink(file)
+        dir.file("brokenLink").createLink(tmpDir.file("missing"))
+
+        expect:
+        def children = accessor.statChildren(dir)
+        children.keySet() == ["link", "brokenLink"] as Set
+        children["link"].type == FileType.RegularFile
+        assertSameLastModified(children["link"], file)
+        children["link"].length == 3
+        assertSameAccessType(children["link"], VIA_SYMLINK)
+        children["brokenLink"].type == FileType.Missing
+        assertSameAccessType(children["brokenLink"], VIA_SYMLINK)
+    }
+
+    def "stats no children of #description"() {
+        def location = tmpDir.file("location")
+        if (description == "regular file") {
+            location.text = "123"
+        }
+
+        expect:
+        accessor.statChildren(location).isEmpty()
+
+        where:
+        description << ["missing directory", "regular file"]
+    }
 }
@@ -51,6 +51,7 @@
 @Measurement(iterations = 5)
 @State(Scope.Benchmark)
 public class FileMetadataAccessorBenchmark {
+    private static final int CHILDREN_COUNT = 200;
     private static final Native NATIVE_INTEGRATION = Native.init(new File("build/tmp/jmh-benchmark"));
     private static final Map<String, FileMetadataAccessor> ACCESSORS = ImmutableMap.<String, FileMetadataAccessor>builder()
         .put(FallbackFileMetadataAccessor.class.getSimpleName(), new FallbackFileMetadataAccessor())
@@ -74,6 +75,8 @@ public class FileMetadataAccessorBenchmark {
     Path directoryPath;
     File realFile;
     Path realFilePath;
+    File directoryWithChildren;
+    File[] children;
 
     @Setup
     public void prepare() throws IOException {
@@ -89,12 +92,28 @@ public void prepare() throws IOException {
         FileOutputStream fos = new FileOutputStream(realFile);
         fos.write(new byte[1024]);
         fos.close();
+
+        directoryWithChildren = java.nio.file.Files.createTempDirectory("jmh").toFile();
+        children = new File[CHILDREN_COUNT];
+        for (int i = 0; i < CHILDREN_COUNT; i++) {
+            File child = new File(directoryWithChildren, "child" + i);
+            if (i % 10 == 0) {
+                child.mkdirs();
+            } else {
+                java.nio.file.Files.write(child.toPath(), new byte[i]);
+            }
+            children[i] = child;
+        }
     }
 
     @TearDown
     public void tearDown() {
         directory.delete();
         realFile.delete();
+        for (File child : children) {
+            child.delete();
+        }
+        directoryWithChildren.delete();
     }
 
     private FileMetadataAccessor getAccessor(String name) {
@@ -116,6 +135,20 @@ public void stat_existing(Blackhole bh) {
         bh.consume(getAccessor(accessorClassName).stat(realFile));
     }
 
+    @Benchmark
+    public void stat_children_one_by_one(Blackhole bh) {
+        FileMetadataAccessor accessor = getAccessor(accessorClassName);
+        File[] listedChildren = directoryWithChildren.listFiles();
+        for (File child : listedChildren) {
+            bh.consume(accessor.stat(child));
+        }
+    }
+
+    @Benchmark
+    public void stat_children(Blackhole bh) {
+        bh.consume(getAccessor(accessorClassName).statChildren(directoryWithChildren));
+    }
+
     private static class Jdk7FileMetadataAccessor implements FileMetadataAccessor {
         @Override
         public FileMetadata stat(File f) {
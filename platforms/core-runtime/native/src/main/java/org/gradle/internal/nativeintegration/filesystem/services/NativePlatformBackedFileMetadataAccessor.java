@@ -17,6 +17,7 @@
 package org.gradle.internal.nativeintegration.filesystem.services;
 
 import net.rubygrapefruit.platform.NativeException;
+import net.rubygrapefruit.platform.file.DirEntry;
 import net.rubygrapefruit.platform.file.FileInfo;
 import net.rubygrapefruit.platform.file.Files;
 import org.gradle.api.UncheckedIOException;
@@ -26,6 +27,10 @@
 import org.gradle.internal.file.impl.DefaultFileMetadata;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class NativePlatformBackedFileMetadataAccessor implements FileMetadataAccessor {
     private final Files files;
@@ -42,6 +47,33 @@ public FileMetadata stat(File f) {
         } catch (NativeException e) {
             throw new UncheckedIOException("Could not stat file " + f.getAbsolutePath(), e);
         }
+        return toFileMetadata(f, stat);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Lists the directory and reads the metadata of its children in a single native call.
+     */
+    @Override
+    public Map<String, FileMetadata> statChildren(File directory) {
+        List<? extends DirEntry> children;
+        try {
+            children = files.listDir(directory, false);
+        } catch (NativeException e) {
+            if (!directory.isDirectory()) {
+                return Collections.emptyMap();
+            }
+            throw new UncheckedIOException("Could not list directory " + directory.getAbsolutePath(), e);
+        }
+        Map<String, FileMetadata> result = new HashMap<>(children.size() * 4 / 3 + 1);
+        for (DirEntry child : children) {
+            result.put(child.getName(), toFileMetadata(new File(directory, child.getName()), child));
+        }
+        return result;
+    }
+
+    private FileMetadata toFileMetadata(File f, FileInfo stat) {
         AccessType accessType = AccessType.viaSymlink(stat.getType() == FileInfo.Type.Symlink);
         if (accessType == AccessType.VIA_SYMLINK) {
             try {
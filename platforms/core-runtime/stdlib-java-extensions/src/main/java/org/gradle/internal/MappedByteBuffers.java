@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Releases memory mappings of files without waiting for the mapped buffers to be garbage collected.
+ *
+ * <p>Until a mapping is released, it pins address space and, on Windows, prevents the file from being deleted or truncated.</p>
+ */
+public abstract class MappedByteBuffers {
+    @Nullable
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private MappedByteBuffers() {
+    }
+
+    @Nullable
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(theUnsafe.get(null));
+        } catch (Exception e) {
+            // Java 8, or Unsafe is not accessible
+            return null;
+        }
+    }
+
+    /**
+     * Releases the mapping of the given buffer, when supported by the JVM. Otherwise, the mapping is released when the buffer is garbage collected.
+     *
+     * <p>The buffer, and any buffer derived from it, must not be accessed after calling this method, as doing so can crash the JVM.
+     * The given buffer must be the buffer returned by {@link java.nio.channels.FileChannel#map}, not a duplicate or slice of it.</p>
+     */
+    public static void unmap(ByteBuffer buffer) {
+        if (INVOKE_CLEANER != null && buffer.isDirect()) {
+            try {
+                INVOKE_CLEANER.invokeExact(buffer);
+            } catch (Throwable e) {
+                // The mapping is released when the buffer is garbage collected
+            }
+        }
+    }
+}
@@ -20,7 +20,7 @@
 import org.apache.commons.io.FilenameUtils;
 import org.gradle.api.internal.file.archive.ZipEntry;
 import org.gradle.api.internal.file.archive.ZipInput;
-import org.gradle.api.internal.file.archive.impl.FileZipInput;
+import org.gradle.api.internal.file.archive.impl.MappedZipInput;
 import org.gradle.api.internal.file.archive.impl.StreamZipInput;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.fingerprint.FileSystemLocationFingerprint;
@@ -106,7 +106,7 @@ private HashCode hashZipContents(RegularFileSnapshot zipFileSnapshot) {
     }
 
     private List<FileSystemLocationFingerprint> fingerprintZipEntries(String zipFile) throws IOException {
-        try (ZipInput input = FileZipInput.create(new File(zipFile))) {
+        try (ZipInput input = MappedZipInput.create(new File(zipFile))) {
             List<FileSystemLocationFingerprint> fingerprints = new ArrayList<>();
             fingerprintZipEntries("", zipFile, fingerprints, input);
             return fingerprints;
@@ -26,6 +26,7 @@
 import org.gradle.internal.component.external.model.ImmutableCapabilities;
 import org.gradle.internal.component.model.ComponentArtifactMetadata;
 import org.gradle.internal.component.model.VariantResolveMetadata;
+import org.gradle.internal.operations.BlockingIoBuildOperation;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationQueue;
@@ -176,7 +177,8 @@ public String toString() {
         }
     }
 
-    private static class DownloadArtifactFile implements RunnableBuildOperation {
+    // Artifacts resolved asynchronously are external artifacts, whose resolution is dominated by downloading them into the artifact cache
+    private static class DownloadArtifactFile implements RunnableBuildOperation, BlockingIoBuildOperation {
         private final ResolvableArtifact artifact;
 
         DownloadArtifactFile(ResolvableArtifact artifact) {
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.service.scopes.Scope;
+import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.internal.work.WorkerLimits;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The pool the build session file system access snapshots unfiltered directory trees on in parallel.
+ *
+ * The pool uses at most as many threads as {@code --max-workers} allows, and is shut down when the build session ends.
+ */
+@ServiceScope(Scope.BuildSession.class)
+public class ParallelSnapshottingPool implements Stoppable {
+    @Nullable
+    private final ForkJoinPool pool;
+
+    public ParallelSnapshottingPool(boolean enabled, WorkerLimits workerLimits) {
+        this.pool = enabled ? new ForkJoinPool(workerLimits.getMaxWorkerCount()) : null;
+    }
+
+    /**
+     * Returns the pool, or {@code null} when parallel snapshotting is disabled.
+     */
+    @Nullable
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public void stop() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -29,6 +29,9 @@
 /**
  * A {@link ResourceSnapshotterCacheService} that delegates to the global service for immutable files
  * and uses the local service for all other files. This ensures optimal cache utilization.
+ *
+ * Only files inside the global cache locations, like the dependency cache and the read-only dependency cache, are immutable.
+ * The global service has no per-entry eviction, so hashes for archives anywhere else stay in the local service.
  */
 public class SplitResourceSnapshotterCacheService implements ResourceSnapshotterCacheService {
     private final ResourceSnapshotterCacheService globalCache;
@@ -44,7 +47,7 @@ public SplitResourceSnapshotterCacheService(ResourceSnapshotterCacheService glob
     @Nullable
     @Override
     public HashCode hashFile(FileSystemLocationSnapshot snapshot, FileSystemLocationSnapshotHasher hasher, HashCode configurationHash) throws IOException {
-        if (globalCacheLocations.isInsideGlobalCache(snapshot.getAbsolutePath())) {
+        if (isImmutable(snapshot)) {
             return globalCache.hashFile(snapshot, hasher, configurationHash);
         } else {
             return localCache.hashFile(snapshot, hasher, configurationHash);
@@ -53,10 +56,14 @@ public HashCode hashFile(FileSystemLocationSnapshot snapshot, FileSystemLocation
 
     @Override
     public HashCode hashFile(RegularFileSnapshotContext fileSnapshotContext, RegularFileSnapshotContextHasher hasher, HashCode configurationHash) throws IOException {
-        if (globalCacheLocations.isInsideGlobalCache(fileSnapshotContext.getSnapshot().getAbsolutePath())) {
+        if (isImmutable(fileSnapshotContext.getSnapshot())) {
             return globalCache.hashFile(fileSnapshotContext, hasher, configurationHash);
         } else {
             return localCache.hashFile(fileSnapshotContext, hasher, configurationHash);
         }
     }
+
+    private boolean isImmutable(FileSystemLocationSnapshot snapshot) {
+        return globalCacheLocations.isInsideGlobalCache(snapshot.getAbsolutePath());
+    }
 }
@@ -27,17 +27,24 @@
 import org.gradle.caching.internal.controller.impl.LifecycleAwareBuildCacheControllerFactory;
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.BuildCacheEntryCompression;
 import org.gradle.caching.internal.packaging.impl.DefaultTarPackerFileSystemSupport;
 import org.gradle.caching.internal.packaging.impl.FilePermissionAccess;
-import org.gradle.caching.internal.packaging.impl.GZipBuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.SegmentedBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.TarBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.TarPackerFileSystemSupport;
 import org.gradle.caching.internal.services.BuildCacheControllerFactory;
 import org.gradle.caching.internal.services.DefaultBuildCacheControllerFactory;
+import org.gradle.caching.internal.services.WorkerLeasePackingExecutor;
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.caching.local.internal.DirectoryBuildCacheServiceFactory;
 import org.gradle.internal.build.BuildState;
 import org.gradle.internal.build.RootBuildState;
+import org.gradle.internal.buildoption.IntegerInternalOption;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.buildoption.StringInternalOption;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.file.BufferProvider;
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.file.FileException;
@@ -55,6 +62,7 @@
 import org.gradle.internal.service.ServiceRegistrationProvider;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.AbstractGradleModuleServices;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.GradleVersion;
 
 import java.io.File;
@@ -64,6 +72,25 @@
  * Build scoped services for build cache usage.
  */
 public final class BuildCacheServices extends AbstractGradleModuleServices {
+    /**
+     * The codec used to compress build cache entries, one of {@code gzip}, {@code lz4} or {@code zstd}.
+     */
+    public static final StringInternalOption COMPRESSION_OPTION = new StringInternalOption("org.gradle.caching.compression", "gzip");
+
+    /**
+     * The compression level used for build cache entries. Only gzip supports levels, from 0 to 9.
+     * An unsupported level fails when the packer is created.
+     */
+    public static final IntegerInternalOption COMPRESSION_LEVEL_OPTION = new IntegerInternalOption("org.gradle.caching.compression.level", BuildCacheEntryCompression.DEFAULT_LEVEL);
+
+    /**
+     * When enabled, each output tree is stored as a separately compressed segment, so entries with multiple outputs can be packed and unpacked in parallel.
+     */
+    public static final InternalFlag SEGMENTED_ENTRIES_OPTION = new InternalFlag("org.gradle.caching.segmented-entries");
+
+    private static final long MAX_BUFFERED_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final long MAX_BUFFERED_SEGMENT_BYTES = 64 * 1024 * 1024;
+
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.addProvider(new ServiceRegistrationProvider() {
@@ -85,6 +112,11 @@ LifecycleAwareBuildCacheControllerFactory createRootBuildCacheControllerRef() {
                 return new LifecycleAwareBuildCacheControllerFactory();
             }
 
+            @Provides
+            WorkerLeasePackingExecutor createPackingExecutor(ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService) {
+                return new WorkerLeasePackingExecutor(executorFactory, workerLeaseService);
+            }
+
             @Provides
             OriginMetadataFactory createOriginMetadataFactory(
                 BuildInvocationScopeId buildInvocationScopeId
@@ -129,10 +161,22 @@ BuildCacheEntryPacker createResultPacker(
                 FileSystem fileSystem,
                 StreamHasher fileHasher,
                 StringInterner stringInterner,
-                BufferProvider bufferProvider
+                BufferProvider bufferProvider,
+                InternalOptions internalOptions,
+                WorkerLeasePackingExecutor packingExecutor
             ) {
-                return new GZipBuildCacheEntryPacker(
-                    new TarBuildCacheEntryPacker(fileSystemSupport, new FilePermissionsAccessAdapter(fileSystem), fileHasher, stringInterner, bufferProvider));
+                BuildCacheEntryCompression compression = BuildCacheEntryCompression.forName(internalOptions.getOption(COMPRESSION_OPTION).get());
+                int level = internalOptions.getOption(COMPRESSION_LEVEL_OPTION).get();
+                boolean segmented = internalOptions.getOption(SEGMENTED_ENTRIES_OPTION).get();
+                return new SegmentedBuildCacheEntryPacker(
+                    new TarBuildCacheEntryPacker(fileSystemSupport, new FilePermissionsAccessAdapter(fileSystem), fileHasher, stringInterner, bufferProvider),
+                    compression,
+                    level,
+                    segmented,
+                    packingExecutor,
+                    MAX_BUFFERED_SEGMENT_SIZE,
+                    MAX_BUFFERED_SEGMENT_BYTES
+                );
             }
 
             @Provides
@@ -159,7 +203,9 @@ BuildCacheControllerFactory createBuildCacheControllerFactory(
                 TemporaryFileProvider temporaryFileProvider,
                 BuildCacheEntryPacker packer,
                 OriginMetadataFactory originMetadataFactory,
-                StringInterner stringInterner
+                StringInterner stringInterner,
+                ExecutorFactory executorFactory,
+                InternalOptions internalOptions
             ) {
                 return new DefaultBuildCacheControllerFactory(
                     startParameter,
@@ -168,7 +214,9 @@ BuildCacheControllerFactory createBuildCacheControllerFactory(
                     originMetadataFactory,
                     stringInterner,
                     temporaryFileProvider,
-                    packer
+                    packer,
+                    executorFactory,
+                    internalOptions
                 );
             }
         });
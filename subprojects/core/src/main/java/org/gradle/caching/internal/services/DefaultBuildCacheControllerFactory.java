@@ -24,21 +24,44 @@
 import org.gradle.caching.configuration.BuildCache;
 import org.gradle.caching.internal.controller.BuildCacheController;
 import org.gradle.caching.internal.controller.DefaultBuildCacheController;
+import org.gradle.caching.internal.controller.service.AsyncRemoteBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration;
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.caching.local.internal.DirectoryBuildCacheService;
+import org.gradle.internal.buildoption.IntegerInternalOption;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.buildoption.StringInternalOption;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationProgressEventEmitter;
 import org.gradle.internal.operations.BuildOperationRunner;
 import org.gradle.util.Path;
 import org.jspecify.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.Locale;
+
 public class DefaultBuildCacheControllerFactory extends AbstractBuildCacheControllerFactory<DirectoryBuildCacheService> {
 
+    /**
+     * Store entries in the remote cache in the background, without making the work wait for the upload to finish.
+     */
+    public static final InternalFlag ASYNC_REMOTE_STORE_OPTION = new InternalFlag("org.gradle.caching.remote.async-store");
+    public static final IntegerInternalOption ASYNC_REMOTE_STORE_MAX_CONCURRENT_OPTION = new IntegerInternalOption("org.gradle.caching.remote.async-store.max-concurrent", 2);
+    public static final IntegerInternalOption ASYNC_REMOTE_STORE_MAX_QUEUED_MEGABYTES_OPTION = new IntegerInternalOption("org.gradle.caching.remote.async-store.max-queued-megabytes", 512);
+    /**
+     * What to do when the queue of entries waiting to be stored is full: {@code block} or {@code drop}.
+     */
+    public static final StringInternalOption ASYNC_REMOTE_STORE_BACKPRESSURE_OPTION = new StringInternalOption("org.gradle.caching.remote.async-store.backpressure", "block");
+    public static final IntegerInternalOption ASYNC_REMOTE_STORE_TIMEOUT_SECONDS_OPTION = new IntegerInternalOption("org.gradle.caching.remote.async-store.timeout-seconds", 300);
+
     private final TemporaryFileProvider temporaryFileProvider;
     private final BuildCacheEntryPacker packer;
     private final BuildOperationProgressEventEmitter buildOperationProgressEmitter;
+    private final ExecutorFactory executorFactory;
+    private final InternalOptions internalOptions;
 
     public DefaultBuildCacheControllerFactory(
         StartParameter startParameter,
@@ -47,7 +70,9 @@ public DefaultBuildCacheControllerFactory(
         OriginMetadataFactory originMetadataFactory,
         StringInterner stringInterner,
         TemporaryFileProvider temporaryFileProvider,
-        BuildCacheEntryPacker packer
+        BuildCacheEntryPacker packer,
+        ExecutorFactory executorFactory,
+        InternalOptions internalOptions
     ) {
         super(
             startParameter,
@@ -58,6 +83,8 @@ public DefaultBuildCacheControllerFactory(
         this.temporaryFileProvider = temporaryFileProvider;
         this.packer = packer;
         this.buildOperationProgressEmitter = buildOperationProgressEmitter;
+        this.executorFactory = executorFactory;
+        this.internalOptions = internalOptions;
     }
 
     @Override
@@ -83,10 +110,28 @@ protected BuildCacheController doCreateController(
             !Boolean.getBoolean(REMOTE_CONTINUE_ON_ERROR_PROPERTY),
             packer,
             originMetadataFactory,
-            stringInterner
+            stringInterner,
+            remoteDescribedService != null && remoteDescribedService.config.isPush() ? createAsyncStoreSettings() : null
         );
     }
 
+    private AsyncRemoteBuildCacheServiceHandle.@Nullable Settings createAsyncStoreSettings() {
+        if (!internalOptions.getOption(ASYNC_REMOTE_STORE_OPTION).get()) {
+            return null;
+        }
+        String backpressure = internalOptions.getOption(ASYNC_REMOTE_STORE_BACKPRESSURE_OPTION).get();
+        AsyncRemoteBuildCacheServiceHandle.BackpressurePolicy backpressurePolicy;
+        try {
+            backpressurePolicy = AsyncRemoteBuildCacheServiceHandle.BackpressurePolicy.valueOf(backpressure.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown value '%s' for %s, expected 'block' or 'drop'.", backpressure, ASYNC_REMOTE_STORE_BACKPRESSURE_OPTION.getSystemPropertyName()), e);
+        }
+        int maxConcurrent = Math.max(1, internalOptions.getOption(ASYNC_REMOTE_STORE_MAX_CONCURRENT_OPTION).get());
+        long maxQueuedBytes = internalOptions.getOption(ASYNC_REMOTE_STORE_MAX_QUEUED_MEGABYTES_OPTION).get() * 1024L * 1024L;
+        Duration timeout = Duration.ofSeconds(internalOptions.getOption(ASYNC_REMOTE_STORE_TIMEOUT_SECONDS_OPTION).get());
+        return new AsyncRemoteBuildCacheServiceHandle.Settings(executorFactory.create("Build cache remote store", maxConcurrent), maxConcurrent, maxQueuedBytes, backpressurePolicy, timeout);
+    }
+
     private static BuildCacheServicesConfiguration toConfiguration(
         Path buildPath,
         @Nullable DescribedBuildCacheService<DirectoryBuildCache, DirectoryBuildCacheService> local,
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.services;
+
+import org.gradle.caching.internal.packaging.impl.SegmentedBuildCacheEntryPacker;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.service.scopes.Scope;
+import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the background work of {@link SegmentedBuildCacheEntryPacker}, holding a worker lease while doing so.
+ *
+ * This way packing and unpacking segments in parallel never uses more threads than {@code --max-workers} allows.
+ * Tasks that are {@link Future}s already completed by the thread that submitted them are skipped without taking a lease.
+ */
+@ServiceScope(Scope.BuildTree.class)
+public class WorkerLeasePackingExecutor implements Executor, Stoppable {
+    private final ManagedExecutor executor;
+    private final WorkerLeaseService workerLeaseService;
+
+    public WorkerLeasePackingExecutor(ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService) {
+        this.executor = executorFactory.create("Build cache entry packing", workerLeaseService.getMaxWorkerCount());
+        this.workerLeaseService = workerLeaseService;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(() -> {
+            if (command instanceof Future && ((Future<?>) command).isDone()) {
+                return;
+            }
+            workerLeaseService.runAsWorkerThread(command);
+        });
+    }
+
+    @Override
+    public void stop() {
+        executor.stop();
+    }
+}
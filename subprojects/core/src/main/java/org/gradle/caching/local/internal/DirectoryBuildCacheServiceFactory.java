@@ -28,10 +28,13 @@
 import org.gradle.caching.BuildCacheService;
 import org.gradle.caching.BuildCacheServiceFactory;
 import org.gradle.caching.local.DirectoryBuildCache;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.file.FileAccessTracker;
 import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.internal.file.impl.SingleDepthFileAccessTracker;
+import org.gradle.internal.time.Clock;
 
 import javax.inject.Inject;
 import java.io.File;
@@ -42,10 +45,16 @@
 public class DirectoryBuildCacheServiceFactory implements BuildCacheServiceFactory<DirectoryBuildCache> {
     public static final String FAILED_READ_SUFFIX = ".failed";
 
+    /**
+     * Stores entries in sharded sub-directories tracked by a memory-mapped index, instead of directly in the cache directory.
+     */
+    public static final InternalFlag SHARDED_LAYOUT_OPTION = new InternalFlag("org.gradle.caching.local.sharded");
+
     private static final String BUILD_CACHE_VERSION = "1";
     private static final String BUILD_CACHE_KEY = "build-cache-" + BUILD_CACHE_VERSION;
     private static final String DIRECTORY_BUILD_CACHE_TYPE = "directory";
     private static final int FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP = 1;
+    private static final String SHARDED_LAYOUT_DIRECTORY = "sharded-1";
 
     private final UnscopedCacheBuilderFactory unscopedCacheBuilderFactory;
     private final GlobalScopedCacheBuilderFactory cacheBuilderFactory;
@@ -53,6 +62,8 @@ public class DirectoryBuildCacheServiceFactory implements BuildCacheServiceFacto
     private final FileAccessTimeJournal fileAccessTimeJournal;
     private final CacheConfigurationsInternal cacheConfigurations;
     private final CacheCleanupStrategyFactory cacheCleanupStrategyFactory;
+    private final InternalOptions internalOptions;
+    private final Clock clock;
 
     @Inject
     public DirectoryBuildCacheServiceFactory(
@@ -61,7 +72,9 @@ public DirectoryBuildCacheServiceFactory(
         PathToFileResolver resolver,
         FileAccessTimeJournal fileAccessTimeJournal,
         CacheConfigurationsInternal cacheConfigurations,
-        CacheCleanupStrategyFactory cacheCleanupStrategyFactory
+        CacheCleanupStrategyFactory cacheCleanupStrategyFactory,
+        InternalOptions internalOptions,
+        Clock clock
     ) {
         this.unscopedCacheBuilderFactory = unscopedCacheBuilderFactory;
         this.cacheBuilderFactory = cacheBuilderFactory;
@@ -69,6 +82,8 @@ public DirectoryBuildCacheServiceFactory(
         this.fileAccessTimeJournal = fileAccessTimeJournal;
         this.cacheConfigurations = cacheConfigurations;
         this.cacheCleanupStrategyFactory = cacheCleanupStrategyFactory;
+        this.internalOptions = internalOptions;
+        this.clock = clock;
     }
 
     @Override
@@ -88,6 +103,10 @@ public BuildCacheService createBuildCacheService(DirectoryBuildCache buildCacheC
             config("location", target.getAbsolutePath()).
             config("remove unused entries", entryExpiration.getDescription());
 
+        if (internalOptions.getOption(SHARDED_LAYOUT_OPTION).get()) {
+            return createShardedBuildCacheService(target, entryExpiration);
+        }
+
         PersistentCache persistentCache = unscopedCacheBuilderFactory
             .cache(target)
             .withCleanupStrategy(createCacheCleanupStrategy(entryExpiration.getEntryRetentionTimestampSupplier()))
@@ -99,6 +118,26 @@ public BuildCacheService createBuildCacheService(DirectoryBuildCache buildCacheC
         return new DirectoryBuildCacheService(persistentCache, fileAccessTracker, FAILED_READ_SUFFIX);
     }
 
+    private BuildCacheService createShardedBuildCacheService(File target, DirectoryBuildCacheEntryRetention entryExpiration) {
+        File shardedTarget = new File(target, SHARDED_LAYOUT_DIRECTORY);
+        checkDirectory(shardedTarget);
+        // Keep the cleanup of the flat layout in the parent directory from removing the sharded layout as a stale entry
+        fileAccessTimeJournal.setLastAccessTime(shardedTarget, clock.getCurrentTime());
+
+        ShardedDirectoryBuildCacheLayout layout = new ShardedDirectoryBuildCacheLayout(shardedTarget, clock);
+        PersistentCache persistentCache = unscopedCacheBuilderFactory
+            .cache(shardedTarget)
+            .withCleanupStrategy(cacheCleanupStrategyFactory.create(
+                layout.createCleanupAction(entryExpiration.getEntryRetentionTimestampSupplier()),
+                cacheConfigurations.getCleanupFrequency()::get
+            ))
+            .withDisplayName("Build cache")
+            .withInitialLockMode(OnDemand)
+            .open();
+
+        return new DirectoryBuildCacheService(persistentCache, layout, FAILED_READ_SUFFIX);
+    }
+
     private CacheCleanupStrategy createCacheCleanupStrategy(Supplier<Long> removeUnusedEntriesTimestamp) {
         return cacheCleanupStrategyFactory.create(
             createCleanupAction(removeUnusedEntriesTimestamp),
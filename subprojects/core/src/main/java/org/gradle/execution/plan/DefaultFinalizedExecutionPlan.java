@@ -24,6 +24,8 @@
 import org.gradle.internal.Pair;
 import org.gradle.internal.resources.ResourceLock;
 import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
@@ -35,6 +37,7 @@
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +60,11 @@ public int compare(Node node1, Node node2) {
             } else if (!node1.isPriority() && node2.isPriority()) {
                 return 1;
             }
+            // Prefer the node with the longest chain of work remaining behind it. This is 0 for all nodes unless node durations are recorded
+            int criticalPathOrder = Long.compare(node2.getRemainingCriticalPath(), node1.getRemainingCriticalPath());
+            if (criticalPathOrder != 0) {
+                return criticalPathOrder;
+            }
             if (node1.getIndex() > node2.getIndex()) {
                 return 1;
             } else if (node1.getIndex() < node2.getIndex()) {
@@ -84,6 +92,9 @@ public int compare(Node node1, Node node2) {
     private final Map<Pair<Node, Node>, Boolean> reachableCache = new HashMap<>();
     private final OrdinalNodeAccess ordinalNodeAccess;
     private final Consumer<LocalTaskNode> completionHandler;
+    private final NodeDurationHistory durationHistory;
+    private final Map<Node, Timer> runningNodeTimers = new IdentityHashMap<>();
+    private final long estimatedCriticalPath;
 
     // When true, there may be nodes that are both ready and "selectable", which means their project and resources are able to be locked
     // When false, there are definitely no nodes that are "selectable"
@@ -100,7 +111,8 @@ public DefaultFinalizedExecutionPlan(
         List<Node> scheduledNodes,
         boolean continueOnFailure,
         QueryableExecutionPlan contents,
-        Consumer<LocalTaskNode> completionHandler
+        Consumer<LocalTaskNode> completionHandler,
+        NodeDurationHistory durationHistory
     ) {
         this.displayName = displayName;
         this.outputHierarchy = outputHierarchy;
@@ -110,6 +122,8 @@ public DefaultFinalizedExecutionPlan(
         this.continueOnFailure = continueOnFailure;
         this.contents = contents;
         this.completionHandler = completionHandler;
+        this.durationHistory = durationHistory;
+        this.estimatedCriticalPath = durationHistory.isEnabled() ? calculateRemainingCriticalPaths(scheduledNodes) : 0;
 
         SetMultimap<FinalizerGroup, FinalizerGroup> reachableGroups = LinkedHashMultimap.create();
         for (Node node : scheduledNodes) {
@@ -129,6 +143,28 @@ public DefaultFinalizedExecutionPlan(
         lockCoordinator.addLockReleaseListener(resourceUnlockListener);
     }
 
+    /**
+     * Calculates the remaining critical path of each scheduled node from the previous durations of the node and the nodes that depend on it.
+     * This must happen before any node is added to the ready queue, as the queue is ordered by the remaining critical path.
+     *
+     * @return the longest remaining critical path of all scheduled nodes.
+     */
+    private long calculateRemainingCriticalPaths(List<Node> scheduledNodes) {
+        long longestCriticalPath = 0;
+        // Nodes are scheduled after the nodes they depend on, so visit them in reverse order to visit each node after its dependents
+        for (int i = scheduledNodes.size() - 1; i >= 0; i--) {
+            Node node = scheduledNodes.get(i);
+            long longestDependentPath = 0;
+            for (Node dependent : node.getDependencyPredecessors()) {
+                longestDependentPath = Math.max(longestDependentPath, dependent.getRemainingCriticalPath());
+            }
+            long criticalPath = durationHistory.getPreviousDuration(node) + longestDependentPath;
+            node.setRemainingCriticalPath(criticalPath);
+            longestCriticalPath = Math.max(longestCriticalPath, criticalPath);
+        }
+        return longestCriticalPath;
+    }
+
     @Override
     public String getDisplayName() {
         return displayName;
@@ -150,6 +186,7 @@ public void close() {
         waitingToStartNodes.clear();
         readyNodes.clear();
         runningNodes.clear();
+        runningNodeTimers.clear();
         reachableCache.clear();
     }
 
@@ -262,6 +299,7 @@ public Selection<Node> selectNext() {
                     // The node is ready to execute and its pre-execution nodes have not been scheduled, so do this now
                     node.visitPreExecutionNodes(prepareNode -> {
                         prepareNode.setIndex(node.getIndex());
+                        prepareNode.setRemainingCriticalPath(node.getRemainingCriticalPath());
                         prepareNode.require();
                         prepareNode.updateAllDependenciesComplete();
                         node.addDependencySuccessor(prepareNode);
@@ -506,6 +544,9 @@ private boolean doesConsumerDependOnDestroyer(Node consumer, Node destroyer) {
 
     private void recordNodeExecutionStarted(Node node) {
         runningNodes.add(node);
+        if (durationHistory.isEnabled()) {
+            runningNodeTimers.put(node, Time.startTimer());
+        }
     }
 
     private void recordNodeCompleted(Node node) {
@@ -547,9 +588,12 @@ public void finishedExecuting(Node node, @Nullable Throwable failure) {
         lockCoordinator.assertHasStateLock();
         try {
             runningNodes.remove(node);
+            Timer timer = runningNodeTimers.remove(node);
 
             if (failure != null) {
                 node.setExecutionFailure(failure);
+            } else if (timer != null) {
+                durationHistory.recordDuration(node, timer.getElapsedMillis());
             }
             if (!node.isExecuting()) {
                 throw new IllegalStateException(format("Cannot finish executing %s as it is in an unexpected state %s.", node, node.getState()));
@@ -567,6 +611,7 @@ public void finishedExecuting(Node node, @Nullable Throwable failure) {
                 LOGGER.debug("Node {} finished executing", node);
                 node.visitPostExecutionNodes(postNode -> {
                     postNode.setIndex(node.getIndex());
+                    postNode.setRemainingCriticalPath(node.getRemainingCriticalPath());
                     postNode.require();
                     postNode.updateAllDependenciesComplete();
                     addNodeToPlan(postNode);
@@ -673,6 +718,11 @@ public void collectFailures(Collection<? super Throwable> failures) {
         }
     }
 
+    @Override
+    public long getEstimatedCriticalPath() {
+        return estimatedCriticalPath;
+    }
+
     @Override
     public boolean allExecutionComplete() {
         return waitingToStartNodes.isEmpty() && runningNodes.isEmpty();
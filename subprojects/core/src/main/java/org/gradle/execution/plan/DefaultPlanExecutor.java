@@ -32,6 +32,8 @@
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.logging.text.TreeFormatter;
 import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.internal.work.WorkerLimits;
@@ -52,6 +54,7 @@
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.ToLongFunction;
 
@@ -69,6 +72,8 @@ public class DefaultPlanExecutor implements PlanExecutor, Stoppable {
     private final ManagedExecutor executor;
     private final MergedQueues queue;
     private final ExecutorState state = new ExecutorState();
+    // Registered as contended by workers waiting for work to start, so that finishing an item only wakes those workers and not the threads waiting for locks
+    private final Object workToStart = new Object();
     private final ExecutorStats stats;
 
     public DefaultPlanExecutor(
@@ -99,6 +104,7 @@ public void stop() {
 
     @Override
     public <T> ExecutionResult<Void> process(WorkSource<T> workSource, Action<T> worker) {
+        Timer timer = Time.startTimer();
         PlanDetails planDetails = new PlanDetails(Cast.uncheckedCast(workSource), Cast.uncheckedCast(worker));
         queue.add(planDetails);
 
@@ -108,10 +114,11 @@ public <T> ExecutionResult<Void> process(WorkSource<T> workSource, Action<T> wor
         WorkerLease currentWorkerLease = workerLeaseService.getCurrentWorkerLease();
         MergedQueues thisPlanOnly = new MergedQueues(coordinationService, true);
         thisPlanOnly.add(planDetails);
-        new ExecutorWorker(thisPlanOnly, currentWorkerLease, cancellationToken, coordinationService, workerLeaseService, stats).run();
+        new ExecutorWorker(thisPlanOnly, currentWorkerLease, cancellationToken, coordinationService, workerLeaseService, stats, workToStart).run();
 
         List<Throwable> failures = new ArrayList<>();
         awaitCompletion(workSource, currentWorkerLease, failures);
+        stats.planCompleted(workSource, timer.getElapsedMillis());
         return ExecutionResult.maybeFailed(failures);
     }
 
@@ -178,7 +185,7 @@ private void maybeStartWorkers(MergedQueues queue, Executor executor) {
         state.maybeStartWorkers(() -> {
             LOGGER.debug("Using {} parallel executor threads", executorCount);
             for (int i = 1; i < executorCount; i++) {
-                executor.execute(new ExecutorWorker(queue, null, cancellationToken, coordinationService, workerLeaseService, stats));
+                executor.execute(new ExecutorWorker(queue, null, cancellationToken, coordinationService, workerLeaseService, stats, workToStart));
             }
         });
     }
@@ -338,6 +345,7 @@ private static class ExecutorWorker implements Runnable {
         private final ResourceLockCoordinationService coordinationService;
         private final WorkerLeaseService workerLeaseService;
         private final WorkerStats stats;
+        private final Object workToStart;
 
         private ExecutorWorker(
             MergedQueues queue,
@@ -345,7 +353,8 @@ private ExecutorWorker(
             BuildCancellationToken cancellationToken,
             ResourceLockCoordinationService coordinationService,
             WorkerLeaseService workerLeaseService,
-            ExecutorStats executorStats
+            ExecutorStats executorStats,
+            Object workToStart
         ) {
             this.queue = queue;
             this.workerLease = workerLease;
@@ -353,6 +362,7 @@ private ExecutorWorker(
             this.coordinationService = coordinationService;
             this.workerLeaseService = workerLeaseService;
             this.stats = executorStats.startWorker();
+            this.workToStart = workToStart;
         }
 
         @Override
@@ -419,6 +429,7 @@ private WorkItem getNextItem(final WorkerLease workerLease) {
                         stats.startWaitingForNextItem();
                         // Release worker lease while waiting
                         workerLease.unlock();
+                        resourceLockState.registerContended(workToStart);
                         return RETRY;
                     }
 
@@ -438,6 +449,7 @@ private WorkItem getNextItem(final WorkerLease workerLease) {
                         stats.startWaitingForNextItem();
                         // Release worker lease while waiting
                         workerLease.unlock();
+                        resourceLockState.registerContended(workToStart);
                         return RETRY;
                     }
 
@@ -476,9 +488,9 @@ private void markFinished(Object selected, WorkSource<Object> executionPlan, @Nu
                     } catch (Throwable t) {
                         queue.abortAllAndFail(t);
                     }
-                    // Notify other threads that the item is finished as this may unblock further work
-                    // or this might be the last item in the queue
-                    coordinationService.notifyStateChange();
+                    // Notify the workers waiting for work that the item is finished as this may unblock further work,
+                    // and the threads waiting for any change that this might be the last item in the queue
+                    coordinationService.notifyStateChange(workToStart);
                 });
             } finally {
                 stats.finishMarkFinished();
@@ -493,6 +505,8 @@ private interface ExecutorStats {
         void report();
 
         WorkerStats startWorker();
+
+        void planCompleted(WorkSource<?> workSource, long executionTimeMillis);
     }
 
     /**
@@ -546,6 +560,10 @@ public WorkerStats startWorker() {
         public void report() {
         }
 
+        @Override
+        public void planCompleted(WorkSource<?> workSource, long executionTimeMillis) {
+        }
+
         @Nullable
         public HealthState healthCheck(MergedQueues queues) {
             // Execution is healthy when:
@@ -650,6 +668,9 @@ public void finishWaitingForNextItem() {
 
     private static class CollectingExecutorStats implements ExecutorStats {
         private final List<CollectingWorkerStats> completedWorkers = new CopyOnWriteArrayList<>();
+        private final AtomicLong completedPlans = new AtomicLong();
+        private final AtomicLong totalPlanExecutionTime = new AtomicLong();
+        private final AtomicLong totalEstimatedCriticalPath = new AtomicLong();
         private final ExecutorState delegate;
 
         public CollectingExecutorStats(ExecutorState delegate) {
@@ -665,6 +686,13 @@ void workerFinished(CollectingWorkerStats stats) {
             completedWorkers.add(stats);
         }
 
+        @Override
+        public void planCompleted(WorkSource<?> workSource, long executionTimeMillis) {
+            completedPlans.incrementAndGet();
+            totalPlanExecutionTime.addAndGet(executionTimeMillis);
+            totalEstimatedCriticalPath.addAndGet(workSource.getEstimatedCriticalPath());
+        }
+
         @Override
         public void report() {
             LOGGER.lifecycle("WORKER THREAD STATISTICS");
@@ -675,7 +703,14 @@ public void report() {
                 LOGGER.lifecycle("average execute time: " + format(stats -> stats.totalExecuteTime));
                 LOGGER.lifecycle("average finish time: " + format(stats -> stats.totalMarkFinishedTime));
             }
+            LOGGER.lifecycle("plan count: " + completedPlans.get());
+            LOGGER.lifecycle("total plan execution time: " + DecimalFormat.getNumberInstance().format(totalPlanExecutionTime.get()) + "ms");
+            // The critical path is a lower bound for the execution time, so the difference is the most that scheduling can still gain
+            LOGGER.lifecycle("total estimated critical path: " + DecimalFormat.getNumberInstance().format(totalEstimatedCriticalPath.get()) + "ms");
             completedWorkers.clear();
+            completedPlans.set(0);
+            totalPlanExecutionTime.set(0);
+            totalEstimatedCriticalPath.set(0);
         }
 
         private String format(ToLongFunction<CollectingWorkerStats> statsProperty) {
@@ -68,6 +68,7 @@ public enum DependenciesState {
     private Throwable executionFailure;
     private boolean filtered;
     private int index;
+    private long remainingCriticalPath;
     private DependencyNodesSet dependencyNodes = DependencyNodesSet.EMPTY;
     private DependentNodesSet dependentNodes = DependentNodesSet.EMPTY;
     private MutationInfo mutationInfo = MutationInfo.EMPTY;
@@ -334,6 +335,17 @@ public void setIndex(int index) {
         this.index = index;
     }
 
+    /**
+     * Returns the expected time in milliseconds to run this node and the longest chain of nodes that depend on it, or 0 when not known.
+     */
+    public long getRemainingCriticalPath() {
+        return remainingCriticalPath;
+    }
+
+    public void setRemainingCriticalPath(long remainingCriticalPath) {
+        this.remainingCriticalPath = remainingCriticalPath;
+    }
+
     /**
      * Mark this node as filtered from the current plan. The node will be considered complete and successful.
      */
@@ -350,6 +362,7 @@ public void filtered() {
     public void reset() {
         group = NodeGroup.DEFAULT_GROUP;
         index = 0;
+        remainingCriticalPath = 0;
         if (!isCannotRunInAnyPlan()) {
             filtered = false;
             dependenciesProcessed = false;
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.internal.service.scopes.Scope;
+import org.gradle.internal.service.scopes.ServiceScope;
+
+/**
+ * Durations of previous executions of the nodes of a build, used to prefer nodes on the critical path of an execution plan.
+ */
+@ServiceScope(Scope.Build.class)
+public interface NodeDurationHistory {
+    NodeDurationHistory NONE = new NodeDurationHistory() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public long getPreviousDuration(Node node) {
+            return 0;
+        }
+
+        @Override
+        public void recordDuration(Node node, long durationMillis) {
+        }
+    };
+
+    /**
+     * Returns true when durations are recorded and execution plans should be ordered by their critical path.
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns the expected duration in milliseconds of the given node, based on previous executions, or 0 when not known.
+     */
+    long getPreviousDuration(Node node);
+
+    /**
+     * Records the duration of an execution of the given node. Implementations may ignore executions that did not run the work of the node.
+     */
+    void recordDuration(Node node, long durationMillis);
+}
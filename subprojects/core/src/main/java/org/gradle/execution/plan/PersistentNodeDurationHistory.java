@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.api.internal.tasks.TaskExecutionOutcome;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.IndexedCache;
+import org.gradle.cache.IndexedCacheParameters;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.scopes.BuildScopedCacheBuilderFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.LONG_SERIALIZER;
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * Keeps the durations of the tasks of a build in the build scoped cache directory.
+ *
+ * Durations recorded during a build are only written to the cache when the build finishes, so that recording a duration does not
+ * access the cache while the execution plan state lock is held. The stored value is a moving average of the durations of previous builds.
+ *
+ * Only the durations of tasks whose actions ran are recorded. Up-to-date, skipped and cached executions take a fraction of that time,
+ * and averaging them in would hide the cost of running the task when its inputs change.
+ */
+public class PersistentNodeDurationHistory implements NodeDurationHistory, Stoppable {
+    private final PersistentCache cache;
+    private final IndexedCache<String, Long> store;
+    private final Map<String, Long> recordedDurations = new ConcurrentHashMap<>();
+
+    public PersistentNodeDurationHistory(BuildScopedCacheBuilderFactory cacheBuilderFactory, InMemoryCacheDecoratorFactory cacheDecoratorFactory) {
+        cache = cacheBuilderFactory
+            .createCrossVersionCacheBuilder("nodeDurations")
+            .withDisplayName("node durations cache")
+            .withInitialLockMode(FileLockManager.LockMode.OnDemand)
+            .open();
+        store = cache.createIndexedCache(IndexedCacheParameters.of("nodeDurations", STRING_SERIALIZER, LONG_SERIALIZER)
+            .withCacheDecorator(cacheDecoratorFactory.decorator(10000, true)));
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public long getPreviousDuration(Node node) {
+        String key = keyFor(node);
+        if (key == null) {
+            return 0;
+        }
+        Long duration = store.getIfPresent(key);
+        return duration == null ? 0 : duration;
+    }
+
+    @Override
+    public void recordDuration(Node node, long durationMillis) {
+        String key = keyFor(node);
+        if (key != null && ((LocalTaskNode) node).getTask().getState().getOutcome() == TaskExecutionOutcome.EXECUTED) {
+            recordedDurations.put(key, durationMillis);
+        }
+    }
+
+    @Nullable
+    private static String keyFor(Node node) {
+        if (node instanceof LocalTaskNode) {
+            return ((LocalTaskNode) node).getTask().getIdentityPath().getPath();
+        }
+        return null;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            recordedDurations.forEach((key, duration) -> {
+                Long previousDuration = store.getIfPresent(key);
+                store.put(key, previousDuration == null ? duration : (previousDuration + duration) / 2);
+            });
+            recordedDurations.clear();
+        } finally {
+            cache.close();
+        }
+    }
+}
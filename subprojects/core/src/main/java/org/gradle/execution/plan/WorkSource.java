@@ -191,6 +191,13 @@ public void describeTo(TreeFormatter formatter) {
 
     void cancelExecution();
 
+    /**
+     * Returns the expected duration in milliseconds of the longest chain of dependent work in this source, based on previous executions, or 0 when not known.
+     */
+    default long getEstimatedCriticalPath() {
+        return 0;
+    }
+
     /**
      * Has all execution completed?
      *
@@ -19,5 +19,8 @@
 import org.gradle.internal.concurrent.ManagedExecutor;
 
 public interface BuildOperationQueueFactory {
-    <T extends BuildOperation> BuildOperationQueue<T> create(ManagedExecutor executor, boolean allowAccessToProjectState, BuildOperationQueue.QueueWorker<T> worker);
+    /**
+     * @param unmanagedLeasesForBlockingIo Whether the queue runs {@link BlockingIoBuildOperation}s using worker leases that do not count towards the maximum number of workers.
+     */
+    <T extends BuildOperation> BuildOperationQueue<T> create(ManagedExecutor executor, boolean allowAccessToProjectState, boolean unmanagedLeasesForBlockingIo, BuildOperationQueue.QueueWorker<T> worker);
 }
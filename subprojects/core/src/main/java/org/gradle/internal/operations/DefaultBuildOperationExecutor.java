@@ -22,6 +22,7 @@
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.VirtualThreads;
 import org.gradle.internal.exceptions.DefaultMultiCauseException;
 import org.gradle.internal.work.WorkerLimits;
 import org.jspecify.annotations.Nullable;
@@ -39,6 +40,7 @@ public class DefaultBuildOperationExecutor implements BuildOperationExecutor, St
     private final BuildOperationQueueFactory buildOperationQueueFactory;
     private final Map<BuildOperationConstraint, ManagedExecutor> managedExecutors = new HashMap<>();
     private final CurrentBuildOperationRef currentBuildOperationRef;
+    private final boolean virtualUnconstrainedOperations;
 
     public DefaultBuildOperationExecutor(
         BuildOperationRunner buildOperationRunner,
@@ -46,12 +48,32 @@ public DefaultBuildOperationExecutor(
         BuildOperationQueueFactory buildOperationQueueFactory,
         ExecutorFactory executorFactory,
         WorkerLimits workerLimits
+    ) {
+        this(buildOperationRunner, currentBuildOperationRef, buildOperationQueueFactory, executorFactory, workerLimits, false);
+    }
+
+    /**
+     * @param virtualThreadsForUnconstrainedOperations When true and the JVM supports virtual threads, runs {@link BuildOperationConstraint#UNCONSTRAINED} operations
+     * on virtual threads. Those that are {@link BlockingIoBuildOperation}s, such as downloads, then run with worker leases that do not count towards the maximum number of workers.
+     */
+    public DefaultBuildOperationExecutor(
+        BuildOperationRunner buildOperationRunner,
+        CurrentBuildOperationRef currentBuildOperationRef,
+        BuildOperationQueueFactory buildOperationQueueFactory,
+        ExecutorFactory executorFactory,
+        WorkerLimits workerLimits,
+        boolean virtualThreadsForUnconstrainedOperations
     ) {
         this.runner = buildOperationRunner;
         this.currentBuildOperationRef = currentBuildOperationRef;
         this.buildOperationQueueFactory = buildOperationQueueFactory;
+        this.virtualUnconstrainedOperations = virtualThreadsForUnconstrainedOperations && VirtualThreads.isSupported();
         managedExecutors.put(BuildOperationConstraint.MAX_WORKERS, executorFactory.create("Build operations", workerLimits.getMaxWorkerCount()));
-        managedExecutors.put(BuildOperationConstraint.UNCONSTRAINED, executorFactory.create("Unconstrained build operations", workerLimits.getMaxWorkerCount() * 10));
+        if (virtualUnconstrainedOperations) {
+            managedExecutors.put(BuildOperationConstraint.UNCONSTRAINED, executorFactory.createVirtual("Unconstrained build operations"));
+        } else {
+            managedExecutors.put(BuildOperationConstraint.UNCONSTRAINED, executorFactory.create("Unconstrained build operations", workerLimits.getMaxWorkerCount() * 10));
+        }
     }
 
     @Override
@@ -91,7 +113,8 @@ private BuildOperationState getCurrentBuildOperation() {
 
     private <O extends BuildOperation> void executeInParallel(boolean allowAccessToProjectState, BuildOperationQueue.QueueWorker<O> worker, Action<BuildOperationQueue<O>> queueAction, BuildOperationConstraint buildOperationConstraint) {
         ManagedExecutor executor = managedExecutors.get(buildOperationConstraint);
-        BuildOperationQueue<O> queue = buildOperationQueueFactory.create(executor, allowAccessToProjectState, worker);
+        boolean unmanagedLeasesForBlockingIo = virtualUnconstrainedOperations && buildOperationConstraint == BuildOperationConstraint.UNCONSTRAINED;
+        BuildOperationQueue<O> queue = buildOperationQueueFactory.create(executor, allowAccessToProjectState, unmanagedLeasesForBlockingIo, worker);
 
         List<GradleException> failures = new ArrayList<>();
         try {
@@ -23,15 +23,20 @@
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
 
 class DefaultBuildOperationQueue<T extends BuildOperation> implements BuildOperationQueue<T> {
     private enum QueueState {
         Working, Finishing, Cancelled, Done
     }
 
+    static final int UNMANAGED_WORKERS_PER_MAX_WORKER = 10;
+
     private final boolean allowAccessToProjectState;
+    private final boolean unmanagedLeasesForBlockingIo;
     private final WorkerLeaseService workerLeases;
     private final Executor executor;
     private final QueueWorker<T> queueWorker;
@@ -48,7 +53,17 @@ private enum QueueState {
     private final LinkedList<Throwable> failures = new LinkedList<>();
 
     DefaultBuildOperationQueue(boolean allowAccessToProjectState, WorkerLeaseService workerLeases, Executor executor, QueueWorker<T> queueWorker) {
+        this(allowAccessToProjectState, false, workerLeases, executor, queueWorker);
+    }
+
+    /**
+     * @param unmanagedLeasesForBlockingIo When true, the queue starts up to {@link #UNMANAGED_WORKERS_PER_MAX_WORKER} times as many worker threads as there are workers,
+     * and runs {@link BlockingIoBuildOperation}s using worker leases that do not count towards the maximum number of workers. Other operations still need one of the
+     * managed worker leases, so that CPU-bound work remains bounded by the maximum number of workers.
+     */
+    DefaultBuildOperationQueue(boolean allowAccessToProjectState, boolean unmanagedLeasesForBlockingIo, WorkerLeaseService workerLeases, Executor executor, QueueWorker<T> queueWorker) {
         this.allowAccessToProjectState = allowAccessToProjectState;
+        this.unmanagedLeasesForBlockingIo = unmanagedLeasesForBlockingIo;
         this.workerLeases = workerLeases;
         this.executor = executor;
         this.queueWorker = queueWorker;
@@ -67,8 +82,7 @@ public void add(final T operation) {
             workQueue.add(operation);
             pendingOperations++;
             workAvailable.signalAll();
-            if (workerCount == 0 || workerCount < workerLeases.getMaxWorkerCount() - 1) {
-                // `getMaxWorkerCount() - 1` because main thread executes work as well. See https://github.com/gradle/gradle/issues/3273
+            if (workerCount == 0 || workerCount < getMaxWorkerThreads()) {
                 // TODO This could be more efficient, so that we only start a worker when there are none idle _and_ there is a worker lease available
                 executor.execute(new WorkerRunnable());
                 workerCount++;
@@ -78,6 +92,14 @@ public void add(final T operation) {
         }
     }
 
+    private int getMaxWorkerThreads() {
+        if (unmanagedLeasesForBlockingIo) {
+            return workerLeases.getMaxWorkerCount() * UNMANAGED_WORKERS_PER_MAX_WORKER;
+        }
+        // `getMaxWorkerCount() - 1` because main thread executes work as well. See https://github.com/gradle/gradle/issues/3273
+        return workerLeases.getMaxWorkerCount() - 1;
+    }
+
     @Override
     public void cancel() {
         lock.lock();
@@ -221,7 +243,7 @@ private void runBatch(final T firstOperation) {
             // the parent lease is released.
             completeOperations(
                 // Run while holding worker lease.
-                workerLeases.runAsWorkerThread(() -> {
+                withWorkerLease(firstOperation, () -> {
                     if (allowAccessToProjectState) {
                         return doRunBatch(firstOperation);
                     } else {
@@ -241,6 +263,15 @@ private void runBatch(final T firstOperation) {
             );
         }
 
+        private int withWorkerLease(T firstOperation, IntSupplier action) {
+            if (!usesUnmanagedLease(firstOperation)) {
+                return workerLeases.runAsWorkerThread(action::getAsInt);
+            }
+            AtomicInteger operationCount = new AtomicInteger();
+            workerLeases.runAsUnmanagedWorkerThread(() -> operationCount.set(action.getAsInt()));
+            return operationCount.get();
+        }
+
         private int doRunBatch(T firstOperation) {
             int operationCount = 0;
             T operation = firstOperation;
@@ -252,11 +283,36 @@ private int doRunBatch(T firstOperation) {
                 }
                 runOperation(operation);
                 operationCount++;
-                operation = getNextOperation();
+                operation = getNextOperationForSameLease(firstOperation);
             }
             return operationCount;
         }
 
+        /**
+         * Returns the next operation if it can run using the same kind of worker lease as the given operation.
+         * Otherwise, leaves it for the next batch.
+         */
+        @Nullable
+        private T getNextOperationForSameLease(T firstOperation) {
+            if (!unmanagedLeasesForBlockingIo) {
+                return getNextOperation();
+            }
+            lock.lock();
+            try {
+                T next = workQueue.peekFirst();
+                if (next == null || usesUnmanagedLease(next) != usesUnmanagedLease(firstOperation)) {
+                    return null;
+                }
+                return workQueue.pollFirst();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean usesUnmanagedLease(T operation) {
+            return unmanagedLeasesForBlockingIo && operation instanceof BlockingIoBuildOperation;
+        }
+
         @Nullable
         private T getNextOperation() {
             lock.lock();
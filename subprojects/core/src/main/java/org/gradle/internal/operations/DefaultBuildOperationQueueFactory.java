@@ -28,9 +28,9 @@ public DefaultBuildOperationQueueFactory(WorkerLeaseService workerLeaseService)
 
     @Override
     public <T extends BuildOperation> BuildOperationQueue<T>
-    create(ManagedExecutor executor, boolean allowAccessToProjectState, BuildOperationQueue.QueueWorker<T> worker) {
+    create(ManagedExecutor executor, boolean allowAccessToProjectState, boolean unmanagedLeasesForBlockingIo, BuildOperationQueue.QueueWorker<T> worker) {
         // Assert that the current thread is a worker
         workerLeaseService.getCurrentWorkerLease();
-        return new DefaultBuildOperationQueue<>(allowAccessToProjectState, workerLeaseService, executor, worker);
+        return new DefaultBuildOperationQueue<>(allowAccessToProjectState, unmanagedLeasesForBlockingIo, workerLeaseService, executor, worker);
     }
 }
@@ -22,6 +22,9 @@
 import org.gradle.configuration.internal.DefaultListenerBuildOperationDecorator;
 import org.gradle.configuration.internal.DynamicCallContextTracker;
 import org.gradle.configuration.internal.ListenerBuildOperationDecorator;
+import org.gradle.internal.buildoption.DefaultInternalOptions;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
 import org.gradle.internal.code.DefaultUserCodeApplicationContext;
 import org.gradle.internal.code.UserCodeApplicationContext;
 import org.gradle.internal.concurrent.ExecutorFactory;
@@ -51,6 +54,12 @@
 
 public class CoreCrossBuildSessionServices implements ServiceRegistrationProvider {
 
+    /**
+     * When enabled and running on Java 21 or later, runs unconstrained build operations on virtual threads. Those that only block on I/O,
+     * such as artifact downloads, then run without holding one of the {@code --max-workers} worker leases.
+     */
+    public static final InternalFlag VIRTUAL_THREADS_OPTION = new InternalFlag("org.gradle.internal.operations.virtual-threads");
+
     @Provides
     void configure(ServiceRegistration registration) {
         registration.add(ResourceLockCoordinationService.class, DefaultResourceLockCoordinationService.class);
@@ -69,14 +78,17 @@ BuildOperationExecutor createBuildOperationExecutor(
         CurrentBuildOperationRef currentBuildOperationRef,
         WorkerLeaseService workerLeaseService,
         ExecutorFactory executorFactory,
-        WorkerLimits workerLimits
+        WorkerLimits workerLimits,
+        CrossBuildSessionParameters buildSessionParameters
     ) {
+        InternalOptions internalOptions = new DefaultInternalOptions(buildSessionParameters.getStartParameter().getSystemPropertiesArgs());
         return new DefaultBuildOperationExecutor(
             buildOperationRunner,
             currentBuildOperationRef,
             new DefaultBuildOperationQueueFactory(workerLeaseService),
             executorFactory,
-            workerLimits
+            workerLimits,
+            internalOptions.getOption(VIRTUAL_THREADS_OPTION).get()
         );
     }
 
@@ -25,6 +25,9 @@
 import org.gradle.cache.scopes.BuildScopedCacheBuilderFactory;
 import org.gradle.caching.internal.controller.BuildCacheController;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.BuildOutputCleanupRegistry;
 import org.gradle.internal.execution.ExecutionEngine;
@@ -40,6 +43,7 @@
 import org.gradle.internal.execution.history.changes.ExecutionStateChangeDetector;
 import org.gradle.internal.execution.history.impl.DefaultExecutionHistoryStore;
 import org.gradle.internal.execution.history.impl.DefaultOutputFilesRepository;
+import org.gradle.internal.execution.history.impl.LogStructuredExecutionHistoryStore;
 import org.gradle.internal.execution.impl.DefaultExecutionEngine;
 import org.gradle.internal.execution.steps.AssignImmutableWorkspaceStep;
 import org.gradle.internal.execution.steps.AssignMutableWorkspaceStep;
@@ -68,6 +72,7 @@
 import org.gradle.internal.execution.steps.ResolveInputChangesStep;
 import org.gradle.internal.execution.steps.ResolveNonIncrementalCachingStateStep;
 import org.gradle.internal.execution.steps.Result;
+import org.gradle.internal.execution.steps.ReuseUnchangedOutputSnapshotsStep;
 import org.gradle.internal.execution.steps.SkipEmptyIncrementalWorkStep;
 import org.gradle.internal.execution.steps.SkipUpToDateStep;
 import org.gradle.internal.execution.steps.Step;
@@ -97,6 +102,18 @@
 import static org.gradle.internal.execution.steps.AfterExecutionOutputFilter.NO_FILTER;
 
 public class ExecutionBuildServices implements ServiceRegistrationProvider {
+    /**
+     * Keeps the execution history in an append-only log instead of a B-tree.
+     * The two formats are stored in separate files, so switching between them starts from an empty history.
+     */
+    public static final InternalFlag LOG_STRUCTURED_EXECUTION_HISTORY_OPTION = new InternalFlag("org.gradle.execution.history.log-structured");
+
+    /**
+     * Checks the outputs captured from the output changes reported by incremental work against a full snapshot of the outputs,
+     * and fails the work when it didn't report all of its changes.
+     */
+    public static final InternalFlag VERIFY_REPORTED_OUTPUT_CHANGES_OPTION = new InternalFlag("org.gradle.execution.verify-reported-output-changes");
+
     @Provides
     ExecutionHistoryCacheAccess createCacheAccess(BuildScopedCacheBuilderFactory cacheBuilderFactory) {
         return new DefaultExecutionHistoryCacheAccess(cacheBuilderFactory);
@@ -107,8 +124,18 @@ ExecutionHistoryStore createExecutionHistoryStore(
         ExecutionHistoryCacheAccess executionHistoryCacheAccess,
         InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory,
         StringInterner stringInterner,
-        ClassLoaderHierarchyHasher classLoaderHasher
+        ClassLoaderHierarchyHasher classLoaderHasher,
+        ExecutorFactory executorFactory,
+        InternalOptions internalOptions
     ) {
+        if (internalOptions.getOption(LOG_STRUCTURED_EXECUTION_HISTORY_OPTION).get()) {
+            return new LogStructuredExecutionHistoryStore(
+                executionHistoryCacheAccess,
+                stringInterner,
+                classLoaderHasher,
+                executorFactory
+            );
+        }
         return new DefaultExecutionHistoryStore(
             executionHistoryCacheAccess,
             inMemoryCacheDecoratorFactory,
@@ -155,11 +182,13 @@ public ExecutionEngine createExecutionEngine(
         TimeoutHandler timeoutHandler,
         ValidateStep.ValidationWarningRecorder validationWarningRecorder,
         VirtualFileSystem virtualFileSystem,
-        InternalProblems problems
+        InternalProblems problems,
+        InternalOptions internalOptions
     ) {
         UniqueId buildId = buildInvocationScopeId.getId();
         Supplier<OutputsCleaner> skipEmptyWorkOutputsCleanerSupplier = () -> new OutputsCleaner(deleter, buildOutputCleanupRegistry::isOutputOwnedByBuild, buildOutputCleanupRegistry::isOutputOwnedByBuild);
         boolean emitBuildCacheDebugLogging = startParameter.isBuildCacheDebugLogging();
+        boolean verifyReportedOutputChanges = internalOptions.getOption(VERIFY_REPORTED_OUTPUT_CHANGES_OPTION).get();
 
         // @formatter:off
         // CHECKSTYLE:OFF
@@ -201,10 +230,11 @@ public ExecutionEngine createExecutionEngine(
             new BuildCacheStep<>(buildCacheController, deleter, fileSystemAccess, outputChangeListener,
             new ResolveInputChangesStep<>(
             new CaptureOutputsAfterExecutionStep<>(buildOperationRunner, buildId, outputSnapshotter, new OverlappingOutputsFilter(),
+            new ReuseUnchangedOutputSnapshotsStep<>(fileSystemAccess, outputSnapshotter, verifyReportedOutputChanges,
             new BroadcastChangingOutputsStep<>(outputChangeListener,
             new RemovePreviousOutputsStep<>(deleter, outputChangeListener,
             sharedExecutionPipeline
-        )))))))))))))))));
+        ))))))))))))))))));
 
         return new DefaultExecutionEngine(
             new IdentifyStep<>(buildOperationRunner,
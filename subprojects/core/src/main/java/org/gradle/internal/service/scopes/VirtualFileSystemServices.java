@@ -28,6 +28,7 @@
 import org.gradle.api.internal.changedetection.state.DefaultResourceSnapshotterCacheService;
 import org.gradle.api.internal.changedetection.state.FileHasherStatistics;
 import org.gradle.api.internal.changedetection.state.GradleUserHomeScopeFileTimeStampInspector;
+import org.gradle.api.internal.changedetection.state.ParallelSnapshottingPool;
 import org.gradle.api.internal.changedetection.state.PropertiesFileFilter;
 import org.gradle.api.internal.changedetection.state.ResourceEntryFilter;
 import org.gradle.api.internal.changedetection.state.ResourceFilter;
@@ -44,6 +45,7 @@
 import org.gradle.cache.scopes.GlobalScopedCacheBuilderFactory;
 import org.gradle.initialization.RootBuildLifecycleListener;
 import org.gradle.internal.build.BuildAddedListener;
+import org.gradle.internal.buildoption.DefaultInternalOptions;
 import org.gradle.internal.buildoption.IntegerInternalOption;
 import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.buildoption.InternalOptions;
@@ -69,6 +71,8 @@
 import org.gradle.internal.hash.DefaultFileHasher;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.HashFunction;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.hash.StreamHasher;
 import org.gradle.internal.nativeintegration.NativeCapabilities;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
@@ -95,11 +99,15 @@
 import org.gradle.internal.watch.vfs.FileChangeListeners;
 import org.gradle.internal.watch.vfs.WatchableFileSystemDetector;
 import org.gradle.internal.watch.vfs.impl.DefaultWatchableFileSystemDetector;
+import org.gradle.internal.watch.vfs.impl.FileBasedVirtualFileSystemStateStore;
 import org.gradle.internal.watch.vfs.impl.FileWatchingFilter;
+import org.gradle.internal.watch.vfs.impl.VirtualFileSystemStateStore;
 import org.gradle.internal.watch.vfs.impl.WatchingNotSupportedVirtualFileSystem;
 import org.gradle.internal.watch.vfs.impl.WatchingVirtualFileSystem;
+import org.gradle.internal.work.WorkerLimits;
 
 import java.io.File;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -118,6 +126,24 @@ public class VirtualFileSystemServices extends AbstractGradleModuleServices {
     public static final IntegerInternalOption MAX_HIERARCHIES_TO_WATCH_PROPERTY = new IntegerInternalOption("org.gradle.vfs.watch.hierarchies.max", DEFAULT_MAX_HIERARCHIES_TO_WATCH);
     private static final int FILE_HASHER_MEMORY_CACHE_SIZE = 400000;
 
+    /**
+     * Snapshots unfiltered directory trees with one task per subdirectory on a fork/join pool, so files are hashed on up to {@code --max-workers} threads.
+     * Only read from the system properties of the process, like the other file system access options.
+     */
+    public static final InternalFlag PARALLEL_SNAPSHOTTING_PROPERTY = new InternalFlag("org.gradle.vfs.parallel-snapshotting");
+
+    /**
+     * Files of at least this many bytes are hashed from their file channel, memory mapped when hashing with XXH3, instead of through an input stream.
+     * Only read from the system properties of the process, like the file hash function.
+     */
+    public static final IntegerInternalOption DIRECT_FILE_HASHING_THRESHOLD_PROPERTY = new IntegerInternalOption("org.gradle.hashing.direct-threshold", (int) DefaultFileHasher.DEFAULT_DIRECT_HASHING_THRESHOLD);
+
+    /**
+     * Persists what the VFS retains for the watched hierarchies when the daemon stops, so a new daemon can reuse the unchanged parts instead of hashing everything again.
+     * Only read from the system properties of the process, since the VFS outlives the builds it serves.
+     */
+    public static final InternalFlag PERSISTENT_VFS_STATE_PROPERTY = new InternalFlag("org.gradle.vfs.persistent-state");
+
     public static boolean isDropVfs(InternalOptions options) {
         return options.getOption(VFS_DROP_PROPERTY).get();
     }
@@ -126,6 +152,21 @@ public static int getMaximumNumberOfWatchedHierarchies(InternalOptions options)
         return options.getOption(MAX_HIERARCHIES_TO_WATCH_PROPERTY).get();
     }
 
+    /**
+     * Keeps the hashes of each hash function in a separate cache, so that switching functions does not mix up their hashes.
+     */
+    private static String fileHashesCacheName(StreamHasher streamHasher) {
+        HashFunction hashFunction = streamHasher.getHashFunction();
+        return hashFunction == Hashing.defaultFunction()
+            ? "fileHashes"
+            : "fileHashes-" + hashFunction.getAlgorithm().toLowerCase(Locale.ROOT);
+    }
+
+    private static DefaultFileHasher createDefaultFileHasher(StreamHasher streamHasher) {
+        int directHashingThreshold = DefaultInternalOptions.fromProcessSystemProperties().getOption(DIRECT_FILE_HASHING_THRESHOLD_PROPERTY).get();
+        return new DefaultFileHasher(streamHasher, directHashingThreshold);
+    }
+
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.addProvider(new GlobalScopeServices());
@@ -171,7 +212,7 @@ FileHasher createCachingFileHasher(
             StreamHasher streamHasher,
             StringInterner stringInterner
         ) {
-            CachingFileHasher fileHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), fileStore, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
+            CachingFileHasher fileHasher = new CachingFileHasher(createDefaultFileHasher(streamHasher), fileStore, stringInterner, fileTimeStampInspector, fileHashesCacheName(streamHasher), fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
             fileTimeStampInspector.attach(fileHasher);
             return fileHasher;
         }
@@ -209,7 +250,10 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
             FileChangeListeners fileChangeListeners,
             NativeServices.FileEventFunctionsProvider fileEvents,
             FileSystem fileSystem,
-            WatchableFileSystemDetector watchableFileSystemDetector
+            WatchableFileSystemDetector watchableFileSystemDetector,
+            GlobalScopedCacheBuilderFactory cacheBuilderFactory,
+            StreamHasher streamHasher,
+            FileMetadataAccessor fileMetadataAccessor
         ) {
             CaseSensitivity caseSensitivity = fileSystem.isCaseSensitive() ? CASE_SENSITIVE : CASE_INSENSITIVE;
             SnapshotHierarchy root = DefaultSnapshotHierarchy.empty(caseSensitivity);
@@ -225,7 +269,8 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
                     sectionId -> documentationRegistry.getDocumentationRecommendationFor("details", "file_system_watching", sectionId),
                     fileWatchingFilter,
                     watchableFileSystemDetector,
-                    fileChangeListeners
+                    fileChangeListeners,
+                    createVirtualFileSystemStateStore(cacheBuilderFactory, streamHasher, fileMetadataAccessor)
                 ))
                 .orElse(new WatchingNotSupportedVirtualFileSystem(root));
             listenerManager.addListener((BuildAddedListener) buildState -> {
@@ -236,6 +281,16 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
             return virtualFileSystem;
         }
 
+        private static VirtualFileSystemStateStore createVirtualFileSystemStateStore(GlobalScopedCacheBuilderFactory cacheBuilderFactory, StreamHasher streamHasher, FileMetadataAccessor fileMetadataAccessor) {
+            boolean persistentState = DefaultInternalOptions.fromProcessSystemProperties().getOption(PERSISTENT_VFS_STATE_PROPERTY).get();
+            if (!persistentState) {
+                return VirtualFileSystemStateStore.NONE;
+            }
+            // The persisted hashes are only valid for the hash function that produced them
+            String hashFunctionName = streamHasher.getHashFunction().getAlgorithm().toLowerCase(Locale.ROOT);
+            return new FileBasedVirtualFileSystemStateStore(new File(cacheBuilderFactory.baseDirForCache("vfs-state"), hashFunctionName), fileMetadataAccessor);
+        }
+
         @Provides
         FileSystemAccess createFileSystemAccess(
             FileHasher hasher,
@@ -253,6 +308,8 @@ FileSystemAccess createFileSystemAccess(
                 virtualFileSystem,
                 writeListener,
                 statisticsCollector,
+                // User home services outlive the build that sets the worker count, so snapshot on the calling thread
+                null,
                 DirectoryScanner.getDefaultExcludes()
             );
             listenerManager.addListener(defaultFileSystemAccess);
@@ -337,10 +394,17 @@ FileHasher createFileHasher(
             StringInterner stringInterner,
             FileHasherStatistics.Collector statisticsCollector
         ) {
-            CachingFileHasher localHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), cacheAccess, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
+            CachingFileHasher localHasher = new CachingFileHasher(createDefaultFileHasher(streamHasher), cacheAccess, stringInterner, fileTimeStampInspector, fileHashesCacheName(streamHasher), fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
             return new SplitFileHasher(globalHasher, localHasher, globalCacheLocations);
         }
 
+        @Provides
+        @PrivateService
+        ParallelSnapshottingPool createParallelSnapshottingPool(WorkerLimits workerLimits) {
+            boolean parallelSnapshotting = DefaultInternalOptions.fromProcessSystemProperties().getOption(PARALLEL_SNAPSHOTTING_PROPERTY).get();
+            return new ParallelSnapshottingPool(parallelSnapshotting, workerLimits);
+        }
+
         @Provides
         FileSystemAccess createFileSystemAccess(
             FileHasher hasher,
@@ -349,7 +413,8 @@ FileSystemAccess createFileSystemAccess(
             StringInterner stringInterner,
             VirtualFileSystem root,
             FileSystemAccess.WriteListener writeListener,
-            DirectorySnapshotterStatistics.Collector statisticsCollector
+            DirectorySnapshotterStatistics.Collector statisticsCollector,
+            ParallelSnapshottingPool parallelSnapshottingPool
         ) {
             DefaultFileSystemAccess buildSessionsScopedVirtualFileSystem = new DefaultFileSystemAccess(
                 hasher,
@@ -358,6 +423,7 @@ FileSystemAccess createFileSystemAccess(
                 root,
                 writeListener,
                 statisticsCollector,
+                parallelSnapshottingPool.getPool(),
                 DirectoryScanner.getDefaultExcludes()
             );
 
@@ -41,12 +41,16 @@
 import org.gradle.initialization.LegacyTypesSupport;
 import org.gradle.internal.classloader.ClassLoaderFactory;
 import org.gradle.internal.classloader.DefaultClassLoaderFactory;
+import org.gradle.internal.buildoption.DefaultInternalOptions;
+import org.gradle.internal.buildoption.StringInternalOption;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.file.impl.DefaultDeleter;
 import org.gradle.internal.hash.DefaultStreamHasher;
+import org.gradle.internal.hash.HashFunction;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.hash.StreamHasher;
 import org.gradle.internal.installation.CurrentGradleInstallation;
 import org.gradle.internal.instantiation.InstantiatorFactory;
@@ -71,6 +75,8 @@
 import org.gradle.internal.time.Clock;
 import org.gradle.internal.time.Time;
 
+import java.util.Locale;
+
 import static org.gradle.api.internal.file.ManagedFactories.DirectoryManagedFactory;
 import static org.gradle.api.internal.file.ManagedFactories.DirectoryPropertyManagedFactory;
 import static org.gradle.api.internal.file.ManagedFactories.RegularFileManagedFactory;
@@ -84,6 +90,12 @@
 
 public class WorkerSharedGlobalScopeServices extends BasicGlobalScopeServices {
 
+    /**
+     * The function to hash file contents with, either "md5" or "xxh3-128".
+     * Only read from the system properties of the process, since file hashes are shared by all the builds it runs.
+     */
+    public static final StringInternalOption FILE_HASH_FUNCTION_OPTION = new StringInternalOption("org.gradle.hashing.file-content", "md5");
+
     protected final ClassPath additionalModuleClassPath;
 
     public WorkerSharedGlobalScopeServices(ClassPath additionalModuleClassPath) {
@@ -137,7 +149,19 @@ DefaultFilePropertyFactory createFilePropertyFactory(PropertyHost propertyHost,
 
     @Provides
     StreamHasher createStreamHasher() {
-        return new DefaultStreamHasher();
+        return new DefaultStreamHasher(fileHashFunction());
+    }
+
+    private static HashFunction fileHashFunction() {
+        String name = DefaultInternalOptions.fromProcessSystemProperties().getOption(FILE_HASH_FUNCTION_OPTION).get();
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "md5":
+                return Hashing.md5();
+            case "xxh3-128":
+                return Hashing.xxh3_128();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown value '%s' for %s, expected 'md5' or 'xxh3-128'.", name, FILE_HASH_FUNCTION_OPTION.getSystemPropertyName()));
+        }
     }
 
     @Provides
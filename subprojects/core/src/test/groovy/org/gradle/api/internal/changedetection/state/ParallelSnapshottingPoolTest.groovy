@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.internal.work.WorkerLimits
+import spock.lang.Specification
+
+class ParallelSnapshottingPoolTest extends Specification {
+    def workerLimits = Stub(WorkerLimits) {
+        getMaxWorkerCount() >> 3
+    }
+
+    def "pool is sized from the max worker count"() {
+        def pool = new ParallelSnapshottingPool(true, workerLimits)
+
+        expect:
+        pool.pool.parallelism == 3
+
+        cleanup:
+        pool.stop()
+    }
+
+    def "pool is shut down when stopped"() {
+        def pool = new ParallelSnapshottingPool(true, workerLimits)
+
+        when:
+        pool.stop()
+
+        then:
+        pool.pool.shutdown
+    }
+
+    def "has no pool when parallel snapshotting is disabled"() {
+        def pool = new ParallelSnapshottingPool(false, workerLimits)
+
+        expect:
+        pool.pool == null
+
+        when:
+        pool.stop()
+
+        then:
+        noExceptionThrown()
+    }
+}
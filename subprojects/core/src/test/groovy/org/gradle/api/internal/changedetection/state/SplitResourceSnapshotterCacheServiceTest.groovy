@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.cache.GlobalCacheLocations
+import org.gradle.internal.file.FileMetadata
+import org.gradle.internal.file.impl.DefaultFileMetadata
+import org.gradle.internal.fingerprint.hashing.FileSystemLocationSnapshotHasher
+import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContextHasher
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.internal.snapshot.RegularFileSnapshot
+import spock.lang.Specification
+
+class SplitResourceSnapshotterCacheServiceTest extends Specification {
+    def globalCache = Mock(ResourceSnapshotterCacheService)
+    def localCache = Mock(ResourceSnapshotterCacheService)
+    def globalCacheLocations = Mock(GlobalCacheLocations)
+    def hasher = Mock(RegularFileSnapshotContextHasher)
+    def configurationHash = TestHashCodes.hashCodeFrom(123)
+    def cacheService = new SplitResourceSnapshotterCacheService(globalCache, localCache, globalCacheLocations)
+
+    def "uses global cache for files inside the global cache"() {
+        def context = context("/user-home/caches/some.class")
+
+        when:
+        cacheService.hashFile(context, hasher, configurationHash)
+        then:
+        1 * globalCacheLocations.isInsideGlobalCache("/user-home/caches/some.class") >> true
+        1 * globalCache.hashFile(context, hasher, configurationHash)
+        0 * _
+    }
+
+    def "uses local cache for files outside the global cache"() {
+        def context = context("/project/build/classes/some.class")
+
+        when:
+        cacheService.hashFile(context, hasher, configurationHash)
+        then:
+        1 * globalCacheLocations.isInsideGlobalCache("/project/build/classes/some.class") >> false
+        1 * localCache.hashFile(context, hasher, configurationHash)
+        0 * _
+    }
+
+    def "uses local cache for archives outside the global cache"() {
+        def context = context("/project/libs/${archiveName}")
+
+        when:
+        cacheService.hashFile(context, hasher, configurationHash)
+        then:
+        1 * globalCacheLocations.isInsideGlobalCache("/project/libs/${archiveName}") >> false
+        1 * localCache.hashFile(context, hasher, configurationHash)
+        0 * _
+
+        where:
+        archiveName << ["library.jar", "library.zip"]
+    }
+
+    def "uses global cache for archives inside the global cache"() {
+        def context = context("/user-home/caches/modules-2/files-2.1/library.jar")
+
+        when:
+        cacheService.hashFile(context, hasher, configurationHash)
+        then:
+        1 * globalCacheLocations.isInsideGlobalCache("/user-home/caches/modules-2/files-2.1/library.jar") >> true
+        1 * globalCache.hashFile(context, hasher, configurationHash)
+        0 * _
+    }
+
+    def "uses the same cache for snapshots as for snapshot contexts"() {
+        def context = context(path)
+        def snapshotHasher = Mock(FileSystemLocationSnapshotHasher)
+
+        when:
+        cacheService.hashFile(context.snapshot, snapshotHasher, configurationHash)
+        then:
+        1 * globalCacheLocations.isInsideGlobalCache(path) >> insideGlobalCache
+        (insideGlobalCache ? 1 : 0) * globalCache.hashFile(context.snapshot, snapshotHasher, configurationHash)
+        (insideGlobalCache ? 0 : 1) * localCache.hashFile(context.snapshot, snapshotHasher, configurationHash)
+        0 * _
+
+        when:
+        cacheService.hashFile(context, hasher, configurationHash)
+        then:
+        1 * globalCacheLocations.isInsideGlobalCache(path) >> insideGlobalCache
+        (insideGlobalCache ? 1 : 0) * globalCache.hashFile(context, hasher, configurationHash)
+        (insideGlobalCache ? 0 : 1) * localCache.hashFile(context, hasher, configurationHash)
+        0 * _
+
+        where:
+        path                                   | insideGlobalCache
+        "/project/libs/library.jar"            | false
+        "/user-home/caches/jars-9/library.jar" | true
+    }
+
+    private static DefaultRegularFileSnapshotContext context(String absolutePath) {
+        def name = absolutePath.substring(absolutePath.lastIndexOf('/') + 1)
+        def snapshot = new RegularFileSnapshot(absolutePath, name, TestHashCodes.hashCodeFrom(456), DefaultFileMetadata.file(3456, 456, FileMetadata.AccessType.DIRECT))
+        return new DefaultRegularFileSnapshotContext({ [name] as String[] }, snapshot)
+    }
+}
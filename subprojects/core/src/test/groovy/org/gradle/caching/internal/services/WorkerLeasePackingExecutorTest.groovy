@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.services
+
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.work.WorkerLeaseService
+import spock.lang.Specification
+
+import java.util.concurrent.FutureTask
+
+class WorkerLeasePackingExecutorTest extends Specification {
+    def workerLeaseService = Mock(WorkerLeaseService) {
+        getMaxWorkerCount() >> 2
+    }
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_, _) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable action -> action.run() }
+        }
+    }
+    def executor = new WorkerLeasePackingExecutor(executorFactory, workerLeaseService)
+
+    def "runs work while holding a worker lease"() {
+        def task = new FutureTask<String>({ "packed" })
+
+        when:
+        executor.execute(task)
+
+        then:
+        1 * workerLeaseService.runAsWorkerThread(_ as Runnable) >> { Runnable action -> action.run() }
+        task.get() == "packed"
+    }
+
+    def "does not take a worker lease for work already done by the submitting thread"() {
+        def task = new FutureTask<String>({ "packed" })
+        task.run()
+
+        when:
+        executor.execute(task)
+
+        then:
+        0 * workerLeaseService.runAsWorkerThread(_)
+    }
+}
@@ -56,8 +56,12 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
     def taskNodeFactory = new TaskNodeFactory(project.gradle, Stub(BuildTreeWorkGraphController), nodeValidator, new TestBuildOperationRunner(), accessHierarchies, TestUtil.problemsService())
 
     def setup() {
+        executionPlan = createExecutionPlan(NodeDurationHistory.NONE)
+    }
+
+    DefaultExecutionPlan createExecutionPlan(NodeDurationHistory durationHistory) {
         def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
-        executionPlan = new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), dependencyResolver, accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator)
+        return new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), dependencyResolver, accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator, durationHistory)
     }
 
     Node priorityNode(Map<String, ?> options = [:]) {
@@ -2062,6 +2066,32 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
         continueOnFailure << [false, true]
     }
 
+    def "starts ready task with the longest remaining critical path first when durations are known"() {
+        given:
+        def previousDurations = [short: 10L, dep: 100L, long: 100L]
+        def recordedDurations = [] as Set
+        def durationHistory = Stub(NodeDurationHistory) {
+            isEnabled() >> true
+            getPreviousDuration(_) >> { Node node -> previousDurations[(node as LocalTaskNode).task.name] }
+            recordDuration(_, _) >> { Node node, long duration -> recordedDurations << (node as LocalTaskNode).task.name }
+        }
+        executionPlan = createExecutionPlan(durationHistory)
+        Task shortTask = task("short", type: Async)
+        Task dep = task("dep", type: Async)
+        Task longTask = task("long", type: Async, dependsOn: [dep])
+
+        when:
+        addToGraphAndPopulate(shortTask, longTask)
+
+        then:
+        executionPlan.tasks as List == [shortTask, dep, longTask]
+        finalizedPlan.estimatedCriticalPath == 200
+        assertTasksReady(dep, shortTask)
+        assertTaskReadyAndNoMoreToStart(longTask)
+        assertAllWorkComplete()
+        recordedDurations == ["short", "dep", "long"] as Set
+    }
+
     private void tasksAreNotExecutedInParallel(Task first, Task second) {
         addToGraphAndPopulate(first, second)
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan
+
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.tasks.TaskExecutionOutcome
+import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.IndexedCache
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory
+import org.gradle.cache.scopes.BuildScopedCacheBuilderFactory
+import org.gradle.util.Path
+import spock.lang.Specification
+
+class PersistentNodeDurationHistoryTest extends Specification {
+    def cacheBuilder = Mock(CacheBuilder)
+    def cache = Mock(PersistentCache)
+    def store = Mock(IndexedCache)
+    def cacheBuilderFactory = Stub(BuildScopedCacheBuilderFactory) {
+        createCrossVersionCacheBuilder(_) >> cacheBuilder
+    }
+    def history
+
+    def setup() {
+        cacheBuilder.withDisplayName(_) >> cacheBuilder
+        cacheBuilder.withInitialLockMode(_) >> cacheBuilder
+        cacheBuilder.open() >> cache
+        cache.createIndexedCache(_) >> store
+        history = new PersistentNodeDurationHistory(cacheBuilderFactory, Stub(InMemoryCacheDecoratorFactory))
+    }
+
+    def "only records the durations of tasks whose actions ran"() {
+        when:
+        history.recordDuration(taskNode(":executed", TaskExecutionOutcome.EXECUTED), 100)
+        history.recordDuration(taskNode(":upToDate", TaskExecutionOutcome.UP_TO_DATE), 1)
+        history.recordDuration(taskNode(":fromCache", TaskExecutionOutcome.FROM_CACHE), 2)
+        history.recordDuration(taskNode(":skipped", TaskExecutionOutcome.SKIPPED), 3)
+        history.recordDuration(taskNode(":noSource", TaskExecutionOutcome.NO_SOURCE), 4)
+        history.stop()
+
+        then:
+        1 * store.getIfPresent(":executed") >> null
+        1 * store.put(":executed", 100)
+        0 * store.put(_, _)
+        1 * cache.close()
+    }
+
+    def "averages the recorded duration with the previous one"() {
+        when:
+        history.recordDuration(taskNode(":executed", TaskExecutionOutcome.EXECUTED), 100)
+        history.stop()
+
+        then:
+        1 * store.getIfPresent(":executed") >> 300L
+        1 * store.put(":executed", 200)
+    }
+
+    private LocalTaskNode taskNode(String path, TaskExecutionOutcome outcome) {
+        def state = Stub(TaskStateInternal) {
+            getOutcome() >> outcome
+        }
+        def task = Stub(TaskInternal) {
+            getIdentityPath() >> Path.path(path)
+            getState() >> state
+        }
+        return Stub(LocalTaskNode) {
+            getTask() >> task
+        }
+    }
+}
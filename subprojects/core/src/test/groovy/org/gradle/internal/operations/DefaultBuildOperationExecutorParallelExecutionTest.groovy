@@ -25,6 +25,12 @@ import org.gradle.internal.work.NoAvailableWorkerLeaseException
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.precondition.Requires
+import org.gradle.test.preconditions.UnitTestPreconditions
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 class DefaultBuildOperationExecutorParallelExecutionTest extends ConcurrentSpec {
     WorkerLeaseService workerRegistry
@@ -32,11 +38,15 @@ class DefaultBuildOperationExecutorParallelExecutionTest extends ConcurrentSpec
     WorkerLeaseRegistry.WorkerLeaseCompletion outerOperationCompletion
     WorkerLeaseRegistry.WorkerLease outerOperation
 
-    def setupBuildOperationExecutor(int maxThreads) {
+    def setupBuildOperationExecutor(int maxThreads, boolean virtualThreads = false) {
         def workerLimits = new DefaultWorkerLimits(maxThreads)
         workerRegistry = new DefaultWorkerLeaseService(new DefaultResourceLockCoordinationService(), workerLimits)
         workerRegistry.startProjectExecution(true)
-        buildOperationExecutor = BuildOperationExecutorSupport.builder(workerLimits).withWorkerLeaseService(workerRegistry).build()
+        def builder = BuildOperationExecutorSupport.builder(workerLimits).withWorkerLeaseService(workerRegistry)
+        if (virtualThreads) {
+            builder.withVirtualThreadsForUnconstrainedOperations()
+        }
+        buildOperationExecutor = builder.build()
         outerOperationCompletion = workerRegistry.startWorker()
         outerOperation = workerRegistry.getCurrentWorkerLease()
     }
@@ -116,6 +126,56 @@ class DefaultBuildOperationExecutorParallelExecutionTest extends ConcurrentSpec
         maxThreads << [1, 4, 10]
     }
 
+    @Requires(value = UnitTestPreconditions.Jdk21OrLater, reason = "Virtual threads are only available on Java 21 or later")
+    def "runs blocking I/O operations on virtual threads beyond max workers when virtual threads are enabled"() {
+        given:
+        setupBuildOperationExecutor(2, true)
+        def runs = 10
+        def started = new CountDownLatch(runs)
+        def release = new CountDownLatch(1)
+        def onVirtualThread = new AtomicInteger()
+        def allStarted = false
+
+        when:
+        buildOperationExecutor.runAll(new SimpleWorker(), { queue ->
+            runs.times {
+                queue.add(new DefaultBuildOperationQueueTest.BlockingIoOperation({
+                    if (Thread.currentThread().virtual) {
+                        onVirtualThread.incrementAndGet()
+                    }
+                }, started, release))
+            }
+            allStarted = started.await(30, TimeUnit.SECONDS)
+            release.countDown()
+        }, BuildOperationConstraint.UNCONSTRAINED)
+
+        then:
+        allStarted
+        onVirtualThread.get() == runs
+    }
+
+    def "other unconstrained operations run with at most max workers when virtual threads are enabled"() {
+        given:
+        setupBuildOperationExecutor(2, true)
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def operation = Stub(DefaultBuildOperationQueueTest.TestBuildOperation) {
+            run(_) >> {
+                maxRunning.accumulateAndGet(running.incrementAndGet()) { a, b -> Math.max(a, b) }
+                Thread.sleep(20)
+                running.decrementAndGet()
+            }
+        }
+
+        when:
+        buildOperationExecutor.runAll(new SimpleWorker(), { queue ->
+            20.times { queue.add(operation) }
+        }, BuildOperationConstraint.UNCONSTRAINED)
+
+        then:
+        maxRunning.get() <= 2
+    }
+
     def "failures in one queue do not cause failures in other queues"() {
         given:
         def amountOfWork = 10
@@ -184,7 +244,7 @@ class DefaultBuildOperationExecutorParallelExecutionTest extends ConcurrentSpec
     def "operations are canceled when the generator fails"() {
         def buildQueue = Mock(BuildOperationQueue)
         def buildOperationQueueFactory = Mock(BuildOperationQueueFactory) {
-            create(_, _, _) >> { buildQueue }
+            create(_, _, _, _) >> { buildQueue }
         }
 
         def buildOperationExecutor = BuildOperationExecutorSupport.builder(1).withQueueFactory(buildOperationQueueFactory).build()
@@ -211,7 +271,7 @@ class DefaultBuildOperationExecutorParallelExecutionTest extends ConcurrentSpec
             waitForCompletion() >> { throw new MultipleBuildOperationFailures(operationFailures, null) }
         }
         def buildOperationQueueFactory = Mock(BuildOperationQueueFactory) {
-            create(_, _, _) >> { buildQueue }
+            create(_, _, _, _) >> { buildQueue }
         }
         def buildOperationExecutor = BuildOperationExecutorSupport.builder(1).withQueueFactory(buildOperationQueueFactory).build()
         def worker = Stub(BuildOperationWorker)
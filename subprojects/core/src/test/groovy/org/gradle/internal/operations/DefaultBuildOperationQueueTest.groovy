@@ -160,6 +160,54 @@ class DefaultBuildOperationQueueTest extends Specification {
         20   | 10
     }
 
+    def "runs more blocking I/O operations concurrently than max workers when using unmanaged leases for blocking I/O"() {
+        given:
+        setupQueue(2)
+        def runs = 10
+        def startedLatch = new CountDownLatch(runs)
+        def releaseLatch = new CountDownLatch(1)
+        operationQueue = new DefaultBuildOperationQueue(false, true, workerRegistry, Executors.newCachedThreadPool(), new SimpleWorker())
+
+        when:
+        runs.times { operationQueue.add(new BlockingIoOperation({}, startedLatch, releaseLatch)) }
+        def allStarted = startedLatch.await(30, TimeUnit.SECONDS)
+        releaseLatch.countDown()
+        operationQueue.waitForCompletion()
+
+        then:
+        allStarted
+    }
+
+    def "runs other operations with at most max workers when using unmanaged leases for blocking I/O"() {
+        given:
+        setupQueue(2)
+        def runs = 10
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def cpuBound = {
+            def nowRunning = running.incrementAndGet()
+            maxRunning.accumulateAndGet(nowRunning) { a, b -> Math.max(a, b) }
+            Thread.sleep(20)
+            running.decrementAndGet()
+        }
+        def blockingIoStarted = new CountDownLatch(runs)
+        def releaseBlockingIo = new CountDownLatch(1)
+        operationQueue = new DefaultBuildOperationQueue(false, true, workerRegistry, Executors.newCachedThreadPool(), new SimpleWorker())
+
+        when:
+        runs.times {
+            operationQueue.add(new BlockingIoOperation({}, blockingIoStarted, releaseBlockingIo))
+            operationQueue.add(new SynchronizedBuildOperation(cpuBound, new CountDownLatch(0), new CountDownLatch(0)))
+        }
+        def allBlockingIoStarted = blockingIoStarted.await(30, TimeUnit.SECONDS)
+        releaseBlockingIo.countDown()
+        operationQueue.waitForCompletion()
+
+        then:
+        allBlockingIoStarted
+        maxRunning.get() <= 2
+    }
+
     def "cannot use operation queue once it has completed"() {
         given:
         setupQueue(1)
@@ -280,4 +328,10 @@ class DefaultBuildOperationQueueTest extends Specification {
             releaseLatch.await()
         }
     }
+
+    static class BlockingIoOperation extends SynchronizedBuildOperation implements BlockingIoBuildOperation {
+        BlockingIoOperation(Runnable operationAction, CountDownLatch startedLatch, CountDownLatch releaseLatch) {
+            super(operationAction, startedLatch, releaseLatch)
+        }
+    }
 }
@@ -43,6 +43,7 @@ public static class Builder {
         private BuildOperationQueueFactory queueFactory;
         private DefaultBuildOperationRunner.BuildOperationExecutionListenerFactory executionListenerFactory;
         private ExecutorFactory executorFactory;
+        private boolean virtualThreadsForUnconstrainedOperations;
 
         private Builder(WorkerLimits workerLimits) {
             this.workerLimits = workerLimits;
@@ -78,6 +79,11 @@ public Builder withExecutorFactory(ExecutorFactory executorFactory) {
             return this;
         }
 
+        public Builder withVirtualThreadsForUnconstrainedOperations() {
+            this.virtualThreadsForUnconstrainedOperations = true;
+            return this;
+        }
+
         public BuildOperationExecutor build() {
             WorkerLeaseService workerLeaseService = this.workerLeaseService != null
                 ? this.workerLeaseService
@@ -94,7 +100,8 @@ public BuildOperationExecutor build() {
                 CurrentBuildOperationRef.instance(),
                 queueFactory,
                 executorFactory,
-                workerLimits);
+                workerLimits,
+                virtualThreadsForUnconstrainedOperations);
         }
 
         private BuildOperationRunner buildRunner() {
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.test.fixtures.server.http;
+
+import org.eclipse.jetty.util.URIUtil;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves batch loads of build cache entries, as sent by the HTTP build cache client.
+ *
+ * A {@code POST} to a directory with a list of keys responds with all the entries found in that directory.
+ */
+public class BatchLoadFilter implements Filter {
+    public static final String BATCH_REQUEST_CONTENT_TYPE = "application/vnd.gradle.build-cache-batch-request.v1";
+    public static final String BATCH_RESPONSE_CONTENT_TYPE = "application/vnd.gradle.build-cache-batch.v1";
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private FilterConfig filterConfig;
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        this.filterConfig = filterConfig;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        String contentType = httpRequest.getContentType();
+        if (!httpRequest.getMethod().equals("POST") || contentType == null || !contentType.startsWith(BATCH_REQUEST_CONTENT_TYPE)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        requestCount.incrementAndGet();
+
+        String directory = filterConfig.getServletContext().getRealPath(URIUtil.addPaths(httpRequest.getServletPath(), httpRequest.getPathInfo()));
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(HttpServletResponse.SC_OK);
+        httpResponse.setContentType(BATCH_RESPONSE_CONTENT_TYPE);
+        DataOutputStream output = new DataOutputStream(httpResponse.getOutputStream());
+        BufferedReader keys = httpRequest.getReader();
+        String key;
+        while ((key = keys.readLine()) != null) {
+            File entry = new File(directory, key.trim());
+            if (!key.trim().isEmpty() && entry.isFile()) {
+                output.writeUTF(key.trim());
+                output.writeLong(entry.length());
+                Files.copy(entry.toPath(), output);
+            }
+        }
+        output.writeUTF("");
+        output.flush();
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
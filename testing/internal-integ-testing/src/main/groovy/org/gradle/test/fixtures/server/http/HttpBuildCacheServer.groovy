@@ -33,12 +33,15 @@ import javax.servlet.ServletRequest
 import javax.servlet.ServletResponse
 import javax.servlet.http.HttpServletRequest
 import javax.servlet.http.HttpServletResponse
+import java.time.Duration
 
 class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture {
     private final TestDirectoryProvider provider
     private final WebAppContext webapp
     private TestFile cacheDir
     private int blockIncomingConnectionsForSeconds = 0
+    private volatile long latencyMillis = 0
+    private final BatchLoadFilter batchLoadFilter = new BatchLoadFilter()
     private final List<Responder> responders = []
 
     HttpBuildCacheServer(TestDirectoryProvider provider) {
@@ -61,6 +64,21 @@ class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture
         listCacheFiles().each { it.delete() }
     }
 
+    /**
+     * Delays every request by the given time, to simulate a cache with a high round-trip latency.
+     */
+    HttpBuildCacheServer withLatency(Duration latency) {
+        latencyMillis = latency.toMillis()
+        this
+    }
+
+    /**
+     * The number of batch load requests received.
+     */
+    int getBatchRequestCount() {
+        batchLoadFilter.requestCount
+    }
+
     @Override
     WebAppContext getCustomHandler() {
         return webapp
@@ -78,6 +96,9 @@ class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture
 
             @Override
             void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis)
+                }
                 for (responder in responders) {
                     if (!responder.respond(request as HttpServletRequest, response as HttpServletResponse)) {
                         return
@@ -92,6 +113,7 @@ class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture
             }
         }
         webapp.addFilter(new FilterHolder(filter), "/*", EnumSet.of(DispatcherType.REQUEST))
+        webapp.addFilter(new FilterHolder(batchLoadFilter), "/*", EnumSet.of(DispatcherType.REQUEST))
 
         // TODO: Find Jetty 9 idiomatic way to get rid of this filter
         this.webapp.addFilter(RestFilter, "/*", EnumSet.of(DispatcherType.REQUEST))
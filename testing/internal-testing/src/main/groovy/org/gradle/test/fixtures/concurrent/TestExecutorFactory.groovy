@@ -41,6 +41,11 @@ class TestExecutorFactory implements ExecutorFactory {
         return new TestManagedExecutor(executor)
     }
 
+    @Override
+    ManagedExecutor createVirtual(String displayName) {
+        return new TestManagedExecutor(executor)
+    }
+
     @Override
     ManagedThreadPoolExecutor createThreadPool(String displayName, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit timeUnit) {
         throw new UnsupportedOperationException()